@@ -43,4 +43,9 @@ public class PeerDTO extends BaseDTO {
     private String blockchainState;
     private String chainId;
     private Boolean isNewlyAdded;
+    private Long latencyAverage;
+    private Long latencyP95;
+    private Long latencyP99;
+    private Double errorRate;
+    private Long requests;
 }
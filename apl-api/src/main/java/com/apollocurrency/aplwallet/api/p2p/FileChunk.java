@@ -3,6 +3,7 @@
  */
 package com.apollocurrency.aplwallet.api.p2p;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.EqualsAndHashCode;
@@ -15,11 +16,16 @@ import lombok.ToString;
  */
 @Getter
 @Setter
-@ToString
+@ToString(exclude = "data")
 @EqualsAndHashCode
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class FileChunk {
     public FileChunkInfo info = new FileChunkInfo();
     public String mime64data;
+    /**
+     * Raw chunk data, when chunk was received as the binary message instead of the JSON
+     */
+    @JsonIgnore
+    public byte[] data;
 }
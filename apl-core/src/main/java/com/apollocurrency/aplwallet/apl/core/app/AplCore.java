@@ -157,6 +157,11 @@ public final class AplCore {
 //        if (fullTextSearchService != null) fullTextSearchService.shutdown();
 //        log.info("full text service shutdown...");
 
+        if (memPool != null) {
+            memPool.shutdown();
+            log.info("memPool Shutdown...");
+        }
+
         if (databaseManager != null) {
             databaseManager.shutdown();
             log.info("databaseManager Shutdown...");
@@ -5,6 +5,7 @@ package com.apollocurrency.aplwallet.apl.core.app;
 
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockTemplateBuilder;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPool;
 import com.apollocurrency.aplwallet.apl.util.env.RuntimeEnvironment;
 import com.apollocurrency.aplwallet.apl.util.env.RuntimeParams;
@@ -34,12 +35,15 @@ public class AplHealthLogger {
 
     private final DatabaseManager databaseManager;
     private final MemPool memPool;
+    private final BlockTemplateBuilder blockTemplateBuilder;
     private  PeersService peers;
 
     @Inject
-    public AplHealthLogger(TaskDispatchManager taskDispatchManager, DatabaseManager databaseManager, AplAppStatus aplAppStatus, PeersService peers, MemPool memPool) {
+    public AplHealthLogger(TaskDispatchManager taskDispatchManager, DatabaseManager databaseManager, AplAppStatus aplAppStatus, PeersService peers, MemPool memPool,
+                           BlockTemplateBuilder blockTemplateBuilder) {
         this.databaseManager = databaseManager;
         this.memPool = memPool;
+        this.blockTemplateBuilder = blockTemplateBuilder;
         this.peers = peers;
 
         TaskDispatcher taskDispatcher = taskDispatchManager.newScheduledDispatcher("AplCoreRuntime-periodics");
@@ -144,17 +148,20 @@ public class AplHealthLogger {
 
     private void printMemPoolStat() {
         StringBuilder sb = new StringBuilder();
-        int memPoolSize = memPool.getSavedCount();
-        int cacheSize = memPool.getCachedCount();
+        int memPoolSize = memPool.getCount();
+        int pendingWrites = memPool.getPendingWritesCount();
 
         if(memPoolSize > 0 ) {
             sb.append("MemPool Info:  ");
             sb.append("Txs: ").append(memPoolSize).append(", ");
-            sb.append("Cache size: ").append(cacheSize).append(", ");
+            sb.append("Pending writes: ").append(pendingWrites).append(", ");
             sb.append("Pending processing: ").append(memPool.processingQueueSize()).append(", ");
             sb.append("Removed txs: ").append(memPool.getRemovedSize()).append(", ");
             sb.append("Process Later Queue: ").append(memPool.getProcessLaterCount()).append(", ");
-            sb.append("Referenced: ").append(memPool.getReferencedCount());
+            sb.append("Referenced: ").append(memPool.getReferencedCount()).append(", ");
+            sb.append("Template validated: ").append(blockTemplateBuilder.getValidatedCount()).append(", ");
+            sb.append(String.format("Template build time (last/avg/max): %d/%.1f/%d ms", blockTemplateBuilder.getLastBuildTime(),
+                blockTemplateBuilder.getAverageBuildTime(), blockTemplateBuilder.getMaxBuildTime()));
 
             log.info(sb.toString());
         }
@@ -0,0 +1,467 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app.runnable;
+
+import com.apollocurrency.aplwallet.apl.core.app.GetNextBlocksTask;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.PeerBlock;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.GetNextBlocksResponseParser;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier;
+import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads the blockchain segments from the multiple peers simultaneously.
+ * <p>
+ * Every peer is allowed to serve up to {@code segmentsPerPeer} segments at once, peers with the best measured
+ * throughput are asked first. Segments are buffered until all the previous segments arrive, but no more than
+ * {@code reorderWindow} segments ahead of the first not delivered one are requested. A segment which was not received
+ * until its deadline is requested from one more peer, the first received response wins.
+ * <p>
+ * Transaction signatures and the payload hash of the downloaded blocks are verified on the network threads, so that
+ * the next segments are downloaded and verified while the {@link SegmentConsumer} pushes the previous ones.
+ * The consumer is called in the thread invoking the {@link #download(Peer, List, List, int, SegmentConsumer)}.
+ */
+@Slf4j
+class BlockDownloadScheduler {
+    /**
+     * Number of blocks in a single segment
+     */
+    static final int SEGMENT_SIZE = Constants.MAX_AUTO_ROLLBACK / 20;
+    /**
+     * Download will be stopped at the segment, which was not received after that many requests
+     */
+    private static final int MAX_SEGMENT_REQUESTS = 3;
+    private static final long MIN_SEGMENT_TIMEOUT = 2_000;
+    /**
+     * Weight of the last measurement in the peer's throughput
+     */
+    private static final double THROUGHPUT_SMOOTHING = 0.3;
+
+    private final BlockchainConfig blockchainConfig;
+    private final GetNextBlocksResponseParser getNextBlocksResponseParser;
+    private final ExecutorService networkService;
+    private final TransactionSignatureBatchVerifier signatureBatchVerifier;
+    private final TxBContext txBContext;
+    private final int segmentsPerPeer;
+    private final int reorderWindow;
+    private final long segmentTimeout;
+    /**
+     * Blocks per second received from the peer, keyed by the peer's host with port
+     */
+    private final Map<String, Double> peerThroughput = new HashMap<>();
+
+    BlockDownloadScheduler(BlockchainConfig blockchainConfig, GetNextBlocksResponseParser getNextBlocksResponseParser,
+                           ExecutorService networkService, TransactionSignatureBatchVerifier signatureBatchVerifier,
+                           int segmentsPerPeer, int reorderWindow, long segmentTimeout) {
+        this.blockchainConfig = blockchainConfig;
+        this.getNextBlocksResponseParser = getNextBlocksResponseParser;
+        this.networkService = networkService;
+        this.signatureBatchVerifier = signatureBatchVerifier;
+        this.txBContext = TxBContext.newInstance(blockchainConfig.getChain());
+        this.segmentsPerPeer = Math.max(1, segmentsPerPeer);
+        this.reorderWindow = Math.max(1, reorderWindow);
+        this.segmentTimeout = Math.max(MIN_SEGMENT_TIMEOUT, segmentTimeout);
+    }
+
+    /**
+     * Download the blocks and pass them to the consumer segment by segment in the chain order.
+     * The download is stopped, when a segment cannot be received from any peer or the consumer refuses the segment.
+     *
+     * @param feederPeer    peer supplying the block ids, which gets the first segment and the failed segments
+     * @param peers         peers to download the segments from
+     * @param chainBlockIds ids of the blocks to download, the first id is the common block
+     * @param startHeight   height of the block from which the blockchain is downloaded
+     * @param consumer      receiver of the downloaded segments
+     * @throws InterruptedException download interrupted
+     */
+    void download(Peer feederPeer, List<Peer> peers, List<Long> chainBlockIds, int startHeight, SegmentConsumer consumer) throws InterruptedException {
+        Download download = new Download(feederPeer, peers, chainBlockIds, startHeight);
+        try {
+            download.run(consumer);
+        } finally {
+            download.cancel();
+        }
+        if (download.slowestPeer != null && peers.size() >= PeersService.maxNumberOfConnectedPublicPeers
+            && chainBlockIds.size() > Constants.MAX_AUTO_ROLLBACK / 2) {
+            log.debug("Slowest peer {} took {} ms, disconnecting", download.slowestPeer.getHost(), download.maxResponseTime);
+            download.slowestPeer.deactivate("This peer is slowest");
+        }
+    }
+
+    /**
+     * @return blocks per second received from the peer or null, when the peer was not asked yet
+     */
+    Double getThroughput(Peer peer) {
+        return peerThroughput.get(peer.getHostWithPort());
+    }
+
+    private void updateThroughput(Peer peer, int blocks, long responseTime) {
+        double measured = blocks * 1000.0 / Math.max(1, responseTime);
+        peerThroughput.merge(peer.getHostWithPort(), measured,
+            (old, current) -> old * (1 - THROUGHPUT_SMOOTHING) + current * THROUGHPUT_SMOOTHING);
+    }
+
+    /**
+     * Time to wait for the segment from the peer before requesting it from another peer.
+     * Peers, which were not measured yet, get the maximum timeout.
+     */
+    private long getSegmentTimeout(Peer peer, int blocks) {
+        Double throughput = getThroughput(peer);
+        if (throughput == null || throughput <= 0) {
+            return segmentTimeout;
+        }
+        long expected = (long) (blocks * 1000 / throughput);
+        return Math.min(segmentTimeout, Math.max(MIN_SEGMENT_TIMEOUT, expected * 3));
+    }
+
+    /**
+     * Verify transaction signatures and the payload hash of the blocks
+     *
+     * @return number of the leading blocks passed the verification
+     */
+    private int preValidate(List<Block> blocks) {
+        signatureBatchVerifier.verifyBlocks(blocks);
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            MessageDigest digest = Crypto.sha256();
+            for (Transaction transaction : block.getTransactions()) {
+                digest.update(txBContext.createSerializer(transaction.getVersion()).toBytes(transaction));
+            }
+            if (!Arrays.equals(digest.digest(), block.getPayloadHash())) {
+                log.debug("Payload hash doesn't match for the downloaded block {}", block.getStringId());
+                return i;
+            }
+        }
+        return blocks.size();
+    }
+
+    /**
+     * Receiver of the downloaded blocks
+     */
+    @FunctionalInterface
+    interface SegmentConsumer {
+        /**
+         * @param blocks next blocks of the downloaded chain, not empty; the list is cleared after the call
+         * @return true to continue the download, false to stop it
+         */
+        boolean accept(List<PeerBlock> blocks);
+    }
+
+    /**
+     * Blocks from {@code start + 1} until {@code stop} of the chain block ids list, inclusive
+     */
+    private static class Segment {
+        private final int stop;
+        private final List<PeerBlock> blocks = new ArrayList<>();
+        /**
+         * Peers which returned nothing or not all the requested blocks
+         */
+        private final Set<Peer> failedPeers = new HashSet<>();
+        private final List<Request> requests = new ArrayList<>();
+        private int start;
+        private int requestCount;
+
+        Segment(int start, int stop) {
+            this.start = start;
+            this.stop = stop;
+        }
+
+        boolean isDownloaded() {
+            return start >= stop;
+        }
+
+        /**
+         * @return requests of the not downloaded blocks, requests outrun by the partial response of another peer are skipped
+         */
+        List<Request> getCurrentRequests() {
+            return requests.stream().filter(request -> request.start == start).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Single getNextBlocks request of the segment blocks from the peer
+     */
+    private class Request {
+        private final Segment segment;
+        private final GetNextBlocksTask task;
+        private final int start;
+        private final long deadline;
+        private Future<Request> future;
+        /**
+         * Received blocks, which match the requested ids and passed pre-validation
+         */
+        private List<Block> blocks = Collections.emptyList();
+
+        Request(Segment segment, Peer peer, List<Long> chainBlockIds, int startHeight) {
+            this.segment = segment;
+            this.start = segment.start;
+            this.task = new GetNextBlocksTask(chainBlockIds, segment.start, segment.stop, startHeight,
+                blockchainConfig, getNextBlocksResponseParser);
+            this.task.setPeer(peer);
+            this.deadline = System.currentTimeMillis() + getSegmentTimeout(peer, segment.stop - segment.start);
+        }
+
+        Peer getPeer() {
+            return task.getPeer();
+        }
+
+        /**
+         * Executed by the network thread
+         */
+        Request execute(List<Long> chainBlockIds) {
+            List<Block> blockList = task.call();
+            if (blockList == null) {
+                return this;
+            }
+            int index = start + 1;
+            List<Block> matched = new ArrayList<>(blockList.size());
+            for (Block block : blockList) {
+                if (index > task.getStop() || block.getId() != chainBlockIds.get(index)) {
+                    break;
+                }
+                matched.add(block);
+                index++;
+            }
+            int valid = preValidate(matched);
+            if (valid < matched.size()) {
+                getPeer().blacklist("Invalid payload hash of the block " + matched.get(valid).getStringId());
+                matched = matched.subList(0, valid);
+            }
+            blocks = matched;
+            return this;
+        }
+    }
+
+    /**
+     * State of the single blockchain download, accessed by the downloading thread only
+     */
+    private class Download {
+        private final Peer feederPeer;
+        private final List<Peer> peers;
+        private final List<Long> chainBlockIds;
+        private final int startHeight;
+        private final List<Segment> segments = new ArrayList<>();
+        private final Map<Peer, Integer> activeRequests = new HashMap<>();
+        private final CompletionService<Request> completionService;
+        private int pendingRequests;
+        /**
+         * Index of the first segment not passed to the consumer
+         */
+        private int nextSegment;
+        /**
+         * Index of the segment, which could not be downloaded, segments after it are not requested
+         */
+        private int failedSegment;
+        private Peer slowestPeer;
+        private long maxResponseTime;
+
+        Download(Peer feederPeer, List<Peer> peers, List<Long> chainBlockIds, int startHeight) {
+            this.feederPeer = feederPeer;
+            this.peers = new ArrayList<>(peers);
+            // random order of the not measured peers
+            Collections.shuffle(this.peers);
+            this.chainBlockIds = chainBlockIds;
+            this.startHeight = startHeight;
+            this.completionService = new ExecutorCompletionService<>(networkService);
+            int stop = chainBlockIds.size() - 1;
+            for (int start = 0; start < stop; start += SEGMENT_SIZE) {
+                segments.add(new Segment(start, Math.min(start + SEGMENT_SIZE, stop)));
+            }
+            this.failedSegment = segments.size();
+            Set<String> hosts = peers.stream().map(Peer::getHostWithPort).collect(Collectors.toSet());
+            peerThroughput.keySet().retainAll(hosts);
+        }
+
+        void run(SegmentConsumer consumer) throws InterruptedException {
+            while (nextSegment < failedSegment) {
+                sendRequests();
+                while (nextSegment < failedSegment && segments.get(nextSegment).isDownloaded()) {
+                    Segment segment = segments.get(nextSegment++);
+                    if (!consumer.accept(segment.blocks)) {
+                        return;
+                    }
+                    segment.blocks.clear();
+                }
+                if (nextSegment >= failedSegment) {
+                    return;
+                }
+                if (pendingRequests == 0) {
+                    sendRequests();
+                    if (pendingRequests == 0) {
+                        log.debug("Unable to download blocks after {} from any peer", chainBlockIds.get(segments.get(nextSegment).start));
+                        return;
+                    }
+                }
+                long wait = Math.max(1, nextDeadline() - System.currentTimeMillis());
+                Future<Request> completed = completionService.poll(wait, TimeUnit.MILLISECONDS);
+                if (completed != null) {
+                    processResponse(completed);
+                }
+            }
+        }
+
+        private void sendRequests() {
+            long now = System.currentTimeMillis();
+            int windowEnd = Math.min(failedSegment, nextSegment + reorderWindow);
+            for (int i = nextSegment; i < windowEnd; i++) {
+                Segment segment = segments.get(i);
+                if (segment.isDownloaded()) {
+                    continue;
+                }
+                List<Request> current = segment.getCurrentRequests();
+                if (current.isEmpty() || (current.size() == 1 && current.get(0).deadline <= now)) {
+                    if (segment.requestCount >= MAX_SEGMENT_REQUESTS) {
+                        if (current.isEmpty()) {
+                            failSegment(i);
+                            return;
+                        }
+                        continue;
+                    }
+                    Peer peer = selectPeer(segment);
+                    if (peer != null) {
+                        send(segment, peer);
+                    } else if (current.isEmpty() && allPeersFailed(segment)) {
+                        failSegment(i);
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * The first segment and the segments failed by other peers are requested from the feeder peer, until it fails
+         * to return them, other segments and overdue segments are requested from the idle peer with the best throughput
+         *
+         * @return selected peer or null, when no peer can be asked now
+         */
+        private Peer selectPeer(Segment segment) {
+            boolean preferFeeder = segment.start == 0 || !segment.failedPeers.isEmpty();
+            if (preferFeeder && !segment.failedPeers.contains(feederPeer)) {
+                return isAvailable(feederPeer, segment) ? feederPeer : null;
+            }
+            Peer best = null;
+            double bestThroughput = -1;
+            for (Peer peer : peers) {
+                if (!isAvailable(peer, segment)) {
+                    continue;
+                }
+                Double throughput = getThroughput(peer);
+                // not measured peers are tried first to get their throughput
+                double value = throughput == null ? Double.MAX_VALUE : throughput;
+                if (value > bestThroughput) {
+                    best = peer;
+                    bestThroughput = value;
+                }
+            }
+            return best;
+        }
+
+        private boolean isAvailable(Peer peer, Segment segment) {
+            return activeRequests.getOrDefault(peer, 0) < segmentsPerPeer
+                && !segment.failedPeers.contains(peer)
+                && segment.requests.stream().noneMatch(request -> request.getPeer() == peer);
+        }
+
+        private boolean allPeersFailed(Segment segment) {
+            return segment.failedPeers.contains(feederPeer) && segment.failedPeers.containsAll(peers);
+        }
+
+        private void failSegment(int index) {
+            failedSegment = index;
+            log.debug("Segment after block {} was not downloaded after {} requests", chainBlockIds.get(segments.get(index).start),
+                segments.get(index).requestCount);
+        }
+
+        private void send(Segment segment, Peer peer) {
+            Request request = new Request(segment, peer, chainBlockIds, startHeight);
+            segment.requests.add(request);
+            segment.requestCount++;
+            activeRequests.merge(peer, 1, Integer::sum);
+            pendingRequests++;
+            request.future = completionService.submit(() -> request.execute(chainBlockIds));
+        }
+
+        private void processResponse(Future<Request> completed) throws InterruptedException {
+            Request request;
+            try {
+                request = completed.get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            Peer peer = request.getPeer();
+            Segment segment = request.segment;
+            pendingRequests--;
+            activeRequests.merge(peer, -1, Integer::sum);
+            segment.requests.remove(request);
+            long responseTime = request.task.getResponseTime();
+            if (responseTime > maxResponseTime) {
+                maxResponseTime = responseTime;
+                slowestPeer = peer;
+            }
+            List<Block> blocks = request.blocks;
+            updateThroughput(peer, blocks.size(), responseTime);
+            if (segment.isDownloaded() || request.start != segment.start) {
+                return; // outrun by another request of the same blocks
+            }
+            for (Block block : blocks) {
+                segment.blocks.add(new PeerBlock(peer, block));
+            }
+            segment.start += blocks.size();
+            if (!segment.isDownloaded()) {
+                // peer does not have more blocks, download the rest from the other peers
+                segment.failedPeers.add(peer);
+            }
+        }
+
+        /**
+         * Deadlines already passed are skipped: such segments are either requested from one more peer already
+         * or wait for a peer to become idle, which happens only when a response arrives
+         */
+        private long nextDeadline() {
+            long now = System.currentTimeMillis();
+            long deadline = now + segmentTimeout;
+            for (int i = nextSegment; i < Math.min(failedSegment, nextSegment + reorderWindow); i++) {
+                for (Request request : segments.get(i).getCurrentRequests()) {
+                    if (request.deadline > now) {
+                        deadline = Math.min(deadline, request.deadline);
+                    }
+                }
+            }
+            return deadline;
+        }
+
+        void cancel() {
+            for (Segment segment : segments) {
+                for (Request request : segment.requests) {
+                    request.future.cancel(false);
+                }
+            }
+        }
+    }
+}
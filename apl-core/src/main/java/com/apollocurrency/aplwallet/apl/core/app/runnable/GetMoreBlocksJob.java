@@ -10,13 +10,13 @@ import com.apollocurrency.aplwallet.api.p2p.request.GetNextBlockIdsRequest;
 import com.apollocurrency.aplwallet.api.p2p.response.GetCumulativeDifficultyResponse;
 import com.apollocurrency.aplwallet.api.p2p.response.GetMilestoneBlockIdsResponse;
 import com.apollocurrency.aplwallet.api.p2p.response.GetNextBlockIdsResponse;
-import com.apollocurrency.aplwallet.apl.core.app.GetNextBlocksTask;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.exception.AplBlockException;
 import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.model.BlockchainProcessorState;
 import com.apollocurrency.aplwallet.apl.core.model.PeerBlock;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.HedgedResponse;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
@@ -33,6 +33,7 @@ import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProces
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.prunable.PrunableRestorationService;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.Constants;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
@@ -41,14 +42,8 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 public class GetMoreBlocksJob implements Runnable {
@@ -65,8 +60,8 @@ public class GetMoreBlocksJob implements Runnable {
     private final Integer defaultNumberOfForkConfirmations;
     private final BlockchainProcessorState blockchainProcessorState;
     private final GetCumulativeDifficultyRequest getCumulativeDifficultyRequest;
-    private final GetNextBlocksResponseParser getNextBlocksResponseParser;
     private final BlockSerializer blockSerializer;
+    private final BlockDownloadScheduler downloadScheduler;
 
     private boolean peerHasMore;
     private List<Peer> connectedPublicPeers;
@@ -81,7 +76,8 @@ public class GetMoreBlocksJob implements Runnable {
                             ExecutorService networkService, PropertiesHolder propertiesHolder,
                             TransactionProcessor transactionProcessor,
                             GetNextBlocksResponseParser getNextBlocksResponseParser,
-                            BlockSerializer blockSerializer, GetTransactionsResponseParser getTransactionsResponseParser) {
+                            BlockSerializer blockSerializer, GetTransactionsResponseParser getTransactionsResponseParser,
+                            TransactionSignatureBatchVerifier signatureBatchVerifier) {
         this.blockchainProcessor = blockchainProcessor;
         this.blockchainProcessorState = blockchainProcessorState;
 
@@ -94,9 +90,12 @@ public class GetMoreBlocksJob implements Runnable {
         this.networkService = networkService;
         this.transactionProcessor = transactionProcessor;
         this.defaultNumberOfForkConfirmations = propertiesHolder.getIntProperty("apl.numberOfForkConfirmations");
-        this.getNextBlocksResponseParser = getNextBlocksResponseParser;
         this.getCumulativeDifficultyRequest = new GetCumulativeDifficultyRequest(blockchainConfig.getChain().getChainId());
         this.blockSerializer = blockSerializer;
+        this.downloadScheduler = new BlockDownloadScheduler(blockchainConfig, getNextBlocksResponseParser, networkService,
+            signatureBatchVerifier, propertiesHolder.getIntProperty("apl.blockDownloadSegmentsPerPeer", 2),
+            propertiesHolder.getIntProperty("apl.blockDownloadReorderWindow", 10),
+            propertiesHolder.getIntProperty("apl.blockDownloadSegmentTimeout", 10_000));
     }
 
     @Override
@@ -155,13 +154,17 @@ public class GetMoreBlocksJob implements Runnable {
                 return;
             }
             peerHasMore = true;
-            final Peer peer = peersService.getWeightedPeer(connectedPublicPeers);
-            if (peer == null) {
+            Peer weightedPeer = peersService.getWeightedPeer(connectedPublicPeers);
+            if (weightedPeer == null) {
                 log.debug("Can not find weighted peer");
                 return;
             }
 
-            GetCumulativeDifficultyResponse response = peer.send(getCumulativeDifficultyRequest, new GetCumulativeDifficultyResponseParser());
+            HedgedResponse<GetCumulativeDifficultyResponse> hedgedResponse = peersService.sendHedged(weightedPeer, connectedPublicPeers,
+                getCumulativeDifficultyRequest, new GetCumulativeDifficultyResponseParser());
+            // the peer, which responded first, feeds the blockchain
+            final Peer peer = hedgedResponse.getPeer();
+            GetCumulativeDifficultyResponse response = hedgedResponse.getResponse();
             if (response == null) {
                 log.debug("Null response wile getCumulativeDifficultyRequest from peer {}", peer.getHostWithPort());
                 return;
@@ -413,135 +416,83 @@ public class GetMoreBlocksJob implements Runnable {
      */
     private void downloadBlockchain(final Peer feederPeer, final Block commonBlock, final int startHeight) throws InterruptedException {
         log.debug("Downloading blockchain from: {} at height: {}", feederPeer.getHostWithPort(), startHeight);
-        Map<Long, PeerBlock> blockMap = new HashMap<>();
         //
-        // Break the download into multiple segments.  The first block in each segment
-        // is the common block for that segment.
+        // Segments are downloaded from the multiple peers and pushed as soon as all the previous
+        // segments are pushed, while the next segments are still downloading and verifying
         //
-        List<GetNextBlocksTask> getList = new ArrayList<>();
-        int segSize = Constants.MAX_AUTO_ROLLBACK / 20;
-        int stop = chainBlockIds.size() - 1;
-        for (int start = 0; start < stop; start += segSize) {
-            getList.add(new GetNextBlocksTask(chainBlockIds, start,
-                Math.min(start + segSize, stop), startHeight, blockchainConfig, getNextBlocksResponseParser));
-        }
-        int nextPeerIndex = ThreadLocalRandom.current().nextInt(connectedPublicPeers.size());
-        long maxResponseTime = 0;
-        Peer slowestPeer = null;
+        SegmentChain segmentChain = new SegmentChain(blockchain.getLastBlock().getId());
+        downloadScheduler.download(feederPeer, connectedPublicPeers, chainBlockIds, startHeight,
+            segment -> pushSegment(segment, segmentChain, startHeight));
         //
-        // Issue the getNextBlocks requests and get the results.  We will repeat
-        // a request if the peer didn't respond or returned a partial block list.
-        // The download will be aborted if we are unable to get a segment after
-        // retrying with different peers.
+        // Process a fork
         //
-        download:
-        while (!getList.isEmpty()) {
-            //
-            // Submit threads to issue 'getNextBlocks' requests.  The first segment
-            // will always be sent to the feeder peer.  Subsequent segments will
-            // be sent to the feeder peer if we failed trying to download the blocks
-            // from another peer.  We will stop the download and process any pending
-            // blocks if we are unable to download a segment from the feeder peer.
-            //
-            for (GetNextBlocksTask nextBlocks : getList) {
-                Peer peer;
-                if (nextBlocks.getRequestCount() > 1) { // request sent two times
-                    break download;
-                }
-                if (nextBlocks.getStart() == 0 || nextBlocks.getRequestCount() != 0) {
-                    peer = feederPeer; // first segment or already sent request
-                } else {
-                    if (nextPeerIndex >= connectedPublicPeers.size()) { // round robin from the randomly selected position
-                        nextPeerIndex = 0;
-                    }
-                    peer = connectedPublicPeers.get(nextPeerIndex++);
-                }
-                if (nextBlocks.getPeer() == peer) { // feederPeer failed to return all its blocks or there is only one public peer
-                    break download;
-                }
-                nextBlocks.setPeer(peer);
-                Future<List<Block>> future = networkService.submit(nextBlocks);
-                nextBlocks.setFuture(future);
-            }
-            //
-            // Get the results.  A peer is on a different fork if a returned
-            // block is not in the block identifier list.
-            //
-            Iterator<GetNextBlocksTask> it = getList.iterator();
-            while (it.hasNext()) {
-                GetNextBlocksTask nextBlocks = it.next();
-                List<Block> blockList;
-                try {
-                    blockList = nextBlocks.getFuture().get();
-                } catch (ExecutionException exc) {
-                    throw new RuntimeException(exc.getMessage(), exc);
-                }
-                if (blockList == null) {
-// most certainly this is wrong. We should not kill peer if it does not have blocks higher then we
-//                        nextBlocks.getPeer().deactivate();
-                    continue;
-                }
-                Peer peer = nextBlocks.getPeer();
-                int index = nextBlocks.getStart() + 1;
-                for (Block block : blockList) {
-                    if (block.getId() != chainBlockIds.get(index)) {
-                        break;
-                    }
-                    blockMap.put(block.getId(), new PeerBlock(peer, block));
-                    index++;
-                }
-                if (index > nextBlocks.getStop()) {
-                    it.remove();
-                } else {
-                    nextBlocks.setStart(index - 1); // download the rest of blocks in the next iteration
+        if (!segmentChain.forkBlocks.isEmpty() && !segmentChain.interleaved) {
+            globalSync.writeLock();
+            try {
+                // the lock was released between the segments, so the chain may be changed by the other block push
+                if (blockchain.getLastBlock().getId() != segmentChain.lastBlockId || !blockchain.hasBlock(commonBlock.getId())) {
+                    log.debug("Blockchain was changed during the download from {}, skip a fork of {} blocks",
+                        feederPeer.getHost(), segmentChain.forkBlocks.size());
+                    return;
                 }
-                if (nextBlocks.getResponseTime() > maxResponseTime) {
-                    maxResponseTime = nextBlocks.getResponseTime();
-                    slowestPeer = nextBlocks.getPeer();
+                int myForkSize = blockchain.getHeight() - startHeight;
+                if (myForkSize < Constants.MAX_AUTO_ROLLBACK) {
+                    log.debug("Will process a fork of {} blocks, mine is {}, feed peer addr: {}", segmentChain.forkBlocks.size(), myForkSize, feederPeer.getHost());
+                    processFork(feederPeer, segmentChain.forkBlocks, commonBlock);
                 }
+            } finally {
+                globalSync.writeUnlock();
             }
+        }
+    }
 
+    /**
+     * Add the downloaded segment to the blockchain. Blocks, which do not continue our chain,
+     * are collected to process a fork after the download. The write lock is taken per segment, so the last block
+     * is re-validated after the lock acquisition and the download is stopped, when the chain was changed
+     * by the other block push between the segments.
+     *
+     * @return false, when enough blocks were pushed or the chain was changed and the download should be stopped
+     */
+    private boolean pushSegment(List<PeerBlock> segment, SegmentChain segmentChain, int startHeight) {
+        if (blockchain.getHeight() - startHeight >= Constants.MAX_AUTO_ROLLBACK) {
+            return false;
         }
-        if (slowestPeer != null && connectedPublicPeers.size() >= PeersService.maxNumberOfConnectedPublicPeers && chainBlockIds.size() > Constants.MAX_AUTO_ROLLBACK / 2) {
-            log.debug("Slowest peer {} took {} ms, disconnecting", slowestPeer.getHost(), maxResponseTime);
-            slowestPeer.deactivate("This peer is slowest");
+        if (!segmentChain.forkBlocks.isEmpty() || segmentChain.lastBlockId != segment.get(0).getBlock().getPreviousBlockId()) {
+            segment.forEach(peerBlock -> segmentChain.forkBlocks.add(peerBlock.getBlock()));
+            return true;
         }
-        //
-        // Add the new blocks to the blockchain.  We will stop if we encounter
-        // a missing block (this will happen if an invalid block is encountered
-        // when downloading the blocks)
-        //
         globalSync.writeLock();
         try {
-            List<Block> forkBlocks = new ArrayList<>();
-            for (int index = 1; index < chainBlockIds.size() && blockchain.getHeight() - startHeight < Constants.MAX_AUTO_ROLLBACK; index++) {
-                PeerBlock peerBlock = blockMap.get(chainBlockIds.get(index));
-                if (peerBlock == null) {
-                    break;
-                }
-                Block block = peerBlock.getBlock();
-                if (blockchain.getLastBlock().getId() == block.getPreviousBlockId()) {
-                    try {
-                        blockchainProcessor.pushBlock(block);
-                    } catch (BlockchainProcessor.BlockNotAcceptedException | AplBlockException e) {
-                        peerBlock.getPeer().blacklist(e);
+            if (blockchain.getLastBlock().getId() != segmentChain.lastBlockId) {
+                log.debug("Blockchain was changed during the download, last block {} is not the last pushed one {}",
+                    blockchain.getLastBlock().getStringId(), Long.toUnsignedString(segmentChain.lastBlockId));
+                segmentChain.interleaved = true;
+                return false;
+            }
+            try {
+                for (PeerBlock peerBlock : segment) {
+                    if (blockchain.getHeight() - startHeight >= Constants.MAX_AUTO_ROLLBACK) {
+                        return false;
+                    }
+                    Block block = peerBlock.getBlock();
+                    if (blockchain.getLastBlock().getId() == block.getPreviousBlockId()) {
+                        try {
+                            blockchainProcessor.pushBlock(block);
+                        } catch (BlockchainProcessor.BlockNotAcceptedException | AplBlockException e) {
+                            peerBlock.getPeer().blacklist(e);
+                        }
+                    } else {
+                        segmentChain.forkBlocks.add(block);
                     }
-                } else {
-                    forkBlocks.add(block);
                 }
-            }
-            //
-            // Process a fork
-            //
-            int myForkSize = blockchain.getHeight() - startHeight;
-            if (!forkBlocks.isEmpty() && myForkSize < Constants.MAX_AUTO_ROLLBACK) {
-                log.debug("Will process a fork of {} blocks, mine is {}, feed peer addr: {}", forkBlocks.size(), myForkSize, feederPeer.getHost());
-                processFork(feederPeer, forkBlocks, commonBlock);
+            } finally {
+                segmentChain.lastBlockId = blockchain.getLastBlock().getId();
             }
         } finally {
             globalSync.writeUnlock();
         }
-
+        return true;
     }
 
     private void processFork(final Peer peer, final List<Block> forkBlocks, final Block commonBlock) {
@@ -595,4 +546,23 @@ public class GetMoreBlocksJob implements Runnable {
             }
         }
     }
+
+    /**
+     * Blocks of the single download, which are pushed by the segments
+     */
+    private static class SegmentChain {
+        private final List<Block> forkBlocks = new ArrayList<>();
+        /**
+         * Id of the last block of our chain after the last segment push
+         */
+        private long lastBlockId;
+        /**
+         * Chain was changed by the other block push between the segments
+         */
+        private boolean interleaved;
+
+        SegmentChain(long lastBlockId) {
+            this.lastBlockId = lastBlockId;
+        }
+    }
 }
@@ -5,7 +5,6 @@
 package com.apollocurrency.aplwallet.apl.core.app.runnable;
 
 import com.apollocurrency.aplwallet.api.p2p.request.GetUnconfirmedTransactionsRequest;
-import com.apollocurrency.aplwallet.api.p2p.response.GetUnconfirmedTransactionsResponse;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionBuilderFactory;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
@@ -13,7 +12,8 @@ import com.apollocurrency.aplwallet.apl.core.exception.AplCoreLogicException;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
-import com.apollocurrency.aplwallet.apl.core.peer.parser.GetUnconfirmedTransactionsResponseParser;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.UnconfirmedTransactionsResponseParser;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.TransactionDTOConverter;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPool;
@@ -40,6 +40,7 @@ public class ProcessTransactionsThread implements Runnable {
     private final BlockchainConfig blockchainConfig;
     private final PeersService peers;
     private final TransactionDTOConverter dtoConverter;
+    private UnconfirmedTransactionsResponseParser responseParser;
 
     public ProcessTransactionsThread(TransactionProcessor transactionProcessor,
                                      MemPool memPool,
@@ -73,17 +74,11 @@ public class ProcessTransactionsThread implements Runnable {
                     .collect(Collectors.toList());
                 request.setExclude(exclude);
 
-                GetUnconfirmedTransactionsResponse response = peer.send(request, new GetUnconfirmedTransactionsResponseParser());
-
-                if (response == null || CollectionUtil.isEmpty(response.unconfirmedTransactions)) {
-                    return;
-                }
-
                 try {
-                    List<Transaction> transactions = response.unconfirmedTransactions
-                        .stream()
-                        .map(dtoConverter::convert)
-                        .collect(Collectors.toList());
+                    List<Transaction> transactions = peer.send(request, lookupResponseParser());
+                    if (CollectionUtil.isEmpty(transactions)) {
+                        return;
+                    }
 
                     log.trace("Will process {} txs from peer {}", transactions.size(), peer.getAnnouncedAddress());
 
@@ -101,6 +96,14 @@ public class ProcessTransactionsThread implements Runnable {
         }
     }
 
+    private UnconfirmedTransactionsResponseParser lookupResponseParser() {
+        if (responseParser == null) {
+            responseParser = new UnconfirmedTransactionsResponseParser(dtoConverter,
+                CDI.current().select(BinaryMessageCodec.class).get());
+        }
+        return responseParser;
+    }
+
     private BlockchainProcessor lookupBlockchainProcessor() {
         if (blockchainProcessor == null) {
             blockchainProcessor = CDI.current().select(BlockchainProcessor.class).get();
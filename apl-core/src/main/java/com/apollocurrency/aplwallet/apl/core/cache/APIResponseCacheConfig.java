@@ -0,0 +1,35 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+public class APIResponseCacheConfig extends CacheConfigurator {
+
+    public static final String CACHE_NAME = "API_RESPONSE_CACHE";
+
+    public APIResponseCacheConfig(int priority) {
+        super(CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(InMemoryCacheManager.newCalc() // key object
+                    .addString(20) // request type
+                    .addLongPrimitive() // generation
+                    .addLongPrimitive() // last block id
+                    .addAggregation(InMemoryCacheManager.newCalc().addString(64).calc()) // parameter values
+                    .addInt() // hashCode
+                    .calc())
+                .addAggregation(InMemoryCacheManager.newCalc() // serialized response
+                    .addString(4096)
+                    .addBooleanPrimitive()
+                    .calc())
+                .calc(),
+            priority);
+
+        cacheBuilder().expireAfterWrite(10, TimeUnit.MINUTES);
+    }
+}
@@ -30,7 +30,11 @@ public class AplCacheConfig implements InMemoryCacheConfigurator {
             new BlockIndexCacheConfig(60),
             new DexOrderFreezingCacheConfig(15, orderFreezingCacheLoader),
             new RemovedTxsCacheConfig(5),
-            new AccountCacheConfig(30)
+            new AccountCacheConfig(30),
+            new VerifiedSignatureCacheConfig(10),
+            new APIResponseCacheConfig(5),
+            new SmcContractCacheConfig(5),
+            new SmcViewMethodCacheConfig(5)
         };
     }
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+public class SmcContractCacheConfig extends CacheConfigurator {
+
+    public static final String CACHE_NAME = "SMC_CONTRACT_CACHE";
+
+    public SmcContractCacheConfig(int priority) {
+        super(CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(InMemoryCacheManager.newCalc() // key object
+                    .addLongPrimitive() // contract address
+                    .addInt() // height
+                    .addLongPrimitive() // generation
+                    .addInt() // hashCode
+                    .calc())
+                .addAggregation(InMemoryCacheManager.newCalc() // contract entity
+                    .addString(4096) // source code
+                    .addString(64) // name
+                    .addString(64) // base contract
+                    .addString(256) // args
+                    .addLongPrimitive() // address
+                    .addLongPrimitive() // owner
+                    .addLongPrimitive() // transaction id
+                    .addArrayExtra(32) // transaction hash
+                    .calc())
+                .addAggregation(InMemoryCacheManager.newCalc() // contract state entity
+                    .addString(2048) // serialized object
+                    .addString(16) // status
+                    .addLongPrimitive() // address
+                    .calc())
+                .calc(),
+            priority);
+
+        cacheBuilder().expireAfterWrite(10, TimeUnit.MINUTES);
+    }
+}
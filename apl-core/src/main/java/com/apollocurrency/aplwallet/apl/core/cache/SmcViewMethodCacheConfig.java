@@ -0,0 +1,36 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+public class SmcViewMethodCacheConfig extends CacheConfigurator {
+
+    public static final String CACHE_NAME = "SMC_VIEW_METHOD_CACHE";
+
+    public SmcViewMethodCacheConfig(int priority) {
+        super(CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(InMemoryCacheManager.newCalc() // key object
+                    .addLongPrimitive() // contract address
+                    .addAggregation(InMemoryCacheManager.newCalc().addString(64).calc()) // methods with params
+                    .addInt() // height
+                    .addLongPrimitive() // generation
+                    .addInt() // hashCode
+                    .calc())
+                .addAggregation(InMemoryCacheManager.newCalc() // method results
+                    .addString(256)
+                    .addString(64)
+                    .addInt()
+                    .calc())
+                .calc(),
+            priority);
+
+        cacheBuilder().expireAfterWrite(10, TimeUnit.MINUTES);
+    }
+}
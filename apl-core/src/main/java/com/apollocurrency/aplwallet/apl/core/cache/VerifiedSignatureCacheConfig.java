@@ -0,0 +1,25 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+public class VerifiedSignatureCacheConfig extends CacheConfigurator {
+
+    public static final String CACHE_NAME = "VERIFIED_SIGNATURE_CACHE";
+
+    public VerifiedSignatureCacheConfig(int priority) {
+        super(CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(InMemoryCacheManager.newCalc() // key object
+                    .addArrayExtra(32 + 32 + 4) // fullHash + single public key + threshold
+                    .addInt() // hashCode
+                    .calc())
+                .addReference() // Boolean.TRUE value
+                .calc(),
+            priority);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.config;
+
+import com.apollocurrency.smc.polyglot.language.LanguageContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of the pre-created language contexts, which takes the polyglot context setup off the smart-contract
+ * execution path.
+ * <p>
+ * Contexts are created ahead by the background daemon thread, started on the first {@link #take()}, and each context is
+ * handed out only once, so executions never share the polyglot state. When the pool is empty the context is created in
+ * the caller thread, so the pool never blocks the execution.
+ */
+@Slf4j
+public class LanguageContextPool {
+    private final Supplier<LanguageContext> factory;
+    private final BlockingQueue<LanguageContext> contexts;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Thread warmer;
+
+    /**
+     * @param size    max number of the pre-created contexts, 0 disables pre-creation
+     * @param factory language context factory
+     */
+    public LanguageContextPool(int size, Supplier<LanguageContext> factory) {
+        this.factory = Objects.requireNonNull(factory, "Language context factory is NULL");
+        this.contexts = size > 0 ? new ArrayBlockingQueue<>(size) : null;
+    }
+
+    /**
+     * @return new language context, which was not used before
+     */
+    public LanguageContext take() {
+        if (contexts == null) {
+            return factory.get();
+        }
+        startWarmer();
+        LanguageContext context = contexts.poll();
+        return context != null ? context : factory.get();
+    }
+
+    public void shutdown() {
+        Thread thread = warmer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (contexts != null) {
+            contexts.clear();
+        }
+    }
+
+    private void startWarmer() {
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::createContexts, "LanguageContextPoolWarmer");
+            thread.setDaemon(true);
+            warmer = thread;
+            thread.start();
+        }
+    }
+
+    private void createContexts() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                contexts.put(factory.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Language context pre-creation stopped, contexts will be created on demand", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.apollocurrency.aplwallet.apl.crypto.Crypto;
 import com.apollocurrency.aplwallet.apl.smc.SmcContext;
 import com.apollocurrency.aplwallet.apl.smc.vm.PriceProvider;
 import com.apollocurrency.aplwallet.apl.smc.vm.SMCOperationPriceProvider;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import com.apollocurrency.smc.blockchain.BlockchainIntegrator;
 import com.apollocurrency.smc.blockchain.crypt.Digest;
 import com.apollocurrency.smc.blockchain.crypt.DigestWrapper;
@@ -27,7 +28,9 @@ import com.apollocurrency.smc.polyglot.security.DenyGlobalObjectsPolicy;
 import com.apollocurrency.smc.polyglot.security.ExplicitHostAccessPolicy;
 import lombok.Getter;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 /**
@@ -36,7 +39,23 @@ import javax.inject.Singleton;
 @Singleton
 public class SmcConfig {
 
+    private static final int DEFAULT_LANGUAGE_CONTEXT_POOL_SIZE = 4;
+
     private final PriceProvider priceProvider = SMCOperationPriceProvider.getInstance();
+    private final LanguageContextPool languageContextPool;
+
+    public SmcConfig() {
+        this(0);
+    }
+
+    @Inject
+    public SmcConfig(PropertiesHolder propertiesHolder) {
+        this(propertiesHolder.getIntProperty("apl.smc.languageContextPoolSize", DEFAULT_LANGUAGE_CONTEXT_POOL_SIZE));
+    }
+
+    SmcConfig(int languageContextPoolSize) {
+        this.languageContextPool = new LanguageContextPool(languageContextPoolSize, SmcConfig::getSmcLanguageContext);
+    }
 
     public static LanguageContext getSmcLanguageContext() {
         return LanguageContextFactory.createJSContext(
@@ -87,6 +106,18 @@ public class SmcConfig {
         return getSmcLanguageContext();
     }
 
+    /**
+     * @return new language context for one smart-contract execution, taken from the pre-created ones when available
+     */
+    public LanguageContext takeLanguageContext() {
+        return languageContextPool.take();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        languageContextPool.shutdown();
+    }
+
     public SmcContext asContext(int height, Chargeable chargeable, final BlockchainIntegrator integrator) {
         return new AbstractContext(height, chargeable, integrator) {
             @Override
@@ -114,6 +145,7 @@ public class SmcConfig {
         private final Chargeable chargeable;
         @Getter
         private final BlockchainIntegrator integrator;
+        private LanguageContext languageContext;
 
         public AbstractContext(int height, Chargeable chargeable, BlockchainIntegrator integrator) {
             this.height = height;
@@ -134,7 +166,10 @@ public class SmcConfig {
 
         @Override
         public LanguageContext getLanguageContext() {
-            return createLanguageContext();
+            if (languageContext == null) {
+                languageContext = takeLanguageContext();
+            }
+            return languageContext;
         }
 
         @Override
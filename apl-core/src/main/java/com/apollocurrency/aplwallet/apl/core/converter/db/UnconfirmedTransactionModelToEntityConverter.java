@@ -10,8 +10,6 @@ import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransa
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
 import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
 import com.apollocurrency.aplwallet.apl.util.api.converter.Converter;
-import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
-import com.apollocurrency.aplwallet.apl.util.io.Result;
 import lombok.extern.slf4j.Slf4j;
 import org.json.simple.JSONObject;
 
@@ -46,9 +44,7 @@ public class UnconfirmedTransactionModelToEntityConverter implements Converter<U
         if (prunableJSON != null) {
             builder.prunableAttachmentJsonString(prunableJSON.toJSONString());
         }
-        Result signedTxBytes = PayloadResult.createLittleEndianByteArrayResult();
-        txBContext.createSerializer(model.getVersion()).serialize(model, signedTxBytes);
-        builder.transactionBytes(signedTxBytes.array());
+        builder.transactionBytes(txBContext.createSerializer(model.getVersion()).toBytes(model));
         return builder.build();
     }
 
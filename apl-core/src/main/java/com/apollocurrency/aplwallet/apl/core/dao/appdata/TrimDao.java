@@ -6,6 +6,8 @@ package com.apollocurrency.aplwallet.apl.core.dao.appdata;
 
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.TrimEntry;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
+import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -14,6 +16,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
 
 @Singleton
 public class TrimDao {
@@ -92,4 +96,43 @@ public class TrimDao {
             throw new RuntimeException(e.toString(), e);
         }
     }
+
+    /**
+     * @return height of the latest completed trim by the derived table name
+     */
+    public Map<String, Integer> getTablesProgress() {
+        Map<String, Integer> progress = new HashMap<>();
+        try (Connection con = databaseManager.getDataSource().getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT table_name, height FROM trim_progress");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                progress.put(rs.getString("table_name"), rs.getInt("height"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        return progress;
+    }
+
+    public void saveTableProgress(String tableName, int height) {
+        try (Connection con = databaseManager.getDataSource().getConnection();
+             @DatabaseSpecificDml(DmlMarker.MERGE)
+             PreparedStatement pstmt = con.prepareStatement("INSERT INTO trim_progress (table_name, height) VALUES (?, ?) "
+                 + "ON DUPLICATE KEY UPDATE height = VALUES(height)")) {
+            pstmt.setString(1, tableName);
+            pstmt.setInt(2, height);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    public void clearTablesProgress() {
+        try (Connection con = databaseManager.getDataSource().getConnection();
+             PreparedStatement pstmt = con.prepareStatement("DELETE FROM trim_progress")) {
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
 }
@@ -10,6 +10,7 @@ import com.apollocurrency.aplwallet.apl.core.transaction.PrunableTransaction;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.Collection;
 import java.util.List;
 
 public interface TransactionDao {
@@ -34,6 +35,12 @@ public interface TransactionDao {
 
     List<TransactionEntity> findBlockTransactions(long blockId, TransactionalDataSource dataSource);
 
+    /**
+     * Select transactions of the several blocks stored in the same data source using 'block_id IN (...)' queries
+     * @return transactions ordered by height and index in the block
+     */
+    List<TransactionEntity> findBlocksTransactions(Collection<Long> blockIds, TransactionalDataSource dataSource);
+
     long getBlockTransactionsCount(long blockId, TransactionalDataSource dataSource);
 
     List<PrunableTransaction> findPrunableTransactions(int minTimestamp, int maxTimestamp);
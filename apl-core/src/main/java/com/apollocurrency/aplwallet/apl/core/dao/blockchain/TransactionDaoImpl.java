@@ -48,6 +48,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes.TransactionTypeSpec.ARBITRARY_MESSAGE;
@@ -56,6 +58,8 @@ import static com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes
 @Slf4j
 @Singleton
 public class TransactionDaoImpl implements TransactionDao {
+    private static final int MAX_BLOCKS_PER_QUERY = 500;
+
     private final TxReceiptRowMapper txReceiptRowMapper;
     private final TransactionEntityRowMapper entityRowMapper;
     private final PrunableTxRowMapper prunableTxRowMapper;
@@ -194,6 +198,28 @@ public class TransactionDaoImpl implements TransactionDao {
         });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<TransactionEntity> findBlocksTransactions(Collection<Long> blockIds, TransactionalDataSource dataSource) {
+        List<TransactionEntity> result = new ArrayList<>();
+        JdbcQueryExecutionHelper<TransactionEntity> helper = new JdbcQueryExecutionHelper<>(dataSource, (rs) -> entityRowMapper.map(rs, null));
+        List<Long> ids = new ArrayList<>(blockIds);
+        for (int from = 0; from < ids.size(); from += MAX_BLOCKS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_BLOCKS_PER_QUERY));
+            result.addAll(helper.executeListQuery((con) -> {
+                PreparedStatement pstmt = con.prepareStatement("SELECT * FROM transaction WHERE block_id IN ("
+                    + String.join(",", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY height, transaction_index");
+                int i = 0;
+                for (Long blockId : chunk) {
+                    pstmt.setLong(++i, blockId);
+                }
+                pstmt.setFetchSize(50);
+                return pstmt;
+            }));
+        }
+        return result;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long getBlockTransactionsCount(long blockId, TransactionalDataSource dataSource) {
@@ -69,6 +69,11 @@ public class AccountAssetTable extends VersionedDeletableEntityDbTable<AccountAs
         }
     }
 
+    @Override
+    protected boolean supportWriteBuffering() {
+        return true;
+    }
+
     @Override
     public String defaultSort() {
         return " ORDER BY quantity DESC, account_id, asset_id ";
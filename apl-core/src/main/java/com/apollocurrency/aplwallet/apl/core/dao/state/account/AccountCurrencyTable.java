@@ -77,6 +77,11 @@ public class AccountCurrencyTable extends VersionedDeletableEntityDbTable<Accoun
         }
     }
 
+    @Override
+    protected boolean supportWriteBuffering() {
+        return true;
+    }
+
     @Override
     public String defaultSort() {
         return " ORDER BY units DESC, account_id, currency_id ";
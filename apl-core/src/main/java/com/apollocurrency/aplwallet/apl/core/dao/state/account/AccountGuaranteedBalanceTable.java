@@ -4,7 +4,13 @@
 
 package com.apollocurrency.aplwallet.apl.core.dao.state.account;
 
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.TrimBudget;
+import com.apollocurrency.aplwallet.apl.core.files.shards.ShardPresentData;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
 import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextOperationData;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedDbTable;
@@ -14,10 +20,15 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountGuarant
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
+import com.apollocurrency.aplwallet.apl.util.db.PendingWrites;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionCallback;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Connection;
@@ -25,10 +36,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Singleton
 @Slf4j
@@ -47,8 +57,17 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable<AccountGuarant
             return accountGuaranteedBalance.getDbKey();
         }
     };
+    private static final String MERGE_SQL = "INSERT INTO account_guaranteed_balance (account_id, "
+        + " additions, height) VALUES(?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE "
+        + "account_id = VALUES(account_id), additions = VALUES(additions), height = VALUES(height)";
     private final BlockchainConfig blockchainConfig;
     private final int batchCommitSize;
+    private final ThreadLocal<TransactionChanges> transactionChanges = new ThreadLocal<>();
+    /**
+     * In-memory copy of the table, loaded on the first access
+     */
+    private volatile GuaranteedBalanceWindow window;
 
     @Inject
     public AccountGuaranteedBalanceTable(BlockchainConfig blockchainConfig,
@@ -76,10 +95,52 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable<AccountGuarant
             do {
                 count = pstmtDelete.executeUpdate();
                 dataSource.commit(false);
+                TrimBudget.chunkTrimmed(count);
             } while (count >= batchCommitSize);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
+        GuaranteedBalanceWindow currentWindow = window;
+        if (currentWindow != null) {
+            currentWindow.removeBelow(height - blockchainConfig.getGuaranteedBalanceConfirmations());
+        }
+    }
+
+    @Override
+    public int rollback(int height) {
+        int deleted = super.rollback(height);
+        GuaranteedBalanceWindow currentWindow = window;
+        if (currentWindow != null) {
+            getTransactionChanges().invalidateOnRollback();
+            currentWindow.removeAbove(height);
+        }
+        return deleted;
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        getTransactionChanges().invalidateOnRollback();
+        invalidate();
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        invalidate();
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        invalidate();
+    }
+
+    public void onShardImported(@Observes ShardPresentData shardPresentData) {
+        invalidate();
+    }
+
+    /**
+     * Drop the in-memory additions, they will be loaded again on the first access
+     */
+    public synchronized void invalidate() {
+        window = null;
     }
 
     @Override
@@ -88,101 +149,165 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable<AccountGuarant
     }
 
     public Long getSumOfAdditions(long accountId, int height, int currentHeight) {
+        return getWindow().sum(accountId, height, currentHeight);
+    }
+
+    public Map<Long, Long> getLessorsAdditions(List<Long> lessors, int height, int blockchainHeight) {
+        if (lessors.isEmpty()) {
+            return new HashMap<>();
+        }
+        return getWindow().sums(lessors, height - blockchainConfig.getGuaranteedBalanceConfirmations(),
+            height < blockchainHeight ? height : Integer.MAX_VALUE);
+    }
+
+    public void addToGuaranteedBalanceATM(long accountId, long amountATM, int blockchainHeight) {
+        if (amountATM <= 0) {
+            return;
+        }
+        log.trace("Add to account {} guaranteed balance {} amount at height {}", accountId, amountATM, blockchainHeight);
+        GuaranteedBalanceWindow currentWindow = getWindow();
+        long additions = currentWindow.add(accountId, blockchainHeight, amountATM);
         TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (dataSource.isInTransaction()) {
+            getTransactionChanges().add(dataSource, accountId, blockchainHeight, amountATM, additions);
+            return;
+        }
         try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT SUM (" + ADDITIONS_COLUMN_NAME + ") AS " + ADDITIONS_COLUMN_NAME + " "
-                 + "FROM account_guaranteed_balance WHERE account_id = ? AND height > ? AND height <= ?")) {
-            pstmt.setLong(1, accountId);
-            pstmt.setInt(2, height);
-            pstmt.setInt(3, currentHeight);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (!rs.next()) {
-                    return null;
-                }
-                return rs.getLong(ADDITIONS_COLUMN_NAME);
-            }
+             @DatabaseSpecificDml(DmlMarker.MERGE)
+             PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)) {
+            setMergeParameters(pstmt, accountId, additions, blockchainHeight);
+            pstmt.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException(e.toString(), e);
+            currentWindow.add(accountId, blockchainHeight, -amountATM);
+            throw new RuntimeException(e.getMessage(), e);
         }
     }
 
-    public Map<Long, Long> getLessorsAdditions(List<Long> lessors, int height, int blockchainHeight) {
-        Map<Long, Long> lessorsAdditions = new HashMap<>();
-
-        final int size = lessors.size();
-        Long[] lessorIds = lessors.toArray(new Long[]{});
-        String lessorParams;
-        if (size == 1) {
-            lessorParams = " = ?";
-        } else if (size == 0) {
-            return lessorsAdditions;
-        } else {
-            lessorParams = IntStream.range(0, lessors.size())
-                .mapToObj(i -> "?")
-                .collect(Collectors.joining(",", "IN (", ")"));
+    private GuaranteedBalanceWindow getWindow() {
+        GuaranteedBalanceWindow currentWindow = window;
+        if (currentWindow == null) {
+            synchronized (this) {
+                currentWindow = window;
+                if (currentWindow == null) {
+                    currentWindow = loadWindow();
+                    window = currentWindow;
+                }
+            }
         }
+        return currentWindow;
+    }
 
+    private GuaranteedBalanceWindow loadWindow() {
+        long start = System.currentTimeMillis();
+        GuaranteedBalanceWindow loaded = new GuaranteedBalanceWindow();
         TransactionalDataSource dataSource = databaseManager.getDataSource();
         try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT account_id, SUM (additions) AS " + ADDITIONS_COLUMN_NAME + " "
-                 + "FROM account_guaranteed_balance T WHERE account_id " + lessorParams + " AND height > ? "
-                 + (height < blockchainHeight ? " AND height <= ? " : "")
-                 + " GROUP BY account_id ORDER BY account_id")
-        ) {
-            int i = 0;
-            for (Object param : lessorIds) {
-                pstmt.setObject(++i, param);
-            }
-            pstmt.setInt(++i, height - blockchainConfig.getGuaranteedBalanceConfirmations());
-            if (height < blockchainHeight) {
-                pstmt.setInt(++i, height);
-            }
+             PreparedStatement pstmt = con.prepareStatement("SELECT account_id, additions, height FROM account_guaranteed_balance "
+                 + "ORDER BY account_id, height")) {
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    long accountId = rs.getLong("account_id");
-                    long sum = rs.getLong(ADDITIONS_COLUMN_NAME);
-                    lessorsAdditions.put(accountId, sum);
+                    loaded.add(rs.getLong("account_id"), rs.getInt("height"), rs.getLong(ADDITIONS_COLUMN_NAME));
                 }
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
-        return lessorsAdditions;
+        log.debug("Loaded {} guaranteed balance additions in {} ms", loaded.size(), System.currentTimeMillis() - start);
+        return loaded;
     }
 
-    public void addToGuaranteedBalanceATM(long accountId, long amountATM, int blockchainHeight) {
-        if (amountATM <= 0) {
-            return;
+    private TransactionChanges getTransactionChanges() {
+        TransactionChanges changes = transactionChanges.get();
+        if (changes == null) {
+            changes = new TransactionChanges();
+            transactionChanges.set(changes);
         }
-        log.info("Add to account {} guaranteed balance {} amount at height {}", accountId, amountATM, blockchainHeight);
-        TransactionalDataSource dataSource = databaseManager.getDataSource();
-        try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmtSelect = con.prepareStatement("SELECT additions FROM account_guaranteed_balance "
-                 + "WHERE account_id = ? and height = ?");
-             @DatabaseSpecificDml(DmlMarker.MERGE)
-             PreparedStatement pstmtUpdate = con.prepareStatement("INSERT INTO account_guaranteed_balance (account_id, "
-                 + " additions, height) VALUES(?, ?, ?) "
-                 + "ON DUPLICATE KEY UPDATE "
-                 + "account_id = VALUES(account_id), additions = VALUES(additions), height = VALUES(height)")
-        ) {
-            pstmtSelect.setLong(1, accountId);
-            pstmtSelect.setInt(2, blockchainHeight);
-            try (ResultSet rs = pstmtSelect.executeQuery()) {
-                long additions = amountATM;
-                if (rs.next()) {
-
-                    long existingAdditions = rs.getLong(ADDITIONS_COLUMN_NAME);
-                    additions = Math.addExact(additions, existingAdditions);
-                    log.debug("Add existing guaranteed balance additions for account {} at height {}, additions {}, sum {}", accountId
-                    , blockchainHeight, existingAdditions, additions);
+        return changes;
+    }
+
+    private static void setMergeParameters(PreparedStatement pstmt, long accountId, long additions, int height) throws SQLException {
+        pstmt.setLong(1, accountId);
+        pstmt.setLong(2, additions);
+        pstmt.setInt(3, height);
+    }
+
+    /**
+     * Additions made by the current database transaction. Rows updated in memory are written into the table in a
+     * single batch when the transaction is flushed, see {@link PendingWrites}. In-memory additions are reverted when
+     * the transaction is rolled back.
+     */
+    private class TransactionChanges implements PendingWrites, TransactionCallback {
+        private final Map<AccountGuaranteedBalanceKey, Long> journal = new LinkedHashMap<>();
+        private final Map<AccountGuaranteedBalanceKey, Long> unflushed = new LinkedHashMap<>();
+        private boolean invalidateOnRollback;
+
+        void add(TransactionalDataSource dataSource, long accountId, int height, long amount, long additions) {
+            if (unflushed.isEmpty()) {
+                dataSource.registerPendingWrites(this);
+            }
+            if (journal.isEmpty() && !invalidateOnRollback) {
+                dataSource.registerCallback(this);
+            }
+            AccountGuaranteedBalanceKey key = new AccountGuaranteedBalanceKey(accountId, height);
+            journal.merge(key, amount, Math::addExact);
+            unflushed.put(key, additions);
+        }
+
+        void invalidateOnRollback() {
+            if (journal.isEmpty() && !invalidateOnRollback) {
+                databaseManager.getDataSource().registerCallback(this);
+            }
+            invalidateOnRollback = true;
+        }
+
+        @Override
+        public String getTable() {
+            return TABLE_NAME;
+        }
+
+        @Override
+        public void flush(Connection con) throws SQLException {
+            try (@DatabaseSpecificDml(DmlMarker.MERGE)
+                 PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)) {
+                for (Map.Entry<AccountGuaranteedBalanceKey, Long> entry : unflushed.entrySet()) {
+                    setMergeParameters(pstmt, entry.getKey().accountId, entry.getValue(), entry.getKey().height);
+                    pstmt.addBatch();
                 }
-                pstmtUpdate.setLong(1, accountId);
-                pstmtUpdate.setLong(2, additions);
-                pstmtUpdate.setInt(3, blockchainHeight);
-                pstmtUpdate.executeUpdate();
+                pstmt.executeBatch();
+            } finally {
+                unflushed.clear();
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.getMessage(), e);
         }
+
+        @Override
+        public void discard() {
+            unflushed.clear();
+        }
+
+        @Override
+        public void commit() {
+            journal.clear();
+            invalidateOnRollback = false;
+        }
+
+        @Override
+        public void rollback() {
+            if (invalidateOnRollback) {
+                invalidate();
+            } else {
+                GuaranteedBalanceWindow currentWindow = window;
+                if (currentWindow != null) {
+                    journal.forEach((key, amount) -> currentWindow.add(key.accountId, key.height, -amount));
+                }
+            }
+            commit();
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class AccountGuaranteedBalanceKey {
+        private final long accountId;
+        private final int height;
     }
 }
@@ -6,6 +6,7 @@ package com.apollocurrency.aplwallet.apl.core.dao.state.account;
 import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextOperationData;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedDbTable;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.TrimBudget;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.util.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.LedgerEntry;
@@ -93,6 +94,7 @@ public class AccountLedgerTable extends DerivedDbTable<LedgerEntry> {
             do {
                 trimmed = pstmt.executeUpdate();
                 dataSource.commit(false);
+                TrimBudget.chunkTrimmed(trimmed);
             } while (trimmed >= propertiesHolder.BATCH_COMMIT_SIZE());
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
@@ -46,44 +46,16 @@ public class AccountTable extends VersionedDeletableEntityDbTable<Account> imple
 
     @Override
     public void save(Connection con, Account account) throws SQLException {
-        if (account.requireMerge()) {
-            doUpdate(con, account);
-        } else {
-            doInsert(con, account);
-        }
-    }
-
-    private void doUpdate(Connection con, Account account) throws SQLException {
         try (
-            final PreparedStatement pstmt = con.prepareStatement("UPDATE account SET "
-                + "parent = ?, is_multi_sig = ?, addr_scope = ?, "
-                + "balance = ?, unconfirmed_balance = ?, forged_balance = ?, "
-                + "active_lessee_id = ?, has_control_phasing = ?, height = ?, latest = true, deleted = false WHERE db_id = ?"
-            );
-        ) {
-            int i = 0;
-            DbUtils.setLongZeroToNull(pstmt, ++i, account.getParentId());
-            pstmt.setBoolean(++i, account.isMultiSig());
-            pstmt.setByte(++i, account.getAddrScope().getCode());
-            pstmt.setLong(++i, account.getBalanceATM());
-            pstmt.setLong(++i, account.getUnconfirmedBalanceATM());
-            pstmt.setLong(++i, account.getForgedBalanceATM());
-            DbUtils.setLongZeroToNull(pstmt, ++i, account.getActiveLesseeId());
-            pstmt.setBoolean(++i, account.getControls().contains(AccountControlType.PHASING_ONLY));
-            pstmt.setInt(++i, account.getHeight());
-            pstmt.setLong(++i, account.getDbId());
-            pstmt.executeUpdate();
-        }
-    }
-
-    private void doInsert(Connection con, Account account) throws SQLException {
-        try (
-            final PreparedStatement pstmt = con.prepareStatement("INSERT INTO account (id, "
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement("INSERT INTO account (id, "
                 + "parent, is_multi_sig, addr_scope, "
                 + "balance, unconfirmed_balance, forged_balance, "
                 + "active_lessee_id, has_control_phasing, height, latest, deleted) "
-                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, FALSE) ", Statement.RETURN_GENERATED_KEYS
-            )
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, FALSE) "
+                + "ON DUPLICATE KEY UPDATE id = VALUES(id), parent = VALUES(parent), is_multi_sig = VALUES(is_multi_sig), "
+                + "addr_scope = VALUES(addr_scope), balance = VALUES(balance), unconfirmed_balance = VALUES(unconfirmed_balance), "
+                + "forged_balance = VALUES(forged_balance), active_lessee_id = VALUES(active_lessee_id), "
+                + "has_control_phasing = VALUES(has_control_phasing), height = VALUES(height), latest = TRUE, deleted = FALSE")
         ) {
             int i = 0;
             pstmt.setLong(++i, account.getId());
@@ -97,14 +69,12 @@ public class AccountTable extends VersionedDeletableEntityDbTable<Account> imple
             pstmt.setBoolean(++i, account.getControls().contains(AccountControlType.PHASING_ONLY));
             pstmt.setInt(++i, account.getHeight());
             pstmt.executeUpdate();
-            try (ResultSet dbIdRs = pstmt.getGeneratedKeys()) {
-                if (!dbIdRs.next()) {
-                    throw new SQLException("Unable to retrieve generated id for the account " + account);
-                }
-                account.setDbId(dbIdRs.getLong(1));
-            }
         }
+    }
 
+    @Override
+    protected boolean supportWriteBuffering() {
+        return true;
     }
 
     @Override
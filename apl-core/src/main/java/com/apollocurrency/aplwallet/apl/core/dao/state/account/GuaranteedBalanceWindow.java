@@ -0,0 +1,225 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.account;
+
+import com.apollocurrency.aplwallet.apl.util.ConcurrentLongHashMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the account_guaranteed_balance table. Additions of each account are kept in the height order
+ * together with their running totals, so the sum of additions over any height range is a difference of two
+ * running totals. The latest heights are found in constant time, older heights by binary search over the account
+ * additions.
+ * <p>All the methods are thread-safe, additions of the same account are guarded by the account lock.</p>
+ */
+class GuaranteedBalanceWindow {
+    private final ConcurrentLongHashMap<AccountAdditions> accounts = new ConcurrentLongHashMap<>();
+
+    /**
+     * Add amount to the account additions at the given height, negative amount reverts the previous addition
+     * @return account additions at the given height after the update
+     */
+    long add(long accountId, int height, long amount) {
+        while (true) {
+            AccountAdditions additions = accounts.get(accountId);
+            if (additions == null) {
+                AccountAdditions newAdditions = new AccountAdditions();
+                additions = accounts.putIfAbsent(accountId, newAdditions);
+                if (additions == null) {
+                    additions = newAdditions;
+                }
+            }
+            synchronized (additions) {
+                // retry when the additions were concurrently removed from the window
+                if (!additions.removed) {
+                    return additions.add(height, amount);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return sum of the account additions at heights from {@code fromHeight} exclusive to {@code toHeight} inclusive,
+     * 0 when there are no additions
+     */
+    long sum(long accountId, int fromHeight, int toHeight) {
+        AccountAdditions additions = accounts.get(accountId);
+        return additions == null ? 0 : additions.sum(fromHeight, toHeight);
+    }
+
+    /**
+     * @return sums of the additions at heights from {@code fromHeight} exclusive to {@code toHeight} inclusive for
+     * the accounts having any additions at these heights
+     */
+    Map<Long, Long> sums(Collection<Long> accountIds, int fromHeight, int toHeight) {
+        Map<Long, Long> sums = new HashMap<>();
+        for (Long accountId : accountIds) {
+            AccountAdditions additions = accounts.get(accountId);
+            if (additions != null) {
+                additions.sumIfPresent(fromHeight, toHeight, sum -> sums.put(accountId, sum));
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Forget additions at heights greater than the given one
+     */
+    void removeAbove(int height) {
+        accounts.forEachValue(additions -> additions.removeAbove(height));
+        removeEmpty();
+    }
+
+    /**
+     * Forget additions at heights less than the given one
+     */
+    void removeBelow(int height) {
+        accounts.forEachValue(additions -> additions.removeBelow(height));
+        removeEmpty();
+    }
+
+    void clear() {
+        accounts.clear();
+    }
+
+    int size() {
+        int[] size = new int[1];
+        accounts.forEachValue(additions -> size[0] += additions.size());
+        return size[0];
+    }
+
+    private void removeEmpty() {
+        for (Long accountId : accounts.keys()) {
+            AccountAdditions additions = accounts.get(accountId);
+            if (additions != null) {
+                synchronized (additions) {
+                    if (additions.size() == 0) {
+                        additions.removed = true;
+                        accounts.remove(accountId);
+                    }
+                }
+            }
+        }
+    }
+
+    interface SumConsumer {
+        void accept(long sum);
+    }
+
+    /**
+     * Additions of the single account: heights in the ascending order and running totals of the additions,
+     * {@code totals[i] - totals[i - 1]} is the addition at {@code heights[i]}. Removed head entries are
+     * reclaimed lazily, {@code base} is the running total before the first retained entry.
+     */
+    private static class AccountAdditions {
+        private int[] heights = new int[4];
+        private long[] totals = new long[4];
+        private int head;
+        private int tail;
+        private long base;
+        private boolean removed;
+
+        synchronized long add(int height, long amount) {
+            int last = tail - 1;
+            if (last >= head && heights[last] == height) {
+                totals[last] = Math.addExact(totals[last], amount);
+                return totals[last] - totalBefore(last);
+            }
+            if (last < head || heights[last] < height) {
+                ensureCapacity();
+                heights[tail] = height;
+                totals[tail] = Math.addExact(totalBefore(tail), amount);
+                tail++;
+                return amount;
+            }
+            // addition below the latest height, normally happens only when the transaction is reverted
+            int index = lastIndexNotAbove(height);
+            if (index < head || heights[index] != height) {
+                ensureCapacity();
+                index = lastIndexNotAbove(height) + 1;
+                System.arraycopy(heights, index, heights, index + 1, tail - index);
+                System.arraycopy(totals, index, totals, index + 1, tail - index);
+                heights[index] = height;
+                totals[index] = totalBefore(index);
+                tail++;
+            }
+            for (int i = index; i < tail; i++) {
+                totals[i] = Math.addExact(totals[i], amount);
+            }
+            return totals[index] - totalBefore(index);
+        }
+
+        synchronized long sum(int fromHeight, int toHeight) {
+            return totalAt(lastIndexNotAbove(toHeight)) - totalAt(lastIndexNotAbove(fromHeight));
+        }
+
+        synchronized void sumIfPresent(int fromHeight, int toHeight, SumConsumer consumer) {
+            int to = lastIndexNotAbove(toHeight);
+            int from = lastIndexNotAbove(fromHeight);
+            if (to > from) {
+                consumer.accept(totalAt(to) - totalAt(from));
+            }
+        }
+
+        synchronized void removeAbove(int height) {
+            tail = lastIndexNotAbove(height) + 1;
+        }
+
+        synchronized void removeBelow(int height) {
+            int newHead = lastIndexNotAbove(height - 1) + 1;
+            if (newHead > head) {
+                base = totals[newHead - 1];
+                head = newHead;
+            }
+        }
+
+        synchronized int size() {
+            return tail - head;
+        }
+
+        /**
+         * @return index of the last entry with the height not greater than the given one, {@code head - 1} if none
+         */
+        private int lastIndexNotAbove(int height) {
+            int last = tail - 1;
+            if (last < head || heights[last] <= height) {
+                return last;
+            }
+            int index = Arrays.binarySearch(heights, head, last, height);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private long totalAt(int index) {
+            return index < head ? base : totals[index];
+        }
+
+        private long totalBefore(int index) {
+            return totalAt(index - 1);
+        }
+
+        private void ensureCapacity() {
+            if (tail < heights.length) {
+                return;
+            }
+            int size = tail - head;
+            int[] newHeights = size * 2 <= heights.length ? heights : new int[heights.length * 2];
+            long[] newTotals = size * 2 <= totals.length ? totals : new long[totals.length * 2];
+            // move retained entries to the array start and rebase totals to keep them small
+            for (int i = 0; i < size; i++) {
+                newHeights[i] = heights[head + i];
+                newTotals[i] = totals[head + i] - base;
+            }
+            heights = newHeights;
+            totals = newTotals;
+            head = 0;
+            tail = size;
+            base = 0;
+        }
+    }
+}
@@ -18,7 +18,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -223,14 +225,16 @@ public abstract class BasicDbTable<T extends DerivedEntity> extends DerivedDbTab
 
                 startDeleteTime = System.currentTimeMillis();
                 if (keysToDelete.size() > 0) {
-                    for (Long id : keysToDelete) {
-                        deleted += deleteByDbId(pstmtDeleteById, id);
-                        if (deleted % ShardConstants.DEFAULT_COMMIT_BATCH_SIZE == 0) {
-                            dataSource.commit(false);
-                        }
+                    // delete in the db_id order by chunks, each chunk is committed separately
+                    List<Long> sortedKeys = new ArrayList<>(keysToDelete);
+                    Collections.sort(sortedKeys);
+                    for (int from = 0; from < sortedKeys.size(); from += ShardConstants.DEFAULT_COMMIT_BATCH_SIZE) {
+                        List<Long> chunk = sortedKeys.subList(from, Math.min(from + ShardConstants.DEFAULT_COMMIT_BATCH_SIZE, sortedKeys.size()));
+                        deleted += deleteByDbIds(pstmtDeleteById, chunk);
+                        dataSource.commit(false);
+                        TrimBudget.chunkTrimmed(chunk.size());
                     }
                     log.debug("Delete for table {} took {} ms", table, System.currentTimeMillis() - startDeleteTime);
-                    dataSource.commit(false);
                     log.trace("Delete table '{}' in {} ms: deleted=[{}]",
                         table, System.currentTimeMillis() - startDeleteTime, deleted);
                 }
@@ -283,8 +287,15 @@ public abstract class BasicDbTable<T extends DerivedEntity> extends DerivedDbTab
         return outputKeys;
     }
 
-    private int deleteByDbId(PreparedStatement pstmtDeleteByDbId, long dbId) throws SQLException {
-        pstmtDeleteByDbId.setLong(1, dbId);
-        return pstmtDeleteByDbId.executeUpdate();
+    private int deleteByDbIds(PreparedStatement pstmtDeleteByDbId, List<Long> dbIds) throws SQLException {
+        for (Long dbId : dbIds) {
+            pstmtDeleteByDbId.setLong(1, dbId);
+            pstmtDeleteByDbId.addBatch();
+        }
+        int deleted = 0;
+        for (int count : pstmtDeleteByDbId.executeBatch()) {
+            deleted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return deleted;
     }
 }
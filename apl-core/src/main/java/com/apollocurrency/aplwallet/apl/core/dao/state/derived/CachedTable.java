@@ -10,6 +10,8 @@ import com.google.common.cache.Cache;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +48,25 @@ public class CachedTable<T extends DerivedEntity> extends DbTableWrapper<T> {
         return t == null ? null : (T) t.deepCopy();
     }
 
+    @Override
+    public Map<DbKey, T> get(Collection<DbKey> dbKeys) {
+        Map<DbKey, T> result = new HashMap<>();
+        List<DbKey> notCached = new ArrayList<>();
+        for (DbKey dbKey : dbKeys) {
+            T t = cache.getIfPresent(dbKey);
+            if (t == null) {
+                notCached.add(dbKey);
+            } else {
+                result.put(dbKey, (T) t.deepCopy());
+            }
+        }
+        if (!notCached.isEmpty()) {
+            // db values are not put in the cache for the same reason as in the get(DbKey)
+            super.get(notCached).forEach((dbKey, t) -> result.put(dbKey, (T) t.deepCopy()));
+        }
+        return result;
+    }
+
     @Override
     public int rollback(final int height) {
         int rc;
@@ -14,6 +14,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -135,6 +137,16 @@ public class DbTableWrapper<T extends DerivedEntity> implements EntityDbTableInt
         return table.isMultiversion();
     }
 
+    @Override
+    public void prefetch(Collection<DbKey> dbKeys) {
+        table.prefetch(dbKeys);
+    }
+
+    @Override
+    public Map<DbKey, T> get(Collection<DbKey> dbKeys) {
+        return table.get(dbKeys);
+    }
+
     @Override
     public String getName() {
         return table.getName();
@@ -26,9 +26,12 @@ import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.state.derived.DerivedEntity;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextOperationData;
+import com.apollocurrency.aplwallet.apl.util.db.BatchingConnection;
 import com.apollocurrency.aplwallet.apl.util.db.DbClause;
 import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.util.db.DbUtils;
+import com.apollocurrency.aplwallet.apl.util.db.PendingWrites;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionCallback;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import org.slf4j.Logger;
 
@@ -37,12 +40,26 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTable<T> implements EntityDbTableInterface<T> {
     private static final Logger log = getLogger(EntityDbTable.class);
+    private static final int PREFETCH_BATCH_SIZE = 100;
+    private static final int WRITE_BUFFER_BATCH_SIZE = 1000;
     private final String defaultSort;
+    private final ThreadLocal<WriteBuffer> writeBuffer = new ThreadLocal<>();
+    private final ThreadLocal<PrefetchedEntities> prefetched = new ThreadLocal<>();
 
     public EntityDbTable(String table, KeyFactory<T> dbKeyFactory, boolean multiversion, String fullTextSearchColumns,
                          DatabaseManager databaseManager,
@@ -67,6 +84,26 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
         return defaultSort;
     }
 
+    /**
+     * Whether inserts may be buffered in memory and then flushed in JDBC batches before the first statement, which
+     * touches the table, before the commit or when {@link #writeBufferBatchSize()} entities are buffered.
+     * Can be enabled only when {@link #save(Connection, DerivedEntity)} executes the single MERGE statement
+     * by the entity key and height without reading anything back (generated keys, update count) and without updating
+     * the entity, so the db_id of the inserted entity is not known.
+     * Buffered entity is returned by {@link #get(DbKey, boolean)}.
+     * @return true, when the table inserts are buffered; false by default
+     */
+    protected boolean supportWriteBuffering() {
+        return false;
+    }
+
+    /**
+     * @return max number of the buffered entities, which are flushed in one JDBC batch
+     */
+    protected int writeBufferBatchSize() {
+        return WRITE_BUFFER_BATCH_SIZE;
+    }
+
     @Override
     public T get(DbKey dbKey) {
         return get(dbKey, true);
@@ -75,8 +112,25 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
     @Override
     public T get(DbKey dbKey, boolean createDbKey) {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
+        WriteBuffer buffer = writeBuffer.get();
+        if (buffer != null) {
+            T buffered = buffer.entities.get(dbKey);
+            if (buffered != null) {
+                return copy(buffered);
+            }
+        }
+        PrefetchedEntities prefetchedEntities = prefetched.get();
+        if (prefetchedEntities != null) {
+            T found = prefetchedEntities.found.get(dbKey);
+            if (found != null) {
+                return copy(found);
+            }
+            if (prefetchedEntities.absent.contains(dbKey)) {
+                return null;
+            }
+        }
         try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + keyFactory.getPKClause()
+             PreparedStatement pstmt = prepareKeyLookup(con, "SELECT * FROM " + table + keyFactory.getPKClause()
                  + (multiversion ? " AND latest = TRUE LIMIT 1" : ""))) {
             dbKey.setPK(pstmt);
             return get(con, pstmt, createDbKey);
@@ -85,6 +139,160 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
         }
     }
 
+    /**
+     * Loads the latest entities of the given keys in a few 'IN' queries and serves them from memory
+     * by {@link #get(DbKey, boolean)} till the end of the current db transaction.
+     * Entity is evicted, when it is inserted or deleted, the all entities are evicted on rollback and truncate.
+     * Does nothing outside of the db transaction.
+     * @param dbKeys keys of the entities, which will be read in the current transaction
+     */
+    @Override
+    public void prefetch(Collection<DbKey> dbKeys) {
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (dbKeys.isEmpty() || !dataSource.isInTransaction()) {
+            return;
+        }
+        PrefetchedEntities prefetchedEntities = prefetched.get();
+        if (prefetchedEntities == null) {
+            prefetchedEntities = new PrefetchedEntities();
+            prefetched.set(prefetchedEntities);
+            dataSource.registerCallback(prefetchedEntities);
+        }
+        WriteBuffer buffer = writeBuffer.get();
+        List<DbKey> keysToLoad = new ArrayList<>(dbKeys.size());
+        for (DbKey dbKey : new LinkedHashSet<>(dbKeys)) {
+            if (!prefetchedEntities.contains(dbKey) && (buffer == null || !buffer.entities.containsKey(dbKey))) {
+                keysToLoad.add(dbKey);
+            }
+        }
+        if (keysToLoad.isEmpty()) {
+            return;
+        }
+        try (Connection con = dataSource.getConnection()) {
+            for (int from = 0; from < keysToLoad.size(); from += PREFETCH_BATCH_SIZE) {
+                List<DbKey> batch = keysToLoad.subList(from, Math.min(keysToLoad.size(), from + PREFETCH_BATCH_SIZE));
+                selectLatest(con, batch, prefetchedEntities.found);
+                for (DbKey dbKey : batch) {
+                    if (!prefetchedEntities.found.containsKey(dbKey)) {
+                        prefetchedEntities.absent.add(dbKey);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    /**
+     * Reads the latest entities of the given keys in a few 'IN' queries, buffered and prefetched entities
+     * are served from memory. Works both inside and outside of the db transaction.
+     * @param dbKeys keys of the entities to read
+     * @return found entities by their keys, keys without the latest entity are omitted
+     */
+    @Override
+    public Map<DbKey, T> get(Collection<DbKey> dbKeys) {
+        Map<DbKey, T> result = new HashMap<>();
+        WriteBuffer buffer = writeBuffer.get();
+        PrefetchedEntities prefetchedEntities = prefetched.get();
+        List<DbKey> keysToLoad = new ArrayList<>(dbKeys.size());
+        for (DbKey dbKey : new LinkedHashSet<>(dbKeys)) {
+            T t = buffer != null ? buffer.entities.get(dbKey) : null;
+            if (t == null && prefetchedEntities != null) {
+                if (prefetchedEntities.absent.contains(dbKey)) {
+                    continue;
+                }
+                t = prefetchedEntities.found.get(dbKey);
+            }
+            if (t != null) {
+                result.put(dbKey, copy(t));
+            } else {
+                keysToLoad.add(dbKey);
+            }
+        }
+        if (keysToLoad.isEmpty()) {
+            return result;
+        }
+        try (Connection con = databaseManager.getDataSource().getConnection()) {
+            for (int from = 0; from < keysToLoad.size(); from += PREFETCH_BATCH_SIZE) {
+                selectLatest(con, keysToLoad.subList(from, Math.min(keysToLoad.size(), from + PREFETCH_BATCH_SIZE)), result);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        return result;
+    }
+
+    private void selectLatest(Connection con, List<DbKey> keys, Map<DbKey, T> result) throws SQLException {
+        try (PreparedStatement pstmt = prepareKeyLookup(con, "SELECT * FROM " + table + " WHERE " + pkInClause(keys.size())
+            + (multiversion ? " AND latest = TRUE" : ""))) {
+            setPKs(pstmt, keys);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    DbKey dbKey = keyFactory.newKey(rs);
+                    result.putIfAbsent(dbKey, load(con, rs, dbKey));
+                }
+            }
+        }
+    }
+
+    /**
+     * Prepares the select of the entities by the keys, which have no buffered writes. Buffered writes of the other
+     * keys do not change the selected entities, so the buffer is not flushed.
+     */
+    private PreparedStatement prepareKeyLookup(Connection con, String sql) throws SQLException {
+        WriteBuffer buffer = writeBuffer.get();
+        if (buffer == null) {
+            return con.prepareStatement(sql);
+        }
+        buffer.keyLookup = true;
+        try {
+            return con.prepareStatement(sql);
+        } finally {
+            buffer.keyLookup = false;
+        }
+    }
+
+    /**
+     * @return 'id IN (?, ?)' for the single column key, '(a, b) IN ((?, ?), (?, ?))' for the multi column key
+     */
+    private String pkInClause(int keys) {
+        String pkColumns = keyFactory.getPKColumns();
+        int columns = pkColumns.split(",").length;
+        String values = columns == 1 ? "?" : "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return (columns == 1 ? pkColumns : "(" + pkColumns + ")") + " IN (" + String.join(", ", Collections.nCopies(keys, values)) + ")";
+    }
+
+    /**
+     * Removes the prefetched entity, so the next {@link #get(DbKey, boolean)} reads the changed entity from the db
+     */
+    protected void evictPrefetched(DbKey dbKey) {
+        PrefetchedEntities prefetchedEntities = prefetched.get();
+        if (prefetchedEntities != null) {
+            prefetchedEntities.found.remove(dbKey);
+            prefetchedEntities.absent.remove(dbKey);
+        }
+    }
+
+    private void evictAllPrefetched() {
+        PrefetchedEntities prefetchedEntities = prefetched.get();
+        if (prefetchedEntities != null) {
+            prefetchedEntities.found.clear();
+            prefetchedEntities.absent.clear();
+        }
+    }
+
+    @Override
+    public int rollback(int height) {
+        evictAllPrefetched();
+        return super.rollback(height);
+    }
+
+    @Override
+    public void truncate() {
+        evictAllPrefetched();
+        super.truncate();
+    }
+
     /**
      * Gets an entity.
      * <p>
@@ -341,6 +549,26 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
         if (dbKey == null) {
             throw new RuntimeException("DbKey not set");
         }
+        evictPrefetched(dbKey);
+        if (supportWriteBuffering()) {
+            WriteBuffer buffer = writeBuffer.get();
+            if (buffer == null) {
+                buffer = new WriteBuffer();
+                writeBuffer.set(buffer);
+            }
+            if (buffer.entities.isEmpty()) {
+                dataSource.registerPendingWrites(buffer);
+            }
+            buffer.entities.put(dbKey, copy(t));
+            if (buffer.entities.size() >= writeBufferBatchSize()) {
+                try (Connection con = dataSource.getConnection()) {
+                    buffer.flush(con);
+                } catch (SQLException e) {
+                    throw new RuntimeException(formatError(e), e);
+                }
+            }
+            return;
+        }
         try (Connection con = dataSource.getConnection()) {
             // update only entity with existing db_id, assuming that 't'
             // entity is the latest and exists on the top of the blockchain
@@ -356,13 +584,124 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
             restoreDeletedColumnIfSupported(con, dbKey, t);
             save(con, t);
         } catch (SQLException e) {
-            String msg = String.format("%s: SQLState=%s, ErrorCode=%d, message=%s"
-                , e.getClass().getName()
-                , e.getSQLState()
-                , e.getErrorCode()
-                ,e.getLocalizedMessage());
-            throw new RuntimeException(msg, e);
+            throw new RuntimeException(formatError(e), e);
+        }
+    }
+
+    private String formatError(SQLException e) {
+        return String.format("%s: SQLState=%s, ErrorCode=%d, message=%s"
+            , e.getClass().getName()
+            , e.getSQLState()
+            , e.getErrorCode()
+            ,e.getLocalizedMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private T copy(T t) {
+        return (T) t.deepCopy();
+    }
+
+    /**
+     * Same as {@link #insert(DerivedEntity)} for the all buffered entities, but 'latest' column updates,
+     * 'deleted' column compensations and MERGE statements are executed in JDBC batches. Previous versions are found by the key instead of the db_id,
+     * because the db_id of the buffered entity may be outdated, when the entity was inserted before by the buffer.
+     */
+    private void flush(Connection con, Map<DbKey, T> entities) throws SQLException {
+        if (multiversion) {
+            try (PreparedStatement pstmt = con.prepareStatement("UPDATE " + table + " SET latest = FALSE"
+                + keyFactory.getPKClause() + " AND latest = TRUE AND height < ?")) {
+                for (Map.Entry<DbKey, T> entry : entities.entrySet()) {
+                    int i = entry.getKey().setPK(pstmt);
+                    pstmt.setInt(i, entry.getValue().getHeight());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        restoreDeletedColumnsIfSupported(con, entities);
+        BatchingConnection batchingConnection = new BatchingConnection(con);
+        for (T t : entities.values()) {
+            save(batchingConnection.getConnection(), t);
+        }
+        batchingConnection.executeBatches();
+    }
+
+    /**
+     * Same as {@link #restoreDeletedColumnIfSupported(Connection, DbKey, DerivedEntity)} for the all flushed entities:
+     * deleted entities at the flushed heights and their previous deleted versions are found by a few 'IN' queries
+     * and the compensation updates are executed in the single JDBC batch.
+     */
+    private void restoreDeletedColumnsIfSupported(Connection con, Map<DbKey, T> entities) throws SQLException {
+        if (!supportDelete()) {
+            return;
+        }
+        Map<Integer, List<DbKey>> keysByHeight = new LinkedHashMap<>();
+        entities.forEach((dbKey, t) -> keysByHeight.computeIfAbsent(t.getHeight(), height -> new ArrayList<>()).add(dbKey));
+        Map<DbKey, Long> prevDeletedDbIds = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<DbKey>> entry : keysByHeight.entrySet()) {
+            int height = entry.getKey();
+            List<DbKey> keys = entry.getValue();
+            for (int from = 0; from < keys.size(); from += PREFETCH_BATCH_SIZE) {
+                List<DbKey> batch = keys.subList(from, Math.min(keys.size(), from + PREFETCH_BATCH_SIZE));
+                // checking our entities existence on their height in 'deleted=true' state
+                List<DbKey> deletedKeys = selectKeys(con, "SELECT " + keyFactory.getPKColumns() + " FROM " + table + " WHERE "
+                    + pkInClause(batch.size()) + " AND height = ? AND deleted = true", batch, height);
+                if (deletedKeys.isEmpty()) {
+                    continue;
+                }
+                // find db_id of the most recent previous record (deleted=true) of each deleted entity
+                try (PreparedStatement pstmt = con.prepareStatement("SELECT " + keyFactory.getPKColumns() + ", MAX(db_id) AS prev_db_id FROM "
+                    + table + " WHERE " + pkInClause(deletedKeys.size()) + " AND height < ? AND deleted = true GROUP BY " + keyFactory.getPKColumns())) {
+                    int i = setPKs(pstmt, deletedKeys);
+                    pstmt.setInt(i, height);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            prevDeletedDbIds.put(keyFactory.newKey(rs), rs.getLong("prev_db_id"));
+                        }
+                    }
+                }
+                for (DbKey dbKey : deletedKeys) {
+                    if (!prevDeletedDbIds.containsKey(dbKey)) {
+                        throw new IllegalStateException("Unable to find previous record for dbKey " + dbKey + ", inconsistent database state (maybe 'delete' flow is broken)");
+                    }
+                }
+            }
+        }
+        if (prevDeletedDbIds.isEmpty()) {
+            return;
         }
+        try (PreparedStatement updatePrevDeleted = con.prepareStatement("UPDATE " + table + " SET deleted = false WHERE db_id = ?")) {
+            for (long prevDbId : prevDeletedDbIds.values()) {
+                updatePrevDeleted.setLong(1, prevDbId);
+                updatePrevDeleted.addBatch();
+            }
+            updatePrevDeleted.executeBatch();
+        }
+    }
+
+    private List<DbKey> selectKeys(Connection con, String sql, List<DbKey> keys, int height) throws SQLException {
+        List<DbKey> selected = new ArrayList<>();
+        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+            int i = setPKs(pstmt, keys);
+            pstmt.setInt(i, height);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    selected.add(keyFactory.newKey(rs));
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return index of the next statement parameter
+     */
+    private int setPKs(PreparedStatement pstmt, List<DbKey> keys) throws SQLException {
+        int i = 1;
+        for (DbKey dbKey : keys) {
+            i = dbKey.setPK(pstmt, i);
+        }
+        return i;
     }
 
     /**
@@ -427,4 +766,63 @@ public abstract class EntityDbTable<T extends DerivedEntity> extends BasicDbTabl
         }
     }
 
+    /**
+     * Entities inserted into the table during the current db transaction, the last insert of the key wins
+     */
+    private class WriteBuffer implements PendingWrites {
+        private final Map<DbKey, T> entities = new LinkedHashMap<>();
+        private boolean keyLookup;
+
+        @Override
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public boolean isAffectedBy(String sql) {
+            return !keyLookup && PendingWrites.super.isAffectedBy(sql);
+        }
+
+        @Override
+        public void flush(Connection con) throws SQLException {
+            if (entities.isEmpty()) {
+                return;
+            }
+            Map<DbKey, T> flushed = new LinkedHashMap<>(entities);
+            entities.clear();
+            try {
+                EntityDbTable.this.flush(con, flushed);
+            } catch (SQLException e) {
+                log.error("Unable to flush {} buffered entities into the table {}: {}", flushed.size(), table, formatError(e));
+                throw e;
+            }
+        }
+
+        @Override
+        public void discard() {
+            entities.clear();
+        }
+    }
+
+    /**
+     * Entities prefetched during the current db transaction, keys without the latest entity are remembered as absent
+     */
+    private class PrefetchedEntities implements TransactionCallback {
+        private final Map<DbKey, T> found = new HashMap<>();
+        private final Set<DbKey> absent = new HashSet<>();
+
+        boolean contains(DbKey dbKey) {
+            return found.containsKey(dbKey) || absent.contains(dbKey);
+        }
+
+        @Override
+        public void commit() {
+            prefetched.remove();
+        }
+
+        @Override
+        public void rollback() {
+            prefetched.remove();
+        }
+    }
 }
@@ -12,6 +12,9 @@ import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public interface EntityDbTableInterface<T extends DerivedEntity> extends DerivedTableInterface<T> {
 
@@ -54,4 +57,28 @@ public interface EntityDbTableInterface<T extends DerivedEntity> extends Derived
     int getCount(PreparedStatement pstmt) throws SQLException;
 
     boolean isMultiversion();
+
+    /**
+     * Loads the entities of the given keys at once to serve the subsequent {@link #get(DbKey)} calls
+     * of the current db transaction from memory. Does nothing by default.
+     * @param dbKeys keys of the entities to load
+     */
+    default void prefetch(Collection<DbKey> dbKeys) {
+    }
+
+    /**
+     * Reads the latest entities of the given keys. Reads them one by one by default.
+     * @param dbKeys keys of the entities to read
+     * @return found entities by their keys, keys without the latest entity are omitted
+     */
+    default Map<DbKey, T> get(Collection<DbKey> dbKeys) {
+        Map<DbKey, T> result = new HashMap<>();
+        for (DbKey dbKey : dbKeys) {
+            T t = get(dbKey);
+            if (t != null) {
+                result.put(dbKey, t);
+            }
+        }
+        return result;
+    }
 }
@@ -11,6 +11,9 @@ import com.apollocurrency.aplwallet.apl.core.utils.DbTableLoadingIterator;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -50,6 +53,18 @@ public class FullyCachedTable<T extends VersionedDeletableEntity> extends DbTabl
         return memTableCache.get(dbKey);
     }
 
+    @Override
+    public Map<DbKey, T> get(Collection<DbKey> dbKeys) {
+        Map<DbKey, T> result = new HashMap<>();
+        for (DbKey dbKey : dbKeys) {
+            T t = memTableCache.get(dbKey);
+            if (t != null) {
+                result.put(dbKey, t);
+            }
+        }
+        return result;
+    }
+
     @Override
     public int rollback(final int height) {
         synchronized (lock) {
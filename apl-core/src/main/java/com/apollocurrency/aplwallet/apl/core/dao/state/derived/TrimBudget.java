@@ -0,0 +1,98 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
+
+import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * I/O budget of the background trim. Derived tables report each committed chunk of deleted rows by
+ * {@link #chunkTrimmed(int)}, the budget bound to the current thread then pauses the trim to keep the configured
+ * rows per second rate and backs off while the node is busy, e.g. processing a block.
+ * <p>Should be consumed only when the trim transaction has no uncommitted changes to not hold the row locks
+ * during the pause. Chunks trimmed by the thread without bound budget are not throttled.</p>
+ */
+@Slf4j
+public class TrimBudget {
+    private static final ThreadLocal<TrimBudget> CURRENT = new ThreadLocal<>();
+    private static final long MIN_BACKOFF_MS = 10;
+    private static final long MAX_BACKOFF_MS = 1000;
+    /**
+     * Trim is resumed after this time even if the node is still busy, to not starve it during the blockchain download
+     */
+    private static final long MAX_BUSY_WAIT_MS = 5000;
+
+    private final BooleanSupplier busy;
+    private final int maxRowsPerSecond;
+    private final AtomicLong trimmedRows = new AtomicLong();
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * @param busy returns true while the trim should back off
+     * @param maxRowsPerSecond max number of rows to delete per second, 0 or negative - unlimited
+     */
+    public TrimBudget(BooleanSupplier busy, int maxRowsPerSecond) {
+        this.busy = busy;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    /**
+     * Run the trim action on the current thread with this budget bound
+     */
+    public void runWith(Runnable action) {
+        TrimBudget previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Report the committed chunk of the trimmed rows and wait when the budget bound to the current thread is exceeded
+     * @param rows number of deleted rows
+     */
+    public static void chunkTrimmed(int rows) {
+        TrimBudget budget = CURRENT.get();
+        if (budget != null) {
+            budget.consume(rows);
+        }
+    }
+
+    void consume(int rows) {
+        if (maxRowsPerSecond > 0) {
+            long expectedTime = trimmedRows.addAndGet(rows) * 1000 / maxRowsPerSecond;
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (expectedTime > elapsed) {
+                ThreadUtils.sleep(expectedTime - elapsed);
+            }
+        }
+        waitWhileBusy();
+    }
+
+    /**
+     * Back off exponentially while the node is busy
+     */
+    public void waitWhileBusy() {
+        long backoff = MIN_BACKOFF_MS;
+        long waited = 0;
+        while (busy.getAsBoolean() && waited < MAX_BUSY_WAIT_MS && !Thread.currentThread().isInterrupted()) {
+            ThreadUtils.sleep(backoff);
+            waited += backoff;
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+        if (waited > 0) {
+            log.trace("Trim backed off for {} ms", waited);
+        }
+    }
+}
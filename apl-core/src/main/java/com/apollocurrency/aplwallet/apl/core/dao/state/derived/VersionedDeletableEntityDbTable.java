@@ -50,6 +50,7 @@ public abstract class VersionedDeletableEntityDbTable<T extends VersionedDerived
         }
         KeyFactory<T> keyFactory = getDbKeyFactory();
         DbKey dbKey = keyFactory.newKey(t);
+        evictPrefetched(dbKey);
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmtCount = con.prepareStatement("SELECT db_id FROM " + table
                  + keyFactory.getPKClause() + " AND height < ? ORDER BY db_id DESC LIMIT 1")
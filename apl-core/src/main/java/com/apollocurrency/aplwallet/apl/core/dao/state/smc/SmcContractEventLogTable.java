@@ -7,6 +7,7 @@ import com.apollocurrency.aplwallet.api.v2.model.ContractEventDetails;
 import com.apollocurrency.aplwallet.apl.core.converter.db.smc.SmcContractEventLogDetailsRowMapper;
 import com.apollocurrency.aplwallet.apl.core.converter.db.smc.SmcContractEventLogRowMapper;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedDbTable;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.TrimBudget;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractEventLogEntry;
@@ -101,6 +102,7 @@ public class SmcContractEventLogTable extends DerivedDbTable<SmcContractEventLog
             do {
                 trimmed = pstmt.executeUpdate();
                 dataSource.commit(false);
+                TrimBudget.chunkTrimmed(trimmed);
             } while (trimmed >= batchCommitSize);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
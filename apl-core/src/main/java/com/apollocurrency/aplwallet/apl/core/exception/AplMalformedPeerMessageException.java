@@ -0,0 +1,17 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.exception;
+
+/**
+ * Thrown when the message received from the peer can not be parsed
+ *
+ * @see AplCoreLogicException
+ */
+public class AplMalformedPeerMessageException extends AplCoreLogicException {
+
+    public AplMalformedPeerMessageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -18,13 +18,18 @@ import com.apollocurrency.aplwallet.apl.util.env.dirprovider.DirProvider;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.event.ObservesAsync;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +37,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 /**
  * Downloadable files info
@@ -47,6 +53,11 @@ public class DownloadableFilesManager {
     public final static long FDI_TTL = 7 * 24 * 3600 * 1000; //7 days in ms
     public final static String FILES_SUBDIR = "downloadables";
     private final Map<String, FileDownloadInfo> fdiCache = new ConcurrentHashMap<>();
+    /**
+     * Read-only channels of the served files, chunks are read by the positional reads, so that
+     * channel may be shared between the concurrent requests
+     */
+    private final Map<String, FileChannel> fileChannels = new ConcurrentHashMap<>();
     public static final Map<String, Integer> LOCATION_KEYS = Map.of("shard", 0, "shardprun", 1, "attachment", 2, "file", 3, "debug", 4);
     public static final String MOD_CHAINID="chainid";
     public static final Map<String, Integer> LOCATION_MODIFIERS = Map.of(MOD_CHAINID, 0);
@@ -80,6 +91,7 @@ public class DownloadableFilesManager {
         }
         //remove from cache anyway
         fdiCache.remove(fileData.getFileId());
+        closeFileChannel(fileData.getFileId());
         //put only if file is already hased
         if (fileData.isHashedOK()) {
             fdiCache.putIfAbsent(fileData.getFileId(), downloadInfo);
@@ -103,6 +115,7 @@ public class DownloadableFilesManager {
 
     public FileDownloadInfo updateFileDownloadInfo(String fileId){
         fdiCache.remove(fileId);
+        closeFileChannel(fileId);
         return  getFileDownloadInfo(fileId);
     }
 
@@ -116,6 +129,96 @@ public class DownloadableFilesManager {
         return fdi;
     }
 
+    /**
+     * Read file chunk directly from the cached file channel into the buffer, which may be sent to the peer as is
+     *
+     * @param fileId id of the file to read
+     * @param offset chunk offset
+     * @param size   chunk size
+     * @return buffer, ready for reading, holding chunk data; buffer's remaining bytes may be less than size,
+     * when end of file is reached
+     * @throws IOException when file does not exist or is not readable
+     */
+    public ByteBuffer readChunk(String fileId, long offset, int size) throws IOException {
+        Objects.requireNonNull(fileId, "fileId is NULL");
+        if (offset < 0 || size < 0 || size > ChunkedFileOps.FILE_CHUNK_SIZE) {
+            throw new IOException("Invalid chunk offset " + offset + " or size " + size + " for file " + fileId);
+        }
+        FileChannel channel = getFileChannel(fileId);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Return CRC of the chunk precomputed during file hashing, when chunk corresponds to the one
+     * from the file download info, otherwise compute CRC of the given data
+     *
+     * @param fileId id of the file
+     * @param offset chunk offset
+     * @param data   chunk data, buffer position is not changed
+     * @return CRC of the chunk
+     */
+    public long getChunkCrc(String fileId, long offset, ByteBuffer data) {
+        FileDownloadInfo fdi = getFileDownloadInfo(fileId);
+        if (fdi.fileInfo.isPresent && fdi.fileInfo.chunkSize > 0) {
+            long index = offset / fdi.fileInfo.chunkSize;
+            if (index < fdi.chunks.size()) {
+                FileChunkInfo chunkInfo = fdi.chunks.get((int) index);
+                if (chunkInfo.offset == offset && chunkInfo.size == data.remaining()) {
+                    return chunkInfo.crc;
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return crc.getValue();
+    }
+
+    private FileChannel getFileChannel(String fileId) throws IOException {
+        FileChannel channel = fileChannels.get(fileId);
+        if (channel == null || !channel.isOpen()) {
+            Path path = mapFileIdToLocalPath(fileId);
+            if (path == null || !Files.isReadable(path)) {
+                throw new IOException("File with id " + fileId + " is not readable");
+            }
+            synchronized (fileChannels) {
+                channel = fileChannels.get(fileId);
+                if (channel == null || !channel.isOpen()) {
+                    channel = FileChannel.open(path, StandardOpenOption.READ);
+                    fileChannels.put(fileId, channel);
+                }
+            }
+        }
+        return channel;
+    }
+
+    private void closeFileChannel(String fileId) {
+        if (fileId == null) {
+            return;
+        }
+        FileChannel channel = fileChannels.remove(fileId);
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Unable to close channel for the file {}", fileId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fileChannels.keySet().forEach(this::closeFileChannel);
+    }
+
     private FileDownloadInfo fillFileDownloadInfo(ChunkedFileOps fops){
         FileDownloadInfo downloadInfo = new FileDownloadInfo();
         Path fpath = fops.getAbsPath();
@@ -159,7 +159,7 @@ public class FileDownloader {
         boolean isLast = false;
         FileChunk fc = p.downloadChunk(fci);
         if (fc != null) {
-            byte[] data = Base64.getDecoder().decode(fc.mime64data);
+            byte[] data = fc.data != null ? fc.data : Base64.getDecoder().decode(fc.mime64data);
             try {
                 fops.writeChunk(fc.info.offset, data, fc.info.crc);
                 setFileChunkState(FileChunkState.SAVED, fci);
@@ -309,7 +309,6 @@ public final class API {
 
 //TODO: do we need it at all?
 //            apiHandler.addServlet(DbShellServlet.class, "/dbshell");
-            apiHandler.addEventListener(new ApiContextListener());
             // Filter to forward requests to new API
             {
                 FilterHolder filterHolder = apiHandler.addFilter(ApiSplitFilter.class, "/*", null);
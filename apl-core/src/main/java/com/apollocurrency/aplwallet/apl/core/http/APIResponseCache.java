@@ -0,0 +1,193 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.cache.APIResponseCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
+import com.apollocurrency.aplwallet.apl.util.JSON;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.EqualsAndHashCode;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the serialized responses of the read-only API requests, which are not changed until the next block.
+ * <p>
+ * Response is identified by the request type, values of the request handler parameters, the last block id and the
+ * cache generation, which is incremented on every block push, pop-off, rescan and db hot swap, so that responses
+ * computed before the block db transaction commit are never served after it. Concurrent identical requests compute
+ * the response once, other requests wait for it. Handlers opt in by the {@link AbstractAPIRequestHandler#cacheResponse()}.
+ */
+@Singleton
+public class APIResponseCache {
+    private final Blockchain blockchain;
+    private final InMemoryCacheManager cacheManager;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+    private Cache<ResponseKey, CachedResponse> cache;
+
+    @Inject
+    public APIResponseCache(Blockchain blockchain, InMemoryCacheManager cacheManager, PropertiesHolder propertiesHolder) {
+        this.blockchain = Objects.requireNonNull(blockchain, "Blockchain is NULL");
+        this.cacheManager = Objects.requireNonNull(cacheManager, "Cache manager is NULL");
+        this.enabled = propertiesHolder.getBooleanProperty("apl.enableAPIResponseCache", true);
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            cache = cacheManager.acquireCache(APIResponseCacheConfig.CACHE_NAME);
+        }
+    }
+
+    /**
+     * @param req API request
+     * @return true when the response of the request may be taken from the cache, requests with the admin password
+     * are always processed to keep the password verification
+     */
+    public boolean isCacheable(HttpServletRequest req) {
+        return cache != null && req.getParameter("adminPassword") == null;
+    }
+
+    /**
+     * Get the cached response or process the request and cache its response
+     *
+     * @param requestType request type
+     * @param parameters  names of the request handler parameters
+     * @param req         API request
+     * @param loader      request processing, which should not return null
+     * @return cached response
+     * @throws AplException when the request processing failed, failed requests are not cached
+     */
+    public JSONStreamAware getResponse(String requestType, List<String> parameters, HttpServletRequest req,
+                                       ResponseLoader loader) throws AplException {
+        Block lastBlock = blockchain.getLastBlock();
+        List<List<String>> values = new ArrayList<>(parameters.size());
+        for (String parameter : parameters) {
+            String[] parameterValues = req.getParameterValues(parameter);
+            values.add(parameterValues == null ? null : Arrays.asList(parameterValues));
+        }
+        ResponseKey key = new ResponseKey(requestType, generation.get(), lastBlock == null ? 0 : lastBlock.getId(), values);
+        try {
+            return cache.get(key, () -> new CachedResponse(loader.load()));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AplException) {
+                throw (AplException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public void onBlockPushed(@Observes @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        invalidate();
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        invalidate();
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        invalidate();
+    }
+
+    public void onRescanEnd(@Observes @BlockEvent(BlockEventType.RESCAN_END) Block block) {
+        invalidate();
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResponseLoader {
+        JSONStreamAware load() throws AplException;
+    }
+
+    @EqualsAndHashCode
+    private static final class ResponseKey {
+        private final String requestType;
+        private final long generation;
+        private final long lastBlockId;
+        private final List<List<String>> parameterValues;
+
+        private ResponseKey(String requestType, long generation, long lastBlockId, List<List<String>> parameterValues) {
+            this.requestType = requestType;
+            this.generation = generation;
+            this.lastBlockId = lastBlockId;
+            this.parameterValues = parameterValues;
+        }
+    }
+
+    /**
+     * Response serialized once, the 'requestProcessingTime' of the json object response is appended on every write
+     */
+    static final class CachedResponse implements JSONStreamAware {
+        private final String json;
+        private final boolean jsonObject;
+
+        CachedResponse(JSONStreamAware response) {
+            Objects.requireNonNull(response, "Cacheable API request handler returned NULL response");
+            this.json = JSON.toString(response);
+            this.jsonObject = response instanceof JSONObject;
+        }
+
+        @Override
+        public void writeJSONString(Writer out) throws IOException {
+            out.write(json);
+        }
+
+        JSONStreamAware withRequestProcessingTime(long requestTime) {
+            if (!jsonObject) {
+                return this;
+            }
+            return out -> {
+                out.write(json, 0, json.length() - 1);
+                if (json.length() > 2) {
+                    out.write(',');
+                }
+                out.write("\"requestProcessingTime\":");
+                out.write(Long.toString(requestTime));
+                out.write('}');
+            };
+        }
+    }
+}
@@ -67,6 +67,7 @@ public final class APIServlet extends HttpServlet {
     private final GlobalSync globalSync; // = CDI.current().select(GlobalSync.class).get();
     private final AdminPasswordVerifier apw; // =  CDI.current().select(AdminPasswordVerifier.class).get();
     private final Account2FAService account2FAService;
+    private final APIResponseCache apiResponseCache;
 
     @Inject
     public APIServlet() {
@@ -75,6 +76,7 @@ public final class APIServlet extends HttpServlet {
         this.globalSync = CDI.current().select(GlobalSync.class).get();
         this.apw = CDI.current().select(AdminPasswordVerifier.class).get();
         this.account2FAService = CDI.current().select(Account2FAService.class).get();
+        this.apiResponseCache = CDI.current().select(APIResponseCache.class).get();
 
 
         Map<String, AbstractAPIRequestHandler> map = new HashMap<>();
@@ -202,7 +204,12 @@ public final class APIServlet extends HttpServlet {
                         response = REQUIRED_LAST_BLOCK_NOT_FOUND;
                         return;
                     }
-                    response = apiRequestHandler.processRequest(req, resp);
+                    if (apiRequestHandler.cacheResponse() && requireBlockId == 0 && apiResponseCache.isCacheable(req)) {
+                        response = apiResponseCache.getResponse(requestType, apiRequestHandler.getParameters(), req,
+                            () -> apiRequestHandler.processRequest(req, resp));
+                    } else {
+                        response = apiRequestHandler.processRequest(req, resp);
+                    }
                     logRequestTime = apiRequestHandler.logRequestTime();
                     if (requireLastBlockId == 0 && requireBlockId != 0 && response instanceof JSONObject) {
                         ((JSONObject) response).put("lastBlock", blockchain.getLastBlock().getStringId());
@@ -240,6 +247,9 @@ public final class APIServlet extends HttpServlet {
                     if (logRequestTime) {
                         LOG.debug("Request \'" + req.getParameter("requestType") + "\' took " + requestTime + " ms");
                     }
+                } else if (response instanceof APIResponseCache.CachedResponse) {
+                    long requestTime = System.currentTimeMillis() - startTime;
+                    response = ((APIResponseCache.CachedResponse) response).withRequestProcessingTime(requestTime);
                 }
                 try (Writer writer = resp.getWriter()) {
                     JSON.writeJSONString(response, writer);
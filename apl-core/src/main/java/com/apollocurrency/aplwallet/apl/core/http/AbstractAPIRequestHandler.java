@@ -384,6 +384,14 @@ public abstract class AbstractAPIRequestHandler {
         return false;
     }
 
+    /**
+     * @return true when the response depends only on the request parameters and the blockchain state, so that it is
+     * not changed until the next block and may be served from the {@link APIResponseCache}
+     */
+    protected boolean cacheResponse() {
+        return false;
+    }
+
     protected boolean is2FAProtected() {
         return false;
     }
@@ -7,40 +7,83 @@ package com.apollocurrency.aplwallet.apl.core.http;
 import org.slf4j.Logger;
 
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Block event source of the account. Events are queued and written by the {@link BlockEventSourceProcessor}
+ * sender threads, one sending at a time.
+ */
 public class BlockEventSource implements org.eclipse.jetty.servlets.EventSource {
     public static final Logger LOG = getLogger(BlockEventSource.class);
-    private Emitter emitter;
-    private volatile boolean shutdown = false;
-    private ThreadPoolExecutor threadPoolExecutor;
-    private long accountId;
+    /**
+     * Max number of the events waiting for the sending, client is too slow, when it is reached
+     */
+    static final int MAX_QUEUED_EVENTS = 16;
+    private volatile Emitter emitter;
+    private final BlockEventSourceProcessor processor;
+    private final long accountId;
+    private final BlockingQueue<String> queuedEvents = new ArrayBlockingQueue<>(MAX_QUEUED_EVENTS);
+    private final AtomicBoolean sending = new AtomicBoolean();
 
-    public BlockEventSource(ThreadPoolExecutor threadPoolExecutor, long accountId) {
-        this.threadPoolExecutor = threadPoolExecutor;
+    public BlockEventSource(BlockEventSourceProcessor processor, long accountId) {
+        this.processor = processor;
         this.accountId = accountId;
     }
 
     @Override
     public void onOpen(Emitter emitter) throws IOException {
         this.emitter = emitter;
-        threadPoolExecutor.execute(new BlockEventSourceProcessor(this, accountId));
+        processor.subscribe(this);
+    }
+
+    /**
+     * @return false, when the queue is full
+     */
+    boolean queueEvent(String dataToSend) {
+        return queuedEvents.offer(dataToSend);
+    }
+
+    boolean hasQueuedEvents() {
+        return !queuedEvents.isEmpty();
+    }
+
+    /**
+     * @return true, when the caller should send the queued events, false, when they are being sent already
+     */
+    boolean startSending() {
+        return sending.compareAndSet(false, true);
     }
 
-    public void emitEvent(String dataToSend) throws IOException {
-        this.emitter.data(dataToSend);
+    /**
+     * Send the queued events and finish the sending started by the {@link #startSending()}
+     */
+    void sendQueuedEvents() throws IOException {
+        try {
+            String dataToSend;
+            while ((dataToSend = queuedEvents.poll()) != null) {
+                emitter.data(dataToSend);
+            }
+        } finally {
+            sending.set(false);
+        }
     }
 
     @Override
     public void onClose() {
         LOG.trace("Close event source");
-        shutdown = true;
+        queuedEvents.clear();
+        processor.unsubscribe(this);
+    }
 
+    public void close() {
+        this.emitter.close();
     }
 
-    public boolean isShutdown() {
-        return shutdown;
+    public long getAccountId() {
+        return accountId;
     }
 }
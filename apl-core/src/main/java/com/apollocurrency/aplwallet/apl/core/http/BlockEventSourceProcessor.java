@@ -4,6 +4,12 @@
 
 package com.apollocurrency.aplwallet.apl.core.http;
 
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEventType;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventType;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
 import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.model.Sort;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
@@ -11,72 +17,283 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountAsset;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountCurrency;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountInfo;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountLease;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.LedgerEntry;
 import com.apollocurrency.aplwallet.apl.core.entity.state.dgs.DGSPurchase;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
 import com.apollocurrency.aplwallet.apl.core.service.state.AliasService;
 import com.apollocurrency.aplwallet.apl.core.service.state.DGSService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountAssetService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurrencyService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountInfoService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
-import com.apollocurrency.aplwallet.apl.core.service.state.account.impl.AccountAssetServiceImpl;
-import com.apollocurrency.aplwallet.apl.core.service.state.account.impl.AccountCurrencyServiceImpl;
-import com.apollocurrency.aplwallet.apl.core.service.state.account.impl.AccountInfoServiceImpl;
-import com.apollocurrency.aplwallet.apl.core.service.state.account.impl.AccountServiceImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.enterprise.inject.spi.CDI;
+import javax.annotation.PreDestroy;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync;
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class BlockEventSourceProcessor implements Runnable {
+/**
+ * Sends the account's blockchain data to the subscribed {@link BlockEventSource}s, when a new block is pushed.
+ * <p>
+ * Account data is cached and shared by all the event sources of the same account. It is built again only for the
+ * accounts affected by the block: the block generator, the senders and recipients of the block transactions and
+ * the accounts having the confirmed account ledger entries or the lease changes during the block apply, which covers
+ * the counterparties of the order matches, dividends, phasing, DGS and others. Other accounts receive the cached data
+ * with the new block. Whole cache is dropped on the block pop-off, rescan and db hot swap.
+ * <p>
+ * Events are queued per event source and written by the sender threads, so the slow client never blocks the block
+ * processing and other clients, event source is closed when its queue is full.
+ */
+@Singleton
+public class BlockEventSourceProcessor {
     private static final Logger LOG = LoggerFactory.getLogger(BlockEventSourceProcessor.class);
-    private final BlockEventSource eventSource;
-    private final long accountId;
-    private final Blockchain blockchain = CDI.current().select(Blockchain.class).get();
-    private final AliasService aliasService = CDI.current().select(AliasService.class).get();
-    private DGSService service = CDI.current().select(DGSService.class).get();
-    private AccountService accountService = CDI.current().select(AccountServiceImpl.class).get();
-    private AccountInfoService accountInfoService = CDI.current().select(AccountInfoServiceImpl.class).get();
-    private AccountAssetService accountAssetService = CDI.current().select(AccountAssetServiceImpl.class).get();
-    private AccountCurrencyService accountCurrencyService = CDI.current().select(AccountCurrencyServiceImpl.class).get();
-
-    public BlockEventSourceProcessor(BlockEventSource eventSource, long accountId) {
-        this.eventSource = eventSource;
-        this.accountId = accountId;
-    }
-
-    @Override
-    public void run() {
-        Block block = blockchain.getLastBlock();
-        Block currentBlock;
+    private static final int SENDER_THREADS = 2;
+    private final Blockchain blockchain;
+    private final GlobalSync globalSync;
+    private final AliasService aliasService;
+    private final DGSService service;
+    private final AccountService accountService;
+    private final AccountInfoService accountInfoService;
+    private final AccountAssetService accountAssetService;
+    private final AccountCurrencyService accountCurrencyService;
+    private final Map<Long, Set<BlockEventSource>> eventSources = new ConcurrentHashMap<>();
+    private final Map<Long, JSONObject> accountDataCache = new ConcurrentHashMap<>();
+    /**
+     * Accounts changed by the blocks applied after the last {@link #onBlockPushed(Block)} processing
+     */
+    private final Set<Long> changedAccounts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean chainReverted = new AtomicBoolean();
+    private final Executor sender;
+
+    @Inject
+    public BlockEventSourceProcessor(Blockchain blockchain, GlobalSync globalSync, AliasService aliasService, DGSService service,
+                                     AccountService accountService, AccountInfoService accountInfoService,
+                                     AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService) {
+        this(blockchain, globalSync, aliasService, service, accountService, accountInfoService, accountAssetService,
+            accountCurrencyService, Executors.newFixedThreadPool(SENDER_THREADS, new NamedThreadFactory("BlockEventSourceSender", true)));
+    }
+
+    BlockEventSourceProcessor(Blockchain blockchain, GlobalSync globalSync, AliasService aliasService, DGSService service,
+                              AccountService accountService, AccountInfoService accountInfoService,
+                              AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService,
+                              Executor sender) {
+        this.blockchain = blockchain;
+        this.globalSync = globalSync;
+        this.sender = sender;
+        this.aliasService = aliasService;
+        this.service = service;
+        this.accountService = accountService;
+        this.accountInfoService = accountInfoService;
+        this.accountAssetService = accountAssetService;
+        this.accountCurrencyService = accountCurrencyService;
+    }
+
+    /**
+     * Register the opened event source and send the current data to it. Data is taken from the cache, but not cached,
+     * so that the cache is changed only by the block processing.
+     */
+    public void subscribe(BlockEventSource eventSource) {
+        long accountId = eventSource.getAccountId();
+        eventSources.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(eventSource);
+        JSONObject accountData = accountDataCache.get(accountId);
+        if (accountData == null) {
+            accountData = getBlockchainData(accountId);
+        }
+        emit(eventSource, getMessage(accountData, getBlockJson(blockchain.getLastBlock())));
+    }
+
+    public void unsubscribe(BlockEventSource eventSource) {
+        eventSources.computeIfPresent(eventSource.getAccountId(), (id, sources) -> {
+            sources.remove(eventSource);
+            if (sources.isEmpty()) {
+                // removed atomically with the subscription, so cached data is never put back for the unsubscribed account
+                accountDataCache.remove(id);
+                return null;
+            }
+            return sources;
+        });
+    }
+
+    public void onLedgerEntry(@Observes @AccountLedgerEvent(AccountLedgerEventType.LOG_ENTRY) LedgerEntry entry) {
+        addChangedAccount(entry.getAccountId());
+    }
+
+    public void onLeaseStarted(@Observes @AccountEvent(AccountEventType.LEASE_STARTED) AccountLease lease) {
+        addChangedAccount(lease.getLessorId());
+        addChangedAccount(lease.getCurrentLesseeId());
+    }
+
+    public void onLeaseEnded(@Observes @AccountEvent(AccountEventType.LEASE_ENDED) AccountLease lease) {
+        addChangedAccount(lease.getLessorId());
+        addChangedAccount(lease.getCurrentLesseeId());
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        chainReverted.set(true);
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        chainReverted.set(true);
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        chainReverted.set(true);
+    }
+
+    /**
+     * Blocks are processed one by one after the commit. Blocks already outrun by the next blocks, which is usual
+     * during the blockchain download, only invalidate the data of the affected accounts without sending it.
+     */
+    public synchronized void onBlockPushed(@ObservesAsync @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        Set<Long> affectedAccounts = getAffectedAccounts(block);
+        boolean reverted;
+        // accounts are collected by the block apply under the write lock, so none of the blocks is half-collected here
+        globalSync.readLock();
         try {
-            eventSource.emitEvent(getMessage());
-            while (!eventSource.isShutdown()) {
+            reverted = chainReverted.getAndSet(false);
+            for (Iterator<Long> iterator = changedAccounts.iterator(); iterator.hasNext(); ) {
+                affectedAccounts.add(iterator.next());
+                iterator.remove();
+            }
+        } finally {
+            globalSync.readUnlock();
+        }
+        if (reverted) {
+            accountDataCache.clear();
+        } else {
+            affectedAccounts.forEach(accountDataCache::remove);
+        }
+        if (eventSources.isEmpty() || block.getId() != blockchain.getLastBlock().getId()) {
+            return;
+        }
+        JSONObject blockJson = getBlockJson(block);
+        for (Map.Entry<Long, Set<BlockEventSource>> entry : eventSources.entrySet()) {
+            long accountId = entry.getKey();
+            String message;
+            try {
+                message = getMessage(getAccountData(accountId), blockJson);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to get sse data for account " + Long.toUnsignedString(accountId), e);
+                continue;
+            }
+            for (BlockEventSource eventSource : entry.getValue()) {
+                emit(eventSource, message);
+            }
+        }
+    }
 
+    private Set<Long> getAffectedAccounts(Block block) {
+        Set<Long> accounts = new HashSet<>();
+        accounts.add(block.getGeneratorId());
+        for (Transaction transaction : block.getTransactions()) {
+            accounts.add(transaction.getSenderId());
+            if (transaction.getRecipientId() != 0) {
+                accounts.add(transaction.getRecipientId());
+            }
+        }
+        return accounts;
+    }
 
-                currentBlock = blockchain.getLastBlock();
-                if (currentBlock.getHeight() > block.getHeight()) {
+    private void addChangedAccount(long accountId) {
+        if (accountId != 0 && eventSources.containsKey(accountId)) {
+            changedAccounts.add(accountId);
+        }
+    }
 
-                    eventSource.emitEvent(getMessage());
+    private void emit(BlockEventSource eventSource, String message) {
+        if (!eventSource.queueEvent(message)) {
+            LOG.debug("Too many pending sse events, closing event source of the account {}",
+                Long.toUnsignedString(eventSource.getAccountId()));
+            close(eventSource);
+            return;
+        }
+        scheduleSending(eventSource);
+    }
 
-                    block = currentBlock;
-                }
-                TimeUnit.SECONDS.sleep(2);
+    private void scheduleSending(BlockEventSource eventSource) {
+        if (eventSource.startSending()) {
+            try {
+                sender.execute(() -> send(eventSource));
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Unable to schedule sse events sending, closing event source: {}", e.toString());
+                close(eventSource);
             }
-        } catch (IOException | InterruptedException e) {
-            LOG.error("Unable to send sse event", e);
         }
-        LOG.trace("Exit event source {}", eventSource.isShutdown());
     }
 
-    protected JSONObject getBlockchainData(Blockchain blockchain) {
+    private void send(BlockEventSource eventSource) {
+        try {
+            eventSource.sendQueuedEvents();
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Unable to send sse event, closing event source: {}", e.toString());
+            close(eventSource);
+            return;
+        }
+        if (eventSource.hasQueuedEvents()) {
+            scheduleSending(eventSource);
+        }
+    }
+
+    private void close(BlockEventSource eventSource) {
+        unsubscribe(eventSource);
+        try {
+            eventSource.close();
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to close event source: {}", e.toString());
+        }
+    }
+
+    /**
+     * Called by the block processing only, so the cached data is never older, than the last invalidation
+     */
+    private JSONObject getAccountData(long accountId) {
+        JSONObject data = accountDataCache.get(accountId);
+        if (data == null) {
+            JSONObject blockchainData = getBlockchainData(accountId);
+            eventSources.computeIfPresent(accountId, (id, sources) -> {
+                accountDataCache.put(id, blockchainData);
+                return sources;
+            });
+            data = blockchainData;
+        }
+        return data;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+    }
+
+    protected JSONObject getBlockJson(Block block) {
+        return JSONData.block(block, false, false);
+    }
+
+    protected JSONObject getBlockchainData(long accountId) {
         JSONArray transactionsArray = new JSONArray();
         List<Transaction> list = blockchain.getTransactions(accountId,
             0, (byte) -1, (byte) -1, 0, false,
@@ -122,9 +339,9 @@ public class BlockEventSourceProcessor implements Runnable {
         return jsonObject;
     }
 
-    public String getMessage() {
-        JSONObject jsonObject = getBlockchainData(blockchain);
-        jsonObject.put("block", JSONData.block(blockchain.getLastBlock(), false, false));
+    private String getMessage(JSONObject accountData, JSONObject blockJson) {
+        JSONObject jsonObject = new JSONObject(accountData);
+        jsonObject.put("block", blockJson);
         return jsonObject.toJSONString();
     }
 
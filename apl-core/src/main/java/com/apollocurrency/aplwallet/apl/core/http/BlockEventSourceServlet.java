@@ -7,13 +7,14 @@ package com.apollocurrency.aplwallet.apl.core.http;
 import org.eclipse.jetty.servlets.EventSource;
 import org.slf4j.Logger;
 
+import javax.enterprise.inject.spi.CDI;
 import javax.servlet.http.HttpServletRequest;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class BlockEventSourceServlet extends org.eclipse.jetty.servlets.EventSourceServlet {
     public static final Logger LOG = getLogger(BlockEventSourceServlet.class);
+    private BlockEventSourceProcessor processor;
 
     @Override
     protected EventSource newEventSource(HttpServletRequest request) {
@@ -25,7 +26,13 @@ public class BlockEventSourceServlet extends org.eclipse.jetty.servlets.EventSou
             return null;
 
         }
-        return new BlockEventSource((ThreadPoolExecutor) request
-            .getServletContext().getAttribute("executor"), accountId);
+        return new BlockEventSource(lookupProcessor(), accountId);
+    }
+
+    private BlockEventSourceProcessor lookupProcessor() {
+        if (processor == null) {
+            processor = CDI.current().select(BlockEventSourceProcessor.class).get();
+        }
+        return processor;
     }
 }
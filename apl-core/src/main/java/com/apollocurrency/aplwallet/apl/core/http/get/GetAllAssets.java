@@ -61,4 +61,9 @@ public final class GetAllAssets extends AbstractAPIRequestHandler {
         return response;
     }
 
+    @Override
+    protected boolean cacheResponse() {
+        return true;
+    }
+
 }
@@ -41,4 +41,9 @@ public final class GetAsset extends AbstractAPIRequestHandler {
         return JSONData.asset(HttpParameterParserUtil.getAsset(req), includeCounts);
     }
 
+    @Override
+    protected boolean cacheResponse() {
+        return true;
+    }
+
 }
@@ -92,4 +92,9 @@ public final class GetBlock extends AbstractAPIRequestHandler {
 
     }
 
+    @Override
+    protected boolean cacheResponse() {
+        return true;
+    }
+
 }
@@ -95,6 +95,16 @@ public interface Transaction {
 
     byte[] getFullHash();
 
+    /**
+     * Canonical signed bytes of the transaction memoized when the transaction is signed, they are used by the
+     * {@link com.apollocurrency.aplwallet.apl.core.transaction.common.TxSerializer#toBytes(Transaction)}
+     * @return serialized signed transaction bytes or null, when the transaction was not signed or was changed after
+     * the signing; the returned array is shared and must not be modified
+     */
+    default byte[] getSerializedBytes() {
+        return null;
+    }
+
     TransactionType getType();
 
     Attachment getAttachment();
@@ -26,6 +26,7 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,11 @@ import static com.apollocurrency.aplwallet.apl.core.transaction.TransactionUtils
 
 @Slf4j
 public class TransactionImpl implements Transaction {
+    /**
+     * Offset of the signature in the V1 transaction bytes: type, subtype, timestamp, deadline, sender public key,
+     * recipient, amount, fee and referenced transaction full hash
+     */
+    private static final int V1_SIGNATURE_OFFSET = 96;
 
     private final short deadline;
     private final long recipientId;
@@ -69,6 +75,7 @@ public class TransactionImpl implements Transaction {
     private volatile String stringId;
     private volatile long senderId;
     private volatile byte[] fullHash;
+    private volatile byte[] serializedBytes;
     private volatile String errorMessage;
     private volatile boolean hasValidSignature = false;
 
@@ -127,6 +134,24 @@ public class TransactionImpl implements Transaction {
         this.fullHash = calculateFullHash(unsignedRawTransaction.array(), signature.bytes());
         this.id = AplIdGenerator.TRANSACTION.getIdByHash(fullHash).longValue();
         this.stringId = Long.toUnsignedString(id);
+        this.serializedBytes = signedBytes(unsignedRawTransaction.array(), signature.bytes());
+    }
+
+    private byte[] signedBytes(byte[] unsignedBytes, byte[] signatureBytes) {
+        if (version >= 2) {
+            // V2 signature is appended to the end of the unsigned transaction bytes
+            byte[] signedBytes = Arrays.copyOf(unsignedBytes, unsignedBytes.length + signatureBytes.length);
+            System.arraycopy(signatureBytes, 0, signedBytes, unsignedBytes.length, signatureBytes.length);
+            return signedBytes;
+        }
+        if (signatureBytes.length == Signature.ECDSA_SIGNATURE_SIZE
+            && unsignedBytes.length >= V1_SIGNATURE_OFFSET + Signature.ECDSA_SIGNATURE_SIZE) {
+            // V1 signature replaces the zeroed signature field of the unsigned transaction bytes
+            byte[] signedBytes = unsignedBytes.clone();
+            System.arraycopy(signatureBytes, 0, signedBytes, V1_SIGNATURE_OFFSET, signatureBytes.length);
+            return signedBytes;
+        }
+        return null;
     }
 
     @Override
@@ -157,6 +182,7 @@ public class TransactionImpl implements Transaction {
     @Override
     public void setFeeATM(long feeATM) {
         this.feeATM = feeATM;
+        this.serializedBytes = null;
     }
 
     public long[] getBackFees() {
@@ -293,6 +319,11 @@ public class TransactionImpl implements Transaction {
         return Convert.toHexString(getFullHash());
     }
 
+    @Override
+    public byte[] getSerializedBytes() {
+        return serializedBytes;
+    }
+
 
     @Override
     public long getSenderId() {
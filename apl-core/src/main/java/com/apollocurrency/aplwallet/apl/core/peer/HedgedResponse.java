@@ -0,0 +1,24 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response of the request sent by {@link PeersService#sendHedged(Peer, java.util.List, com.apollocurrency.aplwallet.api.p2p.request.BaseP2PRequest, com.apollocurrency.aplwallet.apl.core.peer.parser.JsonReqRespParser)}
+ * together with the peer, which returned it
+ *
+ * @param <T> response type
+ */
+@Getter
+@AllArgsConstructor
+public class HedgedResponse<T> {
+    private final Peer peer;
+    /**
+     * Parsed response or null, when no peer responded
+     */
+    private final T response;
+}
@@ -122,12 +122,29 @@ public interface Peer extends Comparable<Peer> {
 
     void sendAsync(BaseP2PRequest request);
 
+    /**
+     * @return true, when binary block and transaction messages may be exchanged with this peer
+     */
+    boolean isBinaryMessagesSupported();
+
+    /**
+     * Send binary message encoded by the {@link com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec}
+     * without waiting for the response
+     * @param message binary message
+     */
+    void sendBinaryAsync(byte[] message);
+
     long getServices();
 
     long getLastActivityTime();
 
     Peer2PeerTransport getP2pTransport();
 
+    /**
+     * @return latency and error rate of the requests sent to this peer
+     */
+    PeerLatencyStats getLatencyStats();
+
     boolean processError(JSONObject request);
 
     void setServices(long code);
@@ -139,7 +156,8 @@ public interface Peer extends Comparable<Peer> {
         PRUNABLE(2),                    // Stores expired prunable messages
         API(4),                         // Provides open API access over http
         API_SSL(8),                     // Provides open API access over https
-        CORS(16);                       // API CORS enabled
+        CORS(16),                       // API CORS enabled
+        BINARY_P2P(32);                 // Accepts binary block and transaction messages
 
         private final long code;        // Service code - must be a power of 2
 
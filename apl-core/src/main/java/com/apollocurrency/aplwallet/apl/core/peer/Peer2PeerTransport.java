@@ -13,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,6 +41,11 @@ public class Peer2PeerTransport {
     private volatile PeerWebSocketClient outboundWebSocket;
     @Getter
     private long lastActivity;
+    /**
+     * Latency of the requests waiting for the response
+     */
+    @Getter
+    private final PeerLatencyStats latencyStats = new PeerLatencyStats();
     private final long number;
 
     public Peer2PeerTransport(@NonNull Peer peer, @NonNull PeerServlet peerServlet, @NonNull TimeLimiter limiter) {
@@ -114,6 +120,22 @@ public class Peer2PeerTransport {
         updateDownloadedVolume(message.length());
     }
 
+    public void onIncomingBinaryMessage(byte[] message, PeerWebSocket ws, Long rqId) {
+        if (rqId == null) {
+            log.debug("Protocol error, requestId=null from {}, binary message of {} bytes", which(), message.length);
+        } else {
+            ResponseWaiter wsrw = requestMap.getValue(rqId);
+            if (wsrw != null) { //this is response we are waiting for
+                wsrw.setBinaryResponse(message);
+            } else {
+                log.trace("Receive new binary request {} - transport {}", rqId, number);
+                peerServlet.doPostWebSocketBinary(this, rqId, message);
+            }
+        }
+        lastActivity = System.currentTimeMillis();
+        updateDownloadedVolume(message.length);
+    }
+
     public Long sendRequest(String message) {
         Long requestId = sendRequestNoResponseWaiter(message);
         if (requestId != null) {
@@ -122,6 +144,15 @@ public class Peer2PeerTransport {
         return requestId;
     }
 
+    public Long sendBinaryRequest(byte[] message) {
+        Long requestId = nextRequestId();
+        if (!sendBinary(message, requestId)) {
+            return null;
+        }
+        requestMap.putValue(requestId, new ResponseWaiter());
+        return requestId;
+    }
+
     private Long sendRequestNoResponseWaiter(String message) {
         Long requestId = nextRequestId();
         boolean sendOK = send(message, requestId);
@@ -133,26 +164,47 @@ public class Peer2PeerTransport {
     }
 
     public String sendAndWaitResponse(String request) {
-        String res = null;
-        Long rqId;
-        boolean sendOK = true;
-        rqId = sendRequest(request);
+        ResponseWaiter wsrw = sendAndWait(request);
+        return wsrw != null ? wsrw.getResponse() : null;
+    }
+
+    /**
+     * Send the request and wait for the response, which may be either the JSON string or the binary message
+     *
+     * @param request request JSON string
+     * @return response waiter holding the received response or null, when request was not sent or response wait
+     * timeout exceeded
+     */
+    public ResponseWaiter sendAndWait(String request) {
+        long startTime = System.currentTimeMillis();
+        Long rqId = sendRequest(request);
         if (rqId == null) {
             log.debug("Exception while sending to websocket of {}", which());
-            sendOK = false;
+            latencyStats.recordFailure();
+            return null;
         }
-        if (sendOK) {
-            res = getResponse(rqId);
+        ResponseWaiter response = awaitResponse(rqId);
+        long latency = System.currentTimeMillis() - startTime;
+        if (response != null) {
+            latencyStats.recordSuccess(latency);
+        } else {
+            latencyStats.recordTimeout(latency);
         }
-        return res;
+        return response;
     }
 
     public String getResponse(Long rqId) {
-        String res = null;
+        ResponseWaiter wsrw = awaitResponse(rqId);
+        return wsrw != null ? wsrw.getResponse() : null;
+    }
+
+    private ResponseWaiter awaitResponse(Long rqId) {
+        ResponseWaiter res = null;
         ResponseWaiter wsrw = requestMap.getValue(rqId);
         if (wsrw != null) {
             try {
-                res = wsrw.get(PeersService.readTimeout);
+                wsrw.get(PeersService.readTimeout);
+                res = wsrw;
             } catch (SocketTimeoutException ex) {
                 log.trace("Timeout exceeded while waiting response from: {} ID: {}", which(), rqId);
             }
@@ -173,7 +225,7 @@ public class Peer2PeerTransport {
         peer.deactivate("Websocket close event");
     }
 
-    private boolean sendToWebSocket(final String wsRequest, PeerWebSocket ws, Long requestId) {
+    private boolean sendToWebSocket(WebSocketSender sender, PeerWebSocket ws, Long requestId) {
         boolean sendOK = false;
         try {
             if (ws == null) {
@@ -181,7 +233,7 @@ public class Peer2PeerTransport {
                 return sendOK;
             }
             log.trace("Send request {}, transport {}", requestId, number);
-            sendOK = ws.send(wsRequest, requestId);
+            sendOK = sender.send(ws);
         } catch (IOException ex) {
             log.debug("Can't sent to " + getHostWithPort(), ex);
         }
@@ -189,14 +241,41 @@ public class Peer2PeerTransport {
     }
 
     public boolean send(String message, Long requestId) {
-        boolean sendOK = false;
         if (StringUtils.isBlank(message )) {
             //we have nothing to send
-            return sendOK;
+            return false;
+        }
+        return send(ws -> ws.send(message, requestId), message.length(), requestId);
+    }
+
+    public boolean sendBinary(byte[] message, Long requestId) {
+        if (message == null || message.length == 0) {
+            //we have nothing to send
+            return false;
         }
+        return send(ws -> ws.sendBinary(message, requestId), message.length, requestId);
+    }
+
+    /**
+     * Send binary message composed of the several parts, see {@link PeerWebSocket#sendBinary(Long, ByteBuffer...)}
+     */
+    public boolean sendBinary(Long requestId, ByteBuffer... parts) {
+        int length = 0;
+        for (ByteBuffer part : parts) {
+            length += part.remaining();
+        }
+        if (length == 0) {
+            //we have nothing to send
+            return false;
+        }
+        return send(ws -> ws.sendBinary(requestId, parts), length, requestId);
+    }
+
+    private boolean send(WebSocketSender sender, int messageLength, Long requestId) {
+        boolean sendOK = false;
         log.trace("Send request {} - transport {}", requestId, number);
         if (isInbound()) {
-            sendOK = sendToWebSocket(message, inboundWebSocket, requestId);
+            sendOK = sendToWebSocket(sender, inboundWebSocket, requestId);
             if (!sendOK) {
                 log.trace("Peer: {} Using inbound web socket. failed. Closing", getHostWithPort());
                 if (inboundWebSocket != null) {
@@ -228,7 +307,7 @@ public class Peer2PeerTransport {
                 sendOK = true;
             }
             if (sendOK) { //send using client socket
-                sendOK = sendToWebSocket(message, outboundWebSocket, requestId);
+                sendOK = sendToWebSocket(sender, outboundWebSocket, requestId);
             }
         }
         if (!sendOK) {
@@ -238,7 +317,7 @@ public class Peer2PeerTransport {
                 p.deactivate(msg);
             }
         } else {
-            updateUploadedVolume(message.length());
+            updateUploadedVolume(messageLength);
         }
         return sendOK;
     }
@@ -269,6 +348,11 @@ public class Peer2PeerTransport {
         inboundWebSocket = pws;
     }
 
+    @FunctionalInterface
+    private interface WebSocketSender {
+        boolean send(PeerWebSocket ws) throws IOException;
+    }
+
     @Override
     public String toString() {
         return "Peer2PeerTransport{" +
@@ -278,6 +362,7 @@ public class Peer2PeerTransport {
             ", downloadedVolume=" + downloadedVolume +
             ", uploadedVolume=" + uploadedVolume +
             ", lastActivity=" + lastActivity +
+            ", latencyStats=" + latencyStats +
             '}';
     }
 }
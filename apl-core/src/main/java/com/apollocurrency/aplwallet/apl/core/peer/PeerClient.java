@@ -107,6 +107,10 @@ public class PeerClient {
 
         if (resp != null && resp.errorCode == 0) {
             fc = resp.chunk;
+            if (fc != null && fc.info.fileId == null) { // binary chunk does not carry file id
+                fc.info.fileId = fci.fileId;
+                fc.info.chunkId = fci.chunkId;
+            }
         } else {
             fc = null;
         }
@@ -28,6 +28,8 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
 import com.apollocurrency.aplwallet.apl.core.http.API;
 import com.apollocurrency.aplwallet.apl.core.http.APIEnum;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.Errors;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryReqRespParser;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.JsonReqRespParser;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
@@ -41,6 +43,7 @@ import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsonorg.JsonOrgModule;
 import com.google.common.util.concurrent.TimeLimiter;
 import lombok.Getter;
@@ -508,6 +511,11 @@ public final class PeerImpl implements Peer {
         return p2pTransport.getLastActivity();
     }
 
+    @Override
+    public PeerLatencyStats getLatencyStats() {
+        return p2pTransport.getLatencyStats();
+    }
+
     @Override
     public JSONObject send(final JSONStreamAware request, UUID chainId) throws PeerNotConnectedException {
         if (getState() != PeerState.CONNECTED) {
@@ -525,6 +533,9 @@ public final class PeerImpl implements Peer {
             log.trace("Try to send request={} to peer={}", request, this.getAnnouncedAddress());
         }
         checkConnectedStatus();
+        if (parser instanceof BinaryReqRespParser && isBinaryMessagesSupported()) {
+            return sendWithBinaryResponse(request, (BinaryReqRespParser<R>) parser);
+        }
         try {
             JSONObject response = sendJSON(mapper.writeValueAsString(request));
 
@@ -542,6 +553,60 @@ public final class PeerImpl implements Peer {
         }
     }
 
+    private <R> R sendWithBinaryResponse(BaseP2PRequest request, BinaryReqRespParser<R> parser) {
+        String stringRequest;
+        try {
+            ObjectNode jsonRequest = mapper.valueToTree(request);
+            jsonRequest.put(BinaryMessageCodec.BINARY_RESPONSE_PARAMETER, true);
+            stringRequest = mapper.writeValueAsString(jsonRequest);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.debug(CAN_NOT_DESERIALIZE_REQUEST_MSG);
+            return null;
+        }
+        ResponseWaiter responseWaiter;
+        try {
+            responseWaiter = p2pTransport.sendAndWait(stringRequest);
+        } catch (RuntimeException e) {
+            log.debug("Exception while sending request to " + getHostWithPort(), e);
+            deactivate("Exception while sending request: " + e.getMessage());
+            return null;
+        }
+        if (responseWaiter == null) {
+            log.trace("Null response from: {}", getHostWithPort());
+            return null;
+        }
+        byte[] binaryResponse = responseWaiter.getBinaryResponse();
+        if (binaryResponse != null) {
+            return parser.parse(binaryResponse);
+        }
+        // peer is able to respond by the JSON, for example, when error occurred
+        JSONObject response = parseResponse(responseWaiter.getResponse());
+        return response != null ? parser.parse(response) : null;
+    }
+
+    @Override
+    public boolean isBinaryMessagesSupported() {
+        return PeersService.isBinaryMessagesEnabled && providesService(Service.BINARY_P2P);
+    }
+
+    @Override
+    public void sendBinaryAsync(byte[] message) {
+        asyncExecutor.submit(() -> {
+            try {
+                checkConnectedStatus();
+            } catch (PeerNotConnectedException e) {
+                log.debug("Peer is not connected: {}", getHostWithPort());
+                return;
+            }
+            try {
+                p2pTransport.sendBinaryRequest(message);
+            } catch (RuntimeException e) {
+                log.debug("Exception while sending binary message to " + getHostWithPort(), e);
+                deactivate("Exception while sending binary message: " + e.getMessage());
+            }
+        });
+    }
+
     @Override
     public void sendAsync(BaseP2PRequest request) {
         asyncExecutor.submit(() -> {
@@ -597,10 +662,19 @@ public final class PeerImpl implements Peer {
     }
 
     private JSONObject sendJSON(String rq) {
+        try {
+            return parseResponse(p2pTransport.sendAndWaitResponse(rq));
+        } catch (RuntimeException e) {
+            log.debug("Exception while sending request to " + getHostWithPort(), e);
+            deactivate("Exception while sending request: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private JSONObject parseResponse(String resp) {
         JSONObject response = null;
 
         try {
-            String resp = p2pTransport.sendAndWaitResponse(rq);
             if (resp == null) {
                 log.trace("Null response from: {}", getHostWithPort());
                 return response;
@@ -0,0 +1,156 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+/**
+ * Latency and error rate of the requests sent to the peer.
+ * <p>
+ * Latency is tracked as the exponentially weighted moving average and as the histogram of logarithmic buckets,
+ * each bucket is about 19% wider than the previous one. The histogram is halved, when it collects
+ * {@link #DECAY_SAMPLES} samples, so the percentiles follow the recent behaviour of the peer.
+ * Requests, which were not answered within the read timeout, count as errors and as samples of the timeout latency,
+ * requests, which were not sent at all, count as errors only.
+ */
+public class PeerLatencyStats {
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double ERROR_SMOOTHING = 0.1;
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    /**
+     * Buckets from 1 ms up to 2^17 ms, about 2 minutes
+     */
+    private static final int BUCKETS = 17 * BUCKETS_PER_DOUBLING + 1;
+    static final int DECAY_SAMPLES = 512;
+    /**
+     * Error rate is capped to not make the score of the always failing peer infinite
+     */
+    private static final double MAX_ERROR_RATE = 0.95;
+
+    private final long[] histogram = new long[BUCKETS];
+    private long samples;
+    private long requests;
+    private long errors;
+    private double averageLatency;
+    private boolean measured;
+    private double errorRate;
+
+    public synchronized void recordSuccess(long latencyMs) {
+        addLatency(latencyMs);
+        addOutcome(false);
+    }
+
+    public synchronized void recordTimeout(long latencyMs) {
+        addLatency(latencyMs);
+        addOutcome(true);
+    }
+
+    public synchronized void recordFailure() {
+        addOutcome(true);
+    }
+
+    /**
+     * @return moving average of the latency in milliseconds, 0 when no response was received yet
+     */
+    public synchronized double getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * @param percentile percentile from 0 to 100 exclusive
+     * @return upper bound of the latency in milliseconds, which the given percent of the recent requests did not
+     * exceed, or -1 when no response was received yet
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (samples == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(samples * percentile / 100);
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += histogram[i];
+            if (count >= Math.max(1, rank)) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(BUCKETS - 1);
+    }
+
+    /**
+     * @return moving average of the failed requests share from 0 to 1
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return number of the latency samples in the histogram, which is halved regularly
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Expected cost of the request to the peer, less is better: the average latency increased by the expected
+     * number of retries. Peers without requests get 0 to be tried first, peers without any response get the worst score.
+     */
+    public synchronized double getScore() {
+        if (!measured) {
+            return requests == 0 ? 0 : Double.MAX_VALUE;
+        }
+        return averageLatency / (1 - Math.min(errorRate, MAX_ERROR_RATE));
+    }
+
+    private void addLatency(long latencyMs) {
+        long latency = Math.max(0, latencyMs);
+        averageLatency = measured ? averageLatency * (1 - LATENCY_SMOOTHING) + latency * LATENCY_SMOOTHING : latency;
+        measured = true;
+        histogram[bucketIndex(latency)]++;
+        if (++samples >= DECAY_SAMPLES) {
+            samples = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] /= 2;
+                samples += histogram[i];
+            }
+        }
+    }
+
+    private void addOutcome(boolean error) {
+        requests++;
+        if (error) {
+            errors++;
+        }
+        errorRate = errorRate * (1 - ERROR_SMOOTHING) + (error ? ERROR_SMOOTHING : 0);
+    }
+
+    static int bucketIndex(long latencyMs) {
+        if (latencyMs <= 1) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(latencyMs) / Math.log(2) * BUCKETS_PER_DOUBLING - 1e-9);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    static long bucketUpperBound(int index) {
+        return (long) Math.floor(Math.pow(2, (double) index / BUCKETS_PER_DOUBLING));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PeerLatencyStats{" +
+            "averageLatency=" + Math.round(averageLatency) +
+            ", p95=" + getPercentile(95) +
+            ", p99=" + getPercentile(99) +
+            ", errorRate=" + errorRate +
+            ", requests=" + requests +
+            '}';
+    }
+}
@@ -22,6 +22,8 @@ package com.apollocurrency.aplwallet.apl.core.peer;
 
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.ShardDao;
+import com.apollocurrency.aplwallet.apl.core.exception.AplMalformedPeerMessageException;
+import com.apollocurrency.aplwallet.apl.core.exception.AplTransactionException;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.AddPeers;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.Errors;
@@ -40,6 +42,7 @@ import com.apollocurrency.aplwallet.apl.core.peer.endpoint.PeerRequestHandler;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.PeerResponses;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.ProcessBlock;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.ProcessTransactions;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessorImpl;
@@ -66,6 +69,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.ExecutorService;
 @Slf4j
@@ -161,6 +165,17 @@ public final class PeerServlet extends WebSocketServlet {
         return res;
     }
 
+    private PeerRequestHandler getBinaryHandler(byte messageType) {
+        switch (messageType) {
+            case BinaryMessageCodec.PROCESS_BLOCK:
+                return CDI.current().select(ProcessBlock.class).get();
+            case BinaryMessageCodec.PROCESS_TRANSACTIONS:
+                return CDI.current().select(ProcessTransactions.class).get();
+            default:
+                return null;
+        }
+    }
+
     /**
      * Configure the WebSocket factory
      *
@@ -199,7 +214,7 @@ public final class PeerServlet extends WebSocketServlet {
     private void doPostWS(Peer2PeerTransport transport, Long requestId, String request) {
 
         lookupComponents();
-        JSONStreamAware jsonResponse;
+        Object jsonResponse;
         //
         // Process the peer request
         //
@@ -225,6 +240,68 @@ public final class PeerServlet extends WebSocketServlet {
             }
         }
         // Return the response
+        if (jsonResponse instanceof byte[] || jsonResponse instanceof ByteBuffer[]) {
+            try {
+                if (jsonResponse instanceof byte[]) {
+                    transport.sendBinary((byte[]) jsonResponse, requestId);
+                } else {
+                    transport.sendBinary(requestId, (ByteBuffer[]) jsonResponse);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Exception while responding to {}", transport.which(), e);
+                processException(peer, e);
+            }
+            return;
+        }
+        sendResponse(transport, peer, requestId, (JSONStreamAware) jsonResponse);
+    }
+
+    void doPostWebSocketBinary(Peer2PeerTransport transport, Long requestId, byte[] message) {
+        threadPool.execute(() -> doPostWSBinary(transport, requestId, message));
+    }
+
+    /**
+     * Process WebSocket binary request
+     *
+     * @param transport WebSocket for the connection
+     * @param requestId Request identifier
+     * @param message   Binary message
+     */
+    private void doPostWSBinary(Peer2PeerTransport transport, Long requestId, byte[] message) {
+        lookupComponents();
+        JSONStreamAware jsonResponse;
+        PeerImpl peer = (PeerImpl) transport.getPeer();
+        if (peer == null) {
+            jsonResponse = PeerResponses.UNKNOWN_PEER;
+        } else if (peer.isBlacklisted()) {
+            jsonResponse = PeerResponses.getBlackisted(peer.getBlacklistingCause());
+        } else if (peer.getVersion() == null) {
+            jsonResponse = PeerResponses.SEQUENCE_ERROR;
+        } else {
+            byte messageType = BinaryMessageCodec.getMessageType(message);
+            PeerRequestHandler peerRequestHandler = getBinaryHandler(messageType);
+            if (peerRequestHandler == null) {
+                log.warn("Unsupported binary message type {}", messageType);
+                jsonResponse = PeerResponses.UNSUPPORTED_REQUEST_TYPE;
+            } else {
+                log.trace("Process binary request: {}, type {}", requestId, messageType);
+                try {
+                    jsonResponse = peerRequestHandler.processBinaryRequest(message, peer);
+                } catch (AplMalformedPeerMessageException | AplTransactionException e) {
+                    log.debug("Invalid binary request, host = '{}', error = {}", peer.getHostWithPort(), e.toString());
+                    peer.blacklist(e);
+                    jsonResponse = PeerResponses.error(e);
+                } catch (RuntimeException e) {
+                    // handlers blacklist the peer on the decoding and validation errors, other errors are local
+                    log.warn("Error processing binary request, host = '{}', error = {}", peer.getHostWithPort(), e.toString());
+                    jsonResponse = PeerResponses.error(e);
+                }
+            }
+        }
+        sendResponse(transport, peer, requestId, jsonResponse);
+    }
+
+    private void sendResponse(Peer2PeerTransport transport, PeerImpl peer, Long requestId, JSONStreamAware jsonResponse) {
         try {
             StringWriter writer = new StringWriter(1000);
             try {
@@ -249,9 +326,9 @@ public final class PeerServlet extends WebSocketServlet {
      *
      * @param peer        Peer
      * @param inputReader Input reader
-     * @return JSON response
+     * @return JSON response or binary response (byte array or buffers), when it was requested and supported by the request handler
      */
-    private JSONStreamAware process(Peer peer, Reader inputReader) {
+    private Object process(Peer peer, Reader inputReader) {
         lookupComponents();
         //
         // Process the request
@@ -310,6 +387,9 @@ public final class PeerServlet extends WebSocketServlet {
                 }
             }
             log.trace("Request Processing: request={} peer={}", requestType, peer.getHostWithPort());
+            if (Boolean.TRUE.equals(request.get(BinaryMessageCodec.BINARY_RESPONSE_PARAMETER)) && PeersService.isBinaryMessagesEnabled) {
+                return peerRequestHandler.processBinaryResponseRequest(request, peer);
+            }
             return peerRequestHandler.processRequest(request, peer);
         } catch (RuntimeException | ParseException | IOException e) {
             log.debug("Error processing POST request, host = '{}', error = {}", peer.getHostWithPort(), e.toString());
@@ -39,6 +39,11 @@ public class PeerWebSocket extends WebSocketAdapter {
      * Compressed message flag
      */
     private static final int FLAG_COMPRESSED = 1;
+    /**
+     * Binary message flag, message payload is encoded using the {@link com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec}
+     * instead of the UTF-8 JSON string
+     */
+    private static final int FLAG_BINARY = 2;
     protected final TimeLimiter limiter;
     /**
      * we use reference here to avoid memory leaks
@@ -135,8 +140,17 @@ public class PeerWebSocket extends WebSocketAdapter {
                     }
                 }
             }
-            String message = new String(msgBytes, StandardCharsets.UTF_8);
             Peer2PeerTransport p = peerReference.get();
+            if ((flags & FLAG_BINARY) != 0) {
+                if (p != null) {
+                    p.onIncomingBinaryMessage(msgBytes, this, rqId);
+                } else {
+                    log.warn("Peer reference is null on websocket incoming binary message, closing websocket");
+                    close();
+                }
+                return;
+            }
+            String message = new String(msgBytes, StandardCharsets.UTF_8);
             if (p != null) {
                 p.onIncomingMessage(message, this, rqId);
             } else {
@@ -160,20 +174,75 @@ public class PeerWebSocket extends WebSocketAdapter {
      * @throws IOException
      */
     public boolean send(String message, Long requestId) throws IOException {
-        boolean sendOk = true;
         if (StringUtils.isBlank(message.trim())) {
             log.warn("Empty request from us to {}", which());
             return false;
         }
+        if (log.isTraceEnabled() && getSession() != null) {
+            log.trace("Send {} - [{} ...] to PeerWebSocket={} from {} -- trace {}", requestId, message, this.getTransport().getPeer().getAnnouncedAddress(), getSession().getLocalAddress().toString(), ThreadUtils.lastNStacktrace(10));
+            //log.trace("Send {} PeerWebSocket={} jettySession={}", message.substring(32), this, sessionToString(getSession()));
+        }
+        return send(message.getBytes(StandardCharsets.UTF_8), requestId, 0);
+    }
+
+    /**
+     * Sends binary websocket message
+     *
+     * @param message   binary message bytes
+     * @param requestId if it is not null, it means it is request otherwise it is
+     *                  response
+     * @return true when message was sent
+     * @throws IOException when unable to send the message
+     */
+    public boolean sendBinary(byte[] message, Long requestId) throws IOException {
+        if (message == null || message.length == 0) {
+            log.warn("Empty binary request from us to {}", which());
+            return false;
+        }
+        log.trace("Send binary {} - {} bytes to {}", requestId, message.length, which());
+        return send(message, requestId, FLAG_BINARY);
+    }
+
+    /**
+     * Sends binary websocket message composed of the several parts without compression, so that parts may be sent
+     * as they were read, for example, from the file. Parts are sent as the single whole frame, so that the send timeout
+     * never leaves the partially sent message in the stream.
+     *
+     * @param requestId if it is not null, it means it is request otherwise it is
+     *                  response
+     * @param parts     binary message parts
+     * @return true when message was sent
+     * @throws IOException when unable to send the message
+     */
+    public boolean sendBinary(Long requestId, ByteBuffer... parts) throws IOException {
+        int length = 0;
+        for (ByteBuffer part : parts) {
+            length += part.remaining();
+        }
+        if (length == 0) {
+            log.warn("Empty binary request from us to {}", which());
+            return false;
+        }
+        if (length + 20 > PeersService.MAX_MESSAGE_SIZE) {
+            throw new ProtocolException("POST request length exceeds max message size");
+        }
+        log.trace("Send binary {} - {} bytes in {} parts to {}", requestId, length, parts.length, which());
+        ByteBuffer buf = ByteBuffer.allocate(length + 20);
+        buf.putInt(version)
+            .putLong(requestId)
+            .putInt(FLAG_BINARY)
+            .putInt(length);
+        for (ByteBuffer part : parts) {
+            buf.put(part.duplicate());
+        }
+        buf.flip();
+        return send(() -> sendBytes(buf));
+    }
+
+    private boolean send(byte[] requestBytes, Long requestId, int flags) throws IOException {
         Session s = getSession();
         if (s != null) {
-            if (log.isTraceEnabled()) {
-                log.trace("Send {} - [{} ...] to PeerWebSocket={} from {} -- trace {}", requestId, message, this.getTransport().getPeer().getAnnouncedAddress(), getSession().getLocalAddress().toString(), ThreadUtils.lastNStacktrace(10));
-                //log.trace("Send {} PeerWebSocket={} jettySession={}", message.substring(32), this, sessionToString(getSession()));
-            }
-            byte[] requestBytes = message.getBytes(StandardCharsets.UTF_8);
             int requestLength = requestBytes.length;
-            int flags = 0;
             if (PeersService.isGzipEnabled && requestLength >= PeersService.MIN_COMPRESS_SIZE) {
                 flags |= FLAG_COMPRESSED;
                 ByteArrayOutputStream outStream = new ByteArrayOutputStream(requestLength);
@@ -192,13 +261,23 @@ public class PeerWebSocket extends WebSocketAdapter {
             if (buf.limit() > PeersService.MAX_MESSAGE_SIZE) {
                 throw new ProtocolException("POST request length exceeds max message size");
             }
+            return send(() -> sendBytes(buf));
+        } else {
+            throw new AplException.AplIOException("Websocket session is null for " + which());
+        }
+    }
+
+    private boolean send(Runnable sender) throws IOException {
+        boolean sendOk = true;
+        Session s = getSession();
+        if (s != null) {
             //synchronizing here
             synchronized (this) {
                 if (getSession() == null) { // check again to prevent NPE after synchronization
                     throw new AplException.AplIOException("Websocket session is null for " + which());
                 }
                 try {
-                    limiter.runWithTimeout(() -> sendBytes(buf), 5000, TimeUnit.MILLISECONDS);
+                    limiter.runWithTimeout(sender, 5000, TimeUnit.MILLISECONDS);
                 } catch (IllegalStateException e) {
                     log.error("Can't send to {}, cause {}", s.getRemoteAddress(), e.getMessage());
                     throw new IOException("Websocket session for " + which(), e);
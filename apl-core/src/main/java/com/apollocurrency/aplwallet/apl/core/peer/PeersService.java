@@ -30,6 +30,8 @@ import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.http.API;
 import com.apollocurrency.aplwallet.apl.core.http.APIEnum;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.JsonReqRespParser;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.BlockConverter;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.BlockConverterCreator;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.UnconfirmedTransactionConverter;
@@ -75,9 +77,11 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -85,6 +89,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -96,7 +101,12 @@ public class PeersService {
     static final int MAX_ANNOUNCED_ADDRESS_LENGTH = 200;
     private static final Logger LOG = LoggerFactory.getLogger(PeersService.class);
     private static final Version MAX_VERSION = Constants.VERSION;
-    private static final int sendTransactionsBatchSize = 200;
+    private static final int sendTransactionsBatchSize = BinaryMessageCodec.MAX_TRANSACTIONS;
+    /**
+     * Requests are not hedged until the peer latency percentiles are measured on this number of responses
+     */
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 50;
     private final static String BACKGROUND_SERVICE_NAME = "PeersService";
     public static int DEFAULT_CONNECT_TIMEOUT = 2000; //2s default websocket connect timeout
     public static int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
@@ -116,8 +126,12 @@ public class PeersService {
     static int webSocketIdleTimeout;
     static boolean useProxy;
     static boolean isGzipEnabled;
+    static boolean isBinaryMessagesEnabled;
     static int minNumberOfKnownPeers;
     static boolean enableHallmarkProtection;
+    static boolean latencyAwarePeerSelection;
+    static int peerExplorationPercent;
+    static boolean peerRequestHedging;
     static boolean usePeersDb;
     static boolean savePeers;
     static boolean cjdnsOnly;
@@ -161,6 +175,7 @@ public class PeersService {
     private JSONStreamAware myPeerInfoRequest;
     private volatile JSONStreamAware myPeerInfoResponse;
     private BlockchainProcessor blockchainProcessor;
+    private BinaryMessageCodec binaryMessageCodec;
     private final TimeService timeService;
     private final UnconfirmedTransactionConverter transactionConverter;
     private final BlockConverter blockConverter;
@@ -202,6 +217,11 @@ public class PeersService {
         return blockchainProcessor;
     }
 
+    private BinaryMessageCodec lookupBinaryMessageCodec() {
+        if (binaryMessageCodec == null) binaryMessageCodec = CDI.current().select(BinaryMessageCodec.class).get();
+        return binaryMessageCodec;
+    }
+
     public void init() {
 
         useProxy = System.getProperty("socksProxyHost") != null || System.getProperty("http.proxyHost") != null;
@@ -270,6 +290,7 @@ public class PeersService {
         pullThreshold = propertiesHolder.getIntProperty("apl.pullThreshold");
         webSocketIdleTimeout = propertiesHolder.getIntProperty("apl.webSocketIdleTimeout");
         isGzipEnabled = propertiesHolder.getBooleanProperty("apl.enablePeerServerGZIPFilter");
+        isBinaryMessagesEnabled = propertiesHolder.getBooleanProperty("apl.enablePeerBinaryMessages", true);
         blacklistingPeriod = propertiesHolder.getIntProperty("apl.blacklistingPeriod") / 1000;
         sendToPeersLimit = propertiesHolder.getIntProperty("apl.sendToPeersLimit");
         usePeersDb = propertiesHolder.getBooleanProperty("apl.usePeersDb") && !propertiesHolder.isOffline();
@@ -277,6 +298,9 @@ public class PeersService {
         getMorePeers = propertiesHolder.getBooleanProperty("apl.getMorePeers");
         cjdnsOnly = propertiesHolder.getBooleanProperty("apl.cjdnsOnly");
         ignorePeerAnnouncedAddress = propertiesHolder.getBooleanProperty("apl.ignorePeerAnnouncedAddress");
+        latencyAwarePeerSelection = propertiesHolder.getBooleanProperty("apl.enableLatencyAwarePeerSelection", true);
+        peerExplorationPercent = propertiesHolder.getIntProperty("apl.peerExplorationPercent", 10);
+        peerRequestHedging = propertiesHolder.getBooleanProperty("apl.enablePeerRequestHedging", false);
 
         if (useProxy) {
             LOG.info("Using a proxy, will not create outbound websockets.");
@@ -412,6 +436,10 @@ public class PeersService {
             }
         }
 
+        if (isBinaryMessagesEnabled) {
+            servicesList.add(Peer.Service.BINARY_P2P);
+        }
+
         long services = 0;
         for (Peer.Service service : servicesList) {
             services |= service.getCode();
@@ -735,7 +763,7 @@ public class PeersService {
     public void sendToSomePeers(Block block) {
         ProcessBlockRequest request = new ProcessBlockRequest(blockConverter.convert(block), blockchainConfig.getChain().getChainId());
         LOG.debug("Send to some peers the block: {} at height: {}, trace - {}", block.getId(), block.getHeight(), ThreadUtils.lastNStacktrace(8));
-        sendToSomePeersAsync(request);
+        sendToSomePeersAsync(request, encodeBinaryMessage(() -> lookupBinaryMessageCodec().encodeBlocks(BinaryMessageCodec.PROCESS_BLOCK, List.of(block))));
     }
 
     public void sendToSomePeers(List<? extends Transaction> transactions) {
@@ -743,12 +771,13 @@ public class PeersService {
         int nextBatchStart = 0;
         while (nextBatchStart < transactions.size()) {
             List<UnconfirmedTransactionDTO> transactionsData = new ArrayList<>();
-            for (int i = nextBatchStart; i < nextBatchStart + sendTransactionsBatchSize && i < transactions.size(); i++) {
-                transactionsData.add(transactionConverter.convert(transactions.get(i)));
+            List<? extends Transaction> batch = transactions.subList(nextBatchStart, Math.min(nextBatchStart + sendTransactionsBatchSize, transactions.size()));
+            for (Transaction transaction : batch) {
+                transactionsData.add(transactionConverter.convert(transaction));
             }
             BaseP2PRequest request = new ProcessTransactionsRequest(transactionsData, blockchainConfig.getChain().getChainId());
             try {
-                sendToSomePeersAsync(request);
+                sendToSomePeersAsync(request, encodeBinaryMessage(() -> lookupBinaryMessageCodec().encodeTransactions(BinaryMessageCodec.PROCESS_TRANSACTIONS, batch)));
             } catch (RejectedExecutionException e) {
                 log.debug("Unable to send async batch, skip it");
             }
@@ -763,7 +792,29 @@ public class PeersService {
             throw new PeerRuntimeException(errorMessage);
         }
     }
+    private byte[] encodeBinaryMessage(Supplier<byte[]> encoder) {
+        if (!isBinaryMessagesEnabled) {
+            return null;
+        }
+        try {
+            return encoder.get();
+        } catch (RuntimeException e) {
+            log.debug("Unable to encode binary message, only JSON will be sent", e);
+            return null;
+        }
+    }
+
     public void sendToSomePeersAsync(BaseP2PRequest request) {
+        sendToSomePeersAsync(request, null);
+    }
+
+    /**
+     * Send request to some connected peers, binary message (when specified) is sent instead of the JSON
+     * request to the peers supporting binary messages
+     * @param request JSON request
+     * @param binaryMessage equivalent binary message or null
+     */
+    public void sendToSomePeersAsync(BaseP2PRequest request, byte[] binaryMessage) {
         sendingService.submit(() -> {
             long time = System.nanoTime();
             checkP2PUp();
@@ -779,7 +830,11 @@ public class PeersService {
                 ) {
                     counterOfPeersToSend--;
                     try {
-                        peer.sendAsync(request);
+                        if (binaryMessage != null && peer.isBinaryMessagesSupported()) {
+                            peer.sendBinaryAsync(binaryMessage);
+                        } else {
+                            peer.sendAsync(request);
+                        }
                     } catch (RejectedExecutionException e) {
                         try {
                             log.debug("Failed to send to peer {} asynchronously, will send synchronously", peer.getHost());
@@ -856,7 +911,95 @@ public class PeersService {
             && (!applyPullThreshold || !enableHallmarkProtection || peer.getWeight() >= pullThreshold));
     }
 
+    /**
+     * Choose the peer randomly or by the hallmark weight, when hallmark protection is enabled.
+     * With the latency aware selection the better of two such choices is taken, so fast peers get most of the requests,
+     * but the fastest one is not overloaded, and peers without requests yet are tried first. The exploration share of
+     * the choices ignores the latency to keep measuring the peers, which were slow before.
+     */
     public Peer getWeightedPeer(List<Peer> selectedPeers) {
+        Peer peer = chooseWeightedPeer(selectedPeers);
+        if (peer == null || !latencyAwarePeerSelection || selectedPeers.size() < 2
+            || ThreadLocalRandom.current().nextInt(100) < peerExplorationPercent) {
+            return peer;
+        }
+        Peer other = chooseWeightedPeer(selectedPeers);
+        return other.getLatencyStats().getScore() < peer.getLatencyStats().getScore() ? other : peer;
+    }
+
+    /**
+     * Send the request to the peer and, when request hedging is enabled and the peer does not respond within its
+     * 95th percentile latency, send the same request to one more peer chosen from the candidates.
+     * The first non-null response wins, the other response is ignored.
+     *
+     * @param peer       peer to ask first
+     * @param candidates peers to choose the second peer from
+     * @return response together with the peer which returned it, or with the first peer and null response, when
+     * no peer responded
+     */
+    public <T> HedgedResponse<T> sendHedged(Peer peer, List<Peer> candidates, BaseP2PRequest request, JsonReqRespParser<T> parser) throws PeerNotConnectedException {
+        long hedgeDelay = getHedgeDelay(peer);
+        if (hedgeDelay < 0) {
+            return new HedgedResponse<>(peer, peer.send(request, parser));
+        }
+        CompletionService<HedgedResponse<T>> completionService = new ExecutorCompletionService<>(peersExecutorService);
+        List<Future<HedgedResponse<T>>> futures = new ArrayList<>(2);
+        futures.add(completionService.submit(() -> new HedgedResponse<>(peer, sendIfConnected(peer, request, parser))));
+        HedgedResponse<T> result = new HedgedResponse<>(peer, null);
+        boolean hedged = false;
+        try {
+            while (futures.size() > 0) {
+                Future<HedgedResponse<T>> completed = hedged ? completionService.take() : completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+                if (completed == null) {
+                    hedged = true;
+                    Peer secondPeer = getWeightedPeer(candidates.stream().filter(p -> !p.equals(peer)).collect(Collectors.toList()));
+                    if (secondPeer != null) {
+                        LOG.debug("Peer {} did not respond in {} ms, send {} to {}", peer.getHostWithPort(), hedgeDelay,
+                            request.getClass().getSimpleName(), secondPeer.getHostWithPort());
+                        futures.add(completionService.submit(() -> new HedgedResponse<>(secondPeer, sendIfConnected(secondPeer, request, parser))));
+                    }
+                    continue;
+                }
+                futures.remove(completed);
+                result = completed.get();
+                if (result.getResponse() != null) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new PeerRuntimeException(e.getCause().toString(), e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+        return result;
+    }
+
+    /**
+     * @return time to wait for the peer response before hedging the request, or -1 when the request should not be
+     * hedged
+     */
+    private long getHedgeDelay(Peer peer) {
+        if (!peerRequestHedging) {
+            return -1;
+        }
+        PeerLatencyStats stats = peer.getLatencyStats();
+        if (stats.getSamples() < MIN_HEDGE_SAMPLES) {
+            return -1;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, stats.getPercentile(95));
+    }
+
+    private <T> T sendIfConnected(Peer peer, BaseP2PRequest request, JsonReqRespParser<T> parser) {
+        try {
+            return peer.send(request, parser);
+        } catch (PeerNotConnectedException e) {
+            return null;
+        }
+    }
+
+    private Peer chooseWeightedPeer(List<Peer> selectedPeers) {
         if (selectedPeers.isEmpty()) {
             return null;
         }
@@ -28,6 +28,10 @@ public class ResponseWaiter {
      * Response message
      */
     private volatile String response;
+    /**
+     * Binary response message
+     */
+    private volatile byte[] binaryResponse;
 
     /**
      * Wait for the response
@@ -56,6 +60,22 @@ public class ResponseWaiter {
         latch.countDown();
     }
 
+    public void setBinaryResponse(byte[] binaryResponse) {
+        this.binaryResponse = binaryResponse;
+        latch.countDown();
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    /**
+     * @return received binary response or null, when response was not received or it is the JSON string
+     */
+    public byte[] getBinaryResponse() {
+        return binaryResponse;
+    }
+
     public boolean isOld() {
         long now = System.currentTimeMillis();
         boolean res = (now - createTime) > WSW_TTL_MS;
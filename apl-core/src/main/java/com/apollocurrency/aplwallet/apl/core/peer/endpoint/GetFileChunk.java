@@ -8,7 +8,7 @@ import com.apollocurrency.aplwallet.api.p2p.request.FileChunkRequest;
 import com.apollocurrency.aplwallet.api.p2p.response.FileChunkResponse;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
-import com.apollocurrency.aplwallet.apl.util.ChunkedFileOps;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -16,7 +16,7 @@ import org.json.simple.JSONStreamAware;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
 import java.util.Base64;
 
 /**
@@ -38,31 +38,51 @@ public class GetFileChunk extends PeerRequestHandler {
 
         FileChunkRequest fcr = mapper.convertValue(request, FileChunkRequest.class);
         log.debug("FileChunkReq = {}", fcr);
-        Path filePath = downloadableFilesManager.mapFileIdToLocalPath(fcr.fileId);
         try {
-            ChunkedFileOps ops = new ChunkedFileOps(filePath.toAbsolutePath());
-            byte[] dataBuf = new byte[fcr.size.intValue()];
-            Integer rres = ops.readChunk(fcr.offset, fcr.size, dataBuf);
-            if (rres != fcr.size.intValue()) {
+            ByteBuffer data = downloadableFilesManager.readChunk(fcr.fileId, fcr.offset, fcr.size.intValue());
+            if (data.remaining() != fcr.size.intValue()) {
                 res.errorCode = -1;
             }
             FileChunk fc = new FileChunk();
-            fc.info.crc = ops.getLastRDChunkCrc();
+            fc.info.crc = downloadableFilesManager.getChunkCrc(fcr.fileId, fcr.offset, data);
             fc.info.fileId = fcr.fileId;
-            fc.info.size = rres.longValue();
+            fc.info.size = (long) data.remaining();
             fc.info.offset = fcr.offset;
-            fc.mime64data = Base64.getEncoder().encodeToString(dataBuf);
+            fc.mime64data = Base64.getEncoder().encodeToString(data.array());
             res.chunk = fc;
+            log.trace("FileChunkResponse = {}", res.chunk.info);
         } catch (IOException ex) {
             log.error("Error reading file with id: " + fcr.fileId, ex);
             res.errorCode = -2;
         }
-        log.trace("FileChunkResponse = {}", res.chunk.info);
         JSONObject response = mapper.convertValue(res, JSONObject.class);
         return response;
 
     }
 
+    /**
+     * Respond by the chunk header followed by the chunk data read from the file channel, without Base64 encoding.
+     * Header and data are copied once into the single websocket frame buffer, when the response is sent
+     */
+    @Override
+    public Object processBinaryResponseRequest(JSONObject request, Peer peer) {
+        FileChunkRequest fcr = mapper.convertValue(request, FileChunkRequest.class);
+        log.debug("Binary FileChunkReq = {}", fcr);
+        try {
+            ByteBuffer data = downloadableFilesManager.readChunk(fcr.fileId, fcr.offset, fcr.size.intValue());
+            if (data.remaining() != fcr.size.intValue()) {
+                return processRequest(request, peer); // respond by the JSON with error code
+            }
+            long crc = downloadableFilesManager.getChunkCrc(fcr.fileId, fcr.offset, data);
+            return new ByteBuffer[]{BinaryMessageCodec.encodeFileChunkHeader(fcr.offset, data.remaining(), crc), data};
+        } catch (IOException ex) {
+            log.error("Error reading file with id: " + fcr.fileId, ex);
+            FileChunkResponse res = new FileChunkResponse();
+            res.errorCode = -2;
+            return mapper.convertValue(res, JSONObject.class);
+        }
+    }
+
     @Override
     public boolean rejectWhileDownloading() {
         return false;
@@ -22,6 +22,7 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
 import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.JSON;
@@ -58,29 +59,49 @@ public class GetNextBlocks extends PeerRequestHandler {
 
     @Override
     public JSONStreamAware processRequest(JSONObject request, Peer peer) {
-
+        JSONStreamAware errorResponse = validateRequest(request);
+        if (errorResponse != null) {
+            return errorResponse;
+        }
         JSONObject response = new JSONObject();
         JSONArray nextBlocksArray = new JSONArray();
-        List<? extends Block> blocks;
-        long blockId = Convert.parseUnsignedLong((String) request.get("blockId"));
+        List<? extends Block> blocks = getNextBlocks(request);
+        blocks.forEach(block -> nextBlocksArray.add(lookupBlockSerializer().getJSONObject(block)));
+        response.put("nextBlocks", nextBlocksArray);
+
+        return response;
+    }
+
+    @Override
+    public Object processBinaryResponseRequest(JSONObject request, Peer peer) {
+        JSONStreamAware errorResponse = validateRequest(request);
+        if (errorResponse != null) {
+            return errorResponse;
+        }
+        return lookupBinaryMessageCodec().encodeBlocks(BinaryMessageCodec.NEXT_BLOCKS, getNextBlocks(request));
+    }
+
+    private JSONStreamAware validateRequest(JSONObject request) {
         List<String> stringList = (List<String>) request.get("blockIds");
-        Blockchain blockchain = lookupBlockchain();
         if (stringList == null) {
             return NO_BLOCK_ID_LIST;
         }
         if (stringList.size() > 36) {
             return TOO_MANY_BLOCKS_REQUESTED;
         }
+        return null;
+    }
+
+    private List<? extends Block> getNextBlocks(JSONObject request) {
+        long blockId = Convert.parseUnsignedLong((String) request.get("blockId"));
+        List<String> stringList = (List<String>) request.get("blockIds");
+        Blockchain blockchain = lookupBlockchain();
         List<Long> idList = new ArrayList<>();
         stringList.forEach(stringId -> idList.add(Convert.parseUnsignedLong(stringId)));
         if (log.isTraceEnabled()) {
             log.trace("blockchain.getBlocksAfter blockId={}, idList={}", blockId, idList.stream().map(Long::toUnsignedString).collect(Collectors.joining(",")));
         }
-        blocks = blockchain.getBlocksAfter(blockId, idList);
-        blocks.forEach(block -> nextBlocksArray.add(lookupBlockSerializer().getJSONObject(block)));
-        response.put("nextBlocks", nextBlocksArray);
-
-        return response;
+        return blockchain.getBlocksAfter(blockId, idList);
     }
 
     @Override
@@ -23,6 +23,7 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
 import com.apollocurrency.aplwallet.apl.util.JSON;
 import lombok.extern.slf4j.Slf4j;
@@ -32,11 +33,13 @@ import org.json.simple.JSONStreamAware;
 
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 @Slf4j
 @Singleton
 public final class GetUnconfirmedTransactions extends PeerRequestHandler {
+    private static final int MAX_TRANSACTIONS = BinaryMessageCodec.MAX_TRANSACTIONS;
     private final TransactionJsonSerializer transactionJsonSerializer = CDI.current().select(TransactionJsonSerializer.class).get();
 
     public GetUnconfirmedTransactions() {
@@ -51,13 +54,8 @@ public final class GetUnconfirmedTransactions extends PeerRequestHandler {
             return JSON.emptyJSON;
         }
 
-        Set<UnconfirmedTransaction> transactionSet = lookupMemPool().getCached(exclude);
-        log.trace("Return {} txs to peer {}", transactionSet.size(), peer.getHost());
         JSONArray transactionsData = new JSONArray();
-        for (Transaction transaction : transactionSet) {
-            if (transactionsData.size() >= 200) {
-                break;
-            }
+        for (Transaction transaction : getTransactions(exclude, peer)) {
             transactionsData.add(transactionJsonSerializer.toJson(transaction));
         }
         JSONObject response = new JSONObject();
@@ -66,6 +64,28 @@ public final class GetUnconfirmedTransactions extends PeerRequestHandler {
         return response;
     }
 
+    @Override
+    public Object processBinaryResponseRequest(JSONObject request, Peer peer) {
+        List<String> exclude = (List<String>) request.get("exclude");
+        if (exclude == null) {
+            return JSON.emptyJSON;
+        }
+        return lookupBinaryMessageCodec().encodeTransactions(BinaryMessageCodec.UNCONFIRMED_TRANSACTIONS, getTransactions(exclude, peer));
+    }
+
+    private List<Transaction> getTransactions(List<String> exclude, Peer peer) {
+        Set<UnconfirmedTransaction> transactionSet = lookupMemPool().getCached(exclude);
+        log.trace("Return {} txs to peer {}", transactionSet.size(), peer.getHost());
+        List<Transaction> transactions = new ArrayList<>(Math.min(transactionSet.size(), MAX_TRANSACTIONS));
+        for (Transaction transaction : transactionSet) {
+            if (transactions.size() >= MAX_TRANSACTIONS) {
+                break;
+            }
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
     @Override
     public boolean rejectWhileDownloading() {
         return false;
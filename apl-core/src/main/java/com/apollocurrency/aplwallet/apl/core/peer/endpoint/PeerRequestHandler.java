@@ -21,6 +21,7 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
@@ -56,6 +57,7 @@ public abstract class PeerRequestHandler {
     private BlockSerializer blockSerializer;
 
     private MemPool memPool;
+    private BinaryMessageCodec binaryMessageCodec;
 
     public PeerRequestHandler() {
         mapper.registerModule(new JsonOrgModule());
@@ -66,6 +68,29 @@ public abstract class PeerRequestHandler {
 
     public abstract boolean rejectWhileDownloading();
 
+    /**
+     * Process the request, which asks for the binary response. By default the JSON response is returned
+     *
+     * @param request request JSON
+     * @param peer    requesting peer
+     * @return binary response (byte array or array of the byte buffers composing the message) or JSON response,
+     * when binary response is not supported or request is not valid
+     */
+    public Object processBinaryResponseRequest(JSONObject request, Peer peer) throws JsonProcessingException {
+        return processRequest(request, peer);
+    }
+
+    /**
+     * Process the binary message encoded by the {@link BinaryMessageCodec}
+     *
+     * @param message binary message
+     * @param peer    sender peer
+     * @return JSON response
+     */
+    public JSONStreamAware processBinaryRequest(byte[] message, Peer peer) {
+        return PeerResponses.UNSUPPORTED_REQUEST_TYPE;
+    }
+
     protected PeersService lookupPeersService() {
         if (peers == null) peers = CDI.current().select(PeersService.class).get();
         return peers;
@@ -99,6 +124,13 @@ public abstract class PeerRequestHandler {
         return transactionProcessor;
     }
 
+    protected BinaryMessageCodec lookupBinaryMessageCodec() {
+        if (binaryMessageCodec == null) {
+            binaryMessageCodec = CDI.current().select(BinaryMessageCodec.class).get();
+        }
+        return binaryMessageCodec;
+    }
+
     protected BlockSerializer lookupBlockSerializer() {
         if (blockSerializer == null) {
             blockSerializer = CDI.current().select(BlockSerializer.class).get();
@@ -22,7 +22,9 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
 
 import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.BlockImpl;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.JSON;
 import com.apollocurrency.aplwallet.apl.util.exception.AplException;
@@ -32,6 +34,7 @@ import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.inject.Singleton;
+import java.util.List;
 
 @Slf4j
 @NoArgsConstructor
@@ -48,10 +51,7 @@ public final class ProcessBlock extends PeerRequestHandler {
         long peerBlockTimestamp = Convert.parseLong(request.get("timestamp"));
         Object timeoutJsonValue = request.get("timeout");
         int peerBlockTimeout = timeoutJsonValue == null ? 0 : ((Long) timeoutJsonValue).intValue();
-        if (lastBlock.getStringId().equals(previousBlockId) ||
-            (Convert.parseUnsignedLong(previousBlockId) == lastBlock.getPreviousBlockId()
-                && (lastBlock.getTimestamp() > peerBlockTimestamp ||
-                peerBlockTimestamp == lastBlock.getTimestamp() && peerBlockTimeout > lastBlock.getTimeout()))) {
+        if (isBetterBlock(lastBlock, Convert.parseUnsignedLong(previousBlockId), peerBlockTimestamp, peerBlockTimeout)) {
             lookupPeersService().peersExecutorService.submit(() -> {
                 try {
                     log.debug("API: need to process better peer block");
@@ -69,6 +69,43 @@ public final class ProcessBlock extends PeerRequestHandler {
         return JSON.emptyJSON;
     }
 
+    @Override
+    public JSONStreamAware processBinaryRequest(byte[] message, Peer peer) {
+        Block lastBlock = lookupBlockchain().getLastBlock();
+        if (lastBlock == null) {
+            return JSON.emptyJSON; // probably node is not loaded with any block
+        }
+        Block peerBlock;
+        try {
+            List<BlockImpl> blocks = lookupBinaryMessageCodec().decodeBlocks(message, BinaryMessageCodec.PROCESS_BLOCK);
+            if (blocks.size() != 1) {
+                throw new AplException.NotValidException("Expected exactly one block, got " + blocks.size());
+            }
+            peerBlock = blocks.get(0);
+        } catch (AplException.NotValidException e) {
+            peer.blacklist(e);
+            return PeerResponses.error(e);
+        }
+        if (isBetterBlock(lastBlock, peerBlock.getPreviousBlockId(), peerBlock.getTimestamp(), peerBlock.getTimeout())) {
+            lookupPeersService().peersExecutorService.submit(() -> {
+                try {
+                    log.debug("API: need to process better binary peer block");
+                    lookupBlockchainProcessor().processPeerBlock(peerBlock);
+                } catch (AplException | RuntimeException e) {
+                    peer.blacklist(e);
+                }
+            });
+        }
+        return JSON.emptyJSON;
+    }
+
+    private boolean isBetterBlock(Block lastBlock, long previousBlockId, long peerBlockTimestamp, int peerBlockTimeout) {
+        return lastBlock.getId() == previousBlockId ||
+            (previousBlockId == lastBlock.getPreviousBlockId()
+                && (lastBlock.getTimestamp() > peerBlockTimestamp ||
+                peerBlockTimestamp == lastBlock.getTimestamp() && peerBlockTimeout > lastBlock.getTimeout()));
+    }
+
     @Override
     public boolean rejectWhileDownloading() {
         return false;
@@ -24,9 +24,11 @@ import com.apollocurrency.aplwallet.api.p2p.request.ProcessTransactionsRequest;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.exception.AplCoreLogicException;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.BinaryMessageCodec;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.ProcessTransactionsRequestParser;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.TransactionDTOConverter;
 import com.apollocurrency.aplwallet.apl.util.JSON;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 import lombok.extern.slf4j.Slf4j;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -71,6 +73,19 @@ public final class ProcessTransactions extends PeerRequestHandler {
 
     }
 
+    @Override
+    public JSONStreamAware processBinaryRequest(byte[] message, Peer peer) {
+        try {
+            List<Transaction> transactions = lookupBinaryMessageCodec().decodeTransactions(message, BinaryMessageCodec.PROCESS_TRANSACTIONS);
+            log.trace("Will process {} binary peer transactions from {}", transactions.size(), peer.getAnnouncedAddress());
+            lookupTransactionProcessor().processPeerTransactions(transactions);
+            return JSON.emptyJSON;
+        } catch (AplException.NotValidException | AplCoreLogicException e) {
+            peer.blacklist(e);
+            return PeerResponses.error(e);
+        }
+    }
+
     @Override
     public boolean rejectWhileDownloading() {
         return false;
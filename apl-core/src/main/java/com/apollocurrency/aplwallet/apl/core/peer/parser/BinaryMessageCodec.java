@@ -0,0 +1,367 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.parser;
+
+import com.apollocurrency.aplwallet.api.p2p.FileChunk;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionBuilderFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
+import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
+import com.apollocurrency.aplwallet.apl.util.env.config.BlockchainProperties;
+import com.apollocurrency.aplwallet.apl.util.io.WriteBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary representation of the P2P messages carrying blocks and transactions, used instead of the JSON
+ * when both peers provide the {@link com.apollocurrency.aplwallet.apl.core.peer.Peer.Service#BINARY_P2P} service.
+ * <p>
+ * Message layout (little-endian): message type byte, items count and the length-prefixed items.
+ * Transaction is represented by its {@link com.apollocurrency.aplwallet.apl.core.transaction.common.TxSerializer} bytes
+ * followed by the prunable attachments JSON and error message, block is represented by its header
+ * fields followed by the transactions. File chunk is represented by its offset, size and CRC followed by the raw data.
+ */
+@Slf4j
+@Singleton
+public class BinaryMessageCodec {
+    /**
+     * Request JSON parameter, which asks peer to respond by the binary message
+     */
+    public static final String BINARY_RESPONSE_PARAMETER = "binaryResponse";
+    /**
+     * Response for the 'getNextBlocks' request
+     */
+    public static final byte NEXT_BLOCKS = 1;
+    /**
+     * Response for the 'getUnconfirmedTransactions' request
+     */
+    public static final byte UNCONFIRMED_TRANSACTIONS = 2;
+    /**
+     * 'processBlock' request
+     */
+    public static final byte PROCESS_BLOCK = 3;
+    /**
+     * 'processTransactions' request
+     */
+    public static final byte PROCESS_TRANSACTIONS = 4;
+    /**
+     * Response for the 'getFileChunk' request
+     */
+    public static final byte FILE_CHUNK = 5;
+    /**
+     * Max number of the blocks in the 'getNextBlocks' response
+     */
+    public static final int MAX_BLOCKS = 36;
+    /**
+     * Max number of the transactions in the 'getUnconfirmedTransactions' response and 'processTransactions' request
+     */
+    public static final int MAX_TRANSACTIONS = 200;
+    private static final int FILE_CHUNK_HEADER_SIZE = 1 + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int NULL_LENGTH = -1;
+
+    private final Blockchain blockchain;
+    private final BlockchainConfig blockchainConfig;
+    private final TransactionBuilderFactory transactionBuilderFactory;
+    private final TransactionJsonSerializer transactionJsonSerializer;
+    private final TxBContext txBContext;
+
+    @Inject
+    public BinaryMessageCodec(Blockchain blockchain, BlockchainConfig blockchainConfig,
+                              TransactionBuilderFactory transactionBuilderFactory,
+                              TransactionJsonSerializer transactionJsonSerializer) {
+        this.blockchain = blockchain;
+        this.blockchainConfig = blockchainConfig;
+        this.transactionBuilderFactory = transactionBuilderFactory;
+        this.transactionJsonSerializer = transactionJsonSerializer;
+        this.txBContext = TxBContext.newInstance(blockchainConfig.getChain());
+    }
+
+    public static byte getMessageType(byte[] message) {
+        return message.length == 0 ? 0 : message[0];
+    }
+
+    public byte[] encodeBlocks(byte messageType, List<? extends Block> blocks) {
+        PayloadResult result = PayloadResult.createLittleEndianByteArrayResult();
+        WriteBuffer buffer = result.getBuffer();
+        buffer.write(messageType);
+        buffer.write(blocks.size());
+        for (Block block : blocks) {
+            writeBlock(block, buffer);
+        }
+        return result.array();
+    }
+
+    public byte[] encodeTransactions(byte messageType, List<? extends Transaction> transactions) {
+        PayloadResult result = PayloadResult.createLittleEndianByteArrayResult();
+        WriteBuffer buffer = result.getBuffer();
+        buffer.write(messageType);
+        buffer.write(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeTransaction(transaction, buffer);
+        }
+        return result.array();
+    }
+
+    /**
+     * Parse blocks from the binary message, block signatures are verified, transaction signatures are verified
+     * in parallel by the {@link com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier}
+     * before the block push. Items counts are checked against the protocol limits before the allocation.
+     *
+     * @param message binary message
+     * @param expectedType expected message type
+     * @return parsed blocks
+     * @throws AplException.NotValidException when message is malformed or block is not valid
+     */
+    public List<BlockImpl> decodeBlocks(byte[] message, byte expectedType) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = wrap(message, expectedType);
+            int count = readCount(buffer, expectedType == PROCESS_BLOCK ? 1 : MAX_BLOCKS);
+            long baseTarget = blockchainConfig.getCurrentConfig().getInitialBaseTarget();
+            int maxBlockTransactions = getMaxBlockTransactions();
+            List<BlockImpl> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(readBlock(buffer, baseTarget, maxBlockTransactions));
+            }
+            checkFullyRead(buffer);
+            return blocks;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new AplException.NotValidException("Malformed binary blocks message: " + e);
+        }
+    }
+
+    /**
+     * Parse transactions from the binary message, transaction signatures are not verified. Items count is checked
+     * against the protocol limit before the allocation.
+     *
+     * @param message binary message
+     * @param expectedType expected message type
+     * @return parsed transactions
+     * @throws AplException.NotValidException when message is malformed or transaction is not valid
+     */
+    public List<Transaction> decodeTransactions(byte[] message, byte expectedType) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = wrap(message, expectedType);
+            int count = readCount(buffer, MAX_TRANSACTIONS);
+            List<Transaction> transactions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                transactions.add(readTransaction(buffer));
+            }
+            checkFullyRead(buffer);
+            return transactions;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new AplException.NotValidException("Malformed binary transactions message: " + e);
+        }
+    }
+
+    /**
+     * Create header of the file chunk message, which should be followed by the chunk data
+     *
+     * @param offset chunk offset
+     * @param size   chunk data size
+     * @param crc    chunk data CRC
+     * @return buffer, ready for reading, holding the header
+     */
+    public static ByteBuffer encodeFileChunkHeader(long offset, int size, long crc) {
+        return ByteBuffer.allocate(FILE_CHUNK_HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .put(FILE_CHUNK)
+            .putLong(offset)
+            .putInt(size)
+            .putLong(crc)
+            .flip();
+    }
+
+    /**
+     * Parse file chunk message created from the {@link #encodeFileChunkHeader(long, int, long)} and chunk data
+     *
+     * @param message binary message
+     * @return file chunk with raw data set, CRC of the data is not verified
+     * @throws AplException.NotValidException when message is malformed
+     */
+    public static FileChunk decodeFileChunk(byte[] message) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = wrap(message, FILE_CHUNK);
+            FileChunk fileChunk = new FileChunk();
+            fileChunk.info.offset = buffer.getLong();
+            int size = buffer.getInt();
+            fileChunk.info.crc = buffer.getLong();
+            if (size != buffer.remaining()) {
+                throw new AplException.NotValidException("File chunk size " + size + " does not match data length " + buffer.remaining());
+            }
+            fileChunk.info.size = (long) size;
+            fileChunk.data = new byte[size];
+            buffer.get(fileChunk.data);
+            return fileChunk;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Malformed binary file chunk message: " + e);
+        }
+    }
+
+    private void writeBlock(Block block, WriteBuffer buffer) {
+        buffer.write(block.getVersion());
+        buffer.write(block.getTimestamp());
+        buffer.write(block.getPreviousBlockId());
+        buffer.write(block.getTotalAmountATM());
+        buffer.write(block.getTotalFeeATM());
+        buffer.write(block.getPayloadLength());
+        writeBytes(block.getPayloadHash(), buffer);
+        writeBytes(block.getGeneratorPublicKey(), buffer);
+        writeBytes(block.getGenerationSignature(), buffer);
+        writeBytes(block.getBlockSignature(), buffer);
+        writeBytes(block.getPreviousBlockHash(), buffer);
+        buffer.write(block.getTimeout());
+        List<Transaction> transactions = blockchain.loadBlockData(block).getTransactions();
+        buffer.write(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeTransaction(transaction, buffer);
+        }
+    }
+
+    private BlockImpl readBlock(ByteBuffer buffer, long baseTarget, int maxTransactions) throws AplException.NotValidException {
+        int version = buffer.getInt();
+        int timestamp = buffer.getInt();
+        long previousBlockId = buffer.getLong();
+        long totalAmountATM = buffer.getLong();
+        long totalFeeATM = buffer.getLong();
+        int payloadLength = buffer.getInt();
+        byte[] payloadHash = readBytes(buffer);
+        byte[] generatorPublicKey = readBytes(buffer);
+        byte[] generationSignature = readBytes(buffer);
+        byte[] blockSignature = readBytes(buffer);
+        byte[] previousBlockHash = readBytes(buffer);
+        int timeout = buffer.getInt();
+        if (generatorPublicKey == null) {
+            throw new AplException.NotValidException("Generator public key is not set for the block with timestamp " + timestamp);
+        }
+        int count = readCount(buffer, maxTransactions);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(readTransaction(buffer));
+        }
+        BlockImpl block = new BlockImpl(version, timestamp, previousBlockId, totalAmountATM, totalFeeATM, payloadLength,
+            payloadHash, generatorPublicKey, generationSignature, blockSignature, previousBlockHash, timeout, transactions, baseTarget);
+        if (!block.checkSignature()) {
+            throw new AplException.NotValidException("Invalid block signature, block: " + block.getStringId());
+        }
+        return block;
+    }
+
+    private void writeTransaction(Transaction transaction, WriteBuffer buffer) {
+        writeBytes(txBContext.createSerializer(transaction.getVersion()).toBytes(transaction), buffer);
+        JSONObject prunableJSON = transactionJsonSerializer.getPrunableAttachmentJSON(transaction);
+        writeString(prunableJSON != null ? prunableJSON.toJSONString() : null, buffer);
+        writeString(transaction.getErrorMessage().orElse(null), buffer);
+    }
+
+    private Transaction readTransaction(ByteBuffer buffer) throws AplException.NotValidException {
+        byte[] transactionBytes = readBytes(buffer);
+        String prunableJSONString = readString(buffer);
+        String errorMessage = readString(buffer);
+        if (transactionBytes == null) {
+            throw new AplException.NotValidException("Transaction bytes are not set");
+        }
+        JSONObject prunableJSON = null;
+        if (prunableJSONString != null) {
+            try {
+                prunableJSON = (JSONObject) JSONValue.parseWithException(prunableJSONString);
+            } catch (ParseException | ClassCastException e) {
+                throw new AplException.NotValidException("Unable to parse prunable attachments: " + e);
+            }
+        }
+        Transaction transaction = transactionBuilderFactory.newTransaction(transactionBytes, prunableJSON);
+        if (errorMessage != null) {
+            transaction.fail(errorMessage);
+        }
+        return transaction;
+    }
+
+    /**
+     * @return max number of the block transactions at any height, so that the blocks of the different heights
+     * from the same message are accepted; exact limit is checked by the block validation
+     */
+    private int getMaxBlockTransactions() {
+        return blockchainConfig.getChain().getBlockchainProperties().values().stream()
+            .mapToInt(BlockchainProperties::getMaxNumberOfTransactions)
+            .max()
+            .orElseGet(() -> blockchainConfig.getCurrentConfig().getMaxNumberOfTransactions());
+    }
+
+    private static ByteBuffer wrap(byte[] message, byte expectedType) throws AplException.NotValidException {
+        if (message.length > PeersService.MAX_MESSAGE_SIZE) {
+            throw new AplException.NotValidException("Binary message size " + message.length + " exceeds max size " + PeersService.MAX_MESSAGE_SIZE);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(message).order(ByteOrder.LITTLE_ENDIAN);
+        byte type = buffer.get();
+        if (type != expectedType) {
+            throw new AplException.NotValidException("Unexpected binary message type " + type + ", expected " + expectedType);
+        }
+        return buffer;
+    }
+
+    private static int readCount(ByteBuffer buffer, int maxCount) throws AplException.NotValidException {
+        int count = buffer.getInt();
+        if (count < 0 || count > maxCount || count > buffer.remaining()) {
+            throw new AplException.NotValidException("Invalid items count " + count + ", max count " + maxCount
+                + ", remaining bytes " + buffer.remaining());
+        }
+        return count;
+    }
+
+    private static void checkFullyRead(ByteBuffer buffer) throws AplException.NotValidException {
+        if (buffer.hasRemaining()) {
+            throw new AplException.NotValidException("Binary message is too long, " + buffer.remaining() + " extra bytes");
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, WriteBuffer buffer) {
+        if (bytes == null) {
+            buffer.write(NULL_LENGTH);
+        } else {
+            buffer.write(bytes.length);
+            buffer.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) throws AplException.NotValidException {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new AplException.NotValidException("Invalid length " + length + ", remaining bytes " + buffer.remaining());
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeString(String value, WriteBuffer buffer) {
+        writeBytes(value != null ? value.getBytes(StandardCharsets.UTF_8) : null, buffer);
+    }
+
+    private static String readString(ByteBuffer buffer) throws AplException.NotValidException {
+        byte[] bytes = readBytes(buffer);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+}
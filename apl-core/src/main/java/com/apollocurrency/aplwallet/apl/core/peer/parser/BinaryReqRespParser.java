@@ -0,0 +1,15 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.parser;
+
+/**
+ * Parser of the response, which may be received either in the JSON or in the binary form, see {@link BinaryMessageCodec}.
+ * JSON form is used by peers, which do not support binary messages.
+ *
+ * @param <T> parsed response type
+ */
+public interface BinaryReqRespParser<T> extends JsonReqRespParser<T> {
+    T parse(byte[] message);
+}
@@ -6,12 +6,28 @@ package com.apollocurrency.aplwallet.apl.core.peer.parser;
 
 import com.apollocurrency.aplwallet.api.p2p.response.FileChunkResponse;
 import com.apollocurrency.aplwallet.apl.util.JSON;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import lombok.extern.slf4j.Slf4j;
 import org.json.simple.JSONObject;
 
-public class FileChunkResponseParser implements JsonReqRespParser<FileChunkResponse> {
+@Slf4j
+public class FileChunkResponseParser implements BinaryReqRespParser<FileChunkResponse> {
     @Override
     public FileChunkResponse parse(JSONObject json) {
         return JSON.getMapper().convertValue(json, FileChunkResponse.class);
     }
 
+    @Override
+    public FileChunkResponse parse(byte[] message) {
+        FileChunkResponse response = new FileChunkResponse();
+        try {
+            response.chunk = BinaryMessageCodec.decodeFileChunk(message);
+        } catch (AplException.NotValidException e) {
+            log.debug("Failed to parse binary file chunk: {}", e.getMessage());
+            response.errorCode = -3;
+            response.error = e.getMessage();
+        }
+        return response;
+    }
+
 }
@@ -21,16 +21,18 @@ import java.util.List;
 
 @Slf4j
 @Singleton
-public class GetNextBlocksResponseParser implements JsonReqRespParser<GetNextBlocksResponse> {
+public class GetNextBlocksResponseParser implements BinaryReqRespParser<GetNextBlocksResponse> {
     private final BlockParser blockParser;
     private final BlockchainConfig blockchainConfig;
+    private final BinaryMessageCodec binaryMessageCodec;
 
-    private final static int MAX_BLOCKS = 36;
+    private final static int MAX_BLOCKS = BinaryMessageCodec.MAX_BLOCKS;
 
     @Inject
-    public GetNextBlocksResponseParser(BlockParser blockParser, BlockchainConfig blockchainConfig) {
+    public GetNextBlocksResponseParser(BlockParser blockParser, BlockchainConfig blockchainConfig, BinaryMessageCodec binaryMessageCodec) {
         this.blockParser = blockParser;
         this.blockchainConfig = blockchainConfig;
+        this.binaryMessageCodec = binaryMessageCodec;
     }
 
     @Override
@@ -69,4 +71,29 @@ public class GetNextBlocksResponseParser implements JsonReqRespParser<GetNextBlo
         return new GetNextBlocksResponse(blockList);
     }
 
+    @Override
+    public GetNextBlocksResponse parse(byte[] message) {
+        List<Block> blockList = new ArrayList<>();
+        try {
+            List<BlockImpl> blocks = binaryMessageCodec.decodeBlocks(message, BinaryMessageCodec.NEXT_BLOCKS);
+            if (blocks.size() > MAX_BLOCKS) {
+                GetNextBlocksResponse nextBlocksResponse = new GetNextBlocksResponse(blockList);
+                nextBlocksResponse.setErrorCode(1);
+                nextBlocksResponse.setCause("Too many nextBlocks");
+                return nextBlocksResponse;
+            }
+            for (BlockImpl block : blocks) {
+                block.getTransactions().forEach(Transaction::resetFail); // error messages should be obtained node independently
+                blockList.add(block);
+            }
+        } catch (AplException.NotValidException | RuntimeException e) {
+            log.debug("Failed to parse binary block(s): " + e.toString(), e);
+            GetNextBlocksResponse nextBlocksResponse = new GetNextBlocksResponse(blockList);
+            nextBlocksResponse.setErrorCode(1);
+            nextBlocksResponse.setCause("Failed to parse block(s): " + e.toString());
+            return nextBlocksResponse;
+        }
+        return new GetNextBlocksResponse(blockList);
+    }
+
 }
@@ -0,0 +1,52 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.parser;
+
+import com.apollocurrency.aplwallet.api.p2p.response.GetUnconfirmedTransactionsResponse;
+import com.apollocurrency.aplwallet.apl.core.exception.AplMalformedPeerMessageException;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.rest.converter.TransactionDTOConverter;
+import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import org.json.simple.JSONObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Parses 'getUnconfirmedTransactions' response received either in the JSON or binary form into the list of transactions
+ */
+public class UnconfirmedTransactionsResponseParser implements BinaryReqRespParser<List<Transaction>> {
+    private final GetUnconfirmedTransactionsResponseParser jsonParser = new GetUnconfirmedTransactionsResponseParser();
+    private final TransactionDTOConverter dtoConverter;
+    private final BinaryMessageCodec binaryMessageCodec;
+
+    public UnconfirmedTransactionsResponseParser(TransactionDTOConverter dtoConverter, BinaryMessageCodec binaryMessageCodec) {
+        this.dtoConverter = dtoConverter;
+        this.binaryMessageCodec = binaryMessageCodec;
+    }
+
+    @Override
+    public List<Transaction> parse(JSONObject json) {
+        GetUnconfirmedTransactionsResponse response = jsonParser.parse(json);
+        if (response == null || CollectionUtil.isEmpty(response.unconfirmedTransactions)) {
+            return Collections.emptyList();
+        }
+        return response.unconfirmedTransactions
+            .stream()
+            .map(dtoConverter::convert)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> parse(byte[] message) {
+        try {
+            return binaryMessageCodec.decodeTransactions(message, BinaryMessageCodec.UNCONFIRMED_TRANSACTIONS);
+        } catch (AplException.NotValidException e) {
+            throw new AplMalformedPeerMessageException("Unable to parse binary unconfirmed transactions", e);
+        }
+    }
+}
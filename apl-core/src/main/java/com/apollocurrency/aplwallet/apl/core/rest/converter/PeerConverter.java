@@ -6,6 +6,7 @@ package com.apollocurrency.aplwallet.apl.core.rest.converter;
 
 import com.apollocurrency.aplwallet.api.dto.PeerDTO;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.PeerLatencyStats;
 import com.apollocurrency.aplwallet.apl.util.api.converter.Converter;
 
 import java.util.ArrayList;
@@ -58,6 +59,16 @@ public class PeerConverter implements Converter<Peer, PeerDTO> {
 
         dto.setBlockchainState(peer.getBlockchainState().name());
         dto.setChainId(peer.getChainId() == null ? null : peer.getChainId().toString());
+        PeerLatencyStats latencyStats = peer.getLatencyStats();
+        if (latencyStats != null && latencyStats.getRequests() > 0) {
+            dto.setLatencyAverage(Math.round(latencyStats.getAverageLatency()));
+            if (latencyStats.getSamples() > 0) {
+                dto.setLatencyP95(latencyStats.getPercentile(95));
+                dto.setLatencyP99(latencyStats.getPercentile(99));
+            }
+            dto.setErrorRate(latencyStats.getErrorRate());
+            dto.setRequests(latencyStats.getRequests());
+        }
         return dto;
 
     }
@@ -96,7 +96,7 @@ public class NetworkController {
     @Produces(MediaType.APPLICATION_JSON)
     @Operation(
         summary = "Returns information about a given peer.",
-        description = "Returns peer information by host address.",
+        description = "Returns peer information by host address, including the latency (ms) and the error rate of the requests sent to the peer.",
         tags = {"networking"},
         parameters = {},
         responses = {
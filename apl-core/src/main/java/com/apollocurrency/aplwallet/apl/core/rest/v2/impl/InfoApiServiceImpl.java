@@ -71,7 +71,7 @@ public class InfoApiServiceImpl implements InfoApiService {
         response.setUnconfirmedTxCacheSize(memPool.getCount());
         response.setPendingProcessingTxCount(memPool.processingQueueSize());
         response.setProcessLaterTxCount(memPool.getProcessLaterCount());
-        response.setUnconfirmedTxCount(memPool.getSavedCount());
+        response.setUnconfirmedTxCount(memPool.getCount());
         response.setRemovedTxCount(memPool.getRemovedSize());
         response.setReferencedTxCount(memPool.getReferencedCount());
         response.setBlockchainHeight(blockChainInfoService.getHeight());
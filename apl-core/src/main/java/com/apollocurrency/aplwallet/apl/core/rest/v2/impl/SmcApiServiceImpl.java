@@ -39,6 +39,7 @@ import com.apollocurrency.aplwallet.apl.core.service.state.smc.ContractToolServi
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcContractRepository;
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcContractService;
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcFuelValidator;
+import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcViewMethodCache;
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.impl.SmcBlockchainIntegratorFactory;
 import com.apollocurrency.aplwallet.apl.core.signature.MultiSigCredential;
 import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
@@ -118,6 +119,7 @@ class SmcApiServiceImpl implements SmcApiService {
     private final MethodSpecMapper methodSpecMapper;
     private final ElGamalEncryptor elGamal;
     private final SmcFuelValidator fuelValidator;
+    private final SmcViewMethodCache viewMethodCache;
 
 
     @Inject
@@ -135,7 +137,8 @@ class SmcApiServiceImpl implements SmcApiService {
                              MethodSpecMapper methodSpecMapper,
                              @Property(name = "apl.maxAPIRecords", defaultValue = "100") int maxAPIRecords,
                              ElGamalEncryptor elGamal,
-                             SmcFuelValidator fuelValidator) {
+                             SmcFuelValidator fuelValidator,
+                             SmcViewMethodCache viewMethodCache) {
         this.accountService = accountService;
         this.contractRepository = contractRepository;
         this.contractService = contractService;
@@ -151,6 +154,7 @@ class SmcApiServiceImpl implements SmcApiService {
         this.maxAPIRecords = maxAPIRecords;
         this.elGamal = elGamal;
         this.fuelValidator = fuelValidator;
+        this.viewMethodCache = viewMethodCache;
     }
 
     @Override
@@ -555,22 +559,25 @@ class SmcApiServiceImpl implements SmcApiService {
     }
 
     private List<ResultValue> processAllViewMethods(Address contractAddress, List<ContractMethod> members, ExecutionLog executionLog) {
-        SmartContract smartContract = contractRepository.loadContract(
-            contractAddress,
-            contractAddress,
-            new ContractFuel(contractAddress, BigInteger.ZERO, BigInteger.ONE)
-        );
         var methods = methodMapper.convert(members);
-        var context = smcConfig.asViewContext(accountService.getBlockchainHeight(),
-            smartContract,
-            integratorFactory.createReadonlyProcessor()
-        );
+        var methodsWithParams = methods.stream().map(SmartMethod::getMethodWithParams).collect(Collectors.toList());
+        return viewMethodCache.getResults(contractAddress, methodsWithParams, executionLog, () -> {
+            SmartContract smartContract = contractRepository.loadViewContract(
+                contractAddress,
+                contractAddress,
+                new ContractFuel(contractAddress, BigInteger.ZERO, BigInteger.ONE)
+            );
+            var context = smcConfig.asViewContext(accountService.getBlockchainHeight(),
+                smartContract,
+                integratorFactory.createReadonlyProcessor()
+            );
 
-        SmcContractTxBatchProcessor processor = new CallViewMethodTxProcessor(smartContract, methods, context);
+            SmcContractTxBatchProcessor processor = new CallViewMethodTxProcessor(smartContract, methods, context);
 
-        var rc = processor.batchProcess();
-        executionLog.join(processor.getExecutionLog());
-        return rc;
+            var rc = processor.batchProcess();
+            executionLog.join(processor.getExecutionLog());
+            return rc;
+        });
     }
 
     @Override
@@ -8,22 +8,34 @@ import com.apollocurrency.aplwallet.apl.core.app.observer.events.TrimConfigUpdat
 import com.apollocurrency.aplwallet.apl.core.config.TrimEventCommand;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.TrimDao;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedTableInterface;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.TrimBudget;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.TrimEntry;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
 import com.apollocurrency.aplwallet.apl.util.Constants;
 import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
 import com.apollocurrency.aplwallet.apl.util.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.util.cdi.config.Property;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
 import javax.enterprise.util.AnnotationLiteral;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
@@ -41,6 +53,9 @@ public class TrimService {
     private final ReentrantLock lock = new ReentrantLock();
 
     private final Event<TrimEventCommand> trimConfigEvent;
+    private final Instance<BlockchainProcessor> blockchainProcessor;
+    private final ExecutorService trimExecutor;
+    private final int maxRowsPerSecond;
 
 
     @Inject
@@ -49,9 +64,15 @@ public class TrimService {
                        TimeService timeService,
                        Event<TrimEventCommand> trimConfigEvent,
                        TrimDao trimDao,
-                       @Property(value = "apl.maxRollback", defaultValue = "" + Constants.MAX_AUTO_ROLLBACK) int maxRollback
+                       Instance<BlockchainProcessor> blockchainProcessor,
+                       @Property(value = "apl.maxRollback", defaultValue = "" + Constants.MAX_AUTO_ROLLBACK) int maxRollback,
+                       @Property(value = "apl.trimThreads", defaultValue = "2") int trimThreads,
+                       @Property(value = "apl.trimMaxRowsPerSecond", defaultValue = "0") int maxRowsPerSecond
     ) {
         this.maxRollback = maxRollback;
+        this.blockchainProcessor = blockchainProcessor;
+        this.trimExecutor = Executors.newFixedThreadPool(Math.max(1, trimThreads), new NamedThreadFactory("apl-trim-table", true));
+        this.maxRowsPerSecond = maxRowsPerSecond;
         this.trimDao = Objects.requireNonNull(trimDao, "trimDao is NULL");
         this.dbManager = Objects.requireNonNull(databaseManager, "Database manager cannot be null");
         this.dbTablesRegistry = Objects.requireNonNull(derivedDbTablesRegistry, "Db tables registry cannot be null");
@@ -75,7 +96,8 @@ public class TrimService {
                     dataSource.begin();
                 }
                 long startTime = System.currentTimeMillis();
-                doTrimDerivedTablesOnBlockchainHeight(height);
+                // tables may be trimmed in separate transactions only when there is no outer transaction
+                doTrimDerivedTablesOnBlockchainHeight(height, !inTransaction);
                 dataSource.commit(!inTransaction);
                 log.info("Total trim time: {} ms on height '{}', InTr?=('{}')",
                     (System.currentTimeMillis() - startTime), height, inTransaction);
@@ -88,17 +110,25 @@ public class TrimService {
     }
 
     public void doTrimDerivedTablesOnBlockchainHeight(int blockchainHeight) {
+        doTrimDerivedTablesOnBlockchainHeight(blockchainHeight, false);
+    }
+
+    private void doTrimDerivedTablesOnBlockchainHeight(int blockchainHeight, boolean concurrently) {
         inLock(() -> {
             log.debug("TRIM: doTrimDerivedTablesOnBlockchainHeight on height {}", blockchainHeight);
             int trimHeight = Math.max(blockchainHeight - maxRollback, 0);
             if (trimHeight > 0) {
-                doAccountableTrimDerivedTables(trimHeight);
+                doAccountableTrimDerivedTables(trimHeight, concurrently);
             }
         });
     }
 
 
     public int doAccountableTrimDerivedTables(int height) {
+        return doAccountableTrimDerivedTables(height, false);
+    }
+
+    private int doAccountableTrimDerivedTables(int height, boolean concurrently) {
         return inLock(()-> {
             TrimEntry trimEntry = trimDao.get();
             if (trimEntry == null || !trimEntry.isDone() || trimEntry.getHeight() < height) {
@@ -108,7 +138,7 @@ public class TrimService {
                 trimDao.clear();
                 trimEntry = trimDao.save(trimEntry);
                 dbManager.getDataSource().commit(false);
-                int pruningTime = doTrimDerivedTablesOnHeight(height);
+                int pruningTime = concurrently ? doTrimDerivedTablesConcurrently(height) : doTrimDerivedTablesOnHeight(height);
                 trimEntry.setDone(true);
                 trimDao.save(trimEntry);
                 log.debug("doTrimDerived saved {} at height '{}', pruningTime={}", trimEntry, height, pruningTime);
@@ -150,6 +180,7 @@ public class TrimService {
                     dataSource.begin();
                 }
                 trimDao.clear();
+                trimDao.clearTablesProgress();
                 if (height > 0) {
                     trimDao.save(new TrimEntry(null, height, true));
                     log.debug("Reset Trim to height={}", height);
@@ -172,13 +203,11 @@ public class TrimService {
 
         TransactionalDataSource dataSource = dbManager.getDataSource();
         long onlyTrimTime = 0;
-        int epochTime = timeService.getEpochTime();
-        int pruningTime = epochTime - epochTime % DEFAULT_PRUNABLE_UPDATE_PERIOD;
+        int pruningTime = getPruningTime();
 
-        for (DerivedTableInterface<?> table : dbTablesRegistry.getDerivedTables()) {
+        for (DerivedTableInterface<?> table : getTablesToTrim(height)) {
             long startTime = System.currentTimeMillis();
-            table.prune(pruningTime);
-            table.trim(height);
+            trimTable(table, height, pruningTime);
             dataSource.commit(false);
             long duration = System.currentTimeMillis() - startTime;
             // do not log trim duration here, instead go to the logback config and enable trace logs for BasicDbTable class
@@ -190,6 +219,97 @@ public class TrimService {
         return pruningTime;
     }
 
+    /**
+     * Trim each table in its own transaction on the trim thread pool. Each table commits deleted rows by chunks,
+     * after every chunk the trim is paused according to the {@link TrimBudget} and while the block is processed.
+     */
+    int doTrimDerivedTablesConcurrently(int height) {
+        log.debug("TRIM: doTrimDerivedTablesConcurrently on height={}", height);
+        long start = System.currentTimeMillis();
+        int pruningTime = getPruningTime();
+        TrimBudget budget = new TrimBudget(this::isProcessingBlock, maxRowsPerSecond);
+        List<Future<Long>> trimTasks = new ArrayList<>();
+        for (DerivedTableInterface<?> table : getTablesToTrim(height)) {
+            trimTasks.add(trimExecutor.submit(() -> trimInTransaction(table, height, pruningTime, budget)));
+        }
+        long onlyTrimTime = 0;
+        RuntimeException error = null;
+        // wait for all the tables, even if some of them failed, to not trim them outside of the trim lock
+        for (Future<Long> trimTask : trimTasks) {
+            try {
+                onlyTrimTime += trimTask.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                trimTasks.forEach(task -> task.cancel(true));
+                throw new IllegalStateException("Trim was interrupted on height " + height, e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        log.info("Concurrent trim time onlyTrim/full: {} / {} ms, pruning='{}' on height='{}'",
+            onlyTrimTime, System.currentTimeMillis() - start, pruningTime, height);
+        return pruningTime;
+    }
+
+    private long trimInTransaction(DerivedTableInterface<?> table, int height, int pruningTime, TrimBudget budget) {
+        budget.waitWhileBusy();
+        long startTime = System.currentTimeMillis();
+        TransactionalDataSource dataSource = dbManager.getDataSource();
+        dataSource.begin();
+        try {
+            budget.runWith(() -> trimTable(table, height, pruningTime));
+            dataSource.commit();
+        } catch (RuntimeException e) {
+            dataSource.rollback();
+            throw e;
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        log.trace("Trim of {} took {} ms", table.getName(), duration);
+        return duration;
+    }
+
+    private void trimTable(DerivedTableInterface<?> table, int height, int pruningTime) {
+        table.prune(pruningTime);
+        table.trim(height);
+        trimDao.saveTableProgress(table.getName(), height);
+    }
+
+    /**
+     * @return tables, which were not trimmed yet on the given height, e.g. by the interrupted trim
+     */
+    private List<DerivedTableInterface<?>> getTablesToTrim(int height) {
+        Map<String, Integer> tablesProgress = trimDao.getTablesProgress();
+        List<DerivedTableInterface<?>> tables = new ArrayList<>();
+        for (DerivedTableInterface<?> table : dbTablesRegistry.getDerivedTables()) {
+            Integer trimmedHeight = tablesProgress.get(table.getName());
+            if (trimmedHeight != null && trimmedHeight >= height) {
+                log.debug("Skip trim of {} on height {}, already trimmed on height {}", table.getName(), height, trimmedHeight);
+            } else {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    private int getPruningTime() {
+        int epochTime = timeService.getEpochTime();
+        return epochTime - epochTime % DEFAULT_PRUNABLE_UPDATE_PERIOD;
+    }
+
+    private boolean isProcessingBlock() {
+        return blockchainProcessor.isResolvable() && blockchainProcessor.get().isProcessingBlock();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        trimExecutor.shutdownNow();
+    }
+
     public void updateTrimConfig(boolean enableTrim, boolean clearQueue) {
         log.debug("Send event to {} trim thread", enableTrim ? "enable" : "disable");
         trimConfigEvent.select(new AnnotationLiteral<TrimConfigUpdated>() {
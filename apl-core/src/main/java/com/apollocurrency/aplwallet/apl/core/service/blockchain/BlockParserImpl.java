@@ -8,7 +8,6 @@ import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.model.BlockImpl;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
-import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 import lombok.extern.slf4j.Slf4j;
@@ -26,13 +25,11 @@ public class BlockParserImpl implements BlockParser {
 
     protected AccountService accountService;
     private final TransactionBuilderFactory transactionBuilderFactory;
-    private final TransactionValidator transactionValidator;
 
     @Inject
-    public BlockParserImpl(AccountService accountService, TransactionBuilderFactory transactionBuilderFactory, TransactionValidator transactionValidator) {
+    public BlockParserImpl(AccountService accountService, TransactionBuilderFactory transactionBuilderFactory) {
         this.accountService = accountService;
         this.transactionBuilderFactory = transactionBuilderFactory;
-        this.transactionValidator = transactionValidator;
     }
 
     @Override
@@ -74,12 +71,13 @@ public class BlockParserImpl implements BlockParser {
         }
     }
 
+    /**
+     * Transaction signature is not verified here, block transaction signatures are verified in parallel by the
+     * {@link com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier} before the block push
+     * and the result is checked by the block validation
+     */
     private Transaction parseTransaction(JSONObject jsonObject) throws AplException.NotValidException {
-        Transaction tx = transactionBuilderFactory.newTransaction(jsonObject);
-        if (!transactionValidator.checkSignature(null, tx)) {
-            throw new AplException.NotValidException("Invalid signature of tx: " + tx.getStringId());
-        }
-        return tx;
+        return transactionBuilderFactory.newTransaction(jsonObject);
     }
 
     private boolean requireTimeout(int version) {
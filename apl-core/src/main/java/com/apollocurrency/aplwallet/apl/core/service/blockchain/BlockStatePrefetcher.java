@@ -0,0 +1,105 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.CCAssetDeleteAttachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.CCAssetTransferAttachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.CCOrderPlacementAttachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.MSCurrencyTransferAttachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.MonetarySystemAttachment;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the state of the block participants at once before the block validation and application.
+ * <p>
+ * Sender, recipient and generator accounts with their public keys, sender control phasing and the account assets and
+ * currencies referenced by the transaction attachments are selected in a few 'IN' queries per table and then served
+ * from memory by the regular service calls till the end of the block db transaction.
+ */
+@Slf4j
+@Singleton
+public class BlockStatePrefetcher {
+    private final AccountService accountService;
+    private final AccountControlPhasingService accountControlPhasingService;
+    private final AccountAssetService accountAssetService;
+    private final AccountCurrencyService accountCurrencyService;
+
+    @Inject
+    public BlockStatePrefetcher(AccountService accountService, AccountControlPhasingService accountControlPhasingService,
+                                AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService) {
+        this.accountService = accountService;
+        this.accountControlPhasingService = accountControlPhasingService;
+        this.accountAssetService = accountAssetService;
+        this.accountCurrencyService = accountCurrencyService;
+    }
+
+    /**
+     * Prefetch the state of the block transactions participants, should be called in the db transaction,
+     * which validates and applies the block
+     * @param block block with loaded transactions
+     */
+    public void prefetch(Block block) {
+        if (block.getTransactions().isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        Set<Long> accountIds = new HashSet<>();
+        Set<Long> senderIds = new HashSet<>();
+        Map<Long, Set<Long>> assetIdsByAccount = new HashMap<>();
+        Map<Long, Set<Long>> currencyIdsByAccount = new HashMap<>();
+        accountIds.add(block.getGeneratorId());
+        for (Transaction transaction : block.getTransactions()) {
+            long senderId = transaction.getSenderId();
+            long recipientId = transaction.getRecipientId();
+            senderIds.add(senderId);
+            if (recipientId != 0) {
+                accountIds.add(recipientId);
+            }
+            Attachment attachment = transaction.getAttachment();
+            if (attachment instanceof CCAssetTransferAttachment) {
+                long assetId = ((CCAssetTransferAttachment) attachment).getAssetId();
+                addHolding(assetIdsByAccount, senderId, assetId);
+                addHolding(assetIdsByAccount, recipientId, assetId);
+            } else if (attachment instanceof CCOrderPlacementAttachment) {
+                addHolding(assetIdsByAccount, senderId, ((CCOrderPlacementAttachment) attachment).getAssetId());
+            } else if (attachment instanceof CCAssetDeleteAttachment) {
+                addHolding(assetIdsByAccount, senderId, ((CCAssetDeleteAttachment) attachment).getAssetId());
+            } else if (attachment instanceof MonetarySystemAttachment) {
+                long currencyId = ((MonetarySystemAttachment) attachment).getCurrencyId();
+                addHolding(currencyIdsByAccount, senderId, currencyId);
+                if (attachment instanceof MSCurrencyTransferAttachment) {
+                    addHolding(currencyIdsByAccount, recipientId, currencyId);
+                }
+            }
+        }
+        accountIds.addAll(senderIds);
+        accountService.prefetch(accountIds);
+        accountControlPhasingService.prefetch(senderIds);
+        accountAssetService.prefetch(assetIdsByAccount);
+        accountCurrencyService.prefetch(currencyIdsByAccount);
+        log.trace("Prefetched state of {} accounts, {} asset and {} currency holders for the block {} in {} ms", accountIds.size(),
+            assetIdsByAccount.size(), currencyIdsByAccount.size(), block.getStringId(), System.currentTimeMillis() - startTime);
+    }
+
+    private static void addHolding(Map<Long, Set<Long>> holdingIdsByAccount, long accountId, long holdingId) {
+        if (accountId != 0 && holdingId != 0) {
+            holdingIdsByAccount.computeIfAbsent(accountId, id -> new HashSet<>()).add(holdingId);
+        }
+    }
+}
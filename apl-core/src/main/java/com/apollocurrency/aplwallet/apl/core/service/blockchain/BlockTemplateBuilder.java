@@ -0,0 +1,233 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
+import com.apollocurrency.aplwallet.apl.core.exception.AplAcceptableTransactionValidationException;
+import com.apollocurrency.aplwallet.apl.core.exception.AplUnacceptableTransactionValidationException;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.util.ConcurrentLongHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the block template warm: the result of the full validation of every mempool transaction against the current
+ * blockchain state is computed in background shortly after the transaction enters the mempool and is reused by the
+ * {@link BlockchainProcessor#selectUnconfirmedTransactions} until the transaction leaves the mempool or the next block
+ * is applied. So the block generation only applies the already validated transactions, checks duplicates and signs
+ * the block instead of validating the whole mempool at the forging deadline.
+ * <p>Results are bound to the cache generation, which is incremented on every applied block, pop-off and rescan,
+ * because the block may change the state used by the validation of any transaction (asset and currency supply,
+ * aliases, phasing, etc.), not only the state of the block transactions senders and recipients. Results of the
+ * previous generation are dropped and are validated again by the next background {@link #warmUp()}. Results are also
+ * dropped, when the blockchain config is changed by height.</p>
+ * <p>Cached results do not see the state changes made by the transactions already selected for the same block, so
+ * they serve only as a pre-filter: once a transaction, which may change not only its sender state, is selected, the
+ * rest of the selection should be validated fully, see {@link #changesOnlySenderState(Transaction)}.</p>
+ */
+@Slf4j
+@Singleton
+public class BlockTemplateBuilder {
+    private static final int WARM_UP_BATCH_SIZE = 100;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final Set<TransactionTypes.TransactionTypeSpec> SENDER_SCOPED_TYPES = EnumSet.of(
+        TransactionTypes.TransactionTypeSpec.ORDINARY_PAYMENT,
+        TransactionTypes.TransactionTypeSpec.PRIVATE_PAYMENT,
+        TransactionTypes.TransactionTypeSpec.ARBITRARY_MESSAGE);
+
+    private final ConcurrentLongHashMap<ValidationResult> validationResults = new ConcurrentLongHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final TransactionValidator transactionValidator;
+    private final BlockchainConfig blockchainConfig;
+    private final MemPool memPool;
+    private final GlobalSync globalSync;
+
+    private volatile long lastBuildTime;
+    private volatile long maxBuildTime;
+    private volatile double averageBuildTime;
+
+    @Inject
+    public BlockTemplateBuilder(TransactionValidator transactionValidator, BlockchainConfig blockchainConfig,
+                                MemPool memPool, GlobalSync globalSync) {
+        this.transactionValidator = transactionValidator;
+        this.blockchainConfig = blockchainConfig;
+        this.memPool = memPool;
+        this.globalSync = globalSync;
+    }
+
+    /**
+     * Fully validate the given mempool transaction, reusing the result of the previous validation, when it is still
+     * actual
+     * @param transaction mempool transaction to validate
+     * @throws AplAcceptableTransactionValidationException when transaction may be accepted only as failed
+     * @throws AplUnacceptableTransactionValidationException when transaction is not valid
+     */
+    public void validate(Transaction transaction) {
+        ValidationResult result = validationResults.get(transaction.getId());
+        if (!isActual(result)) {
+            result = validateAndSave(transaction);
+        }
+        if (result.errorMessage != null) {
+            throw new AplAcceptableTransactionValidationException(result.errorMessage, transaction);
+        }
+    }
+
+    /**
+     * Check whether the unconfirmed application of the given transaction may change only the state of its sender
+     * and recipient, so that the cached validation results of the other accounts transactions stay actual
+     * during the block transactions selection
+     * @param transaction applied transaction
+     * @return true for the plain payments and messages without phasing, false for all the transactions, which may
+     * change the global state (assets, currencies, aliases, polls, dex orders, etc.)
+     */
+    public boolean changesOnlySenderState(Transaction transaction) {
+        return transaction.getPhasing() == null && SENDER_SCOPED_TYPES.contains(transaction.getType().getSpec());
+    }
+
+    /**
+     * Validate mempool transactions, which were not validated against the current blockchain state yet, and forget
+     * the transactions, which left the mempool. Validation is done in small batches under the read lock
+     * to not block the block pushing for long.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        validationResults.keys().forEach(id -> {
+            if (memPool.get(id) == null) {
+                validationResults.remove(id);
+            }
+        });
+        Iterator<UnconfirmedTransaction> iterator = memPool.getAllStream()
+            .filter(tx -> !isValidated(tx))
+            .collect(Collectors.toList())
+            .iterator();
+        int validated = 0;
+        while (iterator.hasNext()) {
+            globalSync.readLock();
+            try {
+                for (int i = 0; i < WARM_UP_BATCH_SIZE && iterator.hasNext(); i++) {
+                    UnconfirmedTransaction tx = iterator.next();
+                    if (memPool.get(tx.getId()) == null || isValidated(tx)) {
+                        continue;
+                    }
+                    try {
+                        validateAndSave(tx.getTransactionImpl());
+                    } catch (AplUnacceptableTransactionValidationException e) {
+                        log.trace("Skip not valid transaction {} for block template: {}", tx.getStringId(), e.getMessage());
+                    } catch (RuntimeException e) {
+                        log.debug("Unable to validate transaction {} for block template", tx.getStringId(), e);
+                    }
+                    validated++;
+                }
+            } finally {
+                globalSync.readUnlock();
+            }
+        }
+        if (validated > 0) {
+            log.debug("Block template: validated {} transactions in {} ms", validated, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Forget all validation results, the mempool transactions will be validated against the new state by the next
+     * background warm up
+     */
+    public void onBlockApplied(@Observes @BlockEvent(BlockEventType.AFTER_BLOCK_APPLY) Block block) {
+        invalidateAll();
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        invalidateAll();
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        invalidateAll();
+    }
+
+    /**
+     * Record the time spent on the block template selection
+     * @param nanos selection time in nanoseconds
+     */
+    public void recordBuildTime(long nanos) {
+        long millis = nanos / 1_000_000;
+        lastBuildTime = millis;
+        maxBuildTime = Math.max(maxBuildTime, millis);
+        averageBuildTime = averageBuildTime == 0 ? millis : LATENCY_SMOOTHING * millis + (1 - LATENCY_SMOOTHING) * averageBuildTime;
+    }
+
+    public long getLastBuildTime() {
+        return lastBuildTime;
+    }
+
+    public long getMaxBuildTime() {
+        return maxBuildTime;
+    }
+
+    public double getAverageBuildTime() {
+        return averageBuildTime;
+    }
+
+    public int getValidatedCount() {
+        return validationResults.size();
+    }
+
+    private boolean isValidated(Transaction transaction) {
+        return isActual(validationResults.get(transaction.getId()));
+    }
+
+    private boolean isActual(ValidationResult result) {
+        return result != null && result.generation == generation.get() && result.config == blockchainConfig.getCurrentConfig();
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        validationResults.clear();
+    }
+
+    private ValidationResult validateAndSave(Transaction transaction) {
+        long currentGeneration = generation.get();
+        HeightConfig config = blockchainConfig.getCurrentConfig();
+        String errorMessage = null;
+        try {
+            transactionValidator.validateFully(transaction);
+        } catch (AplAcceptableTransactionValidationException e) {
+            errorMessage = e.getMessage();
+        } catch (AplUnacceptableTransactionValidationException e) {
+            validationResults.remove(transaction.getId());
+            throw e;
+        }
+        ValidationResult result = new ValidationResult(errorMessage, config, currentGeneration);
+        if (currentGeneration == generation.get()) {
+            validationResults.put(transaction.getId(), result);
+        }
+        return result;
+    }
+
+    private static class ValidationResult {
+        private final String errorMessage;
+        private final HeightConfig config;
+        private final long generation;
+
+        ValidationResult(String errorMessage, HeightConfig config, long generation) {
+            this.errorMessage = errorMessage;
+            this.config = config;
+            this.generation = generation;
+        }
+    }
+}
@@ -54,8 +54,10 @@ import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -82,6 +84,8 @@ public class BlockchainImpl implements Blockchain {
     private final BlockEntityToModelConverter blockEntityToModelConverter;
     private final BlockModelToEntityConverter blockModelToEntityConverter;
 
+    private static final Comparator<BlockEntity> HEIGHT_DESC_ORDER = Comparator.comparingInt(BlockEntity::getHeight).reversed();
+
     private final AtomicReference<Block> lastBlock;
     private final AtomicReference<Block> shardInitialBlock;
 
@@ -203,28 +207,21 @@ public class BlockchainImpl implements Blockchain {
         int totalToFetch = to - from;
         log.trace("start getBlocksStream( from={} / {}, to={} / {}, timestamp={} ): , currentHeight={}, totalToFetch={}",
             from, calculatedFrom, to, calculatedTo, timestamp, blockchainHeight, totalToFetch);
-        List<BlockEntity> allSourcesList = new ArrayList<>(); // complete list from all sources
         // select possibly - none, one, two shard's records by specified height range
         List<Shard> foundShards = shardDao.getCompletedBetweenBlockHeight(calculatedTo, calculatedFrom); // reverse params
         log.trace("getBlocksStream( from={}, to={} ): foundShards=[{}] / shardIds={}, currentHeight={}",
             calculatedFrom, calculatedTo, foundShards.size(), foundShards.stream().map(Shard::getShardId).collect(Collectors.toList()), blockchainHeight);
-        if (foundShards.isEmpty()) {
-            // select blocks from main database only
-            allSourcesList.addAll(blockDao.getBlocks(null, calculatedFrom, calculatedTo, timestamp));
-        } else {
-            // loop over ONE or SEVERAL available shards
-            for (Shard shard : foundShards) {
-                // get shard data source trying to fetch records
-                TransactionalDataSource dataSource =
-                    ((ShardManagement) databaseManager).getOrInitFullShardDataSourceById(shard.getShardId());
-                // make select on blocks from shard
-                log.trace("getBlocksStream -> getBlocks( from={}, to={} ): shardIds={}",
-                    calculatedFrom, calculatedTo, dataSource.getDbIdentity());
-                allSourcesList.addAll(blockDao.getBlocks(dataSource, calculatedFrom, calculatedTo, timestamp));
-            }
-            // add possible blocks from main database (if any)
-            allSourcesList.addAll(blockDao.getBlocks(null, calculatedFrom, calculatedTo, timestamp));
+        List<TransactionalDataSource> dataSources = new ArrayList<>();
+        // possible blocks from main database (if any)
+        dataSources.add(databaseManager.getDataSource());
+        for (Shard shard : foundShards) {
+            // get shard data source trying to fetch records
+            dataSources.add(((ShardManagement) databaseManager).getOrInitFullShardDataSourceById(shard.getShardId()));
         }
+        // make select on blocks from shards and main db concurrently
+        List<BlockEntity> allSourcesList = shardDbExplorer.queryOrdered(dataSources,
+            dataSource -> blockDao.getBlocks(dataSource, calculatedFrom, calculatedTo, timestamp),
+            HEIGHT_DESC_ORDER, 0, Integer.MAX_VALUE);
         log.trace("DONE getBlocksStream( from={}, to={} ): foundShards=[{}] / shardIds={}, currentHeight={}",
             calculatedFrom, calculatedTo, foundShards.size(), foundShards.stream().map(Shard::getShardId).collect(Collectors.toList()), blockchainHeight);
 
@@ -267,12 +264,16 @@ public class BlockchainImpl implements Blockchain {
         if (publicKey != null) {
             return publicKey.getPublicKey();
         } else {
-            //special case when scan was failed and no public keys in db exist
-            log.warn("No public key for generator's account {} on block {} at {}", block.getGeneratorId(), block.getId(), block.getHeight());
+            logMissingGeneratorPublicKey(block);
             return null;
         }
     }
 
+    private void logMissingGeneratorPublicKey(Block block) {
+        //special case when scan was failed and no public keys in db exist
+        log.warn("No public key for generator's account {} on block {} at {}", block.getGeneratorId(), block.getId(), block.getHeight());
+    }
+
     private List<Transaction> loadBlockTransactions(Block block) {
         List<Transaction> blockTransactions = getBlockTransactions(block.getId());
             List<Transaction> transactions = Collections.unmodifiableList(blockTransactions);
@@ -282,8 +283,34 @@ public class BlockchainImpl implements Blockchain {
         return transactions;
     }
 
+    /**
+     * Load data of the several blocks in bulk: transactions are selected by one query per data source and
+     * the public keys of all the generators are searched at once
+     */
     List<Block> loadBlockData(List<Block> blocks) {
-        return blocks.stream().map(this::loadBlockData).collect(Collectors.toList());
+        List<Block> notLoaded = blocks.stream()
+            .filter(block -> block != null && !block.hasLoadedData())
+            .collect(Collectors.toList());
+        if (notLoaded.size() > 1) {
+            Map<Long, List<Transaction>> blocksTransactions = transactionService.findBlocksTransactionsCrossSharding(notLoaded);
+            Map<Long, PublicKey> generatorPublicKeys = publicKeyDao.searchAll(
+                notLoaded.stream().map(Block::getGeneratorId).collect(Collectors.toSet()));
+            for (Block block : notLoaded) {
+                List<Transaction> transactions = Collections.unmodifiableList(
+                    blocksTransactions.getOrDefault(block.getId(), Collections.emptyList()));
+                for (Transaction transaction : transactions) {
+                    prunableService.loadTransactionPrunables(transaction);
+                }
+                PublicKey publicKey = generatorPublicKeys.get(block.getGeneratorId());
+                if (publicKey == null) {
+                    logMissingGeneratorPublicKey(block);
+                }
+                block.assignBlockData(transactions, publicKey != null ? publicKey.getPublicKey() : null);
+            }
+        } else {
+            notLoaded.forEach(this::loadBlockData);
+        }
+        return new ArrayList<>(blocks);
     }
 
     @Transactional(readOnly = true)
@@ -299,32 +326,13 @@ public class BlockchainImpl implements Blockchain {
         int totalToFetch = to - from;
         log.trace("start getBlocksByAccountStream, accountId = {}, timestamp={}, from={}, to={}, in total={}",
             accountId, timestamp, from, to, totalToFetch);
-        List<BlockEntity> finalResult = new ArrayList<>(totalToFetch);
-        // fetch from main db
-        finalResult.addAll(
-            blockDao.getBlocksByAccount(null, accountId, from, to, timestamp)
-        );
-        log.trace("getBlocksByAccountStream from main db, accountId = {}, timestamp={}, from={}, to={} in {} ms",
-            accountId, timestamp, from, to, System.currentTimeMillis() - start);
-        if (finalResult.size() < totalToFetch) {
-            int nextTo = to - finalResult.size(); // decrease upper limit
-            Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager).getAllFullDataSourcesIterator();
-            // loop shards
-            while (fullDataSources.hasNext()) {
-                long startShard = System.currentTimeMillis();
-                TransactionalDataSource dataSource = fullDataSources.next();
-                List<BlockEntity> fetchedFromShard = blockDao.getBlocksByAccount(dataSource, accountId, from, nextTo, timestamp);
-                log.trace("getBlocksByAccountStream, accountId = {} from shard db[{}] = fetched [{}] in {} ms", accountId, dataSource.getDbIdentity(),
-                    fetchedFromShard.size(), (System.currentTimeMillis() - startShard));
-                nextTo -= fetchedFromShard.size(); // decrease upper limit
-                finalResult.addAll(fetchedFromShard);
-                if (finalResult.size() >= totalToFetch + 1) {
-                    log.trace("getBlocksByAccountStream STOP loop from shard={}, accountId = {}, timestamp={}, from={}, nextTo={} in {} ms",
-                        dataSource.getDbIdentity(), accountId, timestamp, from, nextTo, System.currentTimeMillis() - startShard);
-                    break;
-                }
-            }
-        }
+        List<TransactionalDataSource> dataSources = new ArrayList<>();
+        dataSources.add(databaseManager.getDataSource());
+        ((ShardManagement) databaseManager).getAllFullDataSourcesIterator().forEachRemaining(dataSources::add);
+        // fetch first 'to' blocks from main db and each shard concurrently, then merge them by height
+        List<BlockEntity> finalResult = shardDbExplorer.queryOrdered(dataSources,
+            dataSource -> blockDao.getBlocksByAccount(dataSource, accountId, 0, to, timestamp),
+            HEIGHT_DESC_ORDER, from, to);
         log.trace("DONE getBlocksByAccountStream[{}], accountId = {}, timestamp={}, from={}, to={} in {} ms",
             finalResult.size(), accountId, timestamp, from, to, System.currentTimeMillis() - start);
         return loadBlockDataFromEntities(finalResult);
@@ -56,6 +56,13 @@ public interface BlockchainProcessor {
 
     void processPeerBlock(JSONObject request) throws AplException;
 
+    /**
+     * Process already parsed block received from the peer, block and transaction signatures should be verified
+     * @param peerBlock parsed peer block
+     * @throws AplException when block was not accepted
+     */
+    void processPeerBlock(Block peerBlock) throws AplException;
+
     void fullReset();
 
     SortedSet<UnconfirmedTransaction> getUnconfirmedTransactions(Block previousBlock, int blockTimestamp, int limit);
@@ -77,6 +77,7 @@ import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountServic
 import com.apollocurrency.aplwallet.apl.core.shard.ShardImporter;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionApplier;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionUtils;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
@@ -102,8 +103,6 @@ import com.apollocurrency.aplwallet.apl.util.env.dirprovider.DirProvider;
 import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 import com.apollocurrency.aplwallet.apl.util.injectable.DbProperties;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
-import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
-import com.apollocurrency.aplwallet.apl.util.io.Result;
 import com.apollocurrency.aplwallet.apl.util.service.TaskDispatchManager;
 import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import com.apollocurrency.aplwallet.apl.util.task.Task;
@@ -173,6 +172,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
     private final ReferencedTransactionService referencedTransactionService;
     private final PhasingPollService phasingPollService;
     private final TransactionValidator transactionValidator;
+    private final TransactionSignatureBatchVerifier signatureBatchVerifier;
     private final TransactionApplier transactionApplier;
     private final TransactionBuilderFactory transactionBuilderFactory;
     private final TrimService trimService;
@@ -201,6 +201,8 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
     private final BlockSerializer blockSerializer;
     private final ConsensusManager consensusManager;
     private final MemPool memPool;
+    private final BlockTemplateBuilder blockTemplateBuilder;
+    private final BlockStatePrefetcher blockStatePrefetcher;
     private final TxBContext txBContext;
     private final ScanDao scanDao;
     private final GetTransactionsResponseParser getTransactionsResponseParser;
@@ -240,7 +242,10 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                    ConsensusManager consensusManager,
                                    MemPool memPool,
                                    GetTransactionsResponseParser getTransactionsResponseParser,
-                                   ScanDao scanDao) {
+                                   ScanDao scanDao,
+                                   TransactionSignatureBatchVerifier signatureBatchVerifier,
+                                   BlockTemplateBuilder blockTemplateBuilder,
+                                   BlockStatePrefetcher blockStatePrefetcher) {
         this.propertiesHolder = Objects.requireNonNull(propertiesHolder);
         this.blockchainConfig = blockchainConfig;
         this.validator = validator;
@@ -248,10 +253,13 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         this.ledgerEvent = ledgerEvent;
         this.globalSync = globalSync;
         this.memPool = memPool;
+        this.blockTemplateBuilder = blockTemplateBuilder;
+        this.blockStatePrefetcher = blockStatePrefetcher;
         this.dbTables = dbTables;
         this.trimService = trimService;
         this.phasingPollService = phasingPollService;
         this.transactionValidator = transactionValidator;
+        this.signatureBatchVerifier = signatureBatchVerifier;
         this.transactionApplier = transactionApplier;
         this.referencedTransactionService = referencedTransactionService;
         this.databaseManager = databaseManager;
@@ -337,23 +345,33 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 
     @Override
     public void processPeerBlock(JSONObject request) throws AplException {
+        log.trace("Timeout: peerBlock{}, timestamp: peerBlock{}", request.get("timeout"), request.get("timestamp"));
+        long peerBlockPreviousBlockId = Convert.parseUnsignedLong((String) request.get("previousBlock"));
+        processPeerBlock(peerBlockPreviousBlockId,
+            () -> blockParser.parseBlock(request, blockchainConfig.getCurrentConfig().getInitialBaseTarget()));
+    }
+
+    @Override
+    public void processPeerBlock(Block peerBlock) throws AplException {
+        log.trace("Timeout: peerBlock{}, timestamp: peerBlock{}", peerBlock.getTimeout(), peerBlock.getTimestamp());
+        processPeerBlock(peerBlock.getPreviousBlockId(), () -> peerBlock);
+    }
+
+    private void processPeerBlock(long peerBlockPreviousBlockId, PeerBlockSupplier peerBlockSupplier) throws AplException {
         globalSync.updateLock();
         try {
             Block lastBlock = blockchain.getLastBlock();
-            long peerBlockPreviousBlockId = Convert.parseUnsignedLong((String) request.get("previousBlock"));
-            log.trace("Timeout: peerBlock{},ourBlock{}", request.get("timeout"), lastBlock.getTimeout());
-            log.trace("Timestamp: peerBlock{},ourBlock{}", request.get("timestamp"), lastBlock.getTimestamp());
+            log.trace("Timeout: ourBlock{}, timestamp: ourBlock{}", lastBlock.getTimeout(), lastBlock.getTimestamp());
             log.trace("PrevId: peerBlock{},ourBlock{}", peerBlockPreviousBlockId, lastBlock.getPreviousBlockId());
             // peer block is the next block in our blockchain
-            long baseTarget = blockchainConfig.getCurrentConfig().getInitialBaseTarget();
             if (peerBlockPreviousBlockId == lastBlock.getId()) {
-                Block peerBlock = blockParser.parseBlock(request, baseTarget);
+                Block peerBlock = peerBlockSupplier.get();
                 log.info("Push peer last block {} at height {}, our previous block is {}", peerBlock.getStringId(),
                     lastBlock.getHeight() + 1, lastBlock.getStringId());
                 peerBlock.getTransactions().forEach(Transaction::resetFail); // error messages should be obtained node independently
                 pushBlock(peerBlock);
             } else if (peerBlockPreviousBlockId == lastBlock.getPreviousBlockId()) { //peer block is a candidate to replace our last block
-                Block peerBlock = blockParser.parseBlock(request, baseTarget);
+                Block peerBlock = peerBlockSupplier.get();
                 peerBlock.getTransactions().forEach(Transaction::resetFail); // error messages should be obtained node independently
                 //try to replace our last block by peer block only when real block time of the peer block is less than a real timestamp of our block,
                 // or when block time is equal, but peer's block has better timeout
@@ -499,8 +517,11 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         int curTime = timeService.getEpochTime();
         log.trace("push new block, prev_id = '{}', cutTime={}", block.getPreviousBlockId(), curTime);
         long startTime = System.currentTimeMillis();
+        // heavy signature verification is done in parallel before the lock, validation under the lock will only check the result
+        signatureBatchVerifier.verify(block.getTransactions());
+        long signaturesVerificationTime = System.currentTimeMillis() - startTime;
         globalSync.writeLock();
-        long lockAquireTime = System.currentTimeMillis() - startTime;
+        long lockAquireTime = System.currentTimeMillis() - startTime - signaturesVerificationTime;
         Block previousLastBlock;
         previousLastBlock = blockchain.getLastBlock();
         try {
@@ -522,6 +543,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                     Map<TransactionTypes.TransactionTypeSpec, Map<String, Integer>> duplicates = new HashMap<>();
                     List<Transaction> validPhasedTransactions = new ArrayList<>();
                     List<Transaction> invalidPhasedTransactions = new ArrayList<>();
+                    blockStatePrefetcher.prefetch(block);
                     validatePhasedTransactions(block, previousLastBlock, validPhasedTransactions, invalidPhasedTransactions, duplicates);
                     validateTransactions(block, previousLastBlock, curTime, duplicates, previousLastBlock.getHeight() >= Constants.LAST_CHECKSUM_BLOCK);
 
@@ -579,8 +601,8 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         log.trace("fire block on = {}, id = '{}', '{}'", block.getHeight(), Long.toUnsignedString(block.getId()), BlockEventType.BLOCK_PUSHED.name());
         blockEvent.select(literal(BlockEventType.BLOCK_PUSHED)).fire(block); // send sync event to TrimObserver component
         blockEvent.select(literal(BlockEventType.BLOCK_PUSHED)).fireAsync(block); // send async event to other components
-        log.debug("Push block at height {} tx cnt: {} took {} ms (lock acquiring: {} ms)",
-            block.getHeight(), block.getTransactions().size(), System.currentTimeMillis() - startTime, lockAquireTime);
+        log.debug("Push block at height {} tx cnt: {} took {} ms (signatures verification: {} ms, lock acquiring: {} ms)",
+            block.getHeight(), block.getTransactions().size(), System.currentTimeMillis() - startTime, signaturesVerificationTime, lockAquireTime);
     }
 
     public List<Block> popOffToCommonBlock(Block commonBlock) {
@@ -709,8 +731,10 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         int maxPayloadLength = blockchainConfig.getCurrentConfig().getMaxPayloadLength();
         List<UnconfirmedTransaction> removedTxs = new ArrayList<>();
         List<UnconfirmedTransaction> appliedUnconfirmedTxs = new ArrayList<>();
+        Set<Long> appliedSenders = new HashSet<>();
         DbTransactionHelper.executeInTransaction(databaseManager.getDataSource(), () -> {
             int payloadLength = 0;
+            boolean globalStateChanged = false;
             RuntimeException selectTxEx = null;
             try {
                 txSelectLoop:
@@ -730,7 +754,12 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                         }
                         Transaction tx = unconfirmedTransaction.getTransactionImpl();
                         try {
-                            transactionValidator.validateFully(tx);
+                            if (globalStateChanged || appliedSenders.contains(tx.getSenderId())) {
+                                // cached result may be outdated by the state changes of the already applied transactions
+                                transactionValidator.validateFully(tx);
+                            } else {
+                                blockTemplateBuilder.validate(tx);
+                            }
                         } catch (AplUnacceptableTransactionValidationException e) {
                             log.debug("Skip not valid transaction {} during selection: {}", tx.getStringId(), e.getMessage());
                             continue;
@@ -747,6 +776,10 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                             continue;
                         } else {
                             appliedUnconfirmedTxs.add(unconfirmedTransaction);
+                            appliedSenders.add(tx.getSenderId());
+                            if (!blockTemplateBuilder.changesOnlySenderState(tx)) {
+                                globalStateChanged = true;
+                            }
                         }
                         if (!tx.isFailed()) {
                             // prefetch data for duplicate validation
@@ -802,7 +835,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 
     public void generateBlock(byte[] keySeed, int blockTimestamp, int timeout, int blockVersion) throws BlockNotAcceptedException, MempoolStateDesyncException {
         Block previousBlock = blockchain.getLastBlock();
+        long templateBuildStart = System.nanoTime();
         SortedSet<UnconfirmedTransaction> sortedTransactions = getUnconfirmedTransactions(previousBlock, blockTimestamp, Integer.MAX_VALUE);
+        blockTemplateBuilder.recordBuildTime(System.nanoTime() - templateBuildStart);
         log.debug("Selected txs to generate block with [{}]", sortedTransactions.stream().map(Transaction::getId).map(String::valueOf).collect(Collectors.joining(",")));
         verifyTxSufficiency(sortedTransactions, blockVersion);
         List<Transaction> blockTransactions = sortedTransactions.stream().map(Transaction::getTransactionImpl).collect(Collectors.toList());
@@ -981,6 +1016,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                     Map<TransactionTypes.TransactionTypeSpec, Map<String, Integer>> duplicates = new HashMap<>();
                                     List<Transaction> validPhasedTransactions = new ArrayList<>();
                                     List<Transaction> invalidPhasedTransactions = new ArrayList<>();
+                                    blockStatePrefetcher.prefetch(currentBlock);
                                     validatePhasedTransactions(currentBlock, blockchain.getLastBlock(), validPhasedTransactions, invalidPhasedTransactions, duplicates);
                                     if (scanEntity.isValidate()) {
                                         int curTime = timeService.getEpochTime();
@@ -995,19 +1031,19 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                         }
                                         validateTransactions(currentBlock, blockchain.getLastBlock(), curTime, duplicates, true);
                                         for (Transaction transaction : currentBlock.getTransactions()) { // block transaction are already loaded earlier
-                                            byte[] transactionBytes = getTxByteArrayResult(transaction).array();
+                                            byte[] transactionBytes = getTxBytes(transaction);
                                             if (!Arrays.equals(transactionBytes,
-                                                getTxByteArrayResult(
+                                                getTxBytes(
                                                     transactionBuilderFactory.newTransaction(transactionBytes)
-                                                ).array())) {
+                                                ))) {
                                                 throw new AplException.NotValidException("Transaction bytes cannot be parsed back to the same transaction: "
                                                     + transactionJsonSerializer.toJson(transaction).toJSONString());
                                             }
                                             JSONObject transactionJSON = (JSONObject) JSONValue.parse(transactionJsonSerializer.toJson(transaction).toJSONString());
                                             if (!Arrays.equals(transactionBytes,
-                                                getTxByteArrayResult(
+                                                getTxBytes(
                                                     transactionBuilderFactory.newTransaction(transactionJSON)
-                                                ).array())) {
+                                                ))) {
                                                 throw new AplException.NotValidException("Transaction JSON cannot be parsed back to the same transaction: "
                                                     + transactionJsonSerializer.toJson(transaction).toJSONString());
                                             }
@@ -1400,8 +1436,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                 }
             }
             calculatedTotalFee += transaction.getFeeATM();
-            Result result = getTxByteArrayResult(transaction);
-            digest.update(result.array());
+            digest.update(getTxBytes(transaction));
         }
         if (calculatedTotalFee != block.getTotalFeeATM()) {
             throw new BlockNotAcceptedException(
@@ -1412,11 +1447,8 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         }
     }
 
-    private Result getTxByteArrayResult(Transaction transaction) {
-        Result result = PayloadResult.createLittleEndianByteArrayResult();
-        txBContext.createSerializer(transaction.getVersion())
-            .serialize(transaction, result);
-        return result;
+    private byte[] getTxBytes(Transaction transaction) {
+        return txBContext.createSerializer(transaction.getVersion()).toBytes(transaction);
     }
 
     private void accept(Block block, List<Transaction> validPhasedTransactions, List<Transaction> invalidPhasedTransactions,
@@ -1584,8 +1616,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         int calculatedPayloadLength = block.getTransactions()
             .stream()
             .mapToInt(tx -> {
-                Result result = getTxByteArrayResult(tx);
-                int signedSize = result.size();
+                int signedSize = getTxBytes(tx).length;
                 return tx.isFailed() ? signedSize : TransactionUtils.calculateFullSize(tx, signedSize);
             }).sum();
         boolean hasPrunedTxs = block.getTransactions()
@@ -1649,7 +1680,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                     blockchainConfig, blockchain, peersService,
                     globalSync, timeService, prunableRestorationService,
                     networkService, propertiesHolder, transactionProcessor, getNextBlocksResponseParser,
-                    blockSerializer, getTransactionsResponseParser)
+                    blockSerializer, getTransactionsResponseParser, signatureBatchVerifier)
                 )
                 .build();
 
@@ -1657,6 +1688,11 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         }
     }
 
+    @FunctionalInterface
+    private interface PeerBlockSupplier {
+        Block get() throws AplException.NotValidException;
+    }
+
     @Getter
     private class BlockTotals {
         private int payloadLength;
@@ -1666,12 +1702,11 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 
         public BlockTotals(List<Transaction> transactions) {
             for (Transaction transaction : transactions) {
-                Result signedTxBytes = PayloadResult.createLittleEndianByteArrayResult();
-                txBContext.createSerializer(transaction.getVersion()).serialize(transaction, signedTxBytes);
-                digest.update(signedTxBytes.array());
+                byte[] signedTxBytes = getTxBytes(transaction);
+                digest.update(signedTxBytes);
                 totalAmount += transaction.isFailed() ? 0 : transaction.getAmountATM();
                 totalFee += transaction.getFeeATM();
-                payloadLength += transaction.isFailed() ? signedTxBytes.size() : TransactionUtils.calculateFullSize(transaction, signedTxBytes.size());
+                payloadLength += transaction.isFailed() ? signedTxBytes.length : TransactionUtils.calculateFullSize(transaction, signedTxBytes.length);
             }
         }
     }
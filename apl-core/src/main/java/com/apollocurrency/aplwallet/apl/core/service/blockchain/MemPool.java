@@ -11,6 +11,7 @@ import com.apollocurrency.aplwallet.apl.core.converter.db.UnconfirmedTransaction
 import com.apollocurrency.aplwallet.apl.core.converter.db.UnconfirmedTransactionModelToEntityConverter;
 import com.apollocurrency.aplwallet.apl.core.converter.rest.IteratorToStreamConverter;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.UnconfirmedTransactionTable;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransactionEntity;
 import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
@@ -35,12 +36,20 @@ import java.util.stream.Stream;
 @Slf4j
 @Singleton
 public class MemPool {
+    private static final int WRITE_LOCK_STRIPES = 64;
+
     private final IteratorToStreamConverter<UnconfirmedTransactionEntity> streamConverter = new IteratorToStreamConverter<>();
     private final UnconfirmedTransactionTable table;
+    private final UnconfirmedTransactionWriteBehind writeBehind;
     private final MemPoolInMemoryState memoryState;
     private final UnconfirmedTransactionEntityToModelConverter toModelConverter;
     private final UnconfirmedTransactionModelToEntityConverter toEntityConverter;
     private final Cache<Long, RemovedTx> removedTransactions;
+    /**
+     * Serialize the in-memory change of the transaction with its write-behind operation, so that the operations of
+     * the same transaction are queued in the order of the in-memory changes
+     */
+    private final Object[] writeLocks = new Object[WRITE_LOCK_STRIPES];
     @Getter
     private final MemPoolConfig config;
 
@@ -49,33 +58,34 @@ public class MemPool {
                    UnconfirmedTransactionEntityToModelConverter toModelConverter,
                    UnconfirmedTransactionModelToEntityConverter toEntityConverter,
                    InMemoryCacheManager inMemoryCacheManager,
-                   MemPoolConfig config
+                   MemPoolConfig config,
+                   DatabaseManager databaseManager
                   ) {
-        this(table, new MemPoolInMemoryState(config), toModelConverter, toEntityConverter, inMemoryCacheManager.acquireCache(RemovedTxsCacheConfig.CACHE_NAME), config);
+        this(table, new UnconfirmedTransactionWriteBehind(table, databaseManager), new MemPoolInMemoryState(config), toModelConverter, toEntityConverter, inMemoryCacheManager.acquireCache(RemovedTxsCacheConfig.CACHE_NAME), config);
     }
 
-    public MemPool(UnconfirmedTransactionTable table, MemPoolInMemoryState memoryState, UnconfirmedTransactionEntityToModelConverter toModelConverter, UnconfirmedTransactionModelToEntityConverter toEntityConverter, Cache<Long, RemovedTx> removedTransactions, MemPoolConfig config) {
+    MemPool(UnconfirmedTransactionTable table, UnconfirmedTransactionWriteBehind writeBehind, MemPoolInMemoryState memoryState, UnconfirmedTransactionEntityToModelConverter toModelConverter, UnconfirmedTransactionModelToEntityConverter toEntityConverter, Cache<Long, RemovedTx> removedTransactions, MemPoolConfig config) {
         this.table = table;
+        this.writeBehind = writeBehind;
         this.memoryState = memoryState;
         this.toModelConverter = toModelConverter;
         this.toEntityConverter = toEntityConverter;
         this.removedTransactions = removedTransactions;
         this.config = config;
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new Object();
+        }
     }
 
     public void initCache() {
-        // Initialize the unconfirmed transaction cache if it hasn't been done yet
+        // Load the persisted mempool into memory if it hasn't been done yet, since then the table is only written to
         if (!memoryState.isCacheInitialized()) {
             memoryState.initializeCache(streamConverter.apply(table.getAll(0, -1)).map(toModelConverter));
         }
     }
 
     public Transaction get(long id) {
-        Transaction transaction = memoryState.getFromCache(id);
-        if (transaction != null) {
-            return transaction;
-        }
-        return toModelConverter.convert(table.getById(id));
+        return memoryState.get(id);
     }
 
     public void markRemoved(long id) {
@@ -99,16 +109,28 @@ public class MemPool {
         memoryState.addTxToBroadcastWhenConfirmed(tx, unconfirmedTx);
     }
 
+    /**
+     * @param exclude sorted list of the string ids of transactions to skip
+     * @return at most {@link MemPoolConfig#getMaxCachedTransactions()} transactions in the block selection order
+     */
     public Set<UnconfirmedTransaction> getCached(List<String> exclude) {
-        return memoryState.getFromCache(exclude);
+        return memoryState.getSorted(exclude, config.getMaxCachedTransactions());
     }
 
     public boolean addProcessed(UnconfirmedTransaction tx) {
         boolean canSaveTxs = getCount() < config.getMaxUnconfirmedTransactions();
         if (canSaveTxs) {
-            table.insert(toEntityConverter.convert(tx));
-            memoryState.putInCache(tx);
-            log.info("Added transaction {} into a mempool", tx.getStringId());
+            UnconfirmedTransactionEntity entity = toEntityConverter.convert(tx);
+            boolean added;
+            synchronized (writeLock(tx.getId())) {
+                added = memoryState.put(tx);
+                if (added) {
+                    writeBehind.insert(entity);
+                }
+            }
+            if (added) {
+                log.info("Added transaction {} into a mempool", tx.getStringId());
+            }
         }
         return canSaveTxs;
     }
@@ -144,24 +166,22 @@ public class MemPool {
         return memoryState.referencedRemainingCapacity() > 0;
     }
 
+    /**
+     * @return mempool transactions ordered by height ASC, fee per byte DESC, arrival timestamp ASC and id ASC
+     */
     public Stream<UnconfirmedTransaction> getAllStream() {
-        return table.getAllUnconfirmedTransactions().map(toModelConverter);
+        return memoryState.sortedStream();
     }
 
     public int getCount() {
-        if(getCachedCount() < config.getMaxCachedTransactions()) {
-            return getCachedCount();
-        } else {
-            return table.getCount();
-        }
+        return memoryState.size();
     }
 
-    public int getSavedCount() {
-        return table.getCount();
-    }
-
-    public int getCachedCount() {
-        return memoryState.txCacheSize();
+    /**
+     * @return number of mempool changes not written to the 'unconfirmed_transaction' table yet
+     */
+    public int getPendingWritesCount() {
+        return writeBehind.pendingCount();
     }
 
     public void removeBroadcasted(Transaction transaction) {
@@ -185,7 +205,8 @@ public class MemPool {
     }
 
     public Stream<UnconfirmedTransaction> getAllStream(int from, int to) {
-        return streamConverter.apply(table.getAll(from, to)).map(toModelConverter);
+        Stream<UnconfirmedTransaction> stream = memoryState.sortedStream().skip(from);
+        return to < 0 ? stream : stream.limit(Math.max(0, to - from + 1));
     }
 
     public void processLater(UnconfirmedTransaction unconfirmedTransaction) {
@@ -203,7 +224,14 @@ public class MemPool {
 
     public void clear() {
         memoryState.clear();
-        table.truncate();
+        writeBehind.truncate();
+    }
+
+    /**
+     * Write all the pending mempool changes to the database, should be called before the database shutdown
+     */
+    public void shutdown() {
+        writeBehind.shutdown();
     }
 
     public void rebroadcastAll() {
@@ -215,10 +243,19 @@ public class MemPool {
     }
 
     public boolean remove(Transaction transaction) {
-        int deleted = table.deleteById(transaction.getId());
-        memoryState.removeCached(transaction);
+        boolean removed;
+        synchronized (writeLock(transaction.getId())) {
+            removed = memoryState.remove(transaction);
+            if (removed) {
+                writeBehind.delete(transaction.getId());
+            }
+        }
         removedTransactions.put(transaction.getId(), new RemovedTx(transaction.getId(), System.currentTimeMillis()));
-        return deleted > 0;
+        return removed;
+    }
+
+    private Object writeLock(long id) {
+        return writeLocks[Math.floorMod(Long.hashCode(id), WRITE_LOCK_STRIPES)];
     }
 
     public boolean isRemoved(Transaction transaction) {
@@ -245,20 +282,16 @@ public class MemPool {
     }
 
     public List<Long> getAllIds() {
-        if(getCachedCount() < config.getMaxCachedTransactions()){
-            return memoryState.getAllCachedIds();
-        } else {
-            return table.getAllUnconfirmedTransactionIds();
-        }
+        return memoryState.getAllIds();
     }
 
     public int getExpiredCount(int epochTime) {
-        return table.countExpiredTransactions(epochTime);
+        return (int) getExpiredStream(epochTime).count();
     }
 
 
     public Stream<UnconfirmedTransaction> getExpiredStream(int epochTime) {
-        return table.getExpiredTxsStream(epochTime).map(toModelConverter);
+        return memoryState.sortedStream().filter(e -> e.getExpiration() < epochTime);
     }
 
     public boolean isAlreadyBroadcasted(Transaction transaction) {
@@ -8,7 +8,9 @@ import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
 import com.apollocurrency.aplwallet.apl.core.model.WrappedTransaction;
 import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
+import com.apollocurrency.aplwallet.apl.util.ConcurrentLongHashMap;
 import com.apollocurrency.aplwallet.apl.util.SizeBoundedPriorityQueue;
+import lombok.Getter;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -19,11 +21,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -34,13 +38,14 @@ import static java.util.Comparator.comparingLong;
 
 @Singleton
 public class MemPoolInMemoryState {
-    private static final Comparator<UnconfirmedTransaction> cachedUnconfirmedTransactionComparator =
-        comparingInt(UnconfirmedTransaction::getHeight) // Sort by transaction_height ASC
-            .thenComparing(comparingLong(UnconfirmedTransaction::getFeePerByte).reversed()) // Sort by fee_per_byte DESC
-            .thenComparingLong(UnconfirmedTransaction::getArrivalTimestamp) // Sort by arrival_timestamp ASC
-            .thenComparingLong(UnconfirmedTransaction::getId); // Sort by transaction ID ASC
-
-    private final Map<Long, UnconfirmedTransaction> transactionCache = new ConcurrentHashMap<>();
+    private static final Comparator<IndexedTransaction> indexedTransactionComparator =
+        comparingInt(IndexedTransaction::getHeight) // Sort by transaction_height ASC
+            .thenComparing(comparingLong(IndexedTransaction::getFeePerByte).reversed()) // Sort by fee_per_byte DESC
+            .thenComparingLong(IndexedTransaction::getArrivalTimestamp) // Sort by arrival_timestamp ASC
+            .thenComparingLong(IndexedTransaction::getId); // Sort by transaction ID ASC
+
+    private final ConcurrentLongHashMap<IndexedTransaction> transactions = new ConcurrentLongHashMap<>();
+    private final NavigableSet<IndexedTransaction> feeIndex = new ConcurrentSkipListSet<>(indexedTransactionComparator);
     private final Map<Transaction, Transaction> txToBroadcastWhenConfirmed = new ConcurrentHashMap<>();
     private final Set<Transaction> broadcastedTransactions = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final AtomicInteger referencedCounter = new AtomicInteger(-1);
@@ -94,13 +99,20 @@ public class MemPoolInMemoryState {
         txToBroadcastWhenConfirmed.put(tx, unconfirmedTransaction);
     }
 
-    public void putInCache(UnconfirmedTransaction unconfirmedTransaction) {
-        if (transactionCache.size() < memPoolConfig.getMaxCachedTransactions()) {
-            transactionCache.put(unconfirmedTransaction.getId(), unconfirmedTransaction);
+    /**
+     * Add transaction to the id map and to the fee index
+     * @return true, when the transaction was added, false - when the mempool already contains it
+     */
+    public boolean put(UnconfirmedTransaction unconfirmedTransaction) {
+        IndexedTransaction indexed = new IndexedTransaction(unconfirmedTransaction);
+        if (transactions.putIfAbsent(indexed.getId(), indexed) != null) {
+            return false;
         }
+        feeIndex.add(indexed);
         if (unconfirmedTransaction.getReferencedTransactionFullHash() != null) {
             referencedCounter.incrementAndGet();
         }
+        return true;
     }
 
     public IdQueue.ReturnCode addPendingProcessing(UnconfirmedTransaction unconfirmedTransaction) {
@@ -111,9 +123,12 @@ public class MemPoolInMemoryState {
         if(cacheInitialized.compareAndSet(false, true)){
             AtomicInteger referencedCount = new AtomicInteger(0);
             CollectionUtil.forEach(unconfirmedTransactionStream, e -> {
-                transactionCache.put(e.getId(), e);
-                if (e.getReferencedTransactionFullHash() != null) {
-                    referencedCount.incrementAndGet();
+                IndexedTransaction indexed = new IndexedTransaction(e);
+                if (transactions.putIfAbsent(indexed.getId(), indexed) == null) {
+                    feeIndex.add(indexed);
+                    if (e.getReferencedTransactionFullHash() != null) {
+                        referencedCount.incrementAndGet();
+                    }
                 }
             });
             referencedCounter.set(referencedCount.get());
@@ -122,22 +137,40 @@ public class MemPoolInMemoryState {
         }
     }
 
-    public Set<UnconfirmedTransaction> getFromCache(List<String> exclude) {
-        TreeSet<UnconfirmedTransaction> sortedUnconfirmedTransactions = new TreeSet<>(cachedUnconfirmedTransactionComparator);
-        transactionCache.values().forEach(transaction -> {
+    /**
+     * @param exclude sorted list of the string ids of transactions to skip
+     * @param limit max number of transactions to return
+     * @return transactions in the fee index order
+     */
+    public Set<UnconfirmedTransaction> getSorted(List<String> exclude, int limit) {
+        Set<UnconfirmedTransaction> sortedUnconfirmedTransactions = new LinkedHashSet<>();
+        for (IndexedTransaction indexed : feeIndex) {
+            if (sortedUnconfirmedTransactions.size() >= limit) {
+                break;
+            }
+            UnconfirmedTransaction transaction = indexed.getTransaction();
             if (Collections.binarySearch(exclude, transaction.getStringId()) < 0) {
                 sortedUnconfirmedTransactions.add(transaction);
             }
-        });
+        }
         return sortedUnconfirmedTransactions;
     }
 
-    public List<Long> getAllCachedIds(){
-        return new ArrayList<>(transactionCache.keySet());
+    /**
+     * @return weakly consistent stream of the mempool transactions ordered by height ASC, fee per byte DESC,
+     * arrival timestamp ASC and id ASC
+     */
+    public Stream<UnconfirmedTransaction> sortedStream() {
+        return feeIndex.stream().map(IndexedTransaction::getTransaction);
+    }
+
+    public List<Long> getAllIds() {
+        return transactions.keys();
     }
 
     public void clear() {
-        transactionCache.clear();
+        transactions.clear();
+        feeIndex.clear();
         txToBroadcastWhenConfirmed.clear();
         broadcastedTransactions.clear();
         processLaterQueue.clear();
@@ -149,12 +182,13 @@ public class MemPoolInMemoryState {
         return new ArrayList<>(pendingProcessingQueue);
     }
 
-    public int txCacheSize() {
-        return transactionCache.size();
+    public int size() {
+        return transactions.size();
     }
 
-    public UnconfirmedTransaction getFromCache(long id) {
-        return transactionCache.get(id);
+    public UnconfirmedTransaction get(long id) {
+        IndexedTransaction indexed = transactions.get(id);
+        return indexed != null ? indexed.getTransaction() : null;
     }
 
     public int referencedRemainingCapacity() {
@@ -165,11 +199,19 @@ public class MemPoolInMemoryState {
         return referencedCounter.get();
     }
 
-    public void removeCached(Transaction transaction) {
-        transactionCache.remove(transaction.getId());
-        if (transaction.getReferencedTransactionFullHash() != null) {
+    /**
+     * @return true, when the transaction was removed from the mempool, false - when it was not present
+     */
+    public boolean remove(Transaction transaction) {
+        IndexedTransaction indexed = transactions.remove(transaction.getId());
+        if (indexed == null) {
+            return false;
+        }
+        feeIndex.remove(indexed);
+        if (indexed.getTransaction().getReferencedTransactionFullHash() != null) {
             referencedCounter.decrementAndGet();
         }
+        return true;
     }
 
     public boolean isBroadcasted(Transaction transaction) {
@@ -199,4 +241,25 @@ public class MemPoolInMemoryState {
     public void removePendingProcessing(long id) {
         pendingProcessingQueue.remove(id);
     }
+
+    /**
+     * Mempool entry with the sort keys captured on insertion: the height of the wrapped transaction may change during
+     * the block generation, which must not break the fee index ordering
+     */
+    @Getter
+    private static class IndexedTransaction {
+        private final long id;
+        private final int height;
+        private final long feePerByte;
+        private final long arrivalTimestamp;
+        private final UnconfirmedTransaction transaction;
+
+        IndexedTransaction(UnconfirmedTransaction transaction) {
+            this.id = transaction.getId();
+            this.height = transaction.getHeight();
+            this.feePerByte = transaction.getFeePerByte();
+            this.arrivalTimestamp = transaction.getArrivalTimestamp();
+            this.transaction = transaction;
+        }
+    }
 }
@@ -40,6 +40,7 @@ public class TransactionProcessingTaskScheduler {
     private final UnconfirmedTransactionProcessingService processingService;
     private final UnconfirmedTransactionCreator unconfirmedTransactionCreator;
     private final BatchSizeCalculator batchSizeCalculator;
+    private final BlockTemplateBuilder blockTemplateBuilder;
 
     @Inject
     public TransactionProcessingTaskScheduler(PropertiesHolder propertiesHolder, TimeService timeService,
@@ -49,7 +50,8 @@ public class TransactionProcessingTaskScheduler {
                                               TaskDispatchManager taskDispatchManager, TransactionValidator transactionValidator,
                                               UnconfirmedTransactionProcessingService processingService,
                                               BatchSizeCalculator batchSizeCalculator,
-                                              UnconfirmedTransactionCreator unconfirmedTransactionCreator) {
+                                              UnconfirmedTransactionCreator unconfirmedTransactionCreator,
+                                              BlockTemplateBuilder blockTemplateBuilder) {
         this.timeService = timeService;
         this.blockchain = blockchain;
         this.memPool = memPool;
@@ -64,6 +66,7 @@ public class TransactionProcessingTaskScheduler {
         this.processingService = processingService;
         this.batchSizeCalculator = batchSizeCalculator;
         this.unconfirmedTransactionCreator = unconfirmedTransactionCreator;
+        this.blockTemplateBuilder = blockTemplateBuilder;
         configureBackgroundTasks();
     }
 
@@ -120,6 +123,12 @@ public class TransactionProcessingTaskScheduler {
                 .task(new ProcessUnconfirmedTransactionsQueueTask(
                     memPool,transactionValidator, processingService,batchSizeCalculator, databaseManager))
                 .build());
+
+            dispatcher.schedule(Task.builder()
+                .name("WarmUpBlockTemplate")
+                .delay(1000)
+                .task(blockTemplateBuilder::warmUp)
+                .build());
         }
     }
 }
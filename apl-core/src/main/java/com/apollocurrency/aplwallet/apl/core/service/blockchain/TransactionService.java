@@ -6,12 +6,14 @@ package com.apollocurrency.aplwallet.apl.core.service.blockchain;
 
 import com.apollocurrency.aplwallet.api.v2.model.TxReceipt;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.ChatInfo;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.model.Sort;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.TransactionDbInfo;
 import com.apollocurrency.aplwallet.apl.core.transaction.PrunableTransaction;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author andrew.zinchenko@gmail.com
@@ -27,6 +29,13 @@ public interface TransactionService {
 
     List<Transaction> findBlockTransactionsCrossSharding(long blockId);
 
+    /**
+     * Load transactions of the given blocks, selecting them in bulk from each shard data source
+     * @param blocks blocks to load transactions for
+     * @return block transactions ordered by index mapped by block id, blocks without transactions are not mapped
+     */
+    Map<Long, List<Transaction>> findBlocksTransactionsCrossSharding(List<Block> blocks);
+
     List<PrunableTransaction> findPrunableTransactions(int minTimestamp, int maxTimestamp);
 
     boolean hasTransaction(long transactionId);
@@ -12,6 +12,7 @@ import com.apollocurrency.aplwallet.apl.core.dao.blockchain.TransactionDao;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.ChatInfo;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.TransactionEntity;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
 import com.apollocurrency.aplwallet.apl.core.model.Sort;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.TransactionDbInfo;
@@ -29,8 +30,11 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -119,6 +123,37 @@ public class TransactionServiceImpl implements TransactionService {
         return transactions.stream().map(toModelConverter).collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<Transaction>> findBlocksTransactionsCrossSharding(List<Block> blocks) {
+        Map<Long, List<Transaction>> result = new HashMap<>();
+        groupBlockIdsByDataSource(blocks).forEach((dataSource, blockIds) -> {
+            for (TransactionEntity entity : transactionDao.findBlocksTransactions(blockIds, dataSource)) {
+                result.computeIfAbsent(entity.getBlockId(), id -> new ArrayList<>()).add(toModelConverter.convert(entity));
+            }
+        });
+        return result;
+    }
+
+    private Map<TransactionalDataSource, List<Long>> groupBlockIdsByDataSource(List<Block> blocks) {
+        Map<TransactionalDataSource, List<Long>> blockIds = new LinkedHashMap<>();
+        if (blocks.isEmpty()) {
+            return blockIds;
+        }
+        IntSummaryStatistics heights = blocks.stream().mapToInt(Block::getHeight).summaryStatistics();
+        TransactionalDataSource lowest = shardDbExplorer.getDataSourceWithShardingByHeight(heights.getMin());
+        TransactionalDataSource highest = shardDbExplorer.getDataSourceWithShardingByHeight(heights.getMax());
+        if (lowest == highest) {
+            // each shard and the main db store a continuous range of heights
+            blockIds.put(lowest, blocks.stream().map(Block::getId).collect(Collectors.toList()));
+        } else {
+            for (Block block : blocks) {
+                blockIds.computeIfAbsent(shardDbExplorer.getDataSourceWithShardingByHeight(block.getHeight()), ds -> new ArrayList<>())
+                    .add(block.getId());
+            }
+        }
+        return blockIds;
+    }
+
     @Override
     public List<PrunableTransaction> findPrunableTransactions(int minTimestamp, int maxTimestamp) {
         return transactionDao.findPrunableTransactions(minTimestamp, maxTimestamp);
@@ -218,42 +253,18 @@ public class TransactionServiceImpl implements TransactionService {
         if (limit > 500) { // warn for too big values
             log.warn("Computed limit is BIGGER then 500 = {} !!", limit);
         }
-        List<TransactionEntity> transactions = new ArrayList<>();
-            Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager)
-                .getAllSortedDataSourcesIterator(sort.isASC() ? Comparator.naturalOrder() : Comparator.reverseOrder());
-            while (fullDataSources.hasNext()) {
-                TransactionalDataSource dataSource = fullDataSources.next();
-                // count Tx records before fetch Tx records
-                int foundCount = transactionDao.getTransactionCountByFilter(dataSource,
-                    accountId, type, subtype,
-                    blockTimestamp, withMessage, phasedOnly, nonPhasedOnly, executedOnly, includePrivate, height, prunableExpiration, failedOnly, nonFailedOnly);
-                log.trace("countTx 3. DS={}, from={} to={}, foundCount={} (skip='{}')\naccountId={}, type={}, subtype={}",
-                    dataSource.getDbIdentity(), from, to, foundCount, (foundCount <= 0),
-                    accountId, type, subtype);
-                if (foundCount == 0) {
-                    continue; // skip data source without any suitable records
-                }
-                // because count is > 0 then try to fetch Tx records from shard db
-                List<TransactionEntity> fetchedTxs = transactionDao.getTransactions(
-                    dataSource,
-                    accountId, type, subtype,
-                    blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-                    from, to, executedOnly, includePrivate, height, prunableExpiration, failedOnly, nonFailedOnly, sort);
-                log.trace("getTx() 4. DS={} fetched [{}] (foundCount={}) from={}, to={}", dataSource.getDbIdentity(),
-                    fetchedTxs.size(), foundCount, from, to);
-                if (fetchedTxs.isEmpty()) {
-                    to -= foundCount;
-                    from -= foundCount;
-                } else {
-                    to -= (fetchedTxs.size() + from);
-                    from = 0;
-                }
-                transactions.addAll(fetchedTxs);
-                if (transactions.size() >= limit) { // by default, size of fetched transactions should be equal to initialLimit, but when error occurred this check allow to avoid fetching all txs
-                    break;
-                }
-            }
-//        }
+        List<TransactionalDataSource> dataSources = new ArrayList<>();
+        ((ShardManagement) databaseManager).getAllSortedDataSourcesIterator(Comparator.naturalOrder()).forEachRemaining(dataSources::add);
+        Comparator<TransactionEntity> order = Comparator.comparingInt(TransactionEntity::getBlockTimestamp)
+            .thenComparingInt(TransactionEntity::getIndex);
+        // fetch first 'to' transactions from each shard and main db concurrently, then merge them in the requested order
+        List<TransactionEntity> transactions = shardDbExplorer.queryOrdered(dataSources,
+            dataSource -> transactionDao.getTransactions(
+                dataSource,
+                accountId, type, subtype,
+                blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
+                0, to, executedOnly, includePrivate, height, prunableExpiration, failedOnly, nonFailedOnly, sort),
+            sort.isASC() ? order : order.reversed(), from, to);
         log.trace("Tx number Requested / Loaded : [{}] / [{}] = in {} ms", limit, transactions.size(), System.currentTimeMillis() - start);
         return transactions.stream().map(toModelConverter).collect(Collectors.toList());
     }
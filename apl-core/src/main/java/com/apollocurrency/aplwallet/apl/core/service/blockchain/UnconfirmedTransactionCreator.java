@@ -8,8 +8,6 @@ import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionUtils;
-import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
-import com.apollocurrency.aplwallet.apl.util.io.Result;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
 import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
 
@@ -32,9 +30,8 @@ public class UnconfirmedTransactionCreator {
     }
 
     public UnconfirmedTransaction from(Transaction transaction, long arrivalTimestamp) {
-        Result byteArrayTx = PayloadResult.createLittleEndianByteArrayResult();
-        txBContext.createSerializer(transaction.getVersion()).serialize(transaction, byteArrayTx);
-        int fullSize = TransactionUtils.calculateFullSize(transaction, byteArrayTx.size());
+        byte[] signedTxBytes = txBContext.createSerializer(transaction.getVersion()).toBytes(transaction);
+        int fullSize = TransactionUtils.calculateFullSize(transaction, signedTxBytes.length);
 
         return new UnconfirmedTransaction(transaction, arrivalTimestamp, transaction.getFeeATM() / fullSize, fullSize);
     }
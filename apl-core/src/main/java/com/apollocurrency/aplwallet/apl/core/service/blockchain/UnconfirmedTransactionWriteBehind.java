@@ -0,0 +1,98 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.UnconfirmedTransactionTable;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransactionEntity;
+import com.apollocurrency.aplwallet.apl.util.db.DbTransactionHelper;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous persistence of the mempool into the 'unconfirmed_transaction' table. Inserts, deletions and truncation
+ * are queued and applied in batches by a single thread in the order they were requested, so that a deletion of the
+ * transaction is never overtaken by its insertion. The table is used only to restore the mempool after restart.
+ */
+@Slf4j
+class UnconfirmedTransactionWriteBehind {
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final UnconfirmedTransactionTable table;
+    private final DatabaseManager databaseManager;
+    private final BlockingQueue<Runnable> operations = new LinkedBlockingQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("MemPoolWriteBehind", true));
+
+    UnconfirmedTransactionWriteBehind(UnconfirmedTransactionTable table, DatabaseManager databaseManager) {
+        this.table = table;
+        this.databaseManager = databaseManager;
+    }
+
+    void insert(UnconfirmedTransactionEntity entity) {
+        enqueue(() -> table.insert(entity));
+    }
+
+    void delete(long id) {
+        enqueue(() -> table.deleteById(id));
+    }
+
+    void truncate() {
+        enqueue(table::truncate);
+    }
+
+    int pendingCount() {
+        return operations.size();
+    }
+
+    /**
+     * Stop the writer thread and persist the operations queued after its last flush in the calling thread.
+     * Operations are not flushed by the calling thread, when the writer thread is still running, to not apply them
+     * concurrently and out of order.
+     */
+    void shutdown() {
+        executor.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (terminated) {
+            flush();
+        } else {
+            log.warn("Mempool write-behind thread was not stopped in time, {} operations are pending", operations.size());
+        }
+    }
+
+    private void enqueue(Runnable operation) {
+        operations.add(operation);
+        if (flushScheduled.compareAndSet(false, true) && !executor.isShutdown()) {
+            executor.submit(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Runnable> batch = new ArrayList<>();
+        while (operations.drainTo(batch, MAX_BATCH_SIZE) > 0) {
+            try {
+                DbTransactionHelper.executeInTransaction(databaseManager.getDataSource(), () -> batch.forEach(Runnable::run));
+            } catch (RuntimeException e) {
+                log.warn("Unable to persist {} mempool operations, they will be lost after restart", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+}
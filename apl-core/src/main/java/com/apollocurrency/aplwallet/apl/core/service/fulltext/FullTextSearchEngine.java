@@ -42,6 +42,20 @@ public interface FullTextSearchEngine {
      */
     void commitIndex() throws SQLException;
 
+    /**
+     * Make the index updates of the committed db transaction searchable soon without the immediate index commit,
+     * the implementation decides when the updates are committed
+     *
+     * @throws SQLException when index commit error occurred
+     */
+    void flushIndex() throws SQLException;
+
+    /**
+     * @return true when the index was not shut down properly at the previous run and may miss the latest updates,
+     * so that it should be rebuilt
+     */
+    boolean isIndexStale();
+
     /**
      * Clear index data and restart engine
      *
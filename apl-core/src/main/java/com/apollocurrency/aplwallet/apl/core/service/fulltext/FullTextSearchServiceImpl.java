@@ -122,6 +122,9 @@ public class FullTextSearchServiceImpl implements FullTextSearchService {
                 }
             }
             if (indexesInfoTableExist && alreadyInitialized && !isIndexFolderEmpty) {
+                if (fullTextSearchEngine.isIndexStale()) {
+                    reindexAll(conn, schemaName);
+                }
                 log.info("Fulltext support is already initialized");
                 return;
             }
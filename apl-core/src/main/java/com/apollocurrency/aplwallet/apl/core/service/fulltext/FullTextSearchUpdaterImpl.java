@@ -177,7 +177,7 @@ public class FullTextSearchUpdaterImpl implements TransactionCallback, FullTextS
             // Commit the index updates
             //
             if (commit) {
-                fullTextSearchEngine.commitIndex();
+                fullTextSearchEngine.flushIndex();
             }
         } catch (SQLException exc) {
             log.error("Unable to update the Lucene index", exc);
@@ -10,26 +10,38 @@ import com.apollocurrency.aplwallet.apl.util.NtpTime;
 import com.apollocurrency.aplwallet.apl.util.ReadWriteUpdateLock;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -43,6 +55,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
 import java.util.stream.Stream;
@@ -52,17 +65,35 @@ import java.util.stream.Stream;
 @DatabaseSpecificDml(DmlMarker.FULL_TEXT_SEARCH)
 public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     /**
-     * Lucene index reader (thread-safe)
+     * Commit user data key, which is 'false' for the commits made while the index is open and 'true' for the shutdown commit
      */
-    private static DirectoryReader indexReader;
+    private static final String CLOSED_COMMIT_DATA = "closed";
     /**
-     * Lucene index searcher (thread-safe)
+     * Doc values fields to build the search results without loading and parsing the stored '_QUERY' field
      */
-    private static IndexSearcher indexSearcher;
+    private static final String SCHEMA_FIELD = "_SCHEMA";
+    private static final String TABLE_NAME_FIELD = "_TABLE_NAME";
+    private static final String DB_ID_FIELD = "_DB_ID";
     /**
      * Lucene index writer (thread-safe)
      */
-    private static IndexWriter indexWriter;
+    private IndexWriter indexWriter;
+    /**
+     * Near-real-time searchers provider, searchers are opened from the index writer and see not committed updates (thread-safe)
+     */
+    private SearcherManager searcherManager;
+    /**
+     * Background thread, which reopens the searchers to make the index updates searchable
+     */
+    private ControlledRealTimeReopenThread<IndexSearcher> searcherRefresher;
+    /**
+     * Index was not closed by the {@link #shutdown()} and may miss the updates made after the last commit
+     */
+    private volatile boolean indexStale;
+    /**
+     * Blockchain height of the last index commit
+     */
+    private volatile int lastCommitHeight = -1;
     /**
      * Index lock
      */
@@ -74,13 +105,24 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     private NtpTime ntpTime;
     private Path indexDirPath;
     private final Blockchain blockchain;
+    /**
+     * Number of blocks, which index updates are committed to the disk at once
+     */
+    private final int commitBlocks;
+    /**
+     * Max time in ms before the index updates become searchable
+     */
+    private final int maxRefreshMs;
 
 
     @Inject
-    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath, final Blockchain blockchain) {
+    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath, final Blockchain blockchain,
+                                      PropertiesHolder propertiesHolder) {
         this.ntpTime = ntpTime;
         this.indexDirPath = indexPath;
         this.blockchain = blockchain;
+        this.commitBlocks = propertiesHolder.getIntProperty("apl.fulltext.commitBlocks", 10);
+        this.maxRefreshMs = propertiesHolder.getIntProperty("apl.fulltext.maxRefreshMs", 1000);
         if (!Files.exists(indexPath)) {
             try {
                 Files.createDirectories(indexPath);
@@ -117,6 +159,9 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             String query = row.getTableKey();
             Document document = new Document();
             document.add(new StringField("_QUERY", query, Field.Store.YES));
+            document.add(new SortedDocValuesField(SCHEMA_FIELD, new BytesRef(row.getSchema())));
+            document.add(new SortedDocValuesField(TABLE_NAME_FIELD, new BytesRef(row.getTableName())));
+            document.add(new NumericDocValuesField(DB_ID_FIELD, row.getDbIdValue()));
             long now = ntpTime.getTime();
             document.add(new TextField("_MODIFIED", DateTools.timeToString(now, DateTools.Resolution.SECOND), Field.Store.NO));
             document.add(new TextField("_TABLE", schemaTableName, Field.Store.NO));
@@ -129,11 +174,10 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
                 sj.add(data);
             }
             document.add(new TextField("_DATA", sj.toString(), Field.Store.NO));
-            log.debug("INDEX query={}\n{}", query, document);
-            if (document.getFields().size() > 4) {
+            if (document.getFields().size() > 7) {
                 // put/update Index when there are real data
                 indexWriter.updateDocument(new Term("_QUERY", query), document);
-                log.debug("INSERT/UPDATE = {}\n{}", query, document);
+                log.trace("INSERT/UPDATE = {}", query);
             } else {
                 log.warn("SKIPPED FTS indexing for incomplete data set = {}", row);
             }
@@ -193,13 +237,23 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
                 IndexWriterConfig config = new IndexWriterConfig(analyzer);
                 config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
                 Directory indexDir = FSDirectory.open(indexDirPath);
+                indexStale = DirectoryReader.indexExists(indexDir)
+                    && "false".equals(SegmentInfos.readLatestCommit(indexDir).getUserData().get(CLOSED_COMMIT_DATA));
+                if (indexStale) {
+                    log.warn("Lucene index was not closed properly and may miss the latest updates");
+                }
                 indexWriter = new IndexWriter(indexDir, config);
+                indexWriter.setLiveCommitData(Map.of(CLOSED_COMMIT_DATA, "false").entrySet());
                 Document document = new Document();
                 document.add(new StringField("_QUERY", "_CONTROL_DOCUMENT_", Field.Store.YES));
                 indexWriter.updateDocument(new Term("_QUERY", "_CONTROL_DOCUMENT_"), document);
                 indexWriter.commit();
-                indexReader = DirectoryReader.open(indexDir);
-                indexSearcher = new IndexSearcher(indexReader);
+                lastCommitHeight = -1;
+                searcherManager = new SearcherManager(indexWriter, true, true, null);
+                searcherRefresher = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, maxRefreshMs / 1000.0, 0);
+                searcherRefresher.setName("FullTextSearchRefresher");
+                searcherRefresher.setDaemon(true);
+                searcherRefresher.start();
             } finally {
                 indexLock.writeLock().unlock();
             }
@@ -223,12 +277,8 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         try {
             if (indexWriter != null && indexWriter.isOpen()) {
                 indexWriter.commit();
-            }
-            DirectoryReader newReader = DirectoryReader.openIfChanged(indexReader);
-            if (newReader != null) {
-                indexReader.close();
-                indexReader = newReader;
-                indexSearcher = new IndexSearcher(indexReader);
+                lastCommitHeight = blockchain != null ? blockchain.getHeight() : -1;
+                searcherManager.maybeRefreshBlocking();
             }
         } catch (IOException exc) {
             log.error("Unable to commit Lucene index updates", exc);
@@ -238,6 +288,34 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Updates are made searchable by the background refresher thread, which reopens the near-real-time searcher at least
+     * once per 'apl.fulltext.maxRefreshMs'. The index is committed once per 'apl.fulltext.commitBlocks' blocks and on the
+     * blockchain rollback, an index which was not closed properly is rebuilt on the next start.
+     * Without the blockchain the index is committed immediately.
+     */
+    @Override
+    public void flushIndex() throws SQLException {
+        if (blockchain == null) {
+            commitIndex();
+            return;
+        }
+        int height = blockchain.getHeight();
+        if (height < lastCommitHeight || height - lastCommitHeight >= commitBlocks) {
+            commitIndex();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIndexStale() {
+        return indexStale;
+    }
+
     /**
      * Remove the Lucene index files
      *
@@ -291,9 +369,12 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         // The _TABLE field is used to limit the search results to the current table
         // The _DATA field contains the indexed row data (this is the default search field)
         // The _MODIFIED field contains the row modification time (YYYYMMDDhhmmss) in GMT
+        // The _SCHEMA, _TABLE_NAME and _DB_ID doc values contain the row identification for the results
         //
+        IndexSearcher indexSearcher = null;
         indexLock.readLock().lock();
         try {
+            indexSearcher = searcherManager.acquire();
             QueryParser parser = new QueryParser("_DATA", analyzer);
             parser.setDateResolution("_MODIFIED", DateTools.Resolution.SECOND);
             parser.setDefaultOperator(QueryParser.Operator.AND);
@@ -303,20 +384,30 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             ScoreDoc[] hits = documents.scoreDocs;
             int resultCount = Math.min(hits.length, (limit == 0 ? hits.length : limit));
             int resultOffset = Math.min(offset, resultCount);
+            List<LeafReaderContext> leaves = indexSearcher.getIndexReader().leaves();
             for (int i = resultOffset; i < resultCount; i++) {
-                Document document = indexSearcher.doc(hits[i].doc); // _QUERY EXAMPLE = public.account_info;DB_ID;1
-                String[] indexParts = document.get("_QUERY").split(";"); // split to: public.account_info + DB_ID + 1
-                String[] nameParts = indexParts[0].split("\\.");// split to : public + account_info
-                log.debug("create ROW nameParts[{}]={}, indexParts[{}]={}", nameParts.length, nameParts, indexParts.length, indexParts);
-                result.addRow(nameParts[0], // schema name = public
-                    nameParts[1], // table name = account_info
-                    new String[]{indexParts[1]}, // columns ?
-                    hits[i].score, // score
-                    Long.parseLong(indexParts[2]) // DB_ID key value = 1
-                );
+                int doc = hits[i].doc;
+                LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+                int leafDoc = doc - leaf.docBase;
+                SortedDocValues schemas = DocValues.getSorted(leaf.reader(), SCHEMA_FIELD);
+                SortedDocValues tableNames = DocValues.getSorted(leaf.reader(), TABLE_NAME_FIELD);
+                NumericDocValues dbIds = DocValues.getNumeric(leaf.reader(), DB_ID_FIELD);
+                if (schemas.advanceExact(leafDoc) && tableNames.advanceExact(leafDoc) && dbIds.advanceExact(leafDoc)) {
+                    result.addRow(schemas.lookupOrd(schemas.ordValue()).utf8ToString(), // schema name = public
+                        tableNames.lookupOrd(tableNames.ordValue()).utf8ToString(), // table name = account_info
+                        new String[]{"DB_ID"}, // columns
+                        hits[i].score, // score
+                        dbIds.longValue() // DB_ID key value = 1
+                    );
+                } else {
+                    // document was indexed without doc values
+                    Document document = indexSearcher.doc(doc); // _QUERY EXAMPLE = public.account_info;DB_ID;1
+                    String[] indexParts = document.get("_QUERY").split(";"); // split to: public.account_info + DB_ID + 1
+                    String[] nameParts = indexParts[0].split("\\.");// split to : public + account_info
+                    result.addRow(nameParts[0], nameParts[1], new String[]{indexParts[1]}, hits[i].score, Long.parseLong(indexParts[2]));
+                }
             }
-            log.debug("HITS length = [{}], resultCount={}, resultOffset={}, query={}", hits.length, resultCount, resultOffset, queryStr);
-            log.debug("RESULT = {}\n{}", hits, documents);
+            log.trace("HITS length = [{}], resultCount={}, resultOffset={}, query={}", hits.length, resultCount, resultOffset, queryStr);
         } catch (ParseException exc) {
             log.debug("Lucene parse exception for query: " + queryText + "\n" + exc.getMessage());
             throw new SQLException("Lucene parse exception for query: " + queryText + "\n" + exc.getMessage());
@@ -324,6 +415,13 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             log.error("Unable to search Lucene index", exc);
             throw new SQLException("Unable to search Lucene index", exc);
         } finally {
+            if (indexSearcher != null) {
+                try {
+                    searcherManager.release(indexSearcher);
+                } catch (IOException exc) {
+                    log.warn("Unable to release Lucene index searcher", exc);
+                }
+            }
             indexLock.readLock().unlock();
         }
         return result;
@@ -338,9 +436,17 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         log.trace("LuceneFullTextSearchEngine shutdown start...");
         indexLock.writeLock().lock();
         try {
+            if (searcherRefresher != null) {
+                searcherRefresher.close();
+                searcherRefresher = null;
+            }
+            if (indexWriter != null && indexWriter.isOpen()) {
+                indexWriter.setLiveCommitData(Map.of(CLOSED_COMMIT_DATA, "true").entrySet());
+            }
             commitIndex();
-            if (indexReader != null) {
-                indexReader.close();
+            if (searcherManager != null) {
+                searcherManager.close();
+                searcherManager = null;
             }
             if (indexWriter != null) {
                 indexWriter.close();
@@ -10,6 +10,8 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.LedgerEvent;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.CCDividendPaymentAttachment;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author andrew.zinchenko@gmail.com
@@ -40,6 +42,14 @@ public interface AccountAssetService {
 
     AccountAsset getAsset(long accountId, long assetId, int height);
 
+    /**
+     * Loads the account assets at once, so the subsequent {@link #getAsset(Account, long)} calls
+     * of the current db transaction are served from memory
+     *
+     * @param assetIdsByAccount asset ids by the account id
+     */
+    void prefetch(Map<Long, Set<Long>> assetIdsByAccount);
+
     long getAssetBalanceATU(Account account, long assetId);
 
     long getAssetBalanceATU(Account account, long assetId, int height);
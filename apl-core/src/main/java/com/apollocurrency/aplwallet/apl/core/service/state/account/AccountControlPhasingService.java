@@ -13,6 +13,7 @@ import com.apollocurrency.aplwallet.apl.core.transaction.messages.SetPhasingOnly
 import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -21,6 +22,8 @@ public interface AccountControlPhasingService {
 
     AccountControlPhasing get(long accountId);
 
+    void prefetch(Collection<Long> accountIds);
+
     int getCount();
 
     DbIterator<AccountControlPhasing> getAll(int from, int to);
@@ -9,6 +9,8 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountCurrenc
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.LedgerEvent;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author andrew.zinchenko@gmail.com
@@ -21,6 +23,14 @@ public interface AccountCurrencyService {
 
     AccountCurrency getAccountCurrency(long accountId, long currencyId);
 
+    /**
+     * Loads the account currencies at once, so the subsequent {@link #getAccountCurrency(long, long)} calls
+     * of the current db transaction are served from memory
+     *
+     * @param currencyIdsByAccount currency ids by the account id
+     */
+    void prefetch(Map<Long, Set<Long>> currencyIdsByAccount);
+
     AccountCurrency getAccountCurrency(long accountId, long currencyId, int height);
 
     AccountCurrency getAccountCurrency(Account account, long currencyId, int height);
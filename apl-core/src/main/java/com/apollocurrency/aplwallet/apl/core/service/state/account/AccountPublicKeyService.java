@@ -8,6 +8,7 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
 import com.apollocurrency.aplwallet.apl.crypto.EncryptedData;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,6 +32,14 @@ public interface AccountPublicKeyService {
      */
     PublicKey getPublicKey(long accountId);
 
+    /**
+     * Loads the public keys at once, so the subsequent {@link #getPublicKey(long)} calls
+     * of the current db transaction are served from memory
+     *
+     * @param accountIds ids of the accounts, which public keys will be read in the current transaction
+     */
+    void prefetch(Collection<Long> accountIds);
+
     /**
      * Load public key for specified height.
      *
@@ -15,6 +15,7 @@ import com.apollocurrency.aplwallet.apl.crypto.AplIdGenerator;
 import com.apollocurrency.aplwallet.apl.crypto.Crypto;
 import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -52,6 +53,14 @@ public interface AccountService {
 
     Account getAccount(Account account);
 
+    /**
+     * Loads the accounts and their public keys at once, so the subsequent {@link #getAccount(long)} calls
+     * of the current db transaction are served from memory
+     *
+     * @param accountIds ids of the accounts, which will be read in the current transaction
+     */
+    void prefetch(Collection<Long> accountIds);
+
     Account createAccount(long id, byte[] publicKey);
 
     Account createAccount(long id);
@@ -6,14 +6,25 @@ package com.apollocurrency.aplwallet.apl.core.service.state.account;
 
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface PublicKeyDao {
 
     PublicKey searchAll(long id);
 
+    /**
+     * Bulk version of the {@link #searchAll(long)}, which reads the keys of all the given accounts at once
+     * @param ids account ids
+     * @return found public keys by account id, accounts without a public key are omitted
+     */
+    Map<Long, PublicKey> searchAll(Collection<Long> ids);
+
     PublicKey get(long id);
 
+    void prefetch(Collection<Long> ids);
+
     void insertGenesis(PublicKey publicKey);
 
     void insert(PublicKey publicKey);
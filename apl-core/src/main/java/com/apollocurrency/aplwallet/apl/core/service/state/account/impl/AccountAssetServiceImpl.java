@@ -25,7 +25,10 @@ import lombok.extern.slf4j.Slf4j;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEventBinding.literal;
 
@@ -131,6 +134,13 @@ public class AccountAssetServiceImpl implements AccountAssetService {
         return accountAssetTable.get(AccountAssetTable.newKey(account.getId(), assetId));
     }
 
+    @Override
+    public void prefetch(Map<Long, Set<Long>> assetIdsByAccount) {
+        List<DbKey> dbKeys = new ArrayList<>();
+        assetIdsByAccount.forEach((accountId, assetIds) -> assetIds.forEach(assetId -> dbKeys.add(AccountAssetTable.newKey(accountId, assetId))));
+        accountAssetTable.prefetch(dbKeys);
+    }
+
     @Override
     public AccountAsset getAsset(Account account, long assetId, int height) {
         return getAsset(account.getId(), assetId, height);
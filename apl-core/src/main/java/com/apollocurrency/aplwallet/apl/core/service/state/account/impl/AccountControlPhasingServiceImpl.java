@@ -21,15 +21,16 @@ import com.apollocurrency.aplwallet.apl.core.transaction.TransactionType;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.PhasingAppendix;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.SetPhasingOnly;
-import com.apollocurrency.aplwallet.apl.util.db.DbClause;
 import com.apollocurrency.aplwallet.apl.util.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.util.exception.AplException;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes.TransactionTypeSpec.SET_PHASING_ONLY;
@@ -61,10 +62,21 @@ public class AccountControlPhasingServiceImpl implements AccountControlPhasingSe
 
     @Override
     public AccountControlPhasing get(long accountId) {
-        return accountControlPhasingTable.getBy(
-            new DbClause.LongClause("account_id", accountId).and(
-                new DbClause.ByteClause("voting_model", DbClause.Op.NE, VoteWeighting.VotingModel.NONE.getCode()))
-        );
+        // select by the primary key to use the prefetched entity
+        AccountControlPhasing accountControlPhasing = accountControlPhasingTable.get(
+            AccountControlPhasingTable.accountControlPhasingDbKeyFactory.newKey(accountId));
+        if (accountControlPhasing == null
+            || accountControlPhasing.getPhasingParams().getVoteWeighting().getVotingModel() == VoteWeighting.VotingModel.NONE) {
+            return null;
+        }
+        return accountControlPhasing;
+    }
+
+    @Override
+    public void prefetch(Collection<Long> accountIds) {
+        accountControlPhasingTable.prefetch(accountIds.stream()
+            .map(accountId -> AccountControlPhasingTable.accountControlPhasingDbKeyFactory.newKey(accountId))
+            .collect(Collectors.toList()));
     }
 
     @Override
@@ -20,7 +20,10 @@ import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurren
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEventBinding.literal;
 import static com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService.checkBalance;
@@ -73,6 +76,13 @@ public class AccountCurrencyServiceImpl implements AccountCurrencyService {
         return accountCurrencyTable.get(AccountCurrencyTable.newKey(accountId, currencyId));
     }
 
+    @Override
+    public void prefetch(Map<Long, Set<Long>> currencyIdsByAccount) {
+        List<DbKey> dbKeys = new ArrayList<>();
+        currencyIdsByAccount.forEach((accountId, currencyIds) -> currencyIds.forEach(currencyId -> dbKeys.add(AccountCurrencyTable.newKey(accountId, currencyId))));
+        accountCurrencyTable.prefetch(dbKeys);
+    }
+
     @Override
     public AccountCurrency getAccountCurrency(Account account, long currencyId, int height) {
         return getAccountCurrency(account.getId(), currencyId, height);
@@ -19,6 +19,7 @@ import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -67,6 +68,11 @@ public class AccountPublicKeyServiceImpl implements AccountPublicKeyService {
         return publicKeyDao.searchAll(accountId);
     }
 
+    @Override
+    public void prefetch(Collection<Long> accountIds) {
+        publicKeyDao.prefetch(accountIds);
+    }
+
 
     @Override
     public PublicKey getByHeight(long id, int height) {
@@ -39,6 +39,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -125,6 +126,12 @@ public class AccountServiceImpl implements AccountService {
         return accountTable.get(account.getDbKey());
     }
 
+    @Override
+    public void prefetch(Collection<Long> accountIds) {
+        accountTable.prefetch(accountIds.stream().map(id -> AccountTableInterface.newKey(id)).collect(Collectors.toList()));
+        accountPublicKeyService.prefetch(accountIds);
+    }
+
     private Account getAccount(DbKey dbKey, int height) {
         if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
             return accountTable.get(dbKey);
@@ -14,7 +14,12 @@ import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Singleton
 public class TwoTablesPublicKeyDao implements PublicKeyDao {
@@ -39,11 +44,29 @@ public class TwoTablesPublicKeyDao implements PublicKeyDao {
         return publicKey;
     }
 
+    @Override
+    public Map<Long, PublicKey> searchAll(Collection<Long> ids) {
+        List<DbKey> dbKeys = ids.stream().distinct().map(id -> AccountTableInterface.newKey(id)).collect(Collectors.toList());
+        Map<DbKey, PublicKey> publicKeys = new HashMap<>(publicKeyTable.get(dbKeys));
+        List<DbKey> notFound = dbKeys.stream().filter(dbKey -> !publicKeys.containsKey(dbKey)).collect(Collectors.toList());
+        if (!notFound.isEmpty()) {
+            publicKeys.putAll(genesisPublicKeyTable.get(notFound));
+        }
+        return publicKeys.values().stream().collect(Collectors.toMap(PublicKey::getAccountId, Function.identity()));
+    }
+
     @Override
     public PublicKey get(long id) {
         return publicKeyTable.get(AccountTableInterface.newKey(id));
     }
 
+    @Override
+    public void prefetch(Collection<Long> ids) {
+        List<DbKey> dbKeys = ids.stream().map(id -> AccountTableInterface.newKey(id)).collect(Collectors.toList());
+        publicKeyTable.prefetch(dbKeys);
+        genesisPublicKeyTable.prefetch(dbKeys);
+    }
+
     @Override
     public void insertGenesis(PublicKey publicKey) {
         genesisPublicKeyTable.insert(publicKey);
@@ -42,6 +42,17 @@ public interface SmcContractRepository {
 
     SmartContract loadContract(Address address);
 
+    /**
+     * Load the saved contract to call the view methods, the contract data is cached until the next block
+     * or the contract state update
+     *
+     * @param address      given contract address
+     * @param caller       the contract caller
+     * @param contractFuel given fuel to execute method calling
+     * @return loaded smart contract or throw {@link com.apollocurrency.smc.contract.AddressNotFoundException}
+     */
+    SmartContract loadViewContract(Address address, Address caller, Fuel contractFuel);
+
     /**
      * Load the contract specification by given contract address
      *
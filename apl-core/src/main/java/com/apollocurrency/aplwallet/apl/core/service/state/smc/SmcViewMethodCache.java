@@ -0,0 +1,211 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.state.smc;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.cache.SmcContractCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.cache.SmcViewMethodCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractEntity;
+import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractStateEntity;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
+import com.apollocurrency.aplwallet.apl.smc.model.AplAddress;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.smc.contract.vm.ExecutionLog;
+import com.apollocurrency.smc.contract.vm.ResultValue;
+import com.apollocurrency.smc.data.type.Address;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the smart-contract view method results and of the loaded contract data, which are not changed until
+ * the next block.
+ * <p>
+ * Entries are identified by the contract address, the blockchain height and the cache generation, which is incremented
+ * on every block push, pop-off, rescan and db hot swap, so that data loaded before the block db transaction commit is
+ * never served after it. Entries of the contract are also removed when the contract state is updated.
+ */
+@Singleton
+public class SmcViewMethodCache {
+    private final Blockchain blockchain;
+    private final InMemoryCacheManager cacheManager;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+    private Cache<ResultsKey, List<ResultValue>> resultsCache;
+    private Cache<ContractKey, CachedContract> contractCache;
+
+    @Inject
+    public SmcViewMethodCache(Blockchain blockchain, InMemoryCacheManager cacheManager, PropertiesHolder propertiesHolder) {
+        this.blockchain = Objects.requireNonNull(blockchain, "Blockchain is NULL");
+        this.cacheManager = Objects.requireNonNull(cacheManager, "Cache manager is NULL");
+        this.enabled = propertiesHolder.getBooleanProperty("apl.smc.enableViewMethodCache", true);
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            resultsCache = cacheManager.acquireCache(SmcViewMethodCacheConfig.CACHE_NAME);
+            contractCache = cacheManager.acquireCache(SmcContractCacheConfig.CACHE_NAME);
+        }
+    }
+
+    /**
+     * Get the cached results of the view methods or call the methods and cache the results
+     *
+     * @param address      contract address
+     * @param methods      called methods with params
+     * @param executionLog log of the methods calling, results are not cached when the log has errors
+     * @param loader       view methods calling
+     * @return results of the view methods calling
+     */
+    public List<ResultValue> getResults(Address address, List<String> methods, ExecutionLog executionLog,
+                                        Supplier<List<ResultValue>> loader) {
+        if (resultsCache == null) {
+            return loader.get();
+        }
+        ResultsKey key = new ResultsKey(new AplAddress(address).getLongId(), methods, blockchain.getHeight(), generation.get());
+        List<ResultValue> results = resultsCache.getIfPresent(key);
+        if (results == null) {
+            results = loader.get();
+            if (executionLog.hasError()) {
+                return results;
+            }
+            results = Collections.unmodifiableList(new ArrayList<>(results));
+            resultsCache.put(key, results);
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Get the cached contract data or load and cache it
+     *
+     * @param address contract address
+     * @param loader  contract data loading
+     * @return contract data
+     */
+    public CachedContract getContract(Address address, Supplier<CachedContract> loader) {
+        if (contractCache == null) {
+            return loader.get();
+        }
+        ContractKey key = new ContractKey(new AplAddress(address).getLongId(), blockchain.getHeight(), generation.get());
+        try {
+            return contractCache.get(key, loader::get);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Remove cached results and data of the contract
+     *
+     * @param address contract address
+     */
+    public void invalidate(Address address) {
+        long id = new AplAddress(address).getLongId();
+        if (resultsCache != null) {
+            resultsCache.asMap().keySet().removeIf(key -> key.address == id);
+        }
+        if (contractCache != null) {
+            contractCache.asMap().keySet().removeIf(key -> key.address == id);
+        }
+    }
+
+    public void onBlockPushed(@Observes @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        invalidateAll();
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        invalidateAll();
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        invalidateAll();
+    }
+
+    public void onRescanEnd(@Observes @BlockEvent(BlockEventType.RESCAN_END) Block block) {
+        invalidateAll();
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        if (resultsCache != null) {
+            resultsCache.invalidateAll();
+        }
+        if (contractCache != null) {
+            contractCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Loaded contract data, entities should not be modified
+     */
+    @Getter
+    public static final class CachedContract {
+        private final SmcContractEntity contract;
+        private final SmcContractStateEntity state;
+
+        public CachedContract(SmcContractEntity contract, SmcContractStateEntity state) {
+            this.contract = Objects.requireNonNull(contract);
+            this.state = Objects.requireNonNull(state);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class ResultsKey {
+        private final long address;
+        private final List<String> methods;
+        private final int height;
+        private final long generation;
+
+        private ResultsKey(long address, List<String> methods, int height, long generation) {
+            this.address = address;
+            this.methods = methods;
+            this.height = height;
+            this.generation = generation;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class ContractKey {
+        private final long address;
+        private final int height;
+        private final long generation;
+
+        private ContractKey(long address, int height, long generation) {
+            this.address = address;
+            this.height = height;
+            this.generation = generation;
+        }
+    }
+}
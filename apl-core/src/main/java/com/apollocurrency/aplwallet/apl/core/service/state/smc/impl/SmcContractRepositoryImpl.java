@@ -15,6 +15,7 @@ import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractStateEn
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcContractRepository;
 import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcContractService;
+import com.apollocurrency.aplwallet.apl.core.service.state.smc.SmcViewMethodCache;
 import com.apollocurrency.aplwallet.apl.smc.model.AplAddress;
 import com.apollocurrency.aplwallet.apl.smc.model.AplContractSpec;
 import com.apollocurrency.aplwallet.apl.util.Convert2;
@@ -49,9 +50,10 @@ public class SmcContractRepositoryImpl implements SmcContractRepository {
 
     protected final SmcConfig smcConfig;
     private final SmcContractService contractService;
+    private final SmcViewMethodCache viewMethodCache;
 
     @Inject
-    public SmcContractRepositoryImpl(Blockchain blockchain, SmcContractTable smcContractTable, SmcContractStateTable smcContractStateTable, ContractModelToEntityConverter contractModelToEntityConverter, ContractModelToStateEntityConverter contractModelToStateConverter, SmcConfig smcConfig, SmcContractService contractService) {
+    public SmcContractRepositoryImpl(Blockchain blockchain, SmcContractTable smcContractTable, SmcContractStateTable smcContractStateTable, ContractModelToEntityConverter contractModelToEntityConverter, ContractModelToStateEntityConverter contractModelToStateConverter, SmcConfig smcConfig, SmcContractService contractService, SmcViewMethodCache viewMethodCache) {
         this.blockchain = blockchain;
         this.smcContractTable = smcContractTable;
         this.smcContractStateTable = smcContractStateTable;
@@ -59,6 +61,7 @@ public class SmcContractRepositoryImpl implements SmcContractRepository {
         this.contractModelToStateConverter = contractModelToStateConverter;
         this.smcConfig = smcConfig;
         this.contractService = contractService;
+        this.viewMethodCache = viewMethodCache;
     }
 
     @Override
@@ -114,6 +117,14 @@ public class SmcContractRepositoryImpl implements SmcContractRepository {
         return loadContract(address, null, null, new ContractFuel(address, 0, 0));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SmartContract loadViewContract(Address address, Address caller, Fuel contractFuel) {
+        var cached = viewMethodCache.getContract(address,
+            () -> new SmcViewMethodCache.CachedContract(loadContractEntity(address), loadContractStateEntity(address)));
+        return convert(cached.getContract(), cached.getState(), caller, caller, contractFuel);
+    }
+
     /**
      * Load the contract specification by the given address or null if the given address doesn't correspond the smart contract
      *
@@ -147,6 +158,7 @@ public class SmcContractRepositoryImpl implements SmcContractRepository {
         smcContractStateEntity.setStatus(contract.getStatus().name());
         smcContractStateEntity.setHeight(blockchain.getHeight()); // new height value
         smcContractStateTable.insert(smcContractStateEntity);
+        viewMethodCache.invalidate(contract.getAddress());
     }
 
     @Override
@@ -165,6 +177,7 @@ public class SmcContractRepositoryImpl implements SmcContractRepository {
         SmcContractStateEntity smcContractStateEntity = loadContractStateEntity(contract.getAddress());
         smcContractStateEntity.setSerializedObject(serializedObject);
         smcContractStateTable.insert(smcContractStateEntity);
+        viewMethodCache.invalidate(contract.getAddress());
     }
 
     @Override
@@ -7,6 +7,10 @@ package com.apollocurrency.aplwallet.apl.core.shard;
 
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * @author andrew.zinchenko@gmail.com
  */
@@ -19,4 +23,24 @@ public interface ShardDbExplorer {
     TransactionalDataSource getDatasourceWithShardingByTransactionId(long transactionId);
 
     TransactionalDataSource getShardDataSourceOrDefault(Long shardId);
+
+    /**
+     * Run the query on each data source concurrently
+     * @param dataSources data sources to query
+     * @param query query to run on the each data source
+     * @return query results in the order of the given data sources
+     */
+    <T> List<List<T>> queryEach(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query);
+
+    /**
+     * Run the query on each data source concurrently and merge the ordered results
+     * @param dataSources data sources to query
+     * @param query query, which returns at least {@code to + 1} first rows of the data source sorted in the given order
+     * @param order order of rows returned by the query
+     * @param from index of the first row to return
+     * @param to index of the last row to return, inclusive
+     * @return rows from {@code from} to {@code to} of the all data sources rows in the given order
+     */
+    <T> List<T> queryOrdered(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query,
+                             Comparator<? super T> order, int from, int to);
 }
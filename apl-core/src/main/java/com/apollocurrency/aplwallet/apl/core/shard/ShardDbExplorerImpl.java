@@ -8,8 +8,12 @@ import com.apollocurrency.aplwallet.apl.core.dao.appdata.TransactionIndexDao;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author andrew.zinchenko@gmail.com
@@ -19,6 +23,7 @@ public class ShardDbExplorerImpl implements ShardDbExplorer {
     private final DatabaseManager databaseManager;
     private final BlockIndexService blockIndexService;
     private final TransactionIndexDao transactionIndexDao;
+    private final ShardQueryExecutor queryExecutor = new ShardQueryExecutor(Runtime.getRuntime().availableProcessors());
 
     @Inject
     public ShardDbExplorerImpl(DatabaseManager databaseManager, BlockIndexService blockIndexService, TransactionIndexDao transactionIndexDao) {
@@ -57,4 +62,19 @@ public class ShardDbExplorerImpl implements ShardDbExplorer {
         return dataSource;
     }
 
+    @Override
+    public <T> List<List<T>> queryEach(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query) {
+        return queryExecutor.queryEach(dataSources, query);
+    }
+
+    @Override
+    public <T> List<T> queryOrdered(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query,
+                                    Comparator<? super T> order, int from, int to) {
+        return queryExecutor.queryOrdered(dataSources, query, order, from, to);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdown();
+    }
 }
@@ -41,6 +41,8 @@ import com.apollocurrency.aplwallet.apl.util.Zip;
 import com.apollocurrency.aplwallet.apl.util.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.util.env.dirprovider.DirProvider;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
@@ -55,6 +57,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -82,6 +91,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Singleton
 public class ShardEngineImpl implements ShardEngine {
     private static final Logger log = getLogger(ShardEngineImpl.class);
+    private static final int DEFAULT_EXPORT_THREADS = 4;
 
     private MigrateState state;
     private DatabaseManager databaseManager;
@@ -96,6 +106,10 @@ public class ShardEngineImpl implements ShardEngine {
     private Zip zipComponent;
     private AplAppStatus aplAppStatus;
     private volatile String durableStatusTaskId;
+    /**
+     * Number of the tables exported into csv concurrently
+     */
+    private final int exportThreads;
 
 
     @Inject
@@ -107,7 +121,8 @@ public class ShardEngineImpl implements ShardEngine {
                            DerivedTablesRegistry registry,
                            ShardRecoveryDao shardRecoveryDao,
                            ShardDao shardDao,
-                           Zip zipComponent, AplAppStatus aplAppStatus) {
+                           Zip zipComponent, AplAppStatus aplAppStatus,
+                           PropertiesHolder propertiesHolder) {
         this.dirProvider = Objects.requireNonNull(dirProvider, "dirProvider is NULL");
         this.databaseManager = Objects.requireNonNull(databaseManager, "databaseManager is NULL");
         this.trimService = Objects.requireNonNull(trimService, "trimService is NULL");
@@ -118,6 +133,8 @@ public class ShardEngineImpl implements ShardEngine {
         this.zipComponent = Objects.requireNonNull(zipComponent, "zipComponent is NULL");
         this.aplAppStatus = Objects.requireNonNull(aplAppStatus, "aplAppStatus is NULL");
         this.shardDao = Objects.requireNonNull(shardDao, "shardDao is NULL");
+        int threads = propertiesHolder.getIntProperty("apl.shard.exportThreads", DEFAULT_EXPORT_THREADS);
+        this.exportThreads = threads > 0 ? threads : DEFAULT_EXPORT_THREADS;
     }
 
     public void prepare() {
@@ -426,40 +443,15 @@ public class ShardEngineImpl implements ShardEngine {
                         .forEach(FileUtils::deleteFileIfExistsQuietly);
                 }
             }
-            for (TableInfo tableInfo : allTables) {
-                exportTableWithRecovery(recovery, tableInfo.getName(), () -> {
-                    switch (tableInfo.getName()) {
-                        case ShardConstants.SHARD_TABLE_NAME:
-                            return csvExporter.exportShardTable(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.BLOCK_INDEX_TABLE_NAME:
-                            return csvExporter.exportBlockIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.TRANSACTION_INDEX_TABLE_NAME:
-                            return csvExporter.exportTransactionIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.BLOCK_TABLE_NAME:
-                            return csvExporter.exportBlock(paramInfo.getSnapshotBlockHeight());
-                        case ShardConstants.TRANSACTION_TABLE_NAME:
-                            return csvExporter.exportTransactions(paramInfo.getExcludeInfo().getExportDbIds(), paramInfo.getSnapshotBlockHeight());
-                        case ShardConstants.ACCOUNT_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, "id");
-//                        case ShardConstants.DEX_ORDER_TABLE_NAME: // now it's returned back to usual export for derived tables
-                        // this is en example how to export using specified columns + index on it
-//                            return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest"), -1, "height");
-                        case ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, " account_id, currency_id");
-                        case ShardConstants.ACCOUNT_ASSET_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, " account_id, asset_id");
-
-                        default:
-                            return exportDerivedTable(tableInfo, paramInfo, pruningTime);
-                    }
-                });
-                incrementDurableTaskUpdateByPercent(0.7);
-            }
+            exportTables(recovery, allTables, paramInfo, pruningTime);
             state = CSV_EXPORT_FINISHED;
             updateToFinalStepState(recovery, state);
             log.debug("Export finished in {} secs", (System.currentTimeMillis() - startTime) / 1000);
             durableTaskUpdateByState(state, 58.0, "CSV exported");
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Exception during export", e);
             state = FAILED;
             durableTaskUpdateByState(state, null, null);
@@ -560,24 +552,104 @@ public class ShardEngineImpl implements ShardEngine {
         return exportDerivedTable(tableInfo, paramInfo, null, pruningTime, null);
     }
 
-    private void exportTableWithRecovery(ShardRecovery recovery, String tableName, Supplier<Long> exportPerformer) {
-        if (AbstractHelper.isContain(recovery.getProcessedObject(), tableName)) {
-            log.debug("Skip already exported table: {}", tableName);
-        } else {
-            Path tableCsvPath = csvExporter.getDataExportPath().resolve(tableName + CsvAbstractBase.CSV_FILE_EXTENSION);
-            log.debug("Exporting '{}' into file : '{}'...", tableName, tableCsvPath);
-            FileUtils.deleteFileIfExistsAndHandleException(tableCsvPath, (e) -> {
-                durableTaskUpdateByState(state, null, null);
-                throw new RuntimeException("Unable to remove not finished csv file: " + tableCsvPath.toAbsolutePath().toString());
-            });
-            long startTableExportTime = System.currentTimeMillis();
-            Long exported = exportPerformer.get();
-            log.debug("Exported '{}', count {} to {} in {} secs", tableName, exported, tableCsvPath,
-                (System.currentTimeMillis() - startTableExportTime) / 1000);
-            updateRecovery(recovery, tableName);
+    /**
+     * Exports the tables, which are not exported yet, concurrently: each table is exported by its own thread
+     * using its own db connection into its own csv file. Exported table is saved into the recovery as soon as its
+     * export finishes, so the restarted export processes only unfinished tables. When some table export fails,
+     * not started exports are skipped and already running ones are completed.
+     */
+    private void exportTables(ShardRecovery recovery, List<TableInfo> allTables, CommandParamInfo paramInfo, int pruningTime)
+        throws ExecutionException, InterruptedException {
+        ExecutorService exportExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(exportThreads, allTables.size())),
+            new NamedThreadFactory("ShardCsvExporter", true));
+        try {
+            CompletionService<String> completionService = new ExecutorCompletionService<>(exportExecutor);
+            AtomicBoolean failed = new AtomicBoolean();
+            int submitted = 0;
+            for (TableInfo tableInfo : allTables) {
+                if (AbstractHelper.isContain(recovery.getProcessedObject(), tableInfo.getName())) {
+                    log.debug("Skip already exported table: {}", tableInfo.getName());
+                    continue;
+                }
+                completionService.submit(() -> {
+                    if (failed.get()) {
+                        log.debug("Skip export of the table {} after failure", tableInfo.getName());
+                        return null;
+                    }
+                    try {
+                        exportTableFile(tableInfo.getName(), () -> exportTable(tableInfo, paramInfo, pruningTime));
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                    return tableInfo.getName();
+                });
+                submitted++;
+            }
+            ExecutionException failure = null;
+            // wait for all the submitted exports to save finished tables even when some export failed
+            for (int i = 0; i < submitted; i++) {
+                try {
+                    String exportedTable = completionService.take().get();
+                    if (exportedTable != null) {
+                        updateRecovery(recovery, exportedTable);
+                        incrementDurableTaskUpdateByPercent(0.7);
+                    }
+                } catch (ExecutionException e) {
+                    log.error("Table export failed", e.getCause());
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            exportExecutor.shutdownNow();
         }
     }
 
+    private Long exportTable(TableInfo tableInfo, CommandParamInfo paramInfo, int pruningTime) {
+        switch (tableInfo.getName()) {
+            case ShardConstants.SHARD_TABLE_NAME:
+                return csvExporter.exportShardTable(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.BLOCK_INDEX_TABLE_NAME:
+                return csvExporter.exportBlockIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.TRANSACTION_INDEX_TABLE_NAME:
+                return csvExporter.exportTransactionIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.BLOCK_TABLE_NAME:
+                return csvExporter.exportBlock(paramInfo.getSnapshotBlockHeight());
+            case ShardConstants.TRANSACTION_TABLE_NAME:
+                return csvExporter.exportTransactions(paramInfo.getExcludeInfo().getExportDbIds(), paramInfo.getSnapshotBlockHeight());
+            case ShardConstants.ACCOUNT_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, "id");
+//            case ShardConstants.DEX_ORDER_TABLE_NAME: // now it's returned back to usual export for derived tables
+            // this is en example how to export using specified columns + index on it
+//                return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest"), -1, "height");
+            case ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, " account_id, currency_id");
+            case ShardConstants.ACCOUNT_ASSET_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("db_id", "latest", "height", "deleted"), pruningTime, " account_id, asset_id");
+
+            default:
+                return exportDerivedTable(tableInfo, paramInfo, pruningTime);
+        }
+    }
+
+    private void exportTableFile(String tableName, Supplier<Long> exportPerformer) {
+        Path tableCsvPath = csvExporter.getDataExportPath().resolve(tableName + CsvAbstractBase.CSV_FILE_EXTENSION);
+        log.debug("Exporting '{}' into file : '{}'...", tableName, tableCsvPath);
+        FileUtils.deleteFileIfExistsAndHandleException(tableCsvPath, (e) -> {
+            durableTaskUpdateByState(state, null, null);
+            throw new RuntimeException("Unable to remove not finished csv file: " + tableCsvPath.toAbsolutePath().toString());
+        });
+        long startTableExportTime = System.currentTimeMillis();
+        Long exported = exportPerformer.get();
+        log.debug("Exported '{}', count {} to {} in {} secs", tableName, exported, tableCsvPath,
+            (System.currentTimeMillis() - startTableExportTime) / 1000);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -598,22 +670,30 @@ public class ShardEngineImpl implements ShardEngine {
 
             String shardCoreFileName = shardNameHelper.getCoreShardArchiveNameByShardId(paramInfo.getShardId(), chainId);
             Set<String> coreTables = paramInfo.getTableInfoList().stream().filter(t -> !t.isPrunable()).map(TableInfo::getName).collect(Collectors.toSet());
-            doZip(recovery, shardCoreFileName,
-                (dir, name) -> name.endsWith(".csv") && coreTables.contains(name.substring(0, name.indexOf(".csv"))),
-                (shard, hash) -> {
-                    shard.setCoreZipHash(hash);
-                    shardDao.updateShard(shard);
-                });
             String shardPrunableFileName = shardNameHelper.getPrunableShardArchiveNameByShardId(paramInfo.getShardId(), chainId);
             Set<String> prunableTables = paramInfo.getTableInfoList().stream().filter(TableInfo::isPrunable).map(TableInfo::getName).collect(Collectors.toSet());
-            doZip(recovery, shardPrunableFileName,
-                (dir, name) -> name.endsWith(".csv") && prunableTables.contains(name.substring(0, name.indexOf(".csv"))),
-                (shard, hash) -> {
-                    if (hash != null) {
-                        shard.setPrunableZipHash(hash);
+            // core and prunable archives are compressed concurrently, shard is updated by the current thread only
+            ExecutorService zipExecutor = Executors.newFixedThreadPool(2, new NamedThreadFactory("ShardZipCompressor", true));
+            try {
+                Future<byte[]> coreZipHash = submitZip(zipExecutor, recovery, shardCoreFileName,
+                    (dir, name) -> name.endsWith(".csv") && coreTables.contains(name.substring(0, name.indexOf(".csv"))));
+                Future<byte[]> prunableZipHash = submitZip(zipExecutor, recovery, shardPrunableFileName,
+                    (dir, name) -> name.endsWith(".csv") && prunableTables.contains(name.substring(0, name.indexOf(".csv"))));
+                completeZip(recovery, shardCoreFileName, coreZipHash,
+                    (shard, hash) -> {
+                        shard.setCoreZipHash(hash);
                         shardDao.updateShard(shard);
-                    }
-                });
+                    });
+                completeZip(recovery, shardPrunableFileName, prunableZipHash,
+                    (shard, hash) -> {
+                        if (hash != null) {
+                            shard.setPrunableZipHash(hash);
+                            shardDao.updateShard(shard);
+                        }
+                    });
+            } finally {
+                zipExecutor.shutdownNow();
+            }
             // update recovery
             state = ZIP_ARCHIVE_FINISHED;
             updateToFinalStepState(recovery, state);
@@ -628,27 +708,43 @@ public class ShardEngineImpl implements ShardEngine {
         return state;
     }
 
-    private void doZip(ShardRecovery recovery, String zipName, FilenameFilter fileFilter, BiConsumer<Shard, byte[]> postCompressTask) {
+    /**
+     * @return future zip hash or null, when the zip was created before the restart
+     */
+    private Future<byte[]> submitZip(ExecutorService executor, ShardRecovery recovery, String zipName, FilenameFilter fileFilter) {
         if (AbstractHelper.isContain(recovery.getProcessedObject(), zipName)) {
             log.debug("Skip already performed compression for {} ", zipName);
-        } else {
-            Path zipPath = dirProvider.getDataExportDir().resolve(zipName);
-            log.debug("Zip file name = '{}' will be searched/stored in '{}'", zipName, zipPath);
-            // delete if something left in previous run
-            boolean isRemoved = FileUtils.deleteFileIfExists(zipPath);
-            log.debug("Previous Zip in '{}' was '{}'", zipName, isRemoved ? "REMOVED" : "NOT FOUND");
-            // compute ZIP crc hash
-            ChunkedFileOps fops = zipComponent.compressAndHash(
-                zipPath.toAbsolutePath().toString(),
-                dirProvider.getDataExportDir().toAbsolutePath().toString(), null, fileFilter, false);
-            byte[] zipCrcHash = null;
-            if (fops != null && fops.isHashedOK()) {
-                zipCrcHash = fops.getFileHash();
-            }
-            //inform DownladableFileManager
-            postCompressTask.accept(requireLastNotFinishedShard(), zipCrcHash);
-            updateRecovery(recovery, zipName);
+            return null;
+        }
+        return executor.submit(() -> compressAndHash(zipName, fileFilter));
+    }
+
+    private byte[] compressAndHash(String zipName, FilenameFilter fileFilter) {
+        Path zipPath = dirProvider.getDataExportDir().resolve(zipName);
+        log.debug("Zip file name = '{}' will be searched/stored in '{}'", zipName, zipPath);
+        // delete if something left in previous run
+        boolean isRemoved = FileUtils.deleteFileIfExists(zipPath);
+        log.debug("Previous Zip in '{}' was '{}'", zipName, isRemoved ? "REMOVED" : "NOT FOUND");
+        // compute ZIP crc hash
+        ChunkedFileOps fops = zipComponent.compressAndHash(
+            zipPath.toAbsolutePath().toString(),
+            dirProvider.getDataExportDir().toAbsolutePath().toString(), null, fileFilter, false);
+        byte[] zipCrcHash = null;
+        if (fops != null && fops.isHashedOK()) {
+            zipCrcHash = fops.getFileHash();
+        }
+        return zipCrcHash;
+    }
+
+    private void completeZip(ShardRecovery recovery, String zipName, Future<byte[]> zipHash, BiConsumer<Shard, byte[]> postCompressTask)
+        throws ExecutionException, InterruptedException {
+        if (zipHash == null) {
+            return;
         }
+        byte[] zipCrcHash = zipHash.get();
+        //inform DownladableFileManager
+        postCompressTask.accept(requireLastNotFinishedShard(), zipCrcHash);
+        updateRecovery(recovery, zipName);
     }
 
     /**
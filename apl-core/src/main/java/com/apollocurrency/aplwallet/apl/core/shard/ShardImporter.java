@@ -9,6 +9,7 @@ import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.ShardDao;
 import com.apollocurrency.aplwallet.apl.core.dao.prunable.DataTagDao;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.Shard;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.ShardState;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
@@ -17,10 +18,15 @@ import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.CsvImporter;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.TableIndex;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvAbstractBase;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.ChunkedFileOps;
 import com.apollocurrency.aplwallet.apl.util.FileUtils;
 import com.apollocurrency.aplwallet.apl.util.Zip;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -29,15 +35,24 @@ import lombok.extern.slf4j.Slf4j;
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Singleton
 @Slf4j
 public class ShardImporter {
+    private static final int DEFAULT_IMPORT_THREADS = 4;
     private ShardDao shardDao;
 
     private GenesisImporter genesisImporter;
@@ -49,10 +64,14 @@ public class ShardImporter {
     private Zip zipComponent;
     private DownloadableFilesManager downloadableFilesManager;
     private AplAppStatus aplAppStatus;
+    private DatabaseManager databaseManager;
+    private int importThreads;
+    private boolean deferIndexes;
     static ObjectMapper mapper = new ObjectMapper();
 
     @Inject
-    public ShardImporter(ShardDao shardDao, BlockchainConfig blockchainConfig, GenesisImporter genesisImporter, Blockchain blockchain, DerivedTablesRegistry derivedTablesRegistry, CsvImporter csvImporter, Zip zipComponent, DataTagDao dataTagDao, DownloadableFilesManager downloadableFilesManager, AplAppStatus aplAppStatus) {
+    public ShardImporter(ShardDao shardDao, BlockchainConfig blockchainConfig, GenesisImporter genesisImporter, Blockchain blockchain, DerivedTablesRegistry derivedTablesRegistry, CsvImporter csvImporter, Zip zipComponent, DataTagDao dataTagDao, DownloadableFilesManager downloadableFilesManager, AplAppStatus aplAppStatus,
+                         DatabaseManager databaseManager, PropertiesHolder propertiesHolder) {
         this.shardDao = shardDao;
         this.genesisImporter = genesisImporter;
         this.blockchain = blockchain;
@@ -63,7 +82,10 @@ public class ShardImporter {
         this.dataTagDao = dataTagDao;
         this.aplAppStatus = aplAppStatus;
         this.blockchainConfig = blockchainConfig;
-
+        this.databaseManager = databaseManager;
+        int threads = propertiesHolder.getIntProperty("apl.shard.importThreads", DEFAULT_IMPORT_THREADS);
+        this.importThreads = threads > 0 ? threads : DEFAULT_IMPORT_THREADS;
+        this.deferIndexes = propertiesHolder.getBooleanProperty("apl.shard.importDeferIndexes", true);
     }
 
     public void importShardByFileId(ShardPresentData shardPresentData) {
@@ -121,27 +143,26 @@ public class ShardImporter {
 
         genesisImporter.importGenesisJson(true); // import genesis public Keys ONLY (NO balances) - 049,842%
         aplAppStatus.durableTaskUpdate(genesisTaskId, 50.0, "Public keys were imported");
+        // tables are imported by the pool threads using their own db connections, which should not wait for the locks of the current transaction
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (dataSource.isInTransaction()) {
+            dataSource.commit(false);
+        }
+        // restore the indexes lost by the previously interrupted import before truncating the tables again
+        csvImporter.createPendingIndexes();
         // import additional tables
-        List<String> tables = List.of(ShardConstants.SHARD_TABLE_NAME,
+        List<String> tables = new ArrayList<>();
+        for (String table : List.of(ShardConstants.SHARD_TABLE_NAME,
             ShardConstants.BLOCK_TABLE_NAME, ShardConstants.TRANSACTION_TABLE_NAME,
-            ShardConstants.TRANSACTION_INDEX_TABLE_NAME, ShardConstants.BLOCK_INDEX_TABLE_NAME);
-        log.debug("1. Will be imported [{}] tables...", tables.size());
-        for (String table : tables) {
+            ShardConstants.TRANSACTION_INDEX_TABLE_NAME, ShardConstants.BLOCK_INDEX_TABLE_NAME)) {
             if (excludedTables.contains(table)) {
                 log.warn("Skip import {}", table);
-                continue;
-            }
-            try {
-                log.debug("start importing '{}'...", table);
-                aplAppStatus.durableTaskUpdate(genesisTaskId, "Loading '" + table + "'", 0.6);
-                long rowsImported = csvImporter.importCsv(table, ShardConstants.DEFAULT_COMMIT_BATCH_SIZE, true);
-                log.debug("Imported '{}' rows = {}", table, rowsImported);
-            } catch (Exception e) {
-                log.error("CSV import error for '{}', RETURN.......", table, e);
-                aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
-                throw new RuntimeException(e);
+            } else {
+                tables.add(table);
             }
         }
+        log.debug("1. Will be imported [{}] tables...", tables.size());
+        importTables(genesisTaskId, tables, table -> csvImporter.importCsv(table, ShardConstants.DEFAULT_COMMIT_BATCH_SIZE, true));
         Shard lastShard = shardDao.getLastShard();
         if (lastShard == null) {
             if (!excludedTables.contains(ShardConstants.SHARD_TABLE_NAME)) {
@@ -160,49 +181,136 @@ public class ShardImporter {
 
         // import derived tables
         Collection<String> tableNames = derivedTablesRegistry.getDerivedTableNames();
-        log.debug("2. Will be imported [{}] tables...", tables.size());
-        for (String table : tableNames) {
-            try {
-                log.debug("start importing '{}'...", table);
-                aplAppStatus.durableTaskUpdate(genesisTaskId, "Loading '" + table + "'", 0.6);
-                long rowsImported;
-                if (ShardConstants.ACCOUNT_TABLE_NAME.equalsIgnoreCase(table)
-                    || ShardConstants.ACCOUNT_ASSET_TABLE_NAME.equalsIgnoreCase(table)
-                    || ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME.equalsIgnoreCase(table)) {
-                    rowsImported = csvImporter.importCsvWithDefaultParams(table, 100, true,
-                        Map.of("height", blockchain.findFirstBlock().getHeight()));
-                } else if (ShardConstants.TAGGED_DATA_TABLE_NAME.equalsIgnoreCase(table)) {
-                    rowsImported = csvImporter.importCsvWithRowHook(table, 100, true, (row) -> {
-                        Object parsedTags = row.get("parsed_tags");
-                        Object height = row.get("height");
-                        if (parsedTags != null) {
-                            String[] tagArray = new String[0];
-                            try {
-                                tagArray = mapper.readValue((String) parsedTags, new TypeReference<>() {
-                                });
-                            } catch (JsonProcessingException e) {
-                                log.error("Parsing 'parsed_tags' error during CSV importing", e);
-                                throw new RuntimeException(e);
-                            }
-                            dataTagDao.add(tagArray, Integer.parseInt((String) height));
-                        }
-                    });
-                } else {
-                    rowsImported = csvImporter.importCsv(table, 100, true);
-                }
-                log.debug("Imported '{}' rows = {}", table, rowsImported);
-            } catch (Exception e) {
-                log.error("CSV import error for '{}', RETURN.......", table, e);
-                aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
-                throw new RuntimeException(e);
-            }
-        }
+        log.debug("2. Will be imported [{}] tables...", tableNames.size());
+        importTables(genesisTaskId, tableNames, this::importDerivedTable);
         // remove all extracted *.csv files after successful importing from zip shard archive(s)
         log.debug("Start deleting imported CSV files from folder: {}", csvImporter.getDataExportPath());
         FileUtils.deleteFilesByPattern(csvImporter.getDataExportPath(), new String[]{"csv"}, null);
         aplAppStatus.durableTaskFinished(genesisTaskId, false, "Shard data import");
     }
 
+    private long importDerivedTable(String table) throws Exception {
+        if (ShardConstants.ACCOUNT_TABLE_NAME.equalsIgnoreCase(table)
+            || ShardConstants.ACCOUNT_ASSET_TABLE_NAME.equalsIgnoreCase(table)
+            || ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME.equalsIgnoreCase(table)) {
+            return csvImporter.importCsvWithDefaultParams(table, 100, true,
+                Map.of("height", blockchain.findFirstBlock().getHeight()));
+        } else if (ShardConstants.TAGGED_DATA_TABLE_NAME.equalsIgnoreCase(table)) {
+            // data tags are inserted in the same pool thread transaction, data_tag table is not exported into the shard archive
+            return csvImporter.importCsvWithRowHook(table, 100, true, (row) -> {
+                Object parsedTags = row.get("parsed_tags");
+                Object height = row.get("height");
+                if (parsedTags != null) {
+                    String[] tagArray = new String[0];
+                    try {
+                        tagArray = mapper.readValue((String) parsedTags, new TypeReference<>() {
+                        });
+                    } catch (JsonProcessingException e) {
+                        log.error("Parsing 'parsed_tags' error during CSV importing", e);
+                        throw new RuntimeException(e);
+                    }
+                    dataTagDao.add(tagArray, Integer.parseInt((String) height));
+                }
+            });
+        } else {
+            return csvImporter.importCsv(table, 100, true);
+        }
+    }
+
+    /**
+     * Import the independent tables concurrently, each table is imported by the pool thread in its own db transaction.
+     * Secondary indexes of the table are dropped before the import and created again after it, when enabled.
+     * Not started imports are skipped after the first failure, the failure is rethrown after the running imports finish.
+     */
+    private void importTables(String taskId, Collection<String> tables, TableImport tableImport) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        ExecutorService importExecutor = Executors.newFixedThreadPool(Math.min(importThreads, tables.size()),
+            new NamedThreadFactory("ShardCsvImporter", true));
+        try {
+            CompletionService<Long> completionService = new ExecutorCompletionService<>(importExecutor);
+            AtomicBoolean failed = new AtomicBoolean();
+            for (String table : tables) {
+                completionService.submit(() -> {
+                    if (failed.get()) {
+                        log.debug("Skip import of the table {} after failure", table);
+                        return null;
+                    }
+                    try {
+                        return importTable(taskId, table, tableImport);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                });
+            }
+            ExecutionException failure = null;
+            for (int i = 0; i < tables.size(); i++) {
+                try {
+                    completionService.take().get();
+                } catch (ExecutionException e) {
+                    log.error("CSV import error", e.getCause());
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new RuntimeException(failure.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aplAppStatus.durableTaskFinished(taskId, true, "Shard data import");
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            log.error("CSV import error, RETURN.......", e);
+            aplAppStatus.durableTaskFinished(taskId, true, "Shard data import");
+            throw e;
+        } finally {
+            importExecutor.shutdownNow();
+        }
+    }
+
+    private long importTable(String taskId, String table, TableImport tableImport) throws Exception {
+        log.debug("start importing '{}'...", table);
+        aplAppStatus.durableTaskUpdate(taskId, "Loading '" + table + "'", 0.6);
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        List<TableIndex> droppedIndexes = deferIndexes && csvFileExists(table) ? csvImporter.dropSecondaryIndexes(table) : List.of();
+        Exception importFailure = null;
+        try {
+            long rowsImported = tableImport.importTable(table);
+            if (dataSource.isInTransaction()) {
+                dataSource.commit(); // release the connection of the pool thread
+            }
+            log.debug("Imported '{}' rows = {}", table, rowsImported);
+            return rowsImported;
+        } catch (Exception e) {
+            importFailure = e;
+            if (dataSource.isInTransaction()) {
+                dataSource.rollback();
+            }
+            throw e;
+        } finally {
+            // indexes are required even for the partially imported table, which will be truncated on the import failure
+            if (!droppedIndexes.isEmpty()) {
+                aplAppStatus.durableTaskUpdate(taskId, "Creating indexes of '" + table + "'", 0.2);
+                try {
+                    csvImporter.createIndexes(table, droppedIndexes);
+                } catch (RuntimeException e) {
+                    if (importFailure == null) {
+                        throw e;
+                    }
+                    importFailure.addSuppressed(e); // do not hide the import failure
+                }
+            }
+        }
+    }
+
+    private boolean csvFileExists(String table) {
+        return Files.exists(csvImporter.getDataExportPath().resolve(table + CsvAbstractBase.CSV_FILE_EXTENSION));
+    }
+
     private Path unzipMainOptionalArchives(ShardPresentData shardPresentData, String genesisTaskId) {
         Path zipInFolder = downloadableFilesManager.mapFileIdToLocalPath(shardPresentData.getShardFileId()).toAbsolutePath();
         log.debug("Try unpack main shard file name '{}'", zipInFolder);
@@ -237,4 +345,9 @@ public class ShardImporter {
         aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
         throw new ShardArchiveProcessingException("Zip file can't be extracted, result = '" + unpackResult + "' : " + zipInFolder.toString());
     }
+
+    @FunctionalInterface
+    private interface TableImport {
+        long importTable(String table) throws Exception;
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard;
+
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs the same query on the several shard data sources and the main db concurrently on the bounded thread pool and
+ * merges the ordered results.
+ * <p>Query on the data source, which has the transaction started in the calling thread, is executed in the calling
+ * thread to see the uncommitted changes.</p>
+ */
+@Slf4j
+class ShardQueryExecutor {
+    private final ExecutorService executor;
+
+    ShardQueryExecutor(int threads) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), new NamedThreadFactory("ShardQuery", true));
+    }
+
+    /**
+     * Run the query on each data source concurrently
+     * @param dataSources data sources to query
+     * @param query query to run on the each data source
+     * @return query results in the order of the given data sources
+     */
+    <T> List<List<T>> queryEach(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query) {
+        List<Future<List<T>>> futures = new ArrayList<>(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            TransactionalDataSource dataSource = dataSources.get(i);
+            if (i > 0 && !dataSource.isInTransaction()) {
+                try {
+                    futures.add(executor.submit(() -> query.apply(dataSource)));
+                    continue;
+                } catch (RejectedExecutionException e) {
+                    log.debug("Shard query executor is shut down, query {} in the calling thread", dataSource.getDbIdentity());
+                }
+            }
+            futures.add(null);
+        }
+        List<List<T>> results = new ArrayList<>(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            Future<List<T>> future = futures.get(i);
+            // the first data source and the data sources with the started transaction are queried here
+            results.add(future == null ? query.apply(dataSources.get(i)) : await(future, dataSources.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Run the query on each data source concurrently and merge the results
+     * @param dataSources data sources to query
+     * @param query query, which returns at least {@code to + 1} first rows of the data source sorted in the given order
+     * @param order order of rows returned by the query
+     * @param from index of the first row to return
+     * @param to index of the last row to return, inclusive
+     * @return rows from {@code from} to {@code to} of the all data sources rows in the given order
+     */
+    <T> List<T> queryOrdered(List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, List<T>> query,
+                             Comparator<? super T> order, int from, int to) {
+        return merge(queryEach(dataSources, query), order, from, to);
+    }
+
+    /**
+     * K-way merge of the sorted lists, which stops as soon as the row {@code to} is reached
+     * @param sortedLists lists sorted in the given order
+     * @param order order of the list elements
+     * @param from index of the first element to return
+     * @param to index of the last element to return, inclusive
+     * @return merged elements from {@code from} to {@code to}
+     */
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> order, int from, int to) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+            (c1, c2) -> order.compare(c1.current(), c2.current()));
+        for (List<T> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list));
+            }
+        }
+        List<T> result = new ArrayList<>();
+        int index = 0;
+        while (!heads.isEmpty() && index <= to) {
+            Cursor<T> cursor = heads.poll();
+            if (index >= from) {
+                result.add(cursor.current());
+            }
+            index++;
+            if (cursor.next()) {
+                heads.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> List<T> await(Future<List<T>> future, TransactionalDataSource dataSource) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying " + dataSource.getDbIdentity(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to query " + dataSource.getDbIdentity(), e.getCause());
+        }
+    }
+
+    private static class Cursor<T> {
+        private final List<T> list;
+        private int position;
+
+        Cursor(List<T> list) {
+            this.list = list;
+        }
+
+        T current() {
+            return list.get(position);
+        }
+
+        boolean next() {
+            return ++position < list.size();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard.hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Calculates the root of the {@link MerkleTree}, which consists of the same leaves, without building the tree itself.</p>
+ * <p>
+ *     Leaves are hashed by batches on the given {@link ForkJoinPool} asynchronously, so that the caller is able to read the
+ *     next portion of the leaves data while the previous one is hashed. Inner nodes are hashed level by level from the
+ *     bottom of the tree, each level is split between the pool threads. Node layout is the same as in the {@link MerkleTree}
+ *     (node 'i' has children '2i + 1' and '2i + 2', leaves take the last positions in the order defined by the
+ *     {@link MerkleTree#appendLeaf(Node)}), so that the calculated root is byte-identical to the {@link MerkleTree} root.
+ * </p>
+ * <p>Instance is not thread-safe and should be used for one root calculation.</p>
+ */
+public class ParallelMerkleRootBuilder {
+    /**
+     * Max number of the leaves hashed by one task
+     */
+    static final int LEAF_BATCH_SIZE = 4096;
+    /**
+     * Levels with less inner nodes are hashed in the caller thread, since task splitting costs more
+     */
+    static final int MIN_PARALLEL_NODES = 2048;
+
+    private final String algorithm;
+    private final ForkJoinPool pool;
+    private final List<ForkJoinTask<byte[][]>> leafBatches = new ArrayList<>();
+    private int leavesCount;
+
+    /**
+     * @param algorithm message digest algorithm for the data hashing
+     * @param pool      pool to perform hashing
+     */
+    public ParallelMerkleRootBuilder(String algorithm, ForkJoinPool pool) {
+        this.algorithm = Objects.requireNonNull(algorithm, "algorithm cannot be null");
+        this.pool = Objects.requireNonNull(pool, "pool cannot be null");
+        createMessageDigest(); // fail fast on unknown algorithm
+    }
+
+    /**
+     * Add non-hashed data to the end of the leaves list, data is hashed asynchronously
+     *
+     * @param dataList list of non-hashed data, should not be modified after the call
+     */
+    public void addLeaves(List<byte[]> dataList) {
+        for (int from = 0; from < dataList.size(); from += LEAF_BATCH_SIZE) {
+            List<byte[]> batch = dataList.subList(from, Math.min(from + LEAF_BATCH_SIZE, dataList.size()));
+            leafBatches.add(pool.submit(() -> hashLeaves(batch)));
+            leavesCount += batch.size();
+        }
+    }
+
+    /**
+     * @return number of the added leaves
+     */
+    public int getLeavesCount() {
+        return leavesCount;
+    }
+
+    /**
+     * Wait for the leaves hashing and calculate merkle root
+     *
+     * @return merkle root or null when no leaves were added
+     */
+    public byte[] getRoot() {
+        if (leavesCount == 0) {
+            return null;
+        }
+        byte[][] leaves = new byte[leavesCount][];
+        int index = 0;
+        for (ForkJoinTask<byte[][]> batch : leafBatches) {
+            byte[][] hashes = batch.join();
+            System.arraycopy(hashes, 0, leaves, index, hashes.length);
+            index += hashes.length;
+        }
+        if (leavesCount == 1) {
+            return leaves[0];
+        }
+        int lastInnerNode = leavesCount - 2;
+        byte[][] tree = new byte[2 * leavesCount - 1][];
+        int[] leafPositions = leafPositions(leavesCount);
+        for (int i = lastInnerNode + 1; i < tree.length; i++) {
+            tree[i] = leaves[leafPositions[i]];
+        }
+        for (int level = 31 - Integer.numberOfLeadingZeros(lastInnerNode + 1); level >= 0; level--) {
+            int from = (1 << level) - 1;
+            int to = Math.min((1 << level + 1) - 1, lastInnerNode + 1);
+            InnerNodesHashing hashing = new InnerNodesHashing(tree, from, to);
+            if (to - from < MIN_PARALLEL_NODES) {
+                hashing.compute();
+            } else {
+                pool.invoke(hashing);
+            }
+        }
+        return tree[0];
+    }
+
+    /**
+     * Simulate the {@link MerkleTree#appendLeaf(Node)} node moves: when the leaf is appended, the leaf at the parent position
+     * of the new node moves to the left child position and the new leaf takes the right child position.
+     *
+     * @param leavesCount number of leaves, at least 2
+     * @return array of the leaf indexes by the tree node positions, only last 'leavesCount' positions are leaves
+     */
+    static int[] leafPositions(int leavesCount) {
+        int[] positions = new int[2 * leavesCount - 1];
+        positions[1] = 0;
+        positions[2] = 1;
+        for (int leaf = 2; leaf < leavesCount; leaf++) {
+            int left = 2 * leaf - 1;
+            positions[left] = positions[leaf - 1];
+            positions[left + 1] = leaf;
+        }
+        return positions;
+    }
+
+    private byte[][] hashLeaves(List<byte[]> batch) {
+        MessageDigest digest = createMessageDigest();
+        byte[][] hashes = new byte[batch.size()][];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = digest.digest(batch.get(i));
+        }
+        return hashes;
+    }
+
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unable to create message digest for algo - " + algorithm, e);
+        }
+    }
+
+    private class InnerNodesHashing extends RecursiveAction {
+        private final byte[][] tree;
+        private final int from;
+        private final int to;
+
+        InnerNodesHashing(byte[][] tree, int from, int to) {
+            this.tree = tree;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_PARALLEL_NODES) {
+                MessageDigest digest = createMessageDigest();
+                for (int i = from; i < to; i++) {
+                    digest.update(tree[2 * i + 1]);
+                    digest.update(tree[2 * i + 2]);
+                    tree[i] = digest.digest();
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new InnerNodesHashing(tree, from, mid), new InnerNodesHashing(tree, mid, to));
+            }
+        }
+    }
+}
@@ -12,16 +12,17 @@ import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
- * <p>This implementation uses merkle tree and block signatures for hash calculations</p>
+ * <p>This implementation uses merkle tree and block signatures for hash calculations, the merkle root is calculated
+ * in parallel by the {@link ParallelMerkleRootBuilder}</p>
  */
 @Singleton
 public class ShardHashCalculatorImpl implements ShardHashCalculator {
@@ -32,6 +33,7 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
     private BlockchainConfig blockchainConfig;
     private ShardDao shardDao;
     private int blockSelectLimit;
+    private final ForkJoinPool hashingPool;
 
     @Inject
     public ShardHashCalculatorImpl(Blockchain blockchain, BlockchainConfig blockchainConfig, ShardDao shardDao) {
@@ -47,31 +49,25 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
             throw new IllegalArgumentException("blockSelect should be positive");
         }
         this.blockSelectLimit = blockSelectLimit;
+        this.hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("apl-shard-hash-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, (thread, e) -> log.error("Thread " + thread.getName() + " thrown an exception", e), false);
     }
 
-    private List<byte[]> retrieveBlockSignatures(int shardStartHeight, int shardEndHeight) {
-        List<byte[]> allBlockSignatures = new ArrayList<>();
+    /**
+     * Read block signatures by pages and pass them for the asynchronous hashing, so that the next page is read while
+     * the previous one is hashed
+     */
+    private void addBlockSignatures(ParallelMerkleRootBuilder rootBuilder, int shardStartHeight, int shardEndHeight) {
         int fromHeight = shardStartHeight;
         while (fromHeight < shardEndHeight) {
             List<byte[]> blockSignatures = blockchain.getBlockSignaturesFrom(fromHeight, Math.min(fromHeight + blockSelectLimit, shardEndHeight));
-            allBlockSignatures.addAll(blockSignatures);
+            rootBuilder.addLeaves(blockSignatures);
             fromHeight += blockSelectLimit;
         }
-        return allBlockSignatures;
-    }
-
-    private byte[] calculateMerkleRoot(List<byte[]> dataList) {
-        MerkleTree tree = new MerkleTree(createMessageDigest(), dataList);
-        return tree.getRoot() == null ? null : tree.getRoot().getValue();
-    }
-
-    private MessageDigest createMessageDigest() {
-        String algorithm = blockchainConfig.getCurrentConfig().getShardingDigestAlgorithm();
-        try {
-            return MessageDigest.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to create message digest for algo - " + algorithm, e);
-        }
     }
 
     /**
@@ -86,22 +82,29 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
             throw new IllegalArgumentException("shard start height should be less than shard end height " + String.format("start - %d, finish - %d", shardStartHeight, shardEndHeight));
         }
         long startTime = System.currentTimeMillis();
-        List<byte[]> blockSignatures = retrieveBlockSignatures(shardStartHeight, shardEndHeight);
-        int blocks = blockSignatures.size();
+        ParallelMerkleRootBuilder rootBuilder = new ParallelMerkleRootBuilder(
+            blockchainConfig.getCurrentConfig().getShardingDigestAlgorithm(), hashingPool);
+        addBlockSignatures(rootBuilder, shardStartHeight, shardEndHeight);
+        int blocks = rootBuilder.getLeavesCount();
         log.trace("Retrieved {} block signatures in {} ms", blocks, System.currentTimeMillis() - startTime);
         if (blocks == 0) {
             return null;
         }
         long merkleTreeStartTime = System.currentTimeMillis();
         byte[] prevHash = getPrevShardHash(shardStartHeight);
-        blockSignatures.add(prevHash);
-        byte[] hash = calculateMerkleRoot(blockSignatures);
-        log.debug("Built merkle tree in {} ms", System.currentTimeMillis() - merkleTreeStartTime);
+        rootBuilder.addLeaves(List.of(prevHash));
+        byte[] hash = rootBuilder.getRoot();
+        log.debug("Calculated merkle root in {} ms", System.currentTimeMillis() - merkleTreeStartTime);
         long time = System.currentTimeMillis() - startTime;
         log.debug("Hash calculated in {} s for [{}] blocks, speed {} bpms", time / 1000, blocks, (shardEndHeight - shardStartHeight) / Math.max(time, 1));
         return hash;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
     private byte[] getPrevShardHash(int height) {
         byte[] prevHash;
         Shard lastShard = shardDao.getShardAtHeight(height);
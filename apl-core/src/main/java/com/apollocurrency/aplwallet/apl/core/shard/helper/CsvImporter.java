@@ -5,6 +5,7 @@
 package com.apollocurrency.aplwallet.apl.core.shard.helper;
 
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -58,4 +59,30 @@ public interface CsvImporter {
      * @return number of imported rows
      */
     long importCsvWithDefaultParams(String tableName, int batchLimit, boolean cleanTarget, Map<String, Object> defaultParams) throws Exception;
+
+    /**
+     * Drop non-unique secondary indexes of the table, to not maintain them during the bulk import.
+     * Primary key and unique indexes are kept. Should be called outside of the db transaction.
+     * Definitions of the indexes are saved into the db before the drop, so that the indexes lost by the interrupted
+     * import are created again by the {@link #createPendingIndexes()}.
+     *
+     * @param tableName db table name
+     * @return dropped indexes, which should be created again by the {@link #createIndexes(String, List)}
+     */
+    List<TableIndex> dropSecondaryIndexes(String tableName);
+
+    /**
+     * Create the indexes, dropped by the {@link #dropSecondaryIndexes(String)}, in one table alteration.
+     * Should be called outside of the db transaction.
+     *
+     * @param tableName db table name
+     * @param indexes   indexes to create
+     */
+    void createIndexes(String tableName, List<TableIndex> indexes);
+
+    /**
+     * Create the indexes, which were dropped by the {@link #dropSecondaryIndexes(String)}, but were not created again,
+     * because the import was interrupted. Should be called outside of the db transaction.
+     */
+    void createPendingIndexes();
 }
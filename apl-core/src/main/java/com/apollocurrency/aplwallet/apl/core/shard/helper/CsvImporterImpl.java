@@ -14,6 +14,8 @@ import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvReader;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvReaderImpl;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.ValueParser;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.jdbc.SimpleResultSet;
+import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
+import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
 import com.apollocurrency.aplwallet.apl.util.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import lombok.SneakyThrows;
@@ -32,15 +34,18 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -163,6 +168,7 @@ public class CsvImporterImpl implements CsvImporter {
             return -1;
         }
         int importedCount = 0;
+        int batchedCount = 0; // rows added to the insert batch, but not executed yet
         int columnsCount;
         PreparedStatement preparedInsertStatement = null;
 
@@ -222,11 +228,15 @@ public class CsvImporterImpl implements CsvImporter {
                     preparedInsertStatement.setObject(i++, value);
                 }
 
-                importedCount += preparedInsertStatement.executeUpdate();
+                preparedInsertStatement.addBatch();
+                batchedCount++;
                 if (rowDataConsumer != null) {
                     rowDataConsumer.accept(row);
                 }
                 if (rsCounter % batchLimit == 0) {
+                    preparedInsertStatement.executeBatch();
+                    importedCount += batchedCount;
+                    batchedCount = 0;
                     dataSource.commit(false);
                     // update state only for ACCOUNT table during LONG running import
                     if (aplAppStatus != null && stateIncrease != null && tableName.equalsIgnoreCase("account")) {
@@ -236,6 +246,10 @@ public class CsvImporterImpl implements CsvImporter {
                 }
                 rsCounter++;
             }
+            if (batchedCount > 0) {
+                preparedInsertStatement.executeBatch();
+                importedCount += batchedCount;
+            }
             dataSource.commit(false); // final commit
         } catch (Exception e) {
             dataSource.rollback(false);
@@ -249,6 +263,144 @@ public class CsvImporterImpl implements CsvImporter {
         return importedCount;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<TableIndex> dropSecondaryIndexes(String tableName) {
+        Objects.requireNonNull(tableName, "tableName is NULL");
+        List<TableIndex> indexes = new ArrayList<>();
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT index_name, column_name, sub_part, collation " +
+                 "FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND non_unique = 1 " +
+                 "AND index_type NOT IN ('FULLTEXT', 'SPATIAL') ORDER BY index_name, seq_in_index")) {
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                TableIndex index = null;
+                while (rs.next()) {
+                    String indexName = rs.getString("index_name");
+                    if (index == null || !index.getName().equals(indexName)) {
+                        index = new TableIndex(indexName);
+                        indexes.add(index);
+                    }
+                    int subPart = rs.getInt("sub_part");
+                    index.addColumn(rs.getString("column_name"), rs.wasNull() ? null : subPart, "D".equals(rs.getString("collation")));
+                }
+            }
+            if (indexes.isEmpty()) {
+                return indexes;
+            }
+            // remember the indexes before the drop to not lose them, when the node stops during the import
+            savePendingIndexes(con, tableName, indexes);
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE " + tableName + " " + indexes.stream()
+                    .map(index -> "DROP INDEX `" + index.getName() + "`")
+                    .collect(Collectors.joining(", ")));
+            } catch (SQLException e) {
+                deletePendingIndexes(con, tableName);
+                throw e;
+            }
+            log.debug("Dropped {} secondary indexes of '{}': {}", indexes.size(), tableName, indexes);
+            return indexes;
+        } catch (SQLException e) {
+            // table alteration is atomic, all the indexes are still in place
+            log.warn("Unable to drop secondary indexes of '{}', import with live indexes: {}", tableName, e.toString());
+            return List.of();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createIndexes(String tableName, List<TableIndex> indexes) {
+        Objects.requireNonNull(tableName, "tableName is NULL");
+        if (indexes.isEmpty()) {
+            return;
+        }
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        try (Connection con = dataSource.getConnection();
+             Statement stmt = con.createStatement()) {
+            long startTime = System.currentTimeMillis();
+            stmt.executeUpdate("ALTER TABLE " + tableName + " " + indexes.stream()
+                .map(TableIndex::toAddClause)
+                .collect(Collectors.joining(", ")));
+            log.debug("Created {} indexes of '{}' in {} ms", indexes.size(), tableName, System.currentTimeMillis() - startTime);
+            deletePendingIndexes(con, tableName);
+        } catch (SQLException e) {
+            throw new CsvImportException(String.format("Error creating indexes %s of the table='%s'", indexes, tableName), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createPendingIndexes() {
+        Map<String, List<TableIndex>> pendingIndexes = new HashMap<>();
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        try (Connection con = dataSource.getConnection()) {
+            try (PreparedStatement pstmt = con.prepareStatement("SELECT table_name, index_name, `columns` FROM shard_deferred_index ORDER BY table_name, index_name");
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    pendingIndexes.computeIfAbsent(rs.getString("table_name"), table -> new ArrayList<>())
+                        .add(new TableIndex(rs.getString("index_name"), rs.getString("columns")));
+                }
+            }
+            for (Map.Entry<String, List<TableIndex>> entry : pendingIndexes.entrySet()) {
+                String tableName = entry.getKey();
+                Set<String> existingIndexes = indexNames(con, tableName);
+                List<TableIndex> missingIndexes = entry.getValue().stream()
+                    .filter(index -> !existingIndexes.contains(index.getName()))
+                    .collect(Collectors.toList());
+                if (missingIndexes.isEmpty()) {
+                    deletePendingIndexes(con, tableName);
+                } else {
+                    log.warn("Restore {} secondary indexes of '{}' dropped by the interrupted import: {}", missingIndexes.size(), tableName, missingIndexes);
+                    createIndexes(tableName, missingIndexes);
+                }
+            }
+        } catch (SQLException e) {
+            throw new CsvImportException("Error restoring indexes " + pendingIndexes + " dropped by the interrupted import", e);
+        }
+    }
+
+    private Set<String> indexNames(Connection con, String tableName) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement pstmt = con.prepareStatement("SELECT DISTINCT index_name FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = ?")) {
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString("index_name"));
+                }
+            }
+        }
+        return names;
+    }
+
+    private void savePendingIndexes(Connection con, String tableName, List<TableIndex> indexes) throws SQLException {
+        try (@DatabaseSpecificDml(DmlMarker.MERGE)
+             PreparedStatement pstmt = con.prepareStatement("INSERT INTO shard_deferred_index (table_name, index_name, `columns`) VALUES (?, ?, ?) "
+                 + "ON DUPLICATE KEY UPDATE `columns` = VALUES(`columns`)")) {
+            for (TableIndex index : indexes) {
+                pstmt.setString(1, tableName);
+                pstmt.setString(2, index.getName());
+                pstmt.setString(3, index.getColumnsDefinition());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void deletePendingIndexes(Connection con, String tableName) throws SQLException {
+        try (PreparedStatement pstmt = con.prepareStatement("DELETE FROM shard_deferred_index WHERE table_name = ?")) {
+            pstmt.setString(1, tableName);
+            pstmt.executeUpdate();
+        }
+    }
+
     private int columnPrecision(ResultSetMetaData metadata, String column) throws SQLException {
         int columnCount = metadata.getColumnCount();
         List<String> columnNames = new ArrayList<>();
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2018-2021 Apollo Foundation
+ */
+package com.apollocurrency.aplwallet.apl.core.shard.helper;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definition of the non-unique secondary table index, which is enough to create the dropped index again.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class TableIndex {
+    private static final String COLUMNS_DELIMITER = ", ";
+
+    private final String name;
+    /**
+     * Index columns in the index order with the optional prefix length and sort order, e.g. '`height` DESC'
+     */
+    private final List<String> columns = new ArrayList<>();
+
+    public TableIndex(String name) {
+        this.name = name;
+    }
+
+    TableIndex(String name, String columnsDefinition) {
+        this(name);
+        columns.addAll(List.of(columnsDefinition.split(COLUMNS_DELIMITER)));
+    }
+
+    void addColumn(String column, Integer prefixLength, boolean descending) {
+        StringBuilder sb = new StringBuilder("`").append(column).append('`');
+        if (prefixLength != null) {
+            sb.append('(').append(prefixLength).append(')');
+        }
+        if (descending) {
+            sb.append(" DESC");
+        }
+        columns.add(sb.toString());
+    }
+
+    String getColumnsDefinition() {
+        return String.join(COLUMNS_DELIMITER, columns);
+    }
+
+    String toAddClause() {
+        return "ADD INDEX `" + name + "` (" + getColumnsDefinition() + ")";
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.signature;
+
+import com.apollocurrency.aplwallet.apl.core.cache.VerifiedSignatureCacheConfig;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.apollocurrency.aplwallet.apl.util.service.TaskDispatchManager;
+import com.apollocurrency.aplwallet.apl.util.task.Task;
+import com.apollocurrency.aplwallet.apl.util.task.TaskDispatcher;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Bounded cache of the successfully verified transaction signatures shared between the mempool and block processing.
+ * Entry is identified by the transaction full hash (which covers the signature bytes) and the credential
+ * (public keys and threshold) used for verification, so that the same signed transaction is verified only once,
+ * regardless of how many times its instance is parsed.
+ * <p>
+ * Only positive verification results are stored.
+ */
+@Slf4j
+@Singleton
+public class VerifiedSignatureCache {
+    private final InMemoryCacheManager cacheManager;
+    private final TaskDispatchManager taskManager;
+    private Cache<VerifiedSignatureKey, Boolean> cache;
+
+    @Inject
+    public VerifiedSignatureCache(InMemoryCacheManager cacheManager, TaskDispatchManager taskManager) {
+        this.cacheManager = Objects.requireNonNull(cacheManager, "Cache manager is NULL");
+        this.taskManager = Objects.requireNonNull(taskManager, "Task manager is NULL");
+    }
+
+    @PostConstruct
+    void init() {
+        cache = cacheManager.acquireCache(VerifiedSignatureCacheConfig.CACHE_NAME);
+        if (cache != null) {
+            TaskDispatcher taskDispatcher = taskManager.newScheduledDispatcher("VerifiedSignatureCache-periodics");
+            taskDispatcher.schedule(Task.builder()
+                .name("Cache-stats")
+                .initialDelay(30_000)
+                .delay(180_000)
+                .task(() -> log.info("--cache-- Verified Signature Cache size={} stats={}", cache.size(), cache.stats().toString()))
+                .build());
+        }
+    }
+
+    /**
+     * @param fullHash transaction full hash
+     * @param credential credential used to verify the transaction signature
+     * @return true if the signature of the transaction with the given full hash was already verified using the same credential
+     */
+    public boolean isVerified(byte[] fullHash, Credential credential) {
+        if (cache == null) {
+            return false;
+        }
+        VerifiedSignatureKey key = VerifiedSignatureKey.of(fullHash, credential);
+        return key != null && cache.getIfPresent(key) != null;
+    }
+
+    /**
+     * Remember the successful signature verification result
+     * @param fullHash transaction full hash
+     * @param credential credential used to verify the transaction signature
+     */
+    public void putVerified(byte[] fullHash, Credential credential) {
+        if (cache == null) {
+            return;
+        }
+        VerifiedSignatureKey key = VerifiedSignatureKey.of(fullHash, credential);
+        if (key != null) {
+            cache.put(key, Boolean.TRUE);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    static final class VerifiedSignatureKey {
+        private final byte[] bytes;
+        private final int hashCode;
+
+        private VerifiedSignatureKey(byte[] bytes) {
+            this.bytes = bytes;
+            this.hashCode = Arrays.hashCode(bytes);
+        }
+
+        static VerifiedSignatureKey of(byte[] fullHash, Credential credential) {
+            if (fullHash == null) {
+                return null;
+            }
+            if (credential instanceof SignatureCredential) {
+                byte[] key = ((SignatureCredential) credential).getKey();
+                return new VerifiedSignatureKey(ByteBuffer.allocate(fullHash.length + key.length)
+                    .put(fullHash)
+                    .put(key)
+                    .array());
+            }
+            if (credential instanceof MultiSigCredential) {
+                MultiSigCredential multiSigCredential = (MultiSigCredential) credential;
+                int size = fullHash.length + Integer.BYTES;
+                for (byte[] key : multiSigCredential.getKeys()) {
+                    size += key.length;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(size)
+                    .put(fullHash)
+                    .putInt(multiSigCredential.getThreshold());
+                for (byte[] key : multiSigCredential.getKeys()) {
+                    buffer.put(key);
+                }
+                return new VerifiedSignatureKey(buffer.array());
+            }
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            VerifiedSignatureKey that = (VerifiedSignatureKey) o;
+            return Arrays.equals(bytes, that.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -31,10 +31,7 @@ public class TransactionJsonSerializerImpl implements TransactionJsonSerializer
 
     @Override
     public byte[] serialize(Transaction transaction) {
-        Result byteArrayTx = PayloadResult.createLittleEndianByteArrayResult();
-        txBContext.createSerializer(transaction.getVersion())
-            .serialize(transaction, byteArrayTx);
-        return byteArrayTx.array();
+        return txBContext.createSerializer(transaction.getVersion()).toBytes(transaction).clone();
     }
 
     @Override
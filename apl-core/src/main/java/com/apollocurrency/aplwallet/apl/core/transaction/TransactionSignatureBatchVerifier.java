@@ -0,0 +1,110 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.transaction;
+
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies signatures of the transaction batches (block or a list of downloaded blocks) in parallel
+ * on the dedicated {@link ForkJoinPool}.
+ * <p>
+ * Verification result is memoized by the transaction's {@link com.apollocurrency.aplwallet.apl.core.signature.Signature}
+ * itself, so that the subsequent {@link TransactionValidator#verifySignature(Transaction)} call performed under the
+ * blockchain write lock only checks the {@link Transaction#hasValidSignature()} flag instead of doing the
+ * Curve25519 verification. Invalid signatures are not reported here: such transactions stay unverified and will
+ * be rejected by the regular validation routine.
+ */
+@Slf4j
+@Singleton
+public class TransactionSignatureBatchVerifier {
+    /**
+     * Batches smaller than this value are verified in the caller thread, since task splitting costs more
+     */
+    private static final int MIN_PARALLEL_BATCH_SIZE = 8;
+
+    private final TransactionValidator transactionValidator;
+    private final ForkJoinPool verificationPool;
+
+    @Inject
+    public TransactionSignatureBatchVerifier(TransactionValidator transactionValidator, PropertiesHolder propertiesHolder) {
+        this(transactionValidator, propertiesHolder.getIntProperty("apl.signatureVerificationThreads",
+            Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TransactionSignatureBatchVerifier(TransactionValidator transactionValidator, int parallelism) {
+        this.transactionValidator = transactionValidator;
+        this.verificationPool = new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("apl-signature-verifier-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, (thread, e) -> log.error("Thread " + thread.getName() + " thrown an exception", e), false);
+    }
+
+    /**
+     * Verify signatures of all the transactions included into the given blocks
+     * @param blocks blocks to verify transaction signatures
+     */
+    public void verifyBlocks(Collection<? extends Block> blocks) {
+        verify(blocks.stream()
+            .flatMap(block -> block.getTransactions().stream())
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Verify signatures of the given transactions in parallel, already verified transactions are skipped.
+     * Method blocks until all the signatures will be verified.
+     * @param transactions transactions to verify signatures
+     */
+    public void verify(Collection<? extends Transaction> transactions) {
+        List<Transaction> notVerified = transactions.stream()
+            .filter(tx -> !tx.hasValidSignature())
+            .collect(Collectors.toList());
+        if (notVerified.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        if (notVerified.size() < MIN_PARALLEL_BATCH_SIZE) {
+            notVerified.forEach(this::verifySilently);
+        } else {
+            try {
+                verificationPool.submit(() -> notVerified.parallelStream().forEach(this::verifySilently)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | RejectedExecutionException e) {
+                log.warn("Unable to pre-verify signatures of {} transactions, will verify under the lock: {}",
+                    notVerified.size(), e.toString());
+            }
+        }
+        log.trace("Pre-verified {} transaction signatures in {} ms", notVerified.size(), System.currentTimeMillis() - start);
+    }
+
+    private void verifySilently(Transaction transaction) {
+        try {
+            transactionValidator.checkSignature(transaction);
+        } catch (RuntimeException e) {
+            log.debug("Signature pre-verification failed for transaction {}: {}", transaction.getStringId(), e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        verificationPool.shutdownNow();
+    }
+}
@@ -21,6 +21,7 @@ import com.apollocurrency.aplwallet.apl.core.signature.MultiSigCredential;
 import com.apollocurrency.aplwallet.apl.core.signature.SignatureCredential;
 import com.apollocurrency.aplwallet.apl.core.signature.SignatureToolFactory;
 import com.apollocurrency.aplwallet.apl.core.signature.SignatureVerifier;
+import com.apollocurrency.aplwallet.apl.core.signature.VerifiedSignatureCache;
 import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AbstractAppendix;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixValidator;
@@ -54,13 +55,15 @@ public class TransactionValidator {
     private final KeyValidator keyValidator;
     private final AppendixValidatorRegistry validatorRegistry;
     private final AntifraudValidator antifraudValidator;
+    private final VerifiedSignatureCache verifiedSignatureCache;
 
     private final TxBContext txBContext;
 
     @Inject
     public TransactionValidator(BlockchainConfig blockchainConfig, PhasingPollService phasingPollService,
                                 Blockchain blockchain, FeeCalculator feeCalculator, AccountService accountService,
-                                AccountPublicKeyService accountPublicKeyService, AccountControlPhasingService accountControlPhasingService, TransactionVersionValidator transactionVersionValidator, PrunableLoadingService prunableService, AppendixValidatorRegistry validatorRegistry) {
+                                AccountPublicKeyService accountPublicKeyService, AccountControlPhasingService accountControlPhasingService, TransactionVersionValidator transactionVersionValidator, PrunableLoadingService prunableService, AppendixValidatorRegistry validatorRegistry,
+                                VerifiedSignatureCache verifiedSignatureCache) {
         this.blockchainConfig = blockchainConfig;
         this.phasingPollService = phasingPollService;
         this.blockchain = blockchain;
@@ -73,6 +76,7 @@ public class TransactionValidator {
         this.keyValidator = new PublicKeyValidator(accountPublicKeyService);
         this.validatorRegistry = validatorRegistry;
         this.antifraudValidator = new AntifraudValidator();
+        this.verifiedSignatureCache = verifiedSignatureCache;
         this.txBContext = TxBContext.newInstance(blockchainConfig.getChain());
     }
 
@@ -125,9 +129,8 @@ public class TransactionValidator {
         validateChildAccountsSpecific(transaction, sender);
 
         boolean validatingAtFinish = transaction.getPhasing() != null && transaction.getSignature() != null && phasingPollService.getPoll(transaction.getId()) != null;
-        Result byteArrayTx = PayloadResult.createLittleEndianByteArrayResult();
-        txBContext.createSerializer(transaction.getVersion()).serialize(transaction, byteArrayTx);
-        int fullSize = TransactionUtils.calculateFullSize(transaction, byteArrayTx.size());
+        byte[] signedTxBytes = txBContext.createSerializer(transaction.getVersion()).toBytes(transaction);
+        int fullSize = TransactionUtils.calculateFullSize(transaction, signedTxBytes.length);
         if (fullSize > blockchainConfig.getCurrentConfig().getMaxPayloadLength()) {
             throw new AplUnacceptableTransactionValidationException("Transaction size " + fullSize + " exceeds maximum payload size", transaction);
         }
@@ -181,6 +184,9 @@ public class TransactionValidator {
     }
 
     public boolean checkSignature(Transaction transaction) {
+        if (transaction.hasValidSignature()) {
+            return true; // avoid sender's account fetching for the already verified signature
+        }
         return checkSignature(accountService.getAccount(transaction.getSenderId()), transaction);
     }
 
@@ -227,6 +233,11 @@ public class TransactionValidator {
             log.error("#MULTI_SIG# Credential verification failed, credential={}", signatureCredential);
             return false;
         }
+        byte[] fullHash = transaction.getFullHash();
+        if (verifiedSignatureCache.isVerified(fullHash, signatureCredential)) {
+            log.trace("#MULTI_SIG# signature is already verified, tx={}", transaction.getStringId());
+            return true;
+        }
         Result byteArrayTx = PayloadResult.createLittleEndianByteArrayResult();
         txBContext.createSerializer(transaction.getVersion())
             .serialize(TransactionWrapperHelper.createUnsignedTransaction(transaction), byteArrayTx);
@@ -236,7 +247,11 @@ public class TransactionValidator {
             signatureCredential,
             Convert.toHexString(byteArrayTx.array()));
 
-        return signatureVerifier.verify(byteArrayTx.array(), transaction.getSignature(), signatureCredential);
+        boolean verified = signatureVerifier.verify(byteArrayTx.array(), transaction.getSignature(), signatureCredential);
+        if (verified) {
+            verifiedSignatureCache.putVerified(fullHash, signatureCredential);
+        }
+        return verified;
     }
 
     public boolean verifySignature(Transaction transaction) {
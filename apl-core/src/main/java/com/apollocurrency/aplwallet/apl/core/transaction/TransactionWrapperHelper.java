@@ -31,5 +31,10 @@ public class TransactionWrapperHelper {
             return null;
         }
 
+        @Override
+        public byte[] getSerializedBytes() {
+            return null;
+        }
+
     }
 }
@@ -5,6 +5,7 @@
 package com.apollocurrency.aplwallet.apl.core.transaction.common;
 
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
 import com.apollocurrency.aplwallet.apl.util.io.Result;
 
 /**
@@ -14,4 +15,21 @@ public interface TxSerializer {
 
     void serialize(Transaction transaction, Result result);
 
+    /**
+     * Returns the canonical little-endian bytes of the transaction. The bytes of the signed transaction are memoized
+     * by the transaction itself when it is signed, so that they are not serialized again.
+     *
+     * @param transaction the transaction to serialize
+     * @return the serialized transaction bytes, the returned array must not be modified
+     */
+    default byte[] toBytes(Transaction transaction) {
+        byte[] bytes = transaction.getSerializedBytes();
+        if (bytes == null) {
+            Result result = PayloadResult.createLittleEndianByteArrayResult();
+            serialize(transaction, result);
+            bytes = result.array();
+        }
+        return bytes;
+    }
+
 }
@@ -31,6 +31,8 @@ import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProces
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.prunable.PrunableRestorationService;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
 import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import org.junit.jupiter.api.AfterEach;
@@ -48,22 +50,29 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class GetMoreBlocksJobTest {
+    private static final byte[] EMPTY_PAYLOAD_HASH = Crypto.sha256().digest();
     private final UUID chainId = UUID.randomUUID();
     @Mock
     BlockchainProcessor blockchainProcessor;
@@ -92,6 +101,8 @@ class GetMoreBlocksJobTest {
     @Mock
     GetTransactionsResponseParser getTransactionsResponseParser;
     @Mock
+    TransactionSignatureBatchVerifier signatureBatchVerifier;
+    @Mock
     Chain chain;
     @Mock
     Peer peer1;
@@ -118,10 +129,13 @@ class GetMoreBlocksJobTest {
     @BeforeEach
     void setUp() {
         doReturn(0).when(propertiesHolder).getIntProperty("apl.numberOfForkConfirmations");
+        doReturn(2).when(propertiesHolder).getIntProperty("apl.blockDownloadSegmentsPerPeer", 2);
+        doReturn(3).when(propertiesHolder).getIntProperty("apl.blockDownloadReorderWindow", 10);
+        doReturn(10_000).when(propertiesHolder).getIntProperty("apl.blockDownloadSegmentTimeout", 10_000);
         doReturn(chain).when(blockchainConfig).getChain();
         doReturn(chainId).when(chain).getChainId();
         job = new GetMoreBlocksJob(blockchainProcessor, state, blockchainConfig, blockchain, peersService
-            , globalSync, timeService, prunableRestorationService, networkService, propertiesHolder, transactionProcessor, getNextBlocksResponseParser, blockSerializer, getTransactionsResponseParser);
+            , globalSync, timeService, prunableRestorationService, networkService, propertiesHolder, transactionProcessor, getNextBlocksResponseParser, blockSerializer, getTransactionsResponseParser, signatureBatchVerifier);
         lenient().doReturn("peer1IP:1111").when(peer1).getHostWithPort();
         lenient().doReturn("peer2IP:1111").when(peer2).getHostWithPort();
         lenient().doReturn("peer3IP:1111").when(peer3).getHostWithPort();
@@ -144,6 +158,46 @@ class GetMoreBlocksJobTest {
         verifyForkDownloading();
     }
 
+    @Test
+    void downloadBlockchainPushingSegmentsInOrder() throws PeerNotConnectedException, BlockchainProcessor.BlockNotAcceptedException {
+        List<Block> pushedBlocks = setUpMockForDownloading();
+        doReturn(10_999L).when(currentLastBlock).getId();
+
+        job.run();
+
+        assertEquals(LongStream.range(11_000, 11_439).boxed().collect(Collectors.toList()),
+            pushedBlocks.stream().map(Block::getId).collect(Collectors.toList()));
+        assertEquals(11438, blockchain.getLastBlock().getId());
+        verify(globalSync).updateLock();
+        verify(globalSync).updateUnlock();
+        verify(globalSync, atLeastOnce()).writeLock();
+        verify(globalSync, atLeastOnce()).writeUnlock();
+        verify(blockchainProcessor, never()).popOffToCommonBlock(any(Block.class));
+    }
+
+    @Test
+    void downloadBlockchainStoppedByInterleavedPush() throws PeerNotConnectedException, BlockchainProcessor.BlockNotAcceptedException {
+        List<Block> pushedBlocks = setUpMockForDownloading();
+        doReturn(10_999L).when(currentLastBlock).getId();
+        Block interleavedBlock = mockIdBlock("11035", "11034");
+        AtomicInteger locks = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (locks.incrementAndGet() == 2) {
+                // other thread has pushed its block between the first and the second segments
+                doReturn(interleavedBlock).when(blockchain).getLastBlock();
+            }
+            return null;
+        }).when(globalSync).writeLock();
+
+        job.run();
+
+        assertEquals(LongStream.range(11_000, 11_036).boxed().collect(Collectors.toList()),
+            pushedBlocks.stream().map(Block::getId).collect(Collectors.toList()));
+        assertSame(interleavedBlock, blockchain.getLastBlock());
+        assertEquals(2, locks.get());
+        verify(globalSync, times(2)).writeUnlock();
+        verify(blockchainProcessor, never()).popOffToCommonBlock(any(Block.class));
+    }
 
     private void verifyForkDownloading() {
         assertSame(peer1, state.getLastBlockchainFeeder());
@@ -157,10 +211,21 @@ class GetMoreBlocksJobTest {
     }
 
     private List<Block> setUpMockForForkDownloading() throws PeerNotConnectedException, BlockchainProcessor.BlockNotAcceptedException {
+        List<Block> pushedBlocks = setUpMockForDownloading();
+        doReturn(200L).when(currentLastBlock).getId();
+        doAnswer(invocation-> {
+            doReturn(commonBlock).when(blockchain).getLastBlock();
+            return List.of(currentLastBlock);
+        }).when(blockchainProcessor).popOffToCommonBlock(commonBlock);
+        return pushedBlocks;
+    }
+
+    private List<Block> setUpMockForDownloading() throws PeerNotConnectedException, BlockchainProcessor.BlockNotAcceptedException {
         doReturn(2000).when(blockchain).getHeight();
         List<Peer> allPeers = List.of(peer1, peer2, peer3, peer4, peer5, peer6);
         doReturn(allPeers).when(peersService).getPublicPeers(PeerState.CONNECTED, true);
         doReturn(peer1).when(peersService).getWeightedPeer(allPeers);
+        doCallRealMethod().when(peersService).sendHedged(any(Peer.class), any(), any(), any());
         GetCumulativeDifficultyResponse cumulativeDiffResponse = new GetCumulativeDifficultyResponse(30_000, BigInteger.valueOf(9898));
         doReturn(cumulativeDiffResponse).when(peer1).send(new GetCumulativeDifficultyRequest(chainId), new GetCumulativeDifficultyResponseParser());
         doReturn(currentLastBlock).when(blockchain).getLastBlock();
@@ -168,7 +233,6 @@ class GetMoreBlocksJobTest {
         doReturn(shardInitialBlock).when(blockchain).getShardInitialBlock();
         doReturn(99L).when(shardInitialBlock).getId();
         doReturn("200").when(currentLastBlock).getStringId();
-        doReturn(200L).when(currentLastBlock).getId();
         doReturn(new GetMilestoneBlockIdsResponse(List.of("99", "88", "77"), false)).when(peer1).send(new GetMilestoneBlockIdsRequest(chainId, "200", null), new GetMilestoneBlockIdsResponseParser());
         List<String> returnedBlockIds = IntStream.range(10_000, 11439).boxed().map(String::valueOf).collect(Collectors.toList());
         doReturn(new GetNextBlockIdsResponse(returnedBlockIds)).when(peer1).send(new GetNextBlockIdsRequest("77", 1440, chainId), new GetNextBlockIdsResponseParser());
@@ -187,10 +251,6 @@ class GetMoreBlocksJobTest {
         doAnswer(invocation -> returnNoPeerBlocks()).when(peer6).send(any(GetNextBlocksRequest.class), any(GetNextBlocksResponseParser.class));
         List<Block> pushedBlocks = new ArrayList<>();
         mockPushBlock(pushedBlocks);
-        doAnswer(invocation-> {
-            doReturn(commonBlock).when(blockchain).getLastBlock();
-            return List.of(currentLastBlock);
-        }).when(blockchainProcessor).popOffToCommonBlock(commonBlock);
         return pushedBlocks;
     }
 
@@ -250,8 +310,9 @@ class GetMoreBlocksJobTest {
         Block block = mock(Block.class);
         lenient().doReturn(id).when(block).getStringId();
         lenient().doReturn(Long.parseUnsignedLong(id)).when(block).getId();
-        doReturn(Long.parseUnsignedLong(prevId)).when(block).getPreviousBlockId();
-        doReturn(BigInteger.valueOf(10_000)).when(block).getCumulativeDifficulty();
+        lenient().doReturn(Long.parseUnsignedLong(prevId)).when(block).getPreviousBlockId();
+        lenient().doReturn(BigInteger.valueOf(10_000)).when(block).getCumulativeDifficulty();
+        lenient().doReturn(EMPTY_PAYLOAD_HASH).when(block).getPayloadHash();
         return block;
     }
 }
\ No newline at end of file
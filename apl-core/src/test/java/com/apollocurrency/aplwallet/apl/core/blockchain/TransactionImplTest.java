@@ -23,7 +23,12 @@ import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
 import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -67,4 +72,58 @@ class TransactionImplTest {
         assertEquals("0e1027383f91699ea81a4c70b3dd6f3b61eb17decca2768d470b4f7c44f93763", Convert.toHexString(tx.getFullHash()));
         assertEquals(-7031929642451267570L, tx.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void sign_memoizeSignedBytes() {
+        ArbitraryMessageTransactionType txType = new ArbitraryMessageTransactionType(mock(BlockchainConfig.class), mock(AccountService.class));
+        Signature sig = mock(Signature.class);
+        doReturn(new byte[]{1, 2, 3, 4}).when(sig).bytes();
+        TransactionImpl tx = new TransactionImpl.BuilderImpl((byte) 2, new byte[32], 100L, 5L, (short) 1440, new ArbitraryMessageAttachment(), 250, txType)
+            .ecBlockData(new EcBlockData(1111, 200))
+            .signature(sig)
+            .build();
+        TxSerializer serializer = TxBContext.newInstance(mock(Chain.class)).createSerializer(2);
+        PayloadResult unsignedResult = PayloadResult.createLittleEndianByteArrayResult();
+        serializer.serialize(TransactionWrapperHelper.createUnsignedTransaction(tx), unsignedResult);
+
+        tx.sign(sig, unsignedResult);
+
+        PayloadResult signedResult = PayloadResult.createLittleEndianByteArrayResult();
+        serializer.serialize(tx, signedResult);
+        assertArrayEquals(signedResult.array(), tx.getSerializedBytes());
+        assertSame(tx.getSerializedBytes(), serializer.toBytes(tx));
+        assertNull(TransactionWrapperHelper.createUnsignedTransaction(tx).getSerializedBytes());
+
+        tx.setFeeATM(10L);
+
+        assertNull(tx.getSerializedBytes());
+        PayloadResult changedFeeResult = PayloadResult.createLittleEndianByteArrayResult();
+        serializer.serialize(tx, changedFeeResult);
+        assertArrayEquals(changedFeeResult.array(), serializer.toBytes(tx));
+        assertNull(tx.getSerializedBytes());
+    }
+
+    @Test
+    void sign_memoizeSignedBytesV1() {
+        ArbitraryMessageTransactionType txType = new ArbitraryMessageTransactionType(mock(BlockchainConfig.class), mock(AccountService.class));
+        byte[] signatureBytes = new byte[Signature.ECDSA_SIGNATURE_SIZE];
+        Arrays.fill(signatureBytes, (byte) 7);
+        Signature sig = mock(Signature.class);
+        doReturn(signatureBytes).when(sig).bytes();
+        TransactionImpl tx = new TransactionImpl.BuilderImpl((byte) 1, new byte[32], 100L, 5L, (short) 1440, new ArbitraryMessageAttachment(), 250, txType)
+            .referencedTransactionFullHash(Convert.parseHexString("0e1027383f91699ea81a4c70b3dd6f3b61eb17decca2768d470b4f7c44f93763"))
+            .ecBlockData(new EcBlockData(1111, 200))
+            .signature(sig)
+            .build();
+        TxSerializer serializer = TxBContext.newInstance(mock(Chain.class)).createSerializer(1);
+        PayloadResult unsignedResult = PayloadResult.createLittleEndianByteArrayResult();
+        serializer.serialize(TransactionWrapperHelper.createUnsignedTransaction(tx), unsignedResult);
+
+        tx.sign(sig, unsignedResult);
+
+        PayloadResult signedResult = PayloadResult.createLittleEndianByteArrayResult();
+        serializer.serialize(tx, signedResult);
+        assertArrayEquals(signedResult.array(), tx.getSerializedBytes());
+        assertSame(tx.getSerializedBytes(), serializer.toBytes(tx));
+    }
+}
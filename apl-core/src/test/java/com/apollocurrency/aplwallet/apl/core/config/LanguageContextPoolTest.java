@@ -0,0 +1,57 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.config;
+
+import com.apollocurrency.smc.polyglot.language.LanguageContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LanguageContextPoolTest {
+    private final AtomicInteger created = new AtomicInteger();
+    private LanguageContextPool pool;
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void takeNewContextWhenPoolIsDisabled() {
+        pool = new LanguageContextPool(0, this::createContext);
+
+        LanguageContext first = pool.take();
+        LanguageContext second = pool.take();
+
+        assertTrue(first != second);
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void neverHandOutContextTwice() throws InterruptedException {
+        pool = new LanguageContextPool(2, this::createContext);
+        Set<LanguageContext> taken = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(taken.add(pool.take()));
+        }
+        Thread.sleep(100);
+
+        assertTrue(created.get() >= taken.size());
+        assertTrue(created.get() <= taken.size() + 3, "Pre-created contexts count should be bounded by the pool size");
+    }
+
+    private LanguageContext createContext() {
+        created.incrementAndGet();
+        return mock(LanguageContext.class);
+    }
+}
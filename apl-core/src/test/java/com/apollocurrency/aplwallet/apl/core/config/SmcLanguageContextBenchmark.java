@@ -0,0 +1,80 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.config;
+
+import com.apollocurrency.aplwallet.apl.smc.service.tx.SyntaxValidator;
+import com.apollocurrency.smc.blockchain.BlockchainIntegrator;
+import com.apollocurrency.smc.contract.fuel.Chargeable;
+import com.apollocurrency.smc.contract.vm.ResultValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the number of the smart-contract method call validations per second, each call takes its own language
+ * context, like the transaction validation and the view method calls do. Pool size 0 measures the context creation
+ * in the caller thread, other sizes measure the contexts pre-created by the {@link LanguageContextPool}.
+ * <p>
+ * Run using the {@link #main(String[])} method or from the IDE with the JMH plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SmcLanguageContextBenchmark {
+    private static final String METHOD_CALL = "transfer('0x1a2b3c4d5e6f', 1000)";
+
+    @Param({"0", "4"})
+    public int poolSize;
+
+    private SmcConfig smcConfig;
+    private Chargeable chargeable;
+    private BlockchainIntegrator integrator;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(SmcLanguageContextBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        smcConfig = new SmcConfig(poolSize);
+        chargeable = mock(Chargeable.class);
+        integrator = mock(BlockchainIntegrator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        smcConfig.shutdown();
+    }
+
+    @Benchmark
+    public ResultValue validateMethodCall() {
+        var context = smcConfig.asViewContext(1, chargeable, integrator);
+        return new SyntaxValidator(METHOD_CALL, context).process();
+    }
+}
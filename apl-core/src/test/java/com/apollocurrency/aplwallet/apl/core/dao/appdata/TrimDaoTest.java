@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -60,4 +62,16 @@ class TrimDaoTest extends DbContainerBaseTest {
         assertEquals(0, count);
         assertNull(dao.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTablesProgress() {
+        dao.saveTableProgress("account", 1000);
+        dao.saveTableProgress("currency", 1000);
+        dao.saveTableProgress("account", 2000);
+
+        assertEquals(Map.of("account", 2000, "currency", 1000), dao.getTablesProgress());
+
+        dao.clearTablesProgress();
+        assertEquals(Map.of(), dao.getTablesProgress());
+    }
+}
@@ -49,6 +49,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.data.BlockTestData.BLOCK_0_ID;
+import static com.apollocurrency.aplwallet.apl.data.BlockTestData.BLOCK_1_ID;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -115,6 +116,14 @@ class TransactionDaoTest extends DbContainerBaseTest {
         assertEquals(2, transactions.size());
     }
 
+    @Test
+    void findByBlockIds() {
+        List<TransactionEntity> transactions = dao.findBlocksTransactions(List.of(BLOCK_1_ID, BLOCK_0_ID), extension.getDatabaseManager().getDataSource());
+
+        assertEquals(List.of(td.TRANSACTION_0.getId(), td.TRANSACTION_1.getId(), td.TRANSACTION_2.getId()),
+            transactions.stream().map(TransactionEntity::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void findTransactionId() {
         TransactionEntity transaction = dao.findTransaction(td.TRANSACTION_0.getId(), extension.getDatabaseManager().getDataSource());
@@ -8,6 +8,7 @@ import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.DbContainerBaseTest;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.config.JdbiConfiguration;
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountAsset;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainImpl;
@@ -36,6 +37,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import javax.inject.Inject;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -130,6 +132,29 @@ class AccountAssetTableTest extends DbContainerBaseTest {
         assertEquals(previous.getAssetId(), actual.getAssetId());
     }
 
+    @Test
+    void testPrefetch() {
+        DbKey existingKey = table.getDbKeyFactory().newKey(td.ACC_ASSET_0);
+        DbKey absentKey = table.getDbKeyFactory().newKey(td.newAsset);
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            table.prefetch(List.of(existingKey, absentKey));
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("UPDATE account_asset SET quantity = 0");
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            // prefetched entities are served from memory
+            assertEquals(td.ACC_ASSET_0, table.get(existingKey));
+            assertNull(table.get(absentKey));
+
+            table.insert(td.newAsset);
+            assertNotNull(table.get(absentKey));
+        });
+        // prefetched entities are dropped on commit
+        assertEquals(0, table.get(existingKey).getQuantityATU());
+    }
+
     @Test
     void testDefaultSort() {
         assertNotNull(table.defaultSort());
@@ -106,4 +106,33 @@ class AccountGuaranteedBalanceTableTest extends DbContainerBaseTest {
         table.addToGuaranteedBalanceATM(testData.ACC_BALANCE_3.getAccountId(), amountATM, testData.ACC_BALANCE_3.getHeight() + 1);
         assertEquals(expectedSum, table.getSumOfAdditions(testData.ACC_BALANCE_3.getAccountId(), testData.ACC_BALANCE_3.getHeight() - 1, testData.ACC_BALANCE_3.getHeight() + 1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addToGuaranteedBalanceATM_revertedOnRollback() {
+        long accountId = testData.ACC_BALANCE_3.getAccountId();
+        int height = testData.ACC_BALANCE_3.getHeight();
+        Long sumBefore = table.getSumOfAdditions(accountId, height - 1, height + 1);
+
+        DbUtils.inTransactionAndRollback(dbExtension.getDatabaseManager().getDataSource(),
+            con -> table.addToGuaranteedBalanceATM(accountId, 10000L, height + 1));
+
+        assertEquals(sumBefore, table.getSumOfAdditions(accountId, height - 1, height + 1));
+        table.invalidate();
+        assertEquals(sumBefore, table.getSumOfAdditions(accountId, height - 1, height + 1));
+    }
+
+    @Test
+    void addToGuaranteedBalanceATM_flushedOnCommit() {
+        long accountId = testData.ACC_BALANCE_3.getAccountId();
+        int height = testData.ACC_BALANCE_3.getHeight();
+        long expectedSum = testData.ACC_BALANCE_3.getAdditions() + 20000L;
+
+        DbUtils.inTransaction(dbExtension, con -> {
+            table.addToGuaranteedBalanceATM(accountId, 5000L, height + 1);
+            table.addToGuaranteedBalanceATM(accountId, 15000L, height + 1);
+        });
+        table.invalidate();
+
+        assertEquals(expectedSum, table.getSumOfAdditions(accountId, height - 1, height + 1));
+    }
+}
@@ -6,6 +6,7 @@ package com.apollocurrency.aplwallet.apl.core.dao.state.account;
 
 import com.apollocurrency.aplwallet.apl.core.dao.DbContainerBaseTest;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.MinMaxValue;
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKey;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
 import com.apollocurrency.aplwallet.apl.core.entity.state.derived.VersionedDerivedEntity;
@@ -22,14 +23,18 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import javax.enterprise.event.Event;
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -70,6 +75,18 @@ class AccountTableTest extends DbContainerBaseTest {
         assertNull(account);
     }
 
+    @Test
+    void testLoadSeveral() {
+        DbKey acc0Key = table.getDbKeyFactory().newKey(td.ACC_0);
+        DbKey acc10Key = table.getDbKeyFactory().newKey(td.ACC_10);
+        DbKey deletedAccountKey = table.getDbKeyFactory().newKey(td.ACC_14);
+        DbKey newAccountKey = table.getDbKeyFactory().newKey(td.newAccount);
+
+        Map<DbKey, Account> accounts = table.get(List.of(acc0Key, acc10Key, deletedAccountKey, newAccountKey, acc0Key));
+
+        assertEquals(Map.of(acc0Key, td.ACC_0, acc10Key, td.ACC_10), accounts);
+    }
+
     @Test
     void testSave() {
         DbUtils.inTransaction(dbExtension, (con) -> table.insert(td.newAccount));
@@ -219,6 +236,9 @@ class AccountTableTest extends DbContainerBaseTest {
         DbUtils.inTransaction(dbExtension, (con) -> table.rollback(newAcc2.getHeight() - 1));
 
         Account account = table.get(new LongKey(td.ACC_14.getId()));
+        // db_id of the buffered insert is assigned by the db on flush
+        assertNotEquals(0, account.getDbId());
+        newAcc1.setDbId(account.getDbId());
 
         assertEquals(newAcc1, account);
         List<Account> existing = table.getAllByDbId(0, Integer.MAX_VALUE, Long.MAX_VALUE).getValues();
@@ -277,4 +297,94 @@ class AccountTableTest extends DbContainerBaseTest {
 
         assertEquals(new MinMaxValue(BigDecimal.valueOf(50), BigDecimal.valueOf(9211698109297098287L), "id", 6, 106000), minMaxValue);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPrefetch_insertEvictsPrefetchedAccount() {
+        DbKey key = table.getDbKeyFactory().newKey(td.ACC_0);
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            table.prefetch(List.of(key));
+            assertEquals(td.ACC_0, table.get(key));
+
+            td.ACC_0.setBalanceATM(td.ACC_0.getBalanceATM() + 100);
+            td.ACC_0.setHeight(td.ACC_0.getHeight() + 1);
+            table.insert(td.ACC_0);
+            table.getRowCount(); // flushes the buffered insert, so the account is read from the db
+
+            Account actual = table.get(key);
+            assertEquals(td.ACC_0.getBalanceATM(), actual.getBalanceATM());
+            assertEquals(td.ACC_0.getHeight(), actual.getHeight());
+        });
+    }
+
+    @Test
+    void testPrefetch_deleteEvictsPrefetchedAccount() {
+        DbKey key = table.getDbKeyFactory().newKey(td.ACC_10);
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            table.prefetch(List.of(key));
+            assertEquals(td.ACC_10, table.get(key));
+
+            td.ACC_10.setHeight(td.ACC_10.getHeight() + 1);
+            assertTrue(table.deleteAtHeight(td.ACC_10, td.ACC_10.getHeight() + 1));
+
+            assertNull(table.get(key));
+        });
+    }
+
+    @Test
+    void testPrefetch_absentAccountIsReadAfterInsert() {
+        DbKey key = table.getDbKeyFactory().newKey(td.newAccount);
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            table.prefetch(List.of(key));
+            assertNull(table.get(key));
+
+            table.insert(td.newAccount);
+            table.getRowCount(); // flushes the buffered insert, so the account is read from the db
+
+            Account actual = table.get(key);
+            assertNotNull(actual);
+            assertEquals(td.newAccount.getBalanceATM(), actual.getBalanceATM());
+        });
+    }
+
+    @Test
+    void testPrefetch_droppedOnCommit() {
+        DbKey key = table.getDbKeyFactory().newKey(td.ACC_0);
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            table.prefetch(List.of(key));
+            updateBalance(con, td.ACC_0.getId(), 1);
+            // prefetched account is served from memory
+            assertEquals(td.ACC_0.getBalanceATM(), table.get(key).getBalanceATM());
+        });
+
+        assertEquals(1, table.get(key).getBalanceATM());
+    }
+
+    @Test
+    void testPrefetch_droppedOnRollback() {
+        DbKey key = table.getDbKeyFactory().newKey(td.ACC_0);
+
+        DbUtils.inTransactionAndRollback(dbExtension.getDatabaseManager().getDataSource(), (con) -> {
+            table.prefetch(List.of(key));
+            assertEquals(td.ACC_0, table.get(key));
+        });
+
+        DbUtils.inTransaction(dbExtension, (con) -> {
+            updateBalance(con, td.ACC_0.getId(), 1);
+            assertEquals(1, table.get(key).getBalanceATM());
+        });
+    }
+
+    private void updateBalance(Connection con, long accountId, long balance) {
+        try (PreparedStatement pstmt = con.prepareStatement("UPDATE account SET balance = ? WHERE id = ? AND latest = TRUE")) {
+            pstmt.setLong(1, balance);
+            pstmt.setLong(2, accountId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GuaranteedBalanceWindowTest {
+    GuaranteedBalanceWindow window = new GuaranteedBalanceWindow();
+
+    @Test
+    void sum() {
+        window.add(1L, 10, 100);
+        window.add(1L, 12, 200);
+        window.add(1L, 12, 50);
+        window.add(1L, 15, 400);
+        window.add(2L, 11, 1000);
+
+        assertEquals(750, window.sum(1L, 0, Integer.MAX_VALUE));
+        assertEquals(250, window.sum(1L, 10, 12));
+        assertEquals(650, window.sum(1L, 11, 20));
+        assertEquals(0, window.sum(1L, 12, 14));
+        assertEquals(0, window.sum(3L, 0, 20));
+        assertEquals(Map.of(1L, 350L, 2L, 1000L), window.sums(List.of(1L, 2L, 3L), 9, 12));
+        assertEquals(Map.of(1L, 400L), window.sums(List.of(1L, 2L), 14, 15));
+        assertEquals(Map.of(), window.sums(List.of(1L, 2L), 12, 14));
+    }
+
+    @Test
+    void revertAdditionBelowLatestHeight() {
+        window.add(1L, 10, 100);
+        window.add(1L, 20, 200);
+
+        assertEquals(50, window.add(1L, 15, 50));
+        assertEquals(350, window.sum(1L, 0, 20));
+        assertEquals(150, window.sum(1L, 0, 15));
+
+        assertEquals(0, window.add(1L, 15, -50));
+        assertEquals(-100, window.add(1L, 10, -200));
+        assertEquals(100, window.sum(1L, 0, 20));
+    }
+
+    @Test
+    void removeAboveAndBelow() {
+        for (int height = 1; height <= 100; height++) {
+            window.add(1L, height, height);
+        }
+        window.add(2L, 5, 5);
+
+        window.removeBelow(50);
+        assertEquals(51, window.size());
+        assertEquals(50 + 51 + 52, window.sum(1L, 0, 52));
+
+        window.removeAbove(60);
+        assertEquals(11, window.size());
+        assertEquals(0, window.sum(2L, 0, 100));
+        assertEquals(Map.of(1L, 55L + 56 + 57 + 58 + 59 + 60), window.sums(List.of(1L, 2L), 54, 100));
+
+        // reuse of the reclaimed space
+        for (int height = 61; height <= 200; height++) {
+            window.add(1L, height, 1);
+        }
+        assertEquals(140, window.sum(1L, 60, 200));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
+
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKey;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.entity.model.VersionedDerivedIdEntity;
+import com.apollocurrency.aplwallet.apl.util.db.PendingWrites;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EntityDbTableWriteBufferingTest {
+    private static final String TABLE = "versioned_derived_entity";
+    private static final String LATEST_UPDATE_SQL = "UPDATE " + TABLE + " SET latest = FALSE WHERE id = ?  AND latest = TRUE AND height < ?";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE + " (id, height, latest) VALUES (?, ?, TRUE)";
+
+    @Mock
+    DatabaseManager databaseManager;
+    @Mock
+    TransactionalDataSource dataSource;
+    @Mock
+    Connection con;
+
+    private final List<String> preparedSql = new ArrayList<>();
+    private final List<PreparedStatement> statements = new ArrayList<>();
+    private EntityDbTable<VersionedDerivedIdEntity> table;
+    private PendingWrites pendingWrites;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        doReturn(true).when(dataSource).isInTransaction();
+        lenient().doReturn(con).when(dataSource).getConnection();
+        lenient().doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            preparedSql.add(sql);
+            PreparedStatement pstmt = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            lenient().doReturn(rs).when(pstmt).executeQuery();
+            lenient().doReturn(new int[0]).when(pstmt).executeBatch();
+            statements.add(pstmt);
+            return pstmt;
+        }).when(con).prepareStatement(anyString());
+        doAnswer(invocation -> {
+            pendingWrites = invocation.getArgument(0);
+            return null;
+        }).when(dataSource).registerPendingWrites(any(PendingWrites.class));
+        table = new VersionedEntityDbTableImpl(databaseManager) {
+            @Override
+            protected boolean supportWriteBuffering() {
+                return true;
+            }
+
+            @Override
+            protected int writeBufferBatchSize() {
+                return 3;
+            }
+        };
+    }
+
+    @Test
+    void readYourWrites() {
+        VersionedDerivedIdEntity entity = new VersionedDerivedIdEntity(10L, 100, 1L, true);
+
+        table.insert(entity);
+        VersionedDerivedIdEntity buffered = table.get(new LongKey(1L));
+
+        assertEquals(entity, buffered);
+        assertNotSame(entity, buffered);
+        assertTrue(preparedSql.isEmpty());
+        assertEquals(TABLE, pendingWrites.getTable());
+        assertTrue(pendingWrites.isAffectedBy("select count(*) from " + TABLE + " where latest = true"));
+        assertFalse(pendingWrites.isAffectedBy("select * from " + TABLE + "_child where id = ?"));
+    }
+
+    @Test
+    void doNotFlushOnLookupOfNotBufferedKey() throws SQLException {
+        table.insert(new VersionedDerivedIdEntity(10L, 100, 1L, true));
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            assertFalse(pendingWrites.isAffectedBy(sql.toLowerCase()), "Buffer should not be flushed on lookup of the not buffered key");
+            preparedSql.add(sql);
+            PreparedStatement pstmt = mock(PreparedStatement.class);
+            doReturn(mock(ResultSet.class)).when(pstmt).executeQuery();
+            return pstmt;
+        }).when(con).prepareStatement(anyString());
+
+        assertNull(table.get(new LongKey(2L)));
+
+        assertEquals(1, preparedSql.size());
+    }
+
+    @Test
+    void flushLastWriteOfKeyInBatches() throws SQLException {
+        table.insert(new VersionedDerivedIdEntity(10L, 100, 1L, true));
+        table.insert(new VersionedDerivedIdEntity(10L, 100, 1L, true));
+        table.insert(new VersionedDerivedIdEntity(20L, 100, 2L, true));
+
+        pendingWrites.flush(con);
+
+        assertEquals(List.of(LATEST_UPDATE_SQL, INSERT_SQL), preparedSql);
+        PreparedStatement latestUpdate = statements.get(0);
+        verify(latestUpdate, times(2)).addBatch();
+        verify(latestUpdate).executeBatch();
+        verify(latestUpdate, never()).executeUpdate();
+        PreparedStatement insert = statements.get(1);
+        verify(insert, times(2)).addBatch();
+        verify(insert).executeBatch();
+        verify(insert, never()).executeUpdate();
+    }
+
+    @Test
+    void flushDeletableEntitiesWithConstantNumberOfStatements() throws SQLException {
+        EntityDbTable<VersionedDerivedIdEntity> deletableTable = new VersionedEntityDbTableImpl(databaseManager) {
+            @Override
+            protected boolean supportWriteBuffering() {
+                return true;
+            }
+
+            @Override
+            public boolean supportDelete() {
+                return true;
+            }
+        };
+        for (long id = 1; id <= 50; id++) {
+            deletableTable.insert(new VersionedDerivedIdEntity(id, 100, id, true));
+        }
+
+        pendingWrites.flush(con);
+
+        assertEquals(List.of(LATEST_UPDATE_SQL,
+            "SELECT id FROM " + TABLE + " WHERE id IN (" + String.join(", ", Collections.nCopies(50, "?")) + ") AND height = ? AND deleted = true",
+            INSERT_SQL), preparedSql);
+        verify(statements.get(1)).executeQuery();
+        verify(statements.get(2), times(50)).addBatch();
+    }
+
+    @Test
+    void flushRestoresDeletedColumnOnlyForDeletedKeys() throws SQLException {
+        EntityDbTable<VersionedDerivedIdEntity> deletableTable = new VersionedEntityDbTableImpl(databaseManager) {
+            @Override
+            protected boolean supportWriteBuffering() {
+                return true;
+            }
+
+            @Override
+            public boolean supportDelete() {
+                return true;
+            }
+        };
+        deletableTable.insert(new VersionedDerivedIdEntity(1L, 100, 1L, true));
+        deletableTable.insert(new VersionedDerivedIdEntity(2L, 100, 2L, true));
+        deletableTable.insert(new VersionedDerivedIdEntity(3L, 100, 3L, true));
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            preparedSql.add(sql);
+            PreparedStatement pstmt = mock(PreparedStatement.class);
+            ResultSet rs = mock(ResultSet.class);
+            lenient().doReturn(rs).when(pstmt).executeQuery();
+            lenient().doReturn(new int[0]).when(pstmt).executeBatch();
+            if (sql.contains("AND height = ? AND deleted = true")) {
+                // entity 2 was deleted at the same height
+                doReturn(true, false).when(rs).next();
+                doReturn(2L).when(rs).getLong("id");
+            } else if (sql.contains("MAX(db_id)")) {
+                doReturn(true, false).when(rs).next();
+                doReturn(2L).when(rs).getLong("id");
+                doReturn(15L).when(rs).getLong("prev_db_id");
+            }
+            statements.add(pstmt);
+            return pstmt;
+        }).when(con).prepareStatement(anyString());
+
+        pendingWrites.flush(con);
+
+        assertEquals(5, preparedSql.size());
+        assertEquals("SELECT id, MAX(db_id) AS prev_db_id FROM " + TABLE + " WHERE id IN (?) AND height < ? AND deleted = true GROUP BY id", preparedSql.get(2));
+        assertEquals("UPDATE " + TABLE + " SET deleted = false WHERE db_id = ?", preparedSql.get(3));
+        PreparedStatement restoreDeleted = statements.get(3);
+        verify(restoreDeleted).setLong(1, 15L);
+        verify(restoreDeleted).addBatch();
+        verify(restoreDeleted).executeBatch();
+        verify(restoreDeleted, never()).executeUpdate();
+        assertEquals(INSERT_SQL, preparedSql.get(4));
+    }
+
+    @Test
+    void flushWhenBatchSizeReached() throws SQLException {
+        table.insert(new VersionedDerivedIdEntity(10L, 100, 1L, true));
+        table.insert(new VersionedDerivedIdEntity(20L, 100, 2L, true));
+        assertTrue(preparedSql.isEmpty());
+
+        table.insert(new VersionedDerivedIdEntity(30L, 100, 3L, true));
+
+        assertEquals(List.of(LATEST_UPDATE_SQL, INSERT_SQL), preparedSql);
+        verify(statements.get(1), times(3)).addBatch();
+        verify(statements.get(1)).executeBatch();
+
+        table.insert(new VersionedDerivedIdEntity(40L, 100, 4L, true));
+        assertEquals(2, preparedSql.size());
+        assertEquals(new VersionedDerivedIdEntity(40L, 100, 4L, true), table.get(new LongKey(4L)));
+        verify(dataSource, times(2)).registerPendingWrites(pendingWrites);
+    }
+
+    @Test
+    void discardOnRollback() throws SQLException {
+        table.insert(new VersionedDerivedIdEntity(10L, 100, 1L, true));
+
+        pendingWrites.discard();
+
+        assertNull(table.get(new LongKey(1L)));
+        pendingWrites.flush(con);
+        assertEquals(1, preparedSql.size());
+        assertTrue(preparedSql.get(0).startsWith("SELECT * FROM " + TABLE));
+    }
+}
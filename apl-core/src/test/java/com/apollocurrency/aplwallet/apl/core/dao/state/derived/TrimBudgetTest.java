@@ -0,0 +1,48 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrimBudgetTest {
+
+    @Test
+    void chunkTrimmedWithoutBoundBudget() {
+        AtomicInteger busyChecks = new AtomicInteger();
+        new TrimBudget(() -> busyChecks.incrementAndGet() > 0, 0);
+
+        TrimBudget.chunkTrimmed(100);
+
+        assertEquals(0, busyChecks.get());
+    }
+
+    @Test
+    void backOffWhileBusy() {
+        AtomicInteger busyChecks = new AtomicInteger();
+        TrimBudget budget = new TrimBudget(() -> busyChecks.incrementAndGet() <= 3, 0);
+
+        budget.runWith(() -> TrimBudget.chunkTrimmed(100));
+
+        assertEquals(4, busyChecks.get());
+    }
+
+    @Test
+    void limitRowsPerSecond() {
+        TrimBudget budget = new TrimBudget(() -> false, 1000);
+        long start = System.currentTimeMillis();
+
+        budget.runWith(() -> {
+            TrimBudget.chunkTrimmed(100);
+            TrimBudget.chunkTrimmed(100);
+        });
+
+        assertTrue(System.currentTimeMillis() - start >= 200, "Trim of 200 rows should take at least 200 ms");
+    }
+}
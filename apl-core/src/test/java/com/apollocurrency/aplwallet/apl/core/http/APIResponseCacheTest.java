@@ -0,0 +1,141 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.cache.APIResponseCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.util.JSON;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.google.common.cache.CacheBuilder;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class APIResponseCacheTest {
+    private static final List<String> PARAMETERS = List.of("asset", "includeCounts");
+
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    InMemoryCacheManager cacheManager;
+    @Mock
+    PropertiesHolder propertiesHolder;
+    @Mock
+    Block lastBlock;
+
+    private APIResponseCache responseCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        doReturn(true).when(propertiesHolder).getBooleanProperty("apl.enableAPIResponseCache", true);
+        doReturn(CacheBuilder.newBuilder().maximumSize(10).build()).when(cacheManager).acquireCache(APIResponseCacheConfig.CACHE_NAME);
+        lenient().doReturn(lastBlock).when(blockchain).getLastBlock();
+        responseCache = new APIResponseCache(blockchain, cacheManager, propertiesHolder);
+        responseCache.init();
+    }
+
+    @Test
+    void cacheResponseUntilNextBlock() throws AplException {
+        HttpServletRequest req = request("1", "true");
+
+        JSONStreamAware first = responseCache.getResponse("getAsset", PARAMETERS, req, this::loadResponse);
+        JSONStreamAware second = responseCache.getResponse("getAsset", PARAMETERS, req, this::loadResponse);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals("{\"asset\":\"1\"}", JSON.toString(first));
+
+        responseCache.onBlockPushed(lastBlock);
+        responseCache.getResponse("getAsset", PARAMETERS, req, this::loadResponse);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void separateResponsesForDifferentParameters() throws AplException {
+        responseCache.getResponse("getAsset", PARAMETERS, request("1", "true"), this::loadResponse);
+        responseCache.getResponse("getAsset", PARAMETERS, request("1", null), this::loadResponse);
+        responseCache.getResponse("getAllAssets", PARAMETERS, request("1", null), this::loadResponse);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void failedRequestIsNotCached() {
+        HttpServletRequest req = request("1", null);
+
+        assertThrows(ParameterException.class, () -> responseCache.getResponse("getAsset", PARAMETERS, req,
+            () -> {
+                loads.incrementAndGet();
+                throw new ParameterException(JSONResponses.INCORRECT_ASSET);
+            }));
+        assertThrows(IllegalStateException.class, () -> responseCache.getResponse("getAsset", PARAMETERS, req,
+            () -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("Test error");
+            }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void appendRequestProcessingTime() throws AplException {
+        APIResponseCache.CachedResponse response = (APIResponseCache.CachedResponse)
+            responseCache.getResponse("getAsset", PARAMETERS, request("1", null), this::loadResponse);
+        APIResponseCache.CachedResponse empty = (APIResponseCache.CachedResponse)
+            responseCache.getResponse("getAsset", PARAMETERS, request("2", null), JSONObject::new);
+        APIResponseCache.CachedResponse prepared = (APIResponseCache.CachedResponse)
+            responseCache.getResponse("getAsset", PARAMETERS, request("3", null), () -> JSONResponses.INCORRECT_ASSET);
+
+        assertEquals("{\"asset\":\"1\",\"requestProcessingTime\":5}", JSON.toString(response.withRequestProcessingTime(5)));
+        assertEquals("{\"requestProcessingTime\":7}", JSON.toString(empty.withRequestProcessingTime(7)));
+        assertSame(prepared, prepared.withRequestProcessingTime(3));
+    }
+
+    @Test
+    void requestWithAdminPasswordIsNotCacheable() {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        assertTrue(responseCache.isCacheable(req));
+
+        doReturn("password").when(req).getParameter("adminPassword");
+        assertFalse(responseCache.isCacheable(req));
+    }
+
+    private JSONStreamAware loadResponse() {
+        loads.incrementAndGet();
+        JSONObject response = new JSONObject();
+        response.put("asset", "1");
+        return response;
+    }
+
+    private static HttpServletRequest request(String asset, String includeCounts) {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        doReturn(new String[]{asset}).when(req).getParameterValues("asset");
+        if (includeCounts != null) {
+            doReturn(new String[]{includeCounts}).when(req).getParameterValues("includeCounts");
+        }
+        return req;
+    }
+}
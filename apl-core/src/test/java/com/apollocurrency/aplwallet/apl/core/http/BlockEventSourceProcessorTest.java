@@ -0,0 +1,212 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.LedgerEntry;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
+import com.apollocurrency.aplwallet.apl.core.service.state.AliasService;
+import com.apollocurrency.aplwallet.apl.core.service.state.DGSService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountInfoService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import org.eclipse.jetty.servlets.EventSource;
+import org.json.simple.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BlockEventSourceProcessorTest {
+    private static final long ACCOUNT_1 = 1L;
+    private static final long ACCOUNT_2 = 2L;
+    private static final long GENERATOR = 3L;
+
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    GlobalSync globalSync;
+
+    private final Map<Long, AtomicInteger> builds = new ConcurrentHashMap<>();
+    private final List<Runnable> scheduledSendings = new ArrayList<>();
+    private LongConsumer onBuild = accountId -> {
+    };
+    private long blockId = 100;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(mockBlock()).when(blockchain).getLastBlock();
+    }
+
+    @Test
+    void rebuildDataOfAccountsChangedByBlock() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(Runnable::run);
+        EventSource.Emitter emitter1 = open(processor, ACCOUNT_1);
+        EventSource.Emitter emitter2 = open(processor, ACCOUNT_2);
+
+        pushBlock(processor);
+        pushBlock(processor);
+        assertEquals(2, builds(ACCOUNT_1));
+        assertEquals(2, builds(ACCOUNT_2));
+
+        // counterparty, which is not the sender or recipient of the block transactions
+        processor.onLedgerEntry(ledgerEntry(ACCOUNT_1));
+        pushBlock(processor);
+
+        assertEquals(3, builds(ACCOUNT_1));
+        assertEquals(2, builds(ACCOUNT_2));
+        verify(emitter1, times(4)).data(anyString());
+        verify(emitter2, times(4)).data(anyString());
+    }
+
+    @Test
+    void dropAllDataOnPopOff() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(Runnable::run);
+        open(processor, ACCOUNT_1);
+        open(processor, ACCOUNT_2);
+        pushBlock(processor);
+
+        processor.onBlockPopped(mock(Block.class));
+        pushBlock(processor);
+
+        assertEquals(3, builds(ACCOUNT_1));
+        assertEquals(3, builds(ACCOUNT_2));
+    }
+
+    @Test
+    void doNotCacheDataOfAccountUnsubscribedDuringBuild() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(Runnable::run);
+        BlockEventSource eventSource = new BlockEventSource(processor, ACCOUNT_1);
+        eventSource.onOpen(mock(EventSource.Emitter.class));
+        onBuild = accountId -> eventSource.onClose();
+
+        pushBlock(processor);
+        onBuild = accountId -> {
+        };
+        open(processor, ACCOUNT_1);
+
+        assertEquals(3, builds(ACCOUNT_1));
+    }
+
+    @Test
+    void closeSlowEventSource() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(scheduledSendings::add);
+        EventSource.Emitter emitter = open(processor, ACCOUNT_1);
+
+        for (int i = 1; i < BlockEventSource.MAX_QUEUED_EVENTS; i++) {
+            pushBlock(processor);
+        }
+        verify(emitter, never()).close();
+        pushBlock(processor);
+        verify(emitter).close();
+        pushBlock(processor);
+
+        assertEquals(1, scheduledSendings.size());
+        assertEquals(2, builds(ACCOUNT_1));
+        verify(emitter, never()).data(anyString());
+    }
+
+    @Test
+    void sendQueuedEventsAfterSlowSending() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(scheduledSendings::add);
+        EventSource.Emitter emitter = open(processor, ACCOUNT_1);
+        pushBlock(processor);
+        pushBlock(processor);
+
+        scheduledSendings.remove(0).run();
+
+        verify(emitter, times(3)).data(anyString());
+        verify(emitter, never()).close();
+        assertEquals(0, scheduledSendings.size());
+    }
+
+    @Test
+    void closeEventSourceOnSendFailure() throws IOException {
+        BlockEventSourceProcessor processor = newProcessor(Runnable::run);
+        EventSource.Emitter emitter = mock(EventSource.Emitter.class);
+        doThrow(new IOException("Test closed")).when(emitter).data(anyString());
+        new BlockEventSource(processor, ACCOUNT_1).onOpen(emitter);
+
+        verify(emitter).close();
+        pushBlock(processor);
+        assertEquals(1, builds(ACCOUNT_1));
+    }
+
+    private BlockEventSourceProcessor newProcessor(Executor sender) {
+        return new BlockEventSourceProcessor(blockchain, globalSync, mock(AliasService.class), mock(DGSService.class),
+            mock(AccountService.class), mock(AccountInfoService.class), mock(AccountAssetService.class),
+            mock(AccountCurrencyService.class), sender) {
+            @Override
+            protected JSONObject getBlockchainData(long accountId) {
+                builds.computeIfAbsent(accountId, id -> new AtomicInteger()).incrementAndGet();
+                onBuild.accept(accountId);
+                JSONObject data = new JSONObject();
+                data.put("account", accountId);
+                return data;
+            }
+
+            @Override
+            protected JSONObject getBlockJson(Block block) {
+                JSONObject blockJson = new JSONObject();
+                blockJson.put("block", block.getId());
+                return blockJson;
+            }
+        };
+    }
+
+    private EventSource.Emitter open(BlockEventSourceProcessor processor, long accountId) throws IOException {
+        EventSource.Emitter emitter = mock(EventSource.Emitter.class);
+        new BlockEventSource(processor, accountId).onOpen(emitter);
+        return emitter;
+    }
+
+    private void pushBlock(BlockEventSourceProcessor processor) {
+        Block block = mockBlock();
+        lenient().doReturn(block).when(blockchain).getLastBlock();
+        processor.onBlockPushed(block);
+    }
+
+    private Block mockBlock() {
+        Block block = mock(Block.class);
+        lenient().doReturn(++blockId).when(block).getId();
+        lenient().doReturn(GENERATOR).when(block).getGeneratorId();
+        lenient().doReturn(List.of()).when(block).getTransactions();
+        return block;
+    }
+
+    private LedgerEntry ledgerEntry(long accountId) {
+        LedgerEntry entry = mock(LedgerEntry.class);
+        doReturn(accountId).when(entry).getAccountId();
+        return entry;
+    }
+
+    private int builds(long accountId) {
+        AtomicInteger count = builds.get(accountId);
+        return count != null ? count.get() : 0;
+    }
+}
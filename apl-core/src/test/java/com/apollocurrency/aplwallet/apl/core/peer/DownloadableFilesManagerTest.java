@@ -1,5 +1,6 @@
 package com.apollocurrency.aplwallet.apl.core.peer;
 
+import com.apollocurrency.aplwallet.api.p2p.FileChunkInfo;
 import com.apollocurrency.aplwallet.api.p2p.FileDownloadInfo;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
@@ -24,9 +25,14 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.zip.CRC32;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -114,6 +120,35 @@ class DownloadableFilesManagerTest {
         f.delete();
     }
 
+    @Test
+    void readChunk() throws IOException {
+        String fileId = "debug::" + zipFileName;
+        String tdir = createTestZip();
+        FileUtils.deleteDirectory(new File(tdir));
+        Path zipPath = Path.of(fileBaseDir, zipFileName);
+        byte[] fileBytes = Files.readAllBytes(zipPath);
+        FileDownloadInfo fi = filesManager.getFileDownloadInfo(fileId);
+        FileChunkInfo lastChunk = fi.chunks.get(fi.chunks.size() - 1);
+
+        ByteBuffer data = filesManager.readChunk(fileId, lastChunk.offset, lastChunk.size.intValue());
+
+        assertEquals(lastChunk.size.intValue(), data.remaining());
+        assertArrayEquals(Arrays.copyOfRange(fileBytes, lastChunk.offset.intValue(), fileBytes.length), data.array());
+        assertEquals(lastChunk.crc, filesManager.getChunkCrc(fileId, lastChunk.offset, data));
+        ByteBuffer shiftedData = filesManager.readChunk(fileId, lastChunk.offset + 1, lastChunk.size.intValue() - 1);
+        CRC32 crc = new CRC32();
+        crc.update(Arrays.copyOfRange(fileBytes, lastChunk.offset.intValue() + 1, fileBytes.length));
+        assertEquals(crc.getValue(), filesManager.getChunkCrc(fileId, lastChunk.offset + 1, shiftedData));
+
+        filesManager.shutdown();
+        Files.delete(zipPath);
+    }
+
+    @Test
+    void readChunk_missingFile() {
+        assertThrows(IOException.class, () -> filesManager.readChunk("debug::MISSING-archive.zip", 0, 100));
+    }
+
     @Test
     void getMissingResource() {
         String zipFileName = "MISSING-archive.zip";
@@ -0,0 +1,72 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeerLatencyStatsTest {
+    PeerLatencyStats stats = new PeerLatencyStats();
+
+    @Test
+    void percentiles() {
+        for (int i = 0; i < 98; i++) {
+            stats.recordSuccess(100);
+        }
+        stats.recordSuccess(1000);
+        stats.recordTimeout(10_000);
+
+        assertEquals(107, stats.getPercentile(50));
+        assertEquals(107, stats.getPercentile(95));
+        assertEquals(1024, stats.getPercentile(99));
+        assertEquals(11585, stats.getPercentile(99.9));
+        assertEquals(100, stats.getRequests());
+        assertEquals(1, stats.getErrors());
+    }
+
+    @Test
+    void bucketUpperBoundIsNotLessThanLatency() {
+        for (long latency = 0; latency < 100_000; latency++) {
+            long upperBound = PeerLatencyStats.bucketUpperBound(PeerLatencyStats.bucketIndex(latency));
+            assertTrue(upperBound >= latency, "Upper bound " + upperBound + " is less than latency " + latency);
+            assertTrue(upperBound <= Math.max(1, latency * 1.2), "Upper bound " + upperBound + " is too far from latency " + latency);
+        }
+    }
+
+    @Test
+    void histogramDecay() {
+        for (int i = 0; i < PeerLatencyStats.DECAY_SAMPLES - 1; i++) {
+            stats.recordSuccess(10);
+        }
+        assertEquals(PeerLatencyStats.DECAY_SAMPLES - 1, stats.getSamples());
+
+        stats.recordSuccess(10);
+        assertEquals(PeerLatencyStats.DECAY_SAMPLES / 2, stats.getSamples());
+
+        for (int i = 0; i < PeerLatencyStats.DECAY_SAMPLES; i++) {
+            stats.recordSuccess(1000);
+        }
+        assertEquals(1024, stats.getPercentile(50));
+        assertEquals(1000, Math.round(stats.getAverageLatency()));
+    }
+
+    @Test
+    void score() {
+        assertEquals(0, stats.getScore());
+        assertEquals(-1, stats.getPercentile(95));
+
+        stats.recordFailure();
+        assertEquals(Double.MAX_VALUE, stats.getScore());
+
+        stats.recordSuccess(100);
+        assertEquals(100 / (1 - 0.09), stats.getScore(), 0.001);
+
+        PeerLatencyStats slowStats = new PeerLatencyStats();
+        slowStats.recordSuccess(300);
+        assertTrue(slowStats.getScore() > stats.getScore());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.parser;
+
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionBuilderFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
+import com.apollocurrency.aplwallet.apl.data.TransactionTestData;
+import com.apollocurrency.aplwallet.apl.util.exception.AplException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BinaryMessageCodecTest {
+    private TransactionTestData td;
+    private BinaryMessageCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        td = new TransactionTestData();
+        codec = new BinaryMessageCodec(mock(Blockchain.class), td.getBlockchainConfig(),
+            new TransactionBuilderFactory(td.getTransactionTypeFactory(), td.getBlockchainConfig()),
+            mock(TransactionJsonSerializer.class));
+    }
+
+    @Test
+    void encodeDecodeTransactions() throws AplException.NotValidException {
+        byte[] message = codec.encodeTransactions(BinaryMessageCodec.PROCESS_TRANSACTIONS, List.of(td.TRANSACTION_4, td.TRANSACTION_10));
+
+        assertEquals(BinaryMessageCodec.PROCESS_TRANSACTIONS, BinaryMessageCodec.getMessageType(message));
+        List<Transaction> transactions = codec.decodeTransactions(message, BinaryMessageCodec.PROCESS_TRANSACTIONS);
+
+        assertEquals(2, transactions.size());
+        assertEquals(td.TRANSACTION_4.getId(), transactions.get(0).getId());
+        assertArrayEquals(td.TRANSACTION_4.getFullHash(), transactions.get(0).getFullHash());
+        assertEquals(Optional.empty(), transactions.get(0).getErrorMessage());
+        assertEquals(td.TRANSACTION_10.getId(), transactions.get(1).getId());
+        assertArrayEquals(td.TRANSACTION_10.getFullHash(), transactions.get(1).getFullHash());
+        assertEquals(td.TRANSACTION_10.getErrorMessage(), transactions.get(1).getErrorMessage());
+    }
+
+    @Test
+    void decodeTransactions_unexpectedMessageType() {
+        byte[] message = codec.encodeTransactions(BinaryMessageCodec.PROCESS_TRANSACTIONS, List.of(td.TRANSACTION_4));
+
+        assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeTransactions(message, BinaryMessageCodec.UNCONFIRMED_TRANSACTIONS));
+    }
+
+    @Test
+    void decodeTransactions_truncatedMessage() {
+        byte[] message = codec.encodeTransactions(BinaryMessageCodec.PROCESS_TRANSACTIONS, List.of(td.TRANSACTION_4));
+
+        assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeTransactions(Arrays.copyOf(message, message.length - 1), BinaryMessageCodec.PROCESS_TRANSACTIONS));
+    }
+
+    @Test
+    void decodeTransactions_extraBytes() {
+        byte[] message = codec.encodeTransactions(BinaryMessageCodec.PROCESS_TRANSACTIONS, List.of(td.TRANSACTION_4));
+
+        assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeTransactions(Arrays.copyOf(message, message.length + 4), BinaryMessageCodec.PROCESS_TRANSACTIONS));
+    }
+
+    @Test
+    void decodeTransactions_countExceedsLimit() {
+        byte[] message = countMessage(BinaryMessageCodec.PROCESS_TRANSACTIONS, BinaryMessageCodec.MAX_TRANSACTIONS + 1);
+
+        AplException.NotValidException ex = assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeTransactions(message, BinaryMessageCodec.PROCESS_TRANSACTIONS));
+        assertTrue(ex.getMessage().contains("max count " + BinaryMessageCodec.MAX_TRANSACTIONS));
+    }
+
+    @Test
+    void decodeBlocks_countExceedsLimit() {
+        byte[] processBlockMessage = countMessage(BinaryMessageCodec.PROCESS_BLOCK, 2);
+        byte[] nextBlocksMessage = countMessage(BinaryMessageCodec.NEXT_BLOCKS, BinaryMessageCodec.MAX_BLOCKS + 1);
+
+        assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeBlocks(processBlockMessage, BinaryMessageCodec.PROCESS_BLOCK));
+        assertThrows(AplException.NotValidException.class,
+            () -> codec.decodeBlocks(nextBlocksMessage, BinaryMessageCodec.NEXT_BLOCKS));
+    }
+
+    /**
+     * @return message having the items count and enough zero bytes to pass the remaining bytes check
+     */
+    private static byte[] countMessage(byte messageType, int count) {
+        return ByteBuffer.allocate(1 + Integer.BYTES + count)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .put(messageType)
+            .putInt(count)
+            .array();
+    }
+}
@@ -10,16 +10,19 @@ import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.TrimDao;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedTableInterface;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.TrimEntry;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
 import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
 import javax.enterprise.util.AnnotationLiteral;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -32,6 +35,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -48,11 +52,12 @@ class TrimServiceTest {
     DerivedTablesRegistry registry = mock(DerivedTablesRegistry.class);
     DerivedTableInterface derivedTable = mock(DerivedTableInterface.class);
     TimeService timeService = mock(TimeService.class);
+    Instance<BlockchainProcessor> blockchainProcessorInstance = mock(Instance.class);
 
 
     @BeforeEach
     void setUp() throws SQLException {
-        trimService = new TrimService(databaseManager, registry, timeService, trimConfigEvent, trimDao, 1000);
+        trimService = new TrimService(databaseManager, registry, timeService, trimConfigEvent, trimDao, blockchainProcessorInstance, 1000, 2, 0);
         lenient().doReturn(dataSource).when(databaseManager).getDataSource();
         doReturn(connection).when(dataSource).getConnection();
     }
@@ -154,6 +159,62 @@ class TrimServiceTest {
         verify(derivedTable, times(2)).trim(2000);
     }
 
+    @Test
+    void testDoTrimDerivedTablesOnHeightSkipTrimmedTables() {
+        DerivedTableInterface trimmedTable = mock(DerivedTableInterface.class);
+        doReturn("trimmed").when(trimmedTable).getName();
+        doReturn("not_trimmed").when(derivedTable).getName();
+        doReturn(List.of(trimmedTable, derivedTable)).when(registry).getDerivedTables();
+        doReturn(Map.of("trimmed", 2000, "not_trimmed", 1000)).when(trimDao).getTablesProgress();
+
+        trimService.doTrimDerivedTablesOnHeight(2000);
+
+        verify(trimmedTable, never()).trim(2000);
+        verify(derivedTable).trim(2000);
+        verify(trimDao).saveTableProgress("not_trimmed", 2000);
+        verify(dataSource).commit(false);
+    }
+
+    @Test
+    void testTrimDerivedTablesConcurrently() {
+        DerivedTableInterface anotherTable = mock(DerivedTableInterface.class);
+        doReturn("account").when(derivedTable).getName();
+        doReturn("currency").when(anotherTable).getName();
+        doReturn(new TrimEntry(1L, 4000, false)).when(trimDao).save(new TrimEntry(null, 4000, false));
+        doReturn(List.of(derivedTable, anotherTable)).when(registry).getDerivedTables();
+        BlockchainProcessor blockchainProcessor = mock(BlockchainProcessor.class);
+        doReturn(true).when(blockchainProcessorInstance).isResolvable();
+        doReturn(blockchainProcessor).when(blockchainProcessorInstance).get();
+
+        trimService.trimDerivedTables(5000);
+
+        verify(derivedTable).trim(4000);
+        verify(anotherTable).trim(4000);
+        verify(trimDao).saveTableProgress("account", 4000);
+        verify(trimDao).saveTableProgress("currency", 4000);
+        verify(blockchainProcessor, times(2)).isProcessingBlock();
+        // outer transaction + transaction per table
+        verify(dataSource, times(3)).begin();
+        verify(dataSource, times(2)).commit();
+        verify(dataSource).commit(true);
+    }
+
+    @Test
+    void testTrimDerivedTablesConcurrentlyWithException() {
+        DerivedTableInterface failedTable = mock(DerivedTableInterface.class);
+        doThrow(new IllegalStateException("Trim failed")).when(failedTable).trim(4000);
+        doReturn(new TrimEntry(1L, 4000, false)).when(trimDao).save(new TrimEntry(null, 4000, false));
+        doReturn(List.of(failedTable, derivedTable)).when(registry).getDerivedTables();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> trimService.trimDerivedTables(5000));
+
+        assertEquals("Trim failed", ex.getMessage());
+        verify(derivedTable).trim(4000);
+        verify(dataSource).commit();
+        verify(dataSource).rollback();
+        verify(dataSource).rollback(true);
+    }
+
     @Test
     void testWaitTrimming() {
         AtomicBoolean trimIsDone = new AtomicBoolean(false);
@@ -0,0 +1,181 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
+import com.apollocurrency.aplwallet.apl.core.exception.AplAcceptableTransactionValidationException;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionType;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PhasingAppendix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlockTemplateBuilderTest {
+    @Mock
+    TransactionValidator transactionValidator;
+    @Mock
+    BlockchainConfig blockchainConfig;
+    @Mock
+    MemPool memPool;
+    @Mock
+    GlobalSync globalSync;
+    @Mock
+    HeightConfig heightConfig;
+
+    BlockTemplateBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(blockchainConfig.getCurrentConfig()).thenReturn(heightConfig);
+        builder = new BlockTemplateBuilder(transactionValidator, blockchainConfig, memPool, globalSync);
+    }
+
+    @Test
+    void validate_reuseResult() {
+        Transaction tx = mockTx(1L, 10L, 20L);
+
+        builder.validate(tx);
+        builder.validate(tx);
+
+        verify(transactionValidator).validateFully(tx);
+        assertEquals(1, builder.getValidatedCount());
+    }
+
+    @Test
+    void validate_reuseAcceptableFailure() {
+        Transaction tx = mockTx(1L, 10L, 20L);
+        doThrow(new AplAcceptableTransactionValidationException("Not enough funds", tx)).when(transactionValidator).validateFully(tx);
+
+        assertThrows(AplAcceptableTransactionValidationException.class, () -> builder.validate(tx));
+        AplAcceptableTransactionValidationException ex = assertThrows(AplAcceptableTransactionValidationException.class, () -> builder.validate(tx));
+
+        assertEquals("Not enough funds", ex.getMessage());
+        verify(transactionValidator).validateFully(tx);
+    }
+
+    @Test
+    void validate_afterConfigChange() {
+        Transaction tx = mockTx(1L, 10L, 20L);
+        builder.validate(tx);
+
+        when(blockchainConfig.getCurrentConfig()).thenReturn(mock(HeightConfig.class));
+        builder.validate(tx);
+
+        verify(transactionValidator, times(2)).validateFully(tx);
+    }
+
+    @Test
+    void onBlockApplied_invalidateAll() {
+        Transaction senderAffected = mockTx(1L, 10L, 20L);
+        Transaction notAffected = mockTx(2L, 50L, 60L);
+        builder.validate(senderAffected);
+        builder.validate(notAffected);
+
+        builder.onBlockApplied(mock(Block.class));
+
+        assertEquals(0, builder.getValidatedCount());
+        builder.validate(notAffected);
+        builder.validate(senderAffected);
+        verify(transactionValidator, times(2)).validateFully(notAffected);
+        verify(transactionValidator, times(2)).validateFully(senderAffected);
+    }
+
+    @Test
+    void onBlockApplied_invalidateTransactionAffectedByOtherAccount() {
+        // asset transfer, which sender and recipient are not changed by the block
+        Transaction tx = mockTx(1L, 10L, 20L);
+        builder.validate(tx);
+        // but the asset is deleted by the issuer transaction of the block
+        doThrow(new AplAcceptableTransactionValidationException("Asset does not exist", tx)).when(transactionValidator).validateFully(tx);
+
+        builder.onBlockApplied(mock(Block.class));
+
+        AplAcceptableTransactionValidationException ex = assertThrows(AplAcceptableTransactionValidationException.class, () -> builder.validate(tx));
+        assertEquals("Asset does not exist", ex.getMessage());
+        verify(transactionValidator, times(2)).validateFully(tx);
+    }
+
+    @Test
+    void onBlockApplied_doNotSaveResultOfPreviousGeneration() {
+        Transaction tx = mockTx(1L, 10L, 20L);
+        doAnswer(invocation -> {
+            builder.onBlockApplied(mock(Block.class));
+            return null;
+        }).doNothing().when(transactionValidator).validateFully(tx);
+
+        builder.validate(tx);
+        assertEquals(0, builder.getValidatedCount());
+        builder.validate(tx);
+
+        assertEquals(1, builder.getValidatedCount());
+        verify(transactionValidator, times(2)).validateFully(tx);
+    }
+
+    @Test
+    void warmUp() {
+        Transaction tx = mockTx(1L, 10L, 20L);
+        UnconfirmedTransaction unconfirmedTx = mock(UnconfirmedTransaction.class);
+        when(unconfirmedTx.getId()).thenReturn(1L);
+        when(unconfirmedTx.getTransactionImpl()).thenReturn(tx);
+        when(memPool.getAllStream()).thenReturn(Stream.of(unconfirmedTx));
+        when(memPool.get(1L)).thenReturn(unconfirmedTx);
+
+        builder.warmUp();
+        builder.validate(tx);
+
+        verify(transactionValidator).validateFully(tx);
+        verify(globalSync).readLock();
+        verify(globalSync).readUnlock();
+    }
+
+    @Test
+    void changesOnlySenderState() {
+        assertTrue(builder.changesOnlySenderState(mockTyped(TransactionTypes.TransactionTypeSpec.ORDINARY_PAYMENT, null)));
+        assertTrue(builder.changesOnlySenderState(mockTyped(TransactionTypes.TransactionTypeSpec.ARBITRARY_MESSAGE, null)));
+        assertFalse(builder.changesOnlySenderState(mockTyped(TransactionTypes.TransactionTypeSpec.CC_ASSET_DELETE, null)));
+        assertFalse(builder.changesOnlySenderState(mockTyped(TransactionTypes.TransactionTypeSpec.ALIAS_SELL, null)));
+        assertFalse(builder.changesOnlySenderState(mockTyped(TransactionTypes.TransactionTypeSpec.ORDINARY_PAYMENT, mock(PhasingAppendix.class))));
+    }
+
+    private Transaction mockTyped(TransactionTypes.TransactionTypeSpec spec, PhasingAppendix phasing) {
+        Transaction tx = mock(Transaction.class);
+        TransactionType type = mock(TransactionType.class);
+        lenient().when(type.getSpec()).thenReturn(spec);
+        lenient().when(tx.getType()).thenReturn(type);
+        when(tx.getPhasing()).thenReturn(phasing);
+        return tx;
+    }
+
+    private Transaction mockTx(long id, long senderId, long recipientId) {
+        Transaction tx = mock(Transaction.class);
+        lenient().when(tx.getId()).thenReturn(id);
+        lenient().when(tx.getSenderId()).thenReturn(senderId);
+        lenient().when(tx.getRecipientId()).thenReturn(recipientId);
+        return tx;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplAppStatus;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfigUpdater;
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.ScanDao;
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.ShardDao;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.entity.appdata.ScanEntity;
+import com.apollocurrency.aplwallet.apl.core.files.shards.ShardsDownloadService;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.GetNextBlocksResponseParser;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.GetTransactionsResponseParser;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.GeneratorService;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.TrimService;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextSearchService;
+import com.apollocurrency.aplwallet.apl.core.service.prunable.PrunableRestorationService;
+import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
+import com.apollocurrency.aplwallet.apl.core.service.state.PhasingPollService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.shard.ShardImporter;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionApplier;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializer;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSignatureBatchVerifier;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
+import com.apollocurrency.aplwallet.apl.exchange.service.DexService;
+import com.apollocurrency.aplwallet.apl.util.db.DbTransactionHelper;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.service.TaskDispatchManager;
+import com.apollocurrency.aplwallet.apl.util.task.TaskDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.enterprise.event.Event;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BlockchainProcessorImplTest {
+    @Mock
+    PropertiesHolder propertiesHolder;
+    @Mock
+    BlockchainConfig blockchainConfig;
+    @Mock
+    BlockValidator validator;
+    @Mock
+    Event<Block> blockEvent;
+    @Mock
+    GlobalSync globalSync;
+    @Mock
+    PhasingPollService phasingPollService;
+    @Mock
+    DatabaseManager databaseManager;
+    @Mock
+    TransactionalDataSource dataSource;
+    @Mock
+    TaskDispatchManager taskDispatchManager;
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    ScanDao scanDao;
+    @Mock
+    BlockStatePrefetcher blockStatePrefetcher;
+
+    BlockchainProcessorImpl processor;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(mock(Chain.class)).when(blockchainConfig).getChain();
+        doReturn(mock(TaskDispatcher.class)).when(taskDispatchManager).newBackgroundDispatcher(anyString());
+        doReturn(true).when(propertiesHolder).isLightClient();
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        processor = new BlockchainProcessorImpl(propertiesHolder, blockchainConfig, validator, blockEvent, mock(Event.class),
+            globalSync, mock(DerivedTablesRegistry.class), mock(ReferencedTransactionService.class), phasingPollService,
+            mock(TransactionValidator.class), mock(TransactionApplier.class), mock(TrimService.class), databaseManager,
+            mock(DexService.class), mock(BlockApplier.class), mock(AplAppStatus.class), mock(ShardsDownloadService.class),
+            mock(ShardImporter.class), taskDispatchManager, mock(Event.class), mock(Event.class),
+            mock(TransactionBuilderFactory.class), mock(ShardDao.class), mock(PrunableLoadingService.class),
+            mock(TransactionJsonSerializer.class), mock(TimeService.class), mock(AccountService.class),
+            mock(AccountControlPhasingService.class), mock(BlockchainConfigUpdater.class), mock(PrunableRestorationService.class),
+            blockchain, mock(PeersService.class), mock(TransactionProcessor.class), mock(FullTextSearchService.class),
+            mock(GeneratorService.class), mock(BlockParser.class), mock(GetNextBlocksResponseParser.class),
+            mock(BlockSerializer.class), mock(ConsensusManager.class), mock(MemPool.class),
+            mock(GetTransactionsResponseParser.class), scanDao, mock(TransactionSignatureBatchVerifier.class),
+            mock(BlockTemplateBuilder.class), blockStatePrefetcher);
+    }
+
+    @Test
+    void pushBlock_prefetchesBlockStateBeforeTransactionsValidation() throws Exception {
+        Block block = mock(Block.class);
+        Block previousBlock = mock(Block.class);
+        doReturn(10).when(previousBlock).getHeight();
+        doReturn(previousBlock).when(blockchain).getLastBlock();
+        doReturn(new TransactionalDataSource.StartedConnection(null, false)).when(dataSource).beginTransactionIfNotStarted();
+        // stop the block processing right after the first validation step
+        doThrow(new IllegalStateException("Test stop")).when(phasingPollService).getFinishingTransactions(11);
+
+        assertThrows(DbTransactionHelper.DbTransactionExecutionException.class, () -> processor.pushBlock(block));
+
+        InOrder inOrder = inOrder(validator, blockStatePrefetcher, phasingPollService);
+        inOrder.verify(validator).validate(block, previousBlock, 0);
+        inOrder.verify(blockStatePrefetcher).prefetch(block);
+        inOrder.verify(phasingPollService).getFinishingTransactions(11);
+    }
+
+    @Test
+    void scan_prefetchesStateOfEachScannedBlock() {
+        Block currentBlock = mock(Block.class);
+        doReturn(10L).when(currentBlock).getId();
+        doReturn(10).when(currentBlock).getHeight();
+        doReturn(11L).when(currentBlock).getNextBlockId();
+        Block nextBlock = mock(Block.class);
+        doReturn(11L).when(nextBlock).getId();
+        doReturn(11).when(nextBlock).getHeight();
+        doReturn(true).when(dataSource).isInTransaction();
+        doReturn(mock(Block.class)).when(blockchain).getShardInitialBlock();
+        doReturn(10).when(blockchain).getHeight();
+        doReturn(currentBlock).when(blockchain).getBlockAtHeight(10);
+        doReturn(currentBlock).when(blockchain).getLastBlock();
+        doReturn(nextBlock).when(blockchain).findLastBlock();
+        doReturn(List.of(currentBlock, nextBlock)).when(blockchain).getBlocksAfter(9, 1000);
+        doReturn(blockEvent).when(blockEvent).select(any());
+        // stop the block processing right after the first validation step
+        doThrow(new IllegalStateException("Test stop")).when(phasingPollService).getFinishingTransactions(11);
+
+        processor.scan(new ScanEntity(true, false, 10, 10, true, false));
+
+        InOrder inOrder = inOrder(blockStatePrefetcher, phasingPollService);
+        inOrder.verify(blockStatePrefetcher).prefetch(nextBlock);
+        inOrder.verify(phasingPollService).getFinishingTransactions(11);
+        // the state of the current last block is already applied
+        verify(blockStatePrefetcher, never()).prefetch(currentBlock);
+        verify(dataSource).rollback(false);
+    }
+}
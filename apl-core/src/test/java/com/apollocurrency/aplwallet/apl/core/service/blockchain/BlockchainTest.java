@@ -67,8 +67,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.data.BlockTestData.BLOCK_0_ID;
 import static com.apollocurrency.aplwallet.apl.data.BlockTestData.BLOCK_10_ID;
@@ -93,10 +96,15 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 @Tag("slow")
 @EnableWeld
@@ -191,6 +199,9 @@ class BlockchainTest extends DBContainerRootTest {
 
     private void initPublicKeyDao() {
         doReturn(new PublicKey(1L, new byte[32], 2)).when(publicKeyDao).searchAll(anyLong());
+        doAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+            .collect(Collectors.toMap(Function.identity(), id -> new PublicKey(id, new byte[32], 2))))
+            .when(publicKeyDao).searchAll(anyCollection());
     }
 
     @Test
@@ -1115,6 +1126,33 @@ class BlockchainTest extends DBContainerRootTest {
         assertEquals(blockchain.loadBlockData(btd.BLOCK_7).getTransactions(), blockTransactions);
     }
 
+    @Test
+    void testLoadBlockDataOfSeveralBlocks() {
+        blockchain.setLastBlock(btd.BLOCK_13);
+        List<Block> blocks = List.of(btd.GENESIS_BLOCK, btd.BLOCK_0, btd.BLOCK_1, btd.BLOCK_3, btd.BLOCK_7, btd.BLOCK_10, btd.BLOCK_12);
+
+        clearInvocations(publicKeyDao);
+
+        List<Block> loaded = ((BlockchainImpl) blockchain).loadBlockData(blocks);
+
+        assertEquals(blocks, loaded);
+        verify(publicKeyDao).searchAll(blocks.stream().map(Block::getGeneratorId).collect(Collectors.toSet()));
+        verify(publicKeyDao, never()).searchAll(anyLong());
+        BlockTestData singleLoadedData = new BlockTestData();
+        List<Block> singleLoaded = List.of(singleLoadedData.GENESIS_BLOCK, singleLoadedData.BLOCK_0, singleLoadedData.BLOCK_1,
+            singleLoadedData.BLOCK_3, singleLoadedData.BLOCK_7, singleLoadedData.BLOCK_10, singleLoadedData.BLOCK_12);
+        assertTrue(loaded.stream().anyMatch(block -> !block.getTransactions().isEmpty()));
+        for (int i = 0; i < loaded.size(); i++) {
+            Block block = loaded.get(i);
+            assertTrue(block.hasLoadedData());
+            assertArrayEquals(new byte[32], block.getGeneratorPublicKey());
+            for (Transaction transaction : block.getTransactions()) {
+                assertEquals(block.getId(), transaction.getBlockId());
+            }
+            assertEquals(blockchain.loadBlockData(singleLoaded.get(i)).getTransactions(), block.getTransactions());
+        }
+    }
+
     @Test
     void testHasBlockWithHeightInMainDataSource() {
         blockchain.setLastBlock(btd.BLOCK_13);
@@ -7,16 +7,29 @@ package com.apollocurrency.aplwallet.apl.core.service.blockchain;
 import com.apollocurrency.aplwallet.apl.core.converter.db.UnconfirmedTransactionEntityToModelConverter;
 import com.apollocurrency.aplwallet.apl.core.converter.db.UnconfirmedTransactionModelToEntityConverter;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.UnconfirmedTransactionTable;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransactionEntity;
 import com.apollocurrency.aplwallet.apl.core.model.Transaction;
 import com.apollocurrency.aplwallet.apl.core.model.UnconfirmedTransaction;
 import com.google.common.cache.Cache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +38,8 @@ class MemPoolTest {
     @Mock
     UnconfirmedTransactionTable table;
     @Mock
+    UnconfirmedTransactionWriteBehind writeBehind;
+    @Mock
     UnconfirmedTransactionEntityToModelConverter toModelConverter;
     @Mock
     UnconfirmedTransactionModelToEntityConverter toEntityConverter;
@@ -55,5 +70,78 @@ class MemPoolTest {
         verify(state).processLater(unconfirmedTx);
     }
 
+    @Test
+    void addProcessed_writeBehind() {
+        UnconfirmedTransactionEntity entity = mock(UnconfirmedTransactionEntity.class);
+        when(config.getMaxUnconfirmedTransactions()).thenReturn(10);
+        when(state.size()).thenReturn(9);
+        when(state.put(unconfirmedTx)).thenReturn(true);
+        when(toEntityConverter.convert(unconfirmedTx)).thenReturn(entity);
+
+        boolean added = memPool.addProcessed(unconfirmedTx);
+
+        assertTrue(added);
+        verify(writeBehind).insert(entity);
+        verifyNoInteractions(table);
+    }
+
+    @Test
+    void addProcessed_mempoolIsFull() {
+        when(config.getMaxUnconfirmedTransactions()).thenReturn(10);
+        when(state.size()).thenReturn(10);
+
+        boolean added = memPool.addProcessed(unconfirmedTx);
+
+        assertFalse(added);
+        verify(state, never()).put(unconfirmedTx);
+        verifyNoInteractions(writeBehind);
+    }
+
+    @Test
+    void removeTx() {
+        when(tx.getId()).thenReturn(1000L);
+        when(state.remove(tx)).thenReturn(true);
+
+        boolean removed = memPool.remove(tx);
+
+        assertTrue(removed);
+        verify(writeBehind).delete(1000L);
+        verify(removedTxsCache).put(eq(1000L), any());
+    }
+
+    @Test
+    void removeConcurrentlyWithAdd_queueDeleteAfterInsert() throws Exception {
+        UnconfirmedTransactionEntity entity = mock(UnconfirmedTransactionEntity.class);
+        when(config.getMaxUnconfirmedTransactions()).thenReturn(10);
+        when(unconfirmedTx.getId()).thenReturn(1000L);
+        when(tx.getId()).thenReturn(1000L);
+        when(toEntityConverter.convert(unconfirmedTx)).thenReturn(entity);
+        when(state.remove(tx)).thenReturn(true);
+        CompletableFuture<Boolean> removal = new CompletableFuture<>();
+        when(state.put(unconfirmedTx)).thenAnswer(invocation -> {
+            // transaction is removed by another thread right after it was put into the memory
+            CompletableFuture.runAsync(() -> removal.complete(memPool.remove(tx)));
+            Thread.sleep(100);
+            return true;
+        });
+
+        memPool.addProcessed(unconfirmedTx);
+
+        assertTrue(removal.get(10, TimeUnit.SECONDS));
+        InOrder inOrder = inOrder(writeBehind);
+        inOrder.verify(writeBehind).insert(entity);
+        inOrder.verify(writeBehind).delete(1000L);
+    }
+
+    @Test
+    void removeNotExistingTx() {
+        when(tx.getId()).thenReturn(1000L);
+
+        boolean removed = memPool.remove(tx);
+
+        assertFalse(removed);
+        verifyNoInteractions(writeBehind);
+    }
+
 
 }
\ No newline at end of file
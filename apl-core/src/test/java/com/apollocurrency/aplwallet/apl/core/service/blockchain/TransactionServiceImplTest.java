@@ -0,0 +1,161 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.converter.db.TransactionEntityToModelConverter;
+import com.apollocurrency.aplwallet.apl.core.converter.db.TransactionModelToEntityConverter;
+import com.apollocurrency.aplwallet.apl.core.dao.blockchain.TransactionDao;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.TransactionEntity;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
+import com.apollocurrency.aplwallet.apl.core.shard.ShardDbExplorer;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceImplTest {
+    @Mock
+    DatabaseManager databaseManager;
+    @Mock
+    TimeService timeService;
+    @Mock
+    PropertiesHolder propertiesHolder;
+    @Mock
+    BlockchainConfig blockchainConfig;
+    @Mock
+    TransactionDao transactionDao;
+    @Mock
+    ShardDbExplorer shardDbExplorer;
+    @Mock
+    TransactionEntityToModelConverter toModelConverter;
+    @Mock
+    TransactionModelToEntityConverter toEntityConverter;
+    @Mock
+    TransactionalDataSource mainDataSource;
+    @Mock
+    TransactionalDataSource shardDataSource;
+
+    TransactionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionServiceImpl(databaseManager, timeService, propertiesHolder, blockchainConfig, transactionDao,
+            shardDbExplorer, toModelConverter, toEntityConverter);
+    }
+
+    @Test
+    void findBlocksTransactionsCrossSharding_noBlocks() {
+        Map<Long, List<Transaction>> result = service.findBlocksTransactionsCrossSharding(List.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(shardDbExplorer, transactionDao);
+    }
+
+    @Test
+    void findBlocksTransactionsCrossSharding_oneDataSource() {
+        List<Block> blocks = List.of(mockBlock(1L, 100), mockBlock(2L, 101), mockBlock(3L, 102));
+        doReturn(mainDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(100);
+        doReturn(mainDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(102);
+        TransactionEntity tx1 = mockTransactionEntity(11L, 1L);
+        TransactionEntity tx2 = mockTransactionEntity(12L, 1L);
+        TransactionEntity tx3 = mockTransactionEntity(13L, 3L);
+        doReturn(List.of(tx1, tx2, tx3)).when(transactionDao).findBlocksTransactions(List.of(1L, 2L, 3L), mainDataSource);
+        Transaction model1 = mockModel(tx1);
+        Transaction model2 = mockModel(tx2);
+        Transaction model3 = mockModel(tx3);
+
+        Map<Long, List<Transaction>> result = service.findBlocksTransactionsCrossSharding(blocks);
+
+        assertEquals(Map.of(1L, List.of(model1, model2), 3L, List.of(model3)), result);
+        // the heights between the lowest and the highest ones are not resolved, when both are in the same data source
+        verify(shardDbExplorer, never()).getDataSourceWithShardingByHeight(101);
+        verify(transactionDao, times(1)).findBlocksTransactions(anyList(), eq(mainDataSource));
+    }
+
+    @Test
+    void findBlocksTransactionsCrossSharding_twoShards() {
+        List<Block> blocks = List.of(mockBlock(1L, 100), mockBlock(2L, 200), mockBlock(3L, 101), mockBlock(4L, 201));
+        doReturn(shardDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(100);
+        doReturn(shardDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(101);
+        doReturn(mainDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(200);
+        doReturn(mainDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(201);
+        TransactionEntity shardTx = mockTransactionEntity(11L, 3L);
+        TransactionEntity mainTx = mockTransactionEntity(12L, 2L);
+        doReturn(List.of(shardTx)).when(transactionDao).findBlocksTransactions(List.of(1L, 3L), shardDataSource);
+        doReturn(List.of(mainTx)).when(transactionDao).findBlocksTransactions(List.of(2L, 4L), mainDataSource);
+        Transaction shardModel = mockModel(shardTx);
+        Transaction mainModel = mockModel(mainTx);
+
+        Map<Long, List<Transaction>> result = service.findBlocksTransactionsCrossSharding(blocks);
+
+        assertEquals(Map.of(3L, List.of(shardModel), 2L, List.of(mainModel)), result);
+        verify(transactionDao, times(1)).findBlocksTransactions(anyList(), eq(shardDataSource));
+        verify(transactionDao, times(1)).findBlocksTransactions(anyList(), eq(mainDataSource));
+    }
+
+    @Test
+    void findBlocksTransactionsCrossSharding_moreThan500Blocks() {
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 1; i <= 750; i++) {
+            blocks.add(mockBlock(i, i));
+        }
+        doReturn(mainDataSource).when(shardDbExplorer).getDataSourceWithShardingByHeight(anyInt());
+        List<Long> blockIds = blocks.stream().map(Block::getId).collect(Collectors.toList());
+        TransactionEntity firstTx = mockTransactionEntity(1001L, 1L);
+        TransactionEntity lastTx = mockTransactionEntity(1002L, 750L);
+        doReturn(List.of(firstTx, lastTx)).when(transactionDao).findBlocksTransactions(blockIds, mainDataSource);
+        Transaction firstModel = mockModel(firstTx);
+        Transaction lastModel = mockModel(lastTx);
+
+        Map<Long, List<Transaction>> result = service.findBlocksTransactionsCrossSharding(blocks);
+
+        assertEquals(Map.of(1L, List.of(firstModel), 750L, List.of(lastModel)), result);
+        // the dao splits the ids into the chunks, the service passes all the ids of the data source at once
+        verify(transactionDao, times(1)).findBlocksTransactions(anyList(), eq(mainDataSource));
+        verify(shardDbExplorer, times(2)).getDataSourceWithShardingByHeight(anyInt());
+    }
+
+    private Block mockBlock(long id, int height) {
+        Block block = mock(Block.class);
+        doReturn(id).when(block).getId();
+        doReturn(height).when(block).getHeight();
+        return block;
+    }
+
+    private TransactionEntity mockTransactionEntity(long id, long blockId) {
+        return TransactionEntity.builder().id(id).blockId(blockId).build();
+    }
+
+    private Transaction mockModel(TransactionEntity entity) {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(transaction).when(toModelConverter).convert(entity);
+        return transaction;
+    }
+}
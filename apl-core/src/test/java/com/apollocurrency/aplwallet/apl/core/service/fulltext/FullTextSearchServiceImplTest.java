@@ -0,0 +1,71 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.fulltext;
+
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.injectable.DbProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FullTextSearchServiceImplTest {
+    @Mock
+    DatabaseManager databaseManager;
+    @Mock
+    FullTextSearchEngine engine;
+
+    private FullTextSearchServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+        Connection con = mock(Connection.class);
+        Statement stmt = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        DbProperties dbProperties = mock(DbProperties.class);
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        doReturn(dbProperties).when(databaseManager).getBaseDbProperties();
+        doReturn("testdb").when(dbProperties).getDbName();
+        doReturn(con).when(dataSource).getConnection();
+        doReturn(stmt).when(con).createStatement();
+        doReturn(rs).when(stmt).executeQuery(anyString());
+        doReturn(true, false).when(rs).next();
+        doReturn(FullTextSearchServiceImpl.FTL_INDEXES_TABLE).when(rs).getString(1);
+        service = new FullTextSearchServiceImpl(databaseManager, engine, Map.of(), "public");
+    }
+
+    @Test
+    void reindexAllWhenIndexIsStale() throws SQLException {
+        doReturn(true).when(engine).isIndexStale();
+
+        service.init();
+
+        verify(engine).clearIndex();
+    }
+
+    @Test
+    void doNotReindexClosedIndex() throws SQLException {
+        service.init();
+
+        verify(engine).isIndexStale();
+        verify(engine, never()).clearIndex();
+    }
+}
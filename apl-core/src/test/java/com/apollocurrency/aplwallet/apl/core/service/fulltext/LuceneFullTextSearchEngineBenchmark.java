@@ -0,0 +1,152 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.fulltext;
+
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the alias and asset search throughput of the {@link LuceneFullTextSearchEngine}, while another thread
+ * indexes the alias and asset updates block by block, like the block application does.
+ * <p>
+ * Run using the {@link #main(String[])} method or from the IDE with the JMH plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LuceneFullTextSearchEngineBenchmark {
+    private static final int INITIAL_ROWS = 50_000;
+    private static final int BLOCK_ROWS = 100;
+    private static final long BLOCK_INTERVAL_MS = 10;
+    private static final TableData ALIAS_TABLE = new TableData(0, "alias", "public",
+        List.of("db_id", "alias_name"), List.of(Types.BIGINT, Types.VARCHAR), List.of(1));
+    private static final TableData ASSET_TABLE = new TableData(0, "asset", "public",
+        List.of("db_id", "name", "description"), List.of(Types.BIGINT, Types.VARCHAR, Types.VARCHAR), List.of(1, 2));
+
+    private final AtomicInteger height = new AtomicInteger();
+    private Path indexDir;
+    private LuceneFullTextSearchEngine engine;
+    private Thread blockIndexer;
+    private volatile boolean indexing;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(LuceneFullTextSearchEngineBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        indexDir = Files.createTempDirectory("fulltext-benchmark");
+        Blockchain blockchain = mock(Blockchain.class);
+        doAnswer(invocation -> height.get()).when(blockchain).getHeight();
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, blockchain, new PropertiesHolder());
+        engine.init();
+        for (int i = 0; i < INITIAL_ROWS; i++) {
+            indexRows(i);
+        }
+        engine.commitIndex();
+
+        indexing = true;
+        blockIndexer = new Thread(this::indexBlocks, "BlockIndexer");
+        blockIndexer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        indexing = false;
+        blockIndexer.join();
+        engine.shutdown();
+        FileUtils.deleteDirectory(indexDir.toFile());
+    }
+
+    @Benchmark
+    public int searchAlias() throws SQLException {
+        return count(engine.search("public", "alias", "alias" + ThreadLocalRandom.current().nextInt(INITIAL_ROWS), 100, 0));
+    }
+
+    @Benchmark
+    public int searchAsset() throws SQLException {
+        return count(engine.search("public", "asset", "token AND issued", 100, 0));
+    }
+
+    private void indexBlocks() {
+        try {
+            int row = INITIAL_ROWS;
+            while (indexing) {
+                for (int i = 0; i < BLOCK_ROWS; i++) {
+                    indexRows(row++ % (INITIAL_ROWS * 2));
+                }
+                height.incrementAndGet();
+                engine.flushIndex();
+                Thread.sleep(BLOCK_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void indexRows(long dbId) throws SQLException {
+        FullTextOperationData alias = new FullTextOperationData("public", "alias", "BlockIndexer",
+            FullTextOperationData.OperationType.INSERT_UPDATE);
+        alias.setDbIdValue(dbId);
+        alias.addColumnData("alias" + dbId);
+        engine.indexRow(alias, ALIAS_TABLE);
+
+        FullTextOperationData asset = new FullTextOperationData("public", "asset", "BlockIndexer",
+            FullTextOperationData.OperationType.INSERT_UPDATE);
+        asset.setDbIdValue(dbId);
+        asset.addColumnData("asset" + dbId);
+        asset.addColumnData("Token number " + dbId + " issued at height " + height.get());
+        engine.indexRow(asset, ASSET_TABLE);
+    }
+
+    private static int count(ResultSet rs) throws SQLException {
+        int count = 0;
+        while (rs.next()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.fulltext;
+
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.extension.TemporaryFolderExtension;
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class LuceneFullTextSearchEngineTest {
+    @RegisterExtension
+    TemporaryFolderExtension temporaryFolderExtension = new TemporaryFolderExtension();
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    PropertiesHolder propertiesHolder;
+
+    private final TableData tableData = new TableData(0, "currency", "public", List.of("db_id", "name"),
+        List.of(Types.BIGINT, Types.VARCHAR), List.of(1));
+    private final List<LuceneFullTextSearchEngine> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        doReturn(3).when(propertiesHolder).getIntProperty("apl.fulltext.commitBlocks", 10);
+        doReturn(60_000).when(propertiesHolder).getIntProperty("apl.fulltext.maxRefreshMs", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engines.forEach(LuceneFullTextSearchEngine::shutdown);
+    }
+
+    @Test
+    void commitIndexOncePerCommitBlocks() throws Exception {
+        Path indexDir = temporaryFolderExtension.newFolder().toPath();
+        LuceneFullTextSearchEngine engine = initEngine(indexDir);
+        doReturn(10).when(blockchain).getHeight();
+        engine.flushIndex();
+
+        engine.commitRow(row(1L, "first"), tableData);
+        doReturn(12).when(blockchain).getHeight();
+        engine.flushIndex();
+        assertEquals(1, committedDocs(indexDir), "Only the control document should be committed");
+
+        doReturn(13).when(blockchain).getHeight();
+        engine.flushIndex();
+        assertEquals(2, committedDocs(indexDir));
+    }
+
+    @Test
+    void commitIndexOnHeightDecrease() throws Exception {
+        Path indexDir = temporaryFolderExtension.newFolder().toPath();
+        LuceneFullTextSearchEngine engine = initEngine(indexDir);
+        doReturn(10).when(blockchain).getHeight();
+        engine.flushIndex();
+
+        engine.commitRow(row(1L, "first"), tableData);
+        doReturn(9).when(blockchain).getHeight();
+        engine.flushIndex();
+
+        assertEquals(2, committedDocs(indexDir));
+    }
+
+    @Test
+    void detectIndexNotClosedProperly() throws Exception {
+        Path indexDir = temporaryFolderExtension.newFolder().toPath();
+        Path crashedIndexDir = temporaryFolderExtension.newFolder().toPath();
+        LuceneFullTextSearchEngine engine = initEngine(indexDir);
+        assertFalse(engine.isIndexStale());
+        engine.commitRow(row(1L, "first"), tableData);
+        engine.commitIndex();
+        // files of the running engine are the same as the files left after the crash
+        try (Stream<Path> files = Files.list(indexDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!IndexWriter.WRITE_LOCK_NAME.equals(file.getFileName().toString())) {
+                    Files.copy(file, crashedIndexDir.resolve(file.getFileName()));
+                }
+            }
+        }
+
+        LuceneFullTextSearchEngine restarted = initEngine(crashedIndexDir);
+        assertTrue(restarted.isIndexStale());
+
+        restarted.shutdown();
+        assertFalse(initEngine(crashedIndexDir).isIndexStale());
+    }
+
+    @Test
+    void searchDocumentIndexedWithoutDocValues() throws Exception {
+        Path indexDir = temporaryFolderExtension.newFolder().toPath();
+        try (Directory directory = FSDirectory.open(indexDir);
+             IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            Document document = new Document();
+            document.add(new StringField("_QUERY", "public.currency;DB_ID;5", Field.Store.YES));
+            document.add(new TextField("_TABLE", "public.currency", Field.Store.NO));
+            document.add(new TextField("_DATA", "coin", Field.Store.NO));
+            writer.addDocument(document);
+            writer.commit();
+        }
+        LuceneFullTextSearchEngine engine = initEngine(indexDir);
+        assertFalse(engine.isIndexStale());
+        engine.commitRow(row(7L, "coin"), tableData);
+        engine.commitIndex();
+
+        ResultSet rs = engine.search("public", "currency", "coin", 10, 0);
+
+        Set<Long> dbIds = new HashSet<>();
+        while (rs.next()) {
+            assertEquals("public", rs.getString(1));
+            assertEquals("currency", rs.getString(2));
+            dbIds.add(rs.getLong(5));
+        }
+        assertEquals(Set.of(5L, 7L), dbIds);
+    }
+
+    private LuceneFullTextSearchEngine initEngine(Path indexDir) throws IOException {
+        LuceneFullTextSearchEngine engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, blockchain, propertiesHolder);
+        engine.init();
+        engines.add(engine);
+        return engine;
+    }
+
+    private FullTextOperationData row(long dbId, String name) {
+        FullTextOperationData row = new FullTextOperationData("public", "currency", "test",
+            FullTextOperationData.OperationType.INSERT_UPDATE);
+        row.setDbIdValue(dbId);
+        row.addColumnData(name);
+        return row;
+    }
+
+    private int committedDocs(Path indexDir) throws IOException {
+        try (Directory directory = FSDirectory.open(indexDir);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs();
+        }
+    }
+}
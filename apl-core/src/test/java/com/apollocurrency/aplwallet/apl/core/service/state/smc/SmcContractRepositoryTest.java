@@ -82,6 +82,8 @@ class SmcContractRepositoryTest {
     Preprocessor preprocessor;
     @Mock
     SmcContractService contractService;
+    @Mock
+    SmcViewMethodCache viewMethodCache;
 
     SmcPublishContractAttachment smcPublishContractAttachment;
     SmcTxData smcTxData;
@@ -104,7 +106,8 @@ class SmcContractRepositoryTest {
             contractModelToEntityConverter,
             contractModelToStateConverter,
             smcConfig,
-            contractService);
+            contractService,
+            viewMethodCache);
         contractToolService = new SmcContractToolServiceImpl(blockchain, smcConfig);
 
         smcTxData = SmcTxData.builder()
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c)  2018-2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.state.smc;
+
+import com.apollocurrency.aplwallet.apl.core.cache.SmcContractCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.cache.SmcViewMethodCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractEntity;
+import com.apollocurrency.aplwallet.apl.core.entity.state.smc.SmcContractStateEntity;
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.smc.model.AplAddress;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.smc.contract.vm.ExecutionLog;
+import com.apollocurrency.smc.contract.vm.ResultValue;
+import com.apollocurrency.smc.polyglot.engine.ExecutionException;
+import com.google.common.cache.CacheBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.apollocurrency.aplwallet.apl.util.exception.ApiErrors.CONTRACT_PROCESSING_ERROR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class SmcViewMethodCacheTest {
+    private static final AplAddress CONTRACT = new AplAddress(-4405247832297407093L);
+    private static final AplAddress OTHER_CONTRACT = new AplAddress(7307657537262705518L);
+    private static final List<String> METHODS = List.of("getBalance()", "name()");
+
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    InMemoryCacheManager cacheManager;
+    @Mock
+    PropertiesHolder propertiesHolder;
+
+    private SmcViewMethodCache viewMethodCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        doReturn(true).when(propertiesHolder).getBooleanProperty("apl.smc.enableViewMethodCache", true);
+        doReturn(CacheBuilder.newBuilder().maximumSize(10).build()).when(cacheManager).acquireCache(SmcViewMethodCacheConfig.CACHE_NAME);
+        doReturn(CacheBuilder.newBuilder().maximumSize(10).build()).when(cacheManager).acquireCache(SmcContractCacheConfig.CACHE_NAME);
+        lenient().doReturn(100).when(blockchain).getHeight();
+        viewMethodCache = new SmcViewMethodCache(blockchain, cacheManager, propertiesHolder);
+        viewMethodCache.init();
+    }
+
+    @Test
+    void cacheResultsUntilNextBlock() {
+        List<ResultValue> first = viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        first.add(ResultValue.UNDEFINED_RESULT);
+        List<ResultValue> second = viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, second.size());
+        assertEquals("getBalance", second.get(0).getMethod());
+
+        viewMethodCache.onBlockPushed(mock(Block.class));
+        viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void separateResultsForDifferentMethodsAndHeights() {
+        viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        viewMethodCache.getResults(CONTRACT, List.of("name()"), new ExecutionLog(), this::loadResults);
+        viewMethodCache.getResults(OTHER_CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        doReturn(101).when(blockchain).getHeight();
+        viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void failedCallIsNotCached() {
+        for (int i = 0; i < 2; i++) {
+            ExecutionLog executionLog = new ExecutionLog();
+            viewMethodCache.getResults(CONTRACT, METHODS, executionLog, () -> {
+                executionLog.add("Test", new ExecutionException("Test error", new IllegalStateException()));
+                executionLog.setErrorCode(CONTRACT_PROCESSING_ERROR.getErrorCode());
+                return loadResults();
+            });
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateContractOnStateUpdate() {
+        Supplier<SmcViewMethodCache.CachedContract> contractLoader = () -> {
+            loads.incrementAndGet();
+            return new SmcViewMethodCache.CachedContract(mock(SmcContractEntity.class), mock(SmcContractStateEntity.class));
+        };
+        SmcViewMethodCache.CachedContract contract = viewMethodCache.getContract(CONTRACT, contractLoader);
+        assertSame(contract, viewMethodCache.getContract(CONTRACT, contractLoader));
+        viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        viewMethodCache.getResults(OTHER_CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        assertEquals(3, loads.get());
+
+        viewMethodCache.invalidate(CONTRACT);
+
+        viewMethodCache.getContract(CONTRACT, contractLoader);
+        viewMethodCache.getResults(CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        viewMethodCache.getResults(OTHER_CONTRACT, METHODS, new ExecutionLog(), this::loadResults);
+        assertEquals(5, loads.get());
+    }
+
+    private List<ResultValue> loadResults() {
+        loads.incrementAndGet();
+        return new ArrayList<>(List.of(ResultValue.builder()
+            .method("getBalance")
+            .output(List.of("1000"))
+            .build()));
+    }
+}
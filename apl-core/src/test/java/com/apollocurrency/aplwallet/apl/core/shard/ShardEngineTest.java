@@ -124,6 +124,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.core.shard.MigrateState.SHARD_SCHEMA_CREATED;
@@ -144,6 +146,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -195,6 +198,8 @@ class ShardEngineTest extends DBContainerRootTest {
     {
         doReturn(chain).when(blockchainConfig).getChain();
         doReturn(5).when(propertiesHolder).getIntProperty("apl.derivedTablesCount", 60);
+        // export tables one by one to get the deterministic export order
+        doReturn(1).when(propertiesHolder).getIntProperty("apl.shard.exportThreads", 4);
     }
 
     Weld weld = WeldInitiator.createWeld().addBeanClasses(JdbiHandleFactory.class, JdbiConfiguration.class);
@@ -284,6 +289,12 @@ class ShardEngineTest extends DBContainerRootTest {
     @Inject
     private CsvExporter cvsExporter;
     @Inject
+    private ShardRecoveryDao shardRecoveryDao;
+    @Inject
+    private TrimService trimService;
+    @Inject
+    private AplAppStatus aplAppStatus;
+    @Inject
     private TransactionEntityToModelConverter toModelConverter;
 
     @BeforeEach
@@ -660,6 +671,55 @@ class ShardEngineTest extends DBContainerRootTest {
             latestShardRecovery.getProcessedObject());
     }
 
+    @Test
+    void testConcurrentExportCsvWithExceptionRecovery() throws IOException {
+        BlockTestData btd = new BlockTestData();
+        blockchain.setLastBlock(btd.BLOCK_11);
+        int snaphotBlockHeight = btd.BLOCK_10.getHeight() - 1;
+        int batchLimit = 1;
+        List<TableInfo> tables = List.of(BLOCK_TABLE_NAME, SHARD_TABLE_NAME, ShardConstants.GOODS_TABLE_NAME,
+            BLOCK_INDEX_TABLE_NAME, ShardConstants.PHASING_POLL_TABLE_NAME).stream().map(TableInfo::new).collect(Collectors.toList());
+        CommandParamInfo paramInfo = CommandParamInfo.builder().tableInfoList(tables).commitBatchSize(batchLimit)
+            .snapshotBlockHeight(snaphotBlockHeight).excludeInfo(new ExcludeInfo(List.of(), List.of(), List.of())).build();
+        PropertiesHolder concurrentExportProperties = mock(PropertiesHolder.class);
+        doReturn(2).when(concurrentExportProperties).getIntProperty("apl.shard.exportThreads", 4);
+        ShardEngine concurrentShardEngine = new ShardEngineImpl(dirProvider, extension.getDatabaseManager(), trimService,
+            shardRecoveryDaoJdbc, csvExporter, registry, shardRecoveryDao, shardDao, zip, aplAppStatus, concurrentExportProperties);
+        concurrentShardEngine.prepare();
+        CountDownLatch shardExportStarted = new CountDownLatch(1);
+        AtomicReference<Thread> failedExportThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            shardExportStarted.await();
+            failedExportThread.set(Thread.currentThread());
+            throw new IllegalStateException("Test block export failure");
+        }).when(csvExporter).exportBlock(snaphotBlockHeight);
+        doAnswer(invocation -> {
+            shardExportStarted.countDown();
+            // complete the shard table export only after the failed thread has skipped the remaining tables and waits for new ones
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((failedExportThread.get() == null || failedExportThread.get().getState() != Thread.State.WAITING)
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return invocation.callRealMethod();
+        }).when(csvExporter).exportShardTable(snaphotBlockHeight, batchLimit);
+        initPublicKeyDao();
+
+        MigrateState state = concurrentShardEngine.exportCsv(paramInfo);
+
+        assertEquals(MigrateState.FAILED, state);
+        // export running concurrently with the failed one is completed and saved
+        assertEquals(4, Files.readAllLines(dataExportDirPath.resolve(tableToCsvFile(SHARD_TABLE_NAME))).size());
+        assertFalse(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_TABLE_NAME))));
+        // exports not started before the failure are skipped
+        assertFalse(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_INDEX_TABLE_NAME))));
+        verify(csvExporter, never()).exportBlockIndex(snaphotBlockHeight, batchLimit);
+        verify(csvExporter, never()).exportDerivedTable(goodsTable, snaphotBlockHeight, batchLimit);
+        verify(csvExporter, never()).exportDerivedTable(phasingPollTable, snaphotBlockHeight, batchLimit);
+        ShardRecovery latestShardRecovery = shardRecoveryDaoJdbc.getLatestShardRecovery(extension.getDatabaseManager().getDataSource());
+        assertEquals(SHARD_TABLE_NAME, latestShardRecovery.getProcessedObject());
+    }
+
     @Test
     void testExportWithExistingRecovery() throws IOException {
         BlockTestData btd = new BlockTestData();
@@ -36,6 +36,7 @@ import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
 import com.apollocurrency.aplwallet.apl.util.ChunkedFileOps;
 import com.apollocurrency.aplwallet.apl.util.Zip;
 import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import lombok.extern.slf4j.Slf4j;
 import org.jboss.weld.junit.MockBean;
 import org.jboss.weld.junit5.EnableWeld;
@@ -62,6 +63,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -107,6 +109,8 @@ class ShardImporterTest extends DbContainerBaseTest {
     private ChunkedFileOps fopsComponent;
     @Mock
     private GenesisImporter genesisImporter;
+    @Mock
+    private PropertiesHolder propertiesHolder;
     @WeldSetup
     WeldInitiator weld = WeldInitiator.from(DataTagDao.class, FullTextConfigImpl.class,
         ValueParserImpl.class, CsvEscaperImpl.class)
@@ -139,7 +143,8 @@ class ShardImporterTest extends DbContainerBaseTest {
     void setUp() {
         csvImporter = new CsvImporterImpl(folder.newFolder("csv-import").toPath(), extension.getDatabaseManager(), aplAppStatus, parser, translator);
         shardImporter = spy(new ShardImporter(shardDao, blockchainConfig, genesisImporter,
-            blockchain, derivedTablesRegistry, csvImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus));
+            blockchain, derivedTablesRegistry, csvImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus,
+            extension.getDatabaseManager(), propertiesHolder));
     }
 
     @Test
@@ -332,6 +337,75 @@ class ShardImporterTest extends DbContainerBaseTest {
         verify(aplAppStatus).durableTaskFinished(null, false, "Shard data import"); //success
     }
 
+    @Test
+    void testImportWithDeferredIndexes() throws IOException {
+        doReturn(true).when(propertiesHolder).getBooleanProperty("apl.shard.importDeferIndexes", true);
+        shardImporter = new ShardImporter(shardDao, blockchainConfig, genesisImporter, blockchain, derivedTablesRegistry,
+            csvImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus, extension.getDatabaseManager(), propertiesHolder);
+        doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
+        doReturn(true).when(zipComponent).extract(Paths.get("").toAbsolutePath().toString(), csvImporter.getDataExportPath().toAbsolutePath().toString(), true);
+        doNothing().when(genesisImporter).importGenesisJson(true);
+        doReturn(List.of(ShardConstants.ACCOUNT_TABLE_NAME, ShardConstants.GOODS_TABLE_NAME)).when(derivedTablesRegistry).getDerivedTableNames();
+        Block block = mock(Block.class);
+        doReturn(1000).when(block).getHeight();
+        doReturn(block).when(blockchain).findFirstBlock();
+        InputStream resourceAsStreamAccount = getClass().getClassLoader().getResourceAsStream("account.csv");
+        assertNotNull(resourceAsStreamAccount);
+        Files.copy(resourceAsStreamAccount, csvImporter.getDataExportPath().resolve("account.csv"));
+        List<String> indexesBefore = accountIndexes();
+
+        shardImporter.importShard(new ShardPresentData(null, "fileId", List.of()), List.of(ShardConstants.SHARD_TABLE_NAME), true);
+
+        assertFalse(indexesBefore.isEmpty());
+        assertEquals(indexesBefore, accountIndexes());
+        DbUtils.inTransaction(extension, (con) -> {
+            try {
+                ResultSet rs = con.createStatement().executeQuery("select count(*), avg(height) from account");
+                rs.next();
+                assertTrue(rs.getInt(1) > 0);
+                assertEquals(1000.0, rs.getDouble(2), 0.00001);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        verify(aplAppStatus).durableTaskUpdate(null, "Creating indexes of 'account'", 0.2);
+        verify(aplAppStatus, times(7)).durableTaskUpdate(any(), anyString(), anyDouble()); // 6 tables loaded, 1 indexed
+        verify(aplAppStatus).durableTaskFinished(null, false, "Shard data import");
+    }
+
+    @Test
+    void testImportRestoresIndexesDroppedByInterruptedImport() throws IOException {
+        List<String> indexesBefore = accountIndexes();
+        csvImporter.dropSecondaryIndexes(ShardConstants.ACCOUNT_TABLE_NAME); // node was stopped during the import
+        assertNotEquals(indexesBefore, accountIndexes());
+        doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
+        doReturn(true).when(zipComponent).extract(Paths.get("").toAbsolutePath().toString(), csvImporter.getDataExportPath().toAbsolutePath().toString(), true);
+        doNothing().when(genesisImporter).importGenesisJson(true);
+        doReturn(List.of(ShardConstants.GOODS_TABLE_NAME)).when(derivedTablesRegistry).getDerivedTableNames();
+
+        shardImporter.importShard(new ShardPresentData(null, "fileId", List.of()), List.of(ShardConstants.SHARD_TABLE_NAME), true);
+
+        assertEquals(indexesBefore, accountIndexes());
+        csvImporter.createPendingIndexes(); // nothing left to restore
+        assertEquals(indexesBefore, accountIndexes());
+        verify(aplAppStatus).durableTaskFinished(null, false, "Shard data import");
+    }
+
+    private List<String> accountIndexes() {
+        List<String> indexes = new ArrayList<>();
+        DbUtils.inTransaction(extension, (con) -> {
+            try (ResultSet rs = con.createStatement().executeQuery("SELECT index_name, column_name FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'account' ORDER BY index_name, seq_in_index")) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1) + "." + rs.getString(2));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return indexes;
+    }
+
     @Test
     void testImportShardDerivedTablesWithException() {
         doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
@@ -0,0 +1,73 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard;
+
+import com.apollocurrency.aplwallet.apl.util.db.TransactionalDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardQueryExecutorTest {
+    ShardQueryExecutor executor = new ShardQueryExecutor(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void merge() {
+        List<List<Integer>> sortedLists = List.of(List.of(9, 5, 1), List.of(), List.of(8, 7, 2), List.of(6));
+
+        assertEquals(List.of(9, 8, 7, 6, 5, 2, 1), ShardQueryExecutor.merge(sortedLists, Comparator.reverseOrder(), 0, Integer.MAX_VALUE));
+        assertEquals(List.of(7, 6, 5), ShardQueryExecutor.merge(sortedLists, Comparator.reverseOrder(), 2, 4));
+        assertEquals(List.of(), ShardQueryExecutor.merge(sortedLists, Comparator.reverseOrder(), 7, 10));
+    }
+
+    @Test
+    void queryOrdered() {
+        TransactionalDataSource mainDb = mock(TransactionalDataSource.class);
+        TransactionalDataSource shard1 = mock(TransactionalDataSource.class);
+        TransactionalDataSource shard2 = mock(TransactionalDataSource.class);
+        when(mainDb.isInTransaction()).thenReturn(true);
+        Map<TransactionalDataSource, List<Integer>> rows = Map.of(mainDb, List.of(10, 11), shard1, List.of(1, 2, 3), shard2, List.of(4, 5));
+        Map<TransactionalDataSource, String> threads = new ConcurrentHashMap<>();
+
+        List<Integer> result = executor.queryOrdered(List.of(shard1, mainDb, shard2), dataSource -> {
+            threads.put(dataSource, Thread.currentThread().getName());
+            return rows.get(dataSource);
+        }, Comparator.naturalOrder(), 1, 5);
+
+        assertEquals(List.of(2, 3, 4, 5, 10), result);
+        assertEquals(Thread.currentThread().getName(), threads.get(shard1));
+        assertEquals(Thread.currentThread().getName(), threads.get(mainDb));
+        assertNotEquals(Thread.currentThread().getName(), threads.get(shard2));
+    }
+
+    @Test
+    void queryEach_rethrowQueryException() {
+        TransactionalDataSource mainDb = mock(TransactionalDataSource.class);
+        TransactionalDataSource shard = mock(TransactionalDataSource.class);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> executor.queryEach(List.of(mainDb, shard), dataSource -> {
+            if (dataSource == shard) {
+                throw new IllegalArgumentException("Shard is not available");
+            }
+            return List.of(1);
+        }));
+
+        assertEquals("Shard is not available", ex.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard.hash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares merkle root calculation of 1M block signatures by the {@link MerkleTree} with the
+ * {@link ParallelMerkleRootBuilder}, signatures are added by 100, as done by the {@link ShardHashCalculatorImpl}.
+ * <p>
+ * Run using the {@link #main(String[])} method or from the IDE with the JMH plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ParallelMerkleRootBuilderBenchmark {
+    private static final int LEAVES_COUNT = 1_000_000;
+    private static final int PAGE_SIZE = 100;
+    private static final String SHA_256 = "SHA-256";
+
+    private final List<byte[]> signatures = new ArrayList<>(LEAVES_COUNT);
+    private ForkJoinPool pool;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ParallelMerkleRootBuilderBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < LEAVES_COUNT; i++) {
+            byte[] signature = new byte[64];
+            random.nextBytes(signature);
+            signatures.add(signature);
+        }
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public byte[] merkleTree() throws Exception {
+        return new MerkleTree(MessageDigest.getInstance(SHA_256), signatures).getRoot().getValue();
+    }
+
+    @Benchmark
+    public byte[] parallelRootBuilder() {
+        ParallelMerkleRootBuilder builder = new ParallelMerkleRootBuilder(SHA_256, pool);
+        for (int from = 0; from < LEAVES_COUNT; from += PAGE_SIZE) {
+            builder.addLeaves(signatures.subList(from, from + PAGE_SIZE));
+        }
+        return builder.getRoot();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard.hash;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelMerkleRootBuilderTest {
+    private static final String SHA_256 = "SHA-256";
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final Random random = new Random(42);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testEmptyRoot() {
+        ParallelMerkleRootBuilder builder = new ParallelMerkleRootBuilder(SHA_256, pool);
+        builder.addLeaves(List.of());
+
+        assertNull(builder.getRoot());
+        assertEquals(0, builder.getLeavesCount());
+    }
+
+    @Test
+    void testRootIsEqualToMerkleTreeRoot() throws NoSuchAlgorithmException {
+        for (int size = 1; size <= 300; size++) {
+            List<byte[]> dataList = randomData(size);
+            MerkleTree appendTree = new MerkleTree(MessageDigest.getInstance(SHA_256));
+            dataList.forEach(appendTree::appendLeaf);
+
+            ParallelMerkleRootBuilder builder = new ParallelMerkleRootBuilder(SHA_256, pool);
+            builder.addLeaves(dataList);
+
+            assertArrayEquals(appendTree.getRoot().getValue(), builder.getRoot(), "Root mismatch for " + size + " leaves");
+        }
+    }
+
+    @Test
+    void testRootOfMultipleParallelBatchesIsEqualToMerkleTreeRoot() throws NoSuchAlgorithmException {
+        int size = 3 * ParallelMerkleRootBuilder.LEAF_BATCH_SIZE + ParallelMerkleRootBuilder.MIN_PARALLEL_NODES + 7;
+        List<byte[]> dataList = randomData(size);
+        MerkleTree tree = new MerkleTree(MessageDigest.getInstance(SHA_256), dataList);
+
+        ParallelMerkleRootBuilder builder = new ParallelMerkleRootBuilder(SHA_256, pool);
+        for (int from = 0; from < size; from += 100) {
+            builder.addLeaves(dataList.subList(from, Math.min(from + 100, size)));
+        }
+
+        assertEquals(size, builder.getLeavesCount());
+        assertArrayEquals(tree.getRoot().getValue(), builder.getRoot());
+    }
+
+    @Test
+    void testLeafPositions() {
+        assertArrayEquals(new int[]{0, 0, 1}, ParallelMerkleRootBuilder.leafPositions(2));
+        // leaves of the 5 leaves tree take positions 4..8
+        int[] positions = ParallelMerkleRootBuilder.leafPositions(5);
+        assertArrayEquals(new int[]{2, 1, 3, 0, 4}, Arrays.copyOfRange(positions, 4, 9));
+    }
+
+    @Test
+    void testUnknownAlgorithm() {
+        assertThrows(RuntimeException.class, () -> new ParallelMerkleRootBuilder("UNKNOWN", pool));
+    }
+
+    private List<byte[]> randomData(int size) {
+        List<byte[]> dataList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] data = new byte[64];
+            random.nextBytes(data);
+            dataList.add(data);
+        }
+        return dataList;
+    }
+}
@@ -77,6 +77,7 @@ import com.apollocurrency.aplwallet.apl.core.shard.ShardDbExplorerImpl;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaper;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaperImpl;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.ValueParser;
+import com.apollocurrency.aplwallet.apl.core.signature.VerifiedSignatureCache;
 import com.apollocurrency.aplwallet.apl.core.transaction.FeeCalculator;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionApplier;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionJsonSerializerImpl;
@@ -212,6 +213,7 @@ class CsvImporterTest extends DbContainerBaseTest {
         .addBeans(MockBean.of(unconfirmedTransactionProcessingService, UnconfirmedTransactionProcessingService.class))
         .addBeans(MockBean.of(memPool, MemPool.class))
         .addBeans(MockBean.of(mock(FullTextSearchUpdater.class), FullTextSearchUpdater.class, FullTextSearchUpdaterImpl.class))
+        .addBeans(MockBean.of(mock(VerifiedSignatureCache.class), VerifiedSignatureCache.class))
         .build();
 
     private HeightConfig config = Mockito.mock(HeightConfig.class);
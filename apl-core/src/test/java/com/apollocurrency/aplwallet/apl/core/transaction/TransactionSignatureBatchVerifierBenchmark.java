@@ -0,0 +1,169 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.transaction;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.model.EcBlockData;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionBuilderFactory;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.TransactionSignerImpl;
+import com.apollocurrency.aplwallet.apl.core.service.state.PhasingPollService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountPublicKeyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.signature.VerifiedSignatureCache;
+import com.apollocurrency.aplwallet.apl.core.transaction.common.TxBContext;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixValidatorRegistry;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.OrdinaryPaymentAttachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
+import com.apollocurrency.aplwallet.apl.core.transaction.types.payment.OrdinaryPaymentTransactionType;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
+import com.apollocurrency.aplwallet.apl.util.io.PayloadResult;
+import com.apollocurrency.aplwallet.apl.util.io.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares serial signature verification of the full block (255 transactions) with the parallel verification
+ * performed by the {@link TransactionSignatureBatchVerifier}. The 'receive' benchmarks measure the whole peer block
+ * path: parsing of the transactions with the serial parse-time signature check, which was done by the block parsers
+ * before, against parsing without the check followed by the batch verification before the block push.
+ * <p>
+ * Run using the {@link #main(String[])} method or from the IDE with the JMH plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TransactionSignatureBatchVerifierBenchmark {
+    private static final int BLOCK_TX_COUNT = 255;
+
+    private TransactionValidator validator;
+    private TransactionSignatureBatchVerifier batchVerifier;
+    private TransactionBuilderFactory builderFactory;
+    private final List<byte[]> signedTxsBytes = new ArrayList<>();
+    private List<Transaction> transactions;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(TransactionSignatureBatchVerifierBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Chain chain = mock(Chain.class);
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        doReturn(chain).when(blockchainConfig).getChain();
+        AccountService accountService = mock(AccountService.class);
+        AccountPublicKeyService accountPublicKeyService = mock(AccountPublicKeyService.class);
+        doReturn(true).when(accountPublicKeyService).setOrVerifyPublicKey(anyLong(), any(byte[].class));
+
+        validator = new TransactionValidator(blockchainConfig, mock(PhasingPollService.class), mock(Blockchain.class),
+            mock(FeeCalculator.class), accountService, accountPublicKeyService, mock(AccountControlPhasingService.class),
+            mock(TransactionVersionValidator.class), mock(PrunableLoadingService.class), mock(AppendixValidatorRegistry.class),
+            mock(VerifiedSignatureCache.class));
+        batchVerifier = new TransactionSignatureBatchVerifier(validator, Runtime.getRuntime().availableProcessors());
+
+        OrdinaryPaymentTransactionType paymentType = new OrdinaryPaymentTransactionType(blockchainConfig, accountService);
+        builderFactory = new TransactionBuilderFactory(new CachedTransactionTypeFactory(List.of(paymentType)), blockchainConfig);
+        TransactionSignerImpl signer = new TransactionSignerImpl(blockchainConfig);
+        TxBContext txBContext = TxBContext.newInstance(chain);
+        for (int i = 0; i < BLOCK_TX_COUNT; i++) {
+            byte[] keySeed = Crypto.getKeySeed("benchmark_secret_" + i);
+            Transaction tx = builderFactory.newUnsignedTransactionBuilder(1, Crypto.getPublicKey(keySeed), 100_000_000L,
+                100_000_000L, (short) 1440, new OrdinaryPaymentAttachment(), 100_000 + i)
+                .recipientId(i + 1)
+                .ecBlockData(new EcBlockData(0L, 0))
+                .build();
+            signer.sign(tx, keySeed);
+            Result signedTxBytes = PayloadResult.createLittleEndianByteArrayResult();
+            txBContext.createSerializer(tx.getVersion()).serialize(tx, signedTxBytes);
+            signedTxsBytes.add(signedTxBytes.array());
+        }
+    }
+
+    /**
+     * Signature verification result is memoized inside the transaction, so that fresh instances are required
+     * for each invocation
+     */
+    @Setup(Level.Invocation)
+    public void parseTransactions() throws Exception {
+        transactions = new ArrayList<>(BLOCK_TX_COUNT);
+        for (byte[] bytes : signedTxsBytes) {
+            transactions.add(builderFactory.newTransaction(bytes));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batchVerifier.shutdown();
+    }
+
+    @Benchmark
+    public void serialVerification(Blackhole blackhole) {
+        for (Transaction transaction : transactions) {
+            blackhole.consume(validator.checkSignature(transaction));
+        }
+    }
+
+    @Benchmark
+    public void receiveWithParseTimeVerification(Blackhole blackhole) throws Exception {
+        for (byte[] bytes : signedTxsBytes) {
+            Transaction transaction = builderFactory.newTransaction(bytes);
+            blackhole.consume(validator.checkSignature(null, transaction));
+            blackhole.consume(transaction);
+        }
+    }
+
+    @Benchmark
+    public void receiveWithBatchVerification(Blackhole blackhole) throws Exception {
+        List<Transaction> received = new ArrayList<>(BLOCK_TX_COUNT);
+        for (byte[] bytes : signedTxsBytes) {
+            received.add(builderFactory.newTransaction(bytes));
+        }
+        batchVerifier.verify(received);
+        for (Transaction transaction : received) {
+            blackhole.consume(validator.checkSignature(transaction));
+        }
+    }
+
+    @Benchmark
+    public void parallelVerification(Blackhole blackhole) {
+        batchVerifier.verify(transactions);
+        for (Transaction transaction : transactions) {
+            blackhole.consume(validator.checkSignature(transaction));
+        }
+    }
+}
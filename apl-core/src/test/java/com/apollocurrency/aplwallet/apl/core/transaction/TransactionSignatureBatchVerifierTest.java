@@ -0,0 +1,81 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.transaction;
+
+import com.apollocurrency.aplwallet.apl.core.model.Block;
+import com.apollocurrency.aplwallet.apl.core.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSignatureBatchVerifierTest {
+    @Mock
+    TransactionValidator validator;
+
+    TransactionSignatureBatchVerifier batchVerifier;
+
+    @BeforeEach
+    void setUp() {
+        batchVerifier = new TransactionSignatureBatchVerifier(validator, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchVerifier.shutdown();
+    }
+
+    @Test
+    void verify_skipAlreadyVerified() {
+        Transaction verifiedTx = mock(Transaction.class);
+        doReturn(true).when(verifiedTx).hasValidSignature();
+        Transaction notVerifiedTx = mock(Transaction.class);
+
+        batchVerifier.verify(List.of(verifiedTx, notVerifiedTx));
+
+        verify(validator, never()).checkSignature(verifiedTx);
+        verify(validator).checkSignature(notVerifiedTx);
+    }
+
+    @Test
+    void verifyBlocks_inParallel() {
+        List<Transaction> txs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            txs.add(mock(Transaction.class));
+        }
+        Block block1 = mock(Block.class);
+        doReturn(txs.subList(0, 50)).when(block1).getTransactions();
+        Block block2 = mock(Block.class);
+        doReturn(txs.subList(50, 100)).when(block2).getTransactions();
+
+        batchVerifier.verifyBlocks(List.of(block1, block2));
+
+        txs.forEach(tx -> verify(validator).checkSignature(tx));
+    }
+
+    @Test
+    void verify_verificationErrorIsNotPropagated() {
+        Transaction failedTx = mock(Transaction.class);
+        doThrow(new IllegalStateException("Test error")).when(validator).checkSignature(failedTx);
+        doReturn("1").when(failedTx).getStringId();
+        Transaction tx = mock(Transaction.class);
+
+        batchVerifier.verify(List.of(failedTx, tx));
+
+        verify(validator).checkSignature(tx);
+    }
+}
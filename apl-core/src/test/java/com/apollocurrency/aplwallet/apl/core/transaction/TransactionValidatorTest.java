@@ -26,8 +26,10 @@ import com.apollocurrency.aplwallet.apl.core.service.state.PhasingPollService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountPublicKeyService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.signature.Credential;
 import com.apollocurrency.aplwallet.apl.core.signature.Signature;
 import com.apollocurrency.aplwallet.apl.core.signature.SignatureToolFactory;
+import com.apollocurrency.aplwallet.apl.core.signature.VerifiedSignatureCache;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AbstractAttachment;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.Appendix;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixValidator;
@@ -66,6 +68,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -99,6 +102,8 @@ class TransactionValidatorTest {
     TransactionVersionValidator transactionVersionValidator;
     @Mock
     AppendixValidatorRegistry validatorRegistry;
+    @Mock
+    VerifiedSignatureCache verifiedSignatureCache;
     AccountService accountService;
 
 
@@ -131,7 +136,7 @@ class TransactionValidatorTest {
         accountService = td.getAccountService();
         blockchainConfig = td.getBlockchainConfig();
         doReturn(chain).when(blockchainConfig).getChain();
-        validator = new TransactionValidator(blockchainConfig, phasingPollService, blockchain, feeCalculator, accountService, accountPublicKeyService, accountControlPhasingService, transactionVersionValidator, prunableService, validatorRegistry);
+        validator = new TransactionValidator(blockchainConfig, phasingPollService, blockchain, feeCalculator, accountService, accountPublicKeyService, accountControlPhasingService, transactionVersionValidator, prunableService, validatorRegistry, verifiedSignatureCache);
     }
 
     @Test
@@ -686,6 +691,20 @@ class TransactionValidatorTest {
         boolean checked = validator.checkSignature(tx);
 
         assertTrue(checked, "TX_13 should pass signature verification, even when there is no account saved");
+        verify(verifiedSignatureCache).putVerified(eq(tx.getFullHash()), any(Credential.class));
+    }
+
+    @Test
+    void checkSignature_alreadyVerifiedAndCached() {
+        Transaction tx = td.TRANSACTION_13;
+        when(accountPublicKeyService.setOrVerifyPublicKey(tx.getSenderId(), tx.getSenderPublicKey())).thenReturn(true);
+        when(verifiedSignatureCache.isVerified(eq(tx.getFullHash()), any(Credential.class))).thenReturn(true);
+
+        boolean checked = validator.checkSignature(tx);
+
+        assertTrue(checked, "TX_13 should pass signature verification, when its signature is cached as verified");
+        assertFalse(tx.getSignature().isVerified(), "TX_13 signature should not be verified again, when it is cached");
+        verify(verifiedSignatureCache, never()).putVerified(any(byte[].class), any(Credential.class));
     }
 
     @Test
@@ -154,7 +154,7 @@ public class DbExtension implements BeforeEachCallback, /*AfterEachCallback,*/ A
     private void createFtl() {
         try {
             this.indexDir = Files.createTempDirectory("indexDir");
-            this.luceneFullTextSearchEngine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, null);
+            this.luceneFullTextSearchEngine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, null, new PropertiesHolder());
             Map<String, String> tableColumnsMap = new HashMap<>(5);
             Iterator<String> iterator = tableWithColumns.keySet().iterator();
             while (iterator.hasNext()) {
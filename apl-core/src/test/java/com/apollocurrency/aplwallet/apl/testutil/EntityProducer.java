@@ -12,6 +12,7 @@ import com.apollocurrency.aplwallet.apl.core.peer.BlockchainState;
 import com.apollocurrency.aplwallet.apl.core.peer.Hallmark;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer2PeerTransport;
+import com.apollocurrency.aplwallet.apl.core.peer.PeerLatencyStats;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerTrustLevel;
@@ -32,6 +33,8 @@ public class EntityProducer {
         final PeerState state = active ? PeerState.CONNECTED : PeerState.NON_CONNECTED;
 
         Peer peer = new Peer() {
+            private final PeerLatencyStats latencyStats = new PeerLatencyStats();
+
             @Override
             public int compareTo(Peer o) {
                 return 0;
@@ -262,6 +265,11 @@ public class EntityProducer {
                 return null;
             }
 
+            @Override
+            public PeerLatencyStats getLatencyStats() {
+                return latencyStats;
+            }
+
             @Override
             public boolean processError(JSONObject request) {
                 return false;
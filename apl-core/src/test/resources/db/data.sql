@@ -1,5 +1,7 @@
 TRUNCATE TABLE update_status;
 TRUNCATE TABLE `trim`;
+TRUNCATE TABLE `trim_progress`;
+TRUNCATE TABLE `shard_deferred_index`;
 TRUNCATE TABLE transaction;
 TRUNCATE TABLE block;
 TRUNCATE TABLE two_factor_auth;
@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2022. Apollo Foundation.
+ */
+-- Secondary indexes dropped for the shard csv import and not created yet,
+-- allows to restore the indexes lost by the interrupted import
+CREATE TABLE IF NOT EXISTS `shard_deferred_index`
+(
+    `table_name` varchar(100)  NOT NULL,
+    `index_name` varchar(100)  NOT NULL,
+    `columns`    varchar(1000) NOT NULL,
+    primary key (`table_name`, `index_name`)
+) ;
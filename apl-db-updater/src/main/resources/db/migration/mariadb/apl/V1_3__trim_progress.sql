@@ -0,0 +1,10 @@
+/*
+ * Copyright (c) 2022. Apollo Foundation.
+ */
+-- Height of the latest completed trim of each derived table,
+-- allows to resume the interrupted trim from the not yet trimmed tables
+CREATE TABLE IF NOT EXISTS `trim_progress`
+(
+    `table_name` varchar(100) NOT NULL primary key,
+    `height`     int(11)      NOT NULL
+) ;
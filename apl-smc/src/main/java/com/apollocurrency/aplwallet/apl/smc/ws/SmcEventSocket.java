@@ -16,15 +16,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.StatusCode;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author andrew.zinchenko@gmail.com
  */
 @Slf4j
 public class SmcEventSocket extends WebSocketAdapter {
+    /**
+     * Max number of the event messages queued to the remote side, other events are dropped.
+     */
+    static final int MAX_PENDING_EVENTS = 256;
+    /**
+     * Max number of the events dropped since the last successful sending, the slow consumer socket is closed after that.
+     */
+    static final int MAX_DROPPED_EVENTS = 1024;
     private static final String INVALID_REQUEST_FORMAT_RESPONSE;
 
     private static final JsonMapper MAPPER;
@@ -36,6 +46,21 @@ public class SmcEventSocket extends WebSocketAdapter {
 
     private final Address contract;
     private final SmcEventSocketListener listener;
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicInteger droppedEvents = new AtomicInteger();
+    private final WriteCallback eventWriteCallback = new WriteCallback() {
+        @Override
+        public void writeFailed(Throwable x) {
+            pendingEvents.decrementAndGet();
+            log.debug("Event sending failed, socket={}: {}", SmcEventSocket.this, x.getMessage());
+        }
+
+        @Override
+        public void writeSuccess() {
+            pendingEvents.decrementAndGet();
+            droppedEvents.set(0);
+        }
+    };
 
     public SmcEventSocket(String address, SmcEventSocketListener listener) {
         this.contract = AplAddress.valueOf(Objects.requireNonNull(address, "contractAddress"));
@@ -107,7 +132,7 @@ public class SmcEventSocket extends WebSocketAdapter {
     }
 
     @SneakyThrows
-    protected static String serializeMessage(Object response) {
+    public static String serializeMessage(Object response) {
         return MAPPER.serializer().serializeAsString(response);
     }
 
@@ -115,6 +140,39 @@ public class SmcEventSocket extends WebSocketAdapter {
         sendWebSocketText(serializeMessage(response));
     }
 
+    /**
+     * Queue the event message to the remote side without waiting for the sending.
+     * The event is dropped when the remote side has too many pending events and the socket is closed
+     * when the remote side doesn't read the events for too long.
+     *
+     * @param subscriptionId  the subscription identifier
+     * @param serializedEvent the event message serialized without the subscription identifier, shared by the subscribers
+     * @return true if the event is queued to send, false if the event is dropped or the socket is closed
+     */
+    public boolean sendEvent(String subscriptionId, String serializedEvent) {
+        if (!isConnected()) {
+            return false;
+        }
+        if (pendingEvents.incrementAndGet() > MAX_PENDING_EVENTS) {
+            pendingEvents.decrementAndGet();
+            if (droppedEvents.incrementAndGet() == MAX_DROPPED_EVENTS) {
+                log.warn("Close the slow consumer socket, socket={}.", this);
+                getSession().close(StatusCode.POLICY_VIOLATION, "Slow consumer.");
+            }
+            return false;
+        }
+        var message = "{\"subscriptionId\":" + serializeMessage(subscriptionId) + "," + serializedEvent.substring(1);
+        try {
+            getRemote().sendString(message, eventWriteCallback);
+        } catch (RuntimeException e) {
+            // the socket is closed concurrently
+            pendingEvents.decrementAndGet();
+            log.debug("Event sending failed, socket={}: {}", this, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
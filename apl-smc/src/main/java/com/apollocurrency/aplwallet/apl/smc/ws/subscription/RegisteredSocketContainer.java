@@ -6,21 +6,30 @@ package com.apollocurrency.aplwallet.apl.smc.ws.subscription;
 
 import com.apollocurrency.aplwallet.apl.smc.ws.SmcEventSocket;
 import com.apollocurrency.smc.data.type.Address;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
+ * Thread-safe container of the registered sockets and their subscriptions.
+ * Subscriptions are also indexed by the contract address and the event signature,
+ * so that the fired event is matched without walking all sockets of the contract.
+ * Subscriptions of the socket and their index entries are changed in the {@code compute} of the socket entry,
+ * so the socket removal and the concurrent subscription changes of the same socket are serialized.
+ *
  * @author andrew.zinchenko@gmail.com
  */
 @Slf4j
 public class RegisteredSocketContainer {
     private final Map<Address, Map<SmcEventSocket, Map<String, SubscriptionSocket>>> registeredSockets;
+    private final Map<SubscriptionKey, Set<SubscriptionSocket>> subscriptions = new ConcurrentHashMap<>();
 
     static class SubscriptionSocket {
         @Getter
@@ -34,8 +43,19 @@ public class RegisteredSocketContainer {
         }
     }
 
+    @EqualsAndHashCode
+    private static class SubscriptionKey {
+        private final Address address;
+        private final String eventSignature;
+
+        SubscriptionKey(Address address, String eventSignature) {
+            this.address = address;
+            this.eventSignature = eventSignature;
+        }
+    }
+
     public RegisteredSocketContainer() {
-        this.registeredSockets = new HashMap<>();
+        this(new ConcurrentHashMap<>());
     }
 
     RegisteredSocketContainer(Map<Address, Map<SmcEventSocket, Map<String, SubscriptionSocket>>> registeredSockets) {
@@ -47,22 +67,26 @@ public class RegisteredSocketContainer {
     }
 
     public boolean register(Address address, SmcEventSocket socket) {
-        var m = registeredSockets.computeIfAbsent(address, key -> new HashMap<>());
-        if (m.containsKey(socket)) {
+        var m = registeredSockets.computeIfAbsent(address, key -> new ConcurrentHashMap<>());
+        if (m.putIfAbsent(socket, new ConcurrentHashMap<>()) != null) {
             log.debug("Socket already registered, socket={}.", socket);
             return false;
         } else {
-            m.put(socket, new HashMap<>());
             log.debug("Register new socket, socket={}.", socket);
             return true;
         }
     }
 
     public boolean remove(Address address, SmcEventSocket socket) {
-        if (registeredSockets.containsKey(address)) {
-            var m = registeredSockets.get(address);
-            if (m.containsKey(socket)) {
-                m.remove(socket);
+        var m = registeredSockets.get(address);
+        if (m != null) {
+            var removed = new AtomicBoolean();
+            m.computeIfPresent(socket, (key, e) -> {
+                e.forEach((eventSignature, subscriptionSocket) -> unindex(address, eventSignature, subscriptionSocket));
+                removed.set(true);
+                return null;
+            });
+            if (removed.get()) {
                 log.debug("Remove socket, socket={}.", socket);
                 return true;
             }
@@ -72,45 +96,80 @@ public class RegisteredSocketContainer {
     }
 
     public boolean isRegistered(Address address, SmcEventSocket socket) {
-        if (registeredSockets.containsKey(address)) {
-            var m = registeredSockets.get(address);
-            return m.containsKey(socket);
-        } else {
-            return false;
-        }
+        var m = registeredSockets.get(address);
+        return m != null && m.containsKey(socket);
     }
 
+    /**
+     * Returns the subscriptions of the socket, the socket is not registered by this call.
+     *
+     * @param address the contract address
+     * @param socket  the socket
+     * @return the subscriptions by the event signature, empty map when the socket is not registered
+     */
     public Map<String, SubscriptionSocket> getEntry(Address address, SmcEventSocket socket) {
-        var m = registeredSockets.computeIfAbsent(address, key -> new HashMap<>());
-        m.computeIfAbsent(socket, key -> new HashMap<>());
-        return m.get(socket);
+        var m = registeredSockets.get(address);
+        var e = m != null ? m.get(socket) : null;
+        return e != null ? Collections.unmodifiableMap(e) : Collections.emptyMap();
     }
 
+    /**
+     * Returns the subscriptions on the event of the contract.
+     *
+     * @param address        the contract address
+     * @param eventSignature the event signature
+     * @return the live view of the subscriptions, which is safe to iterate concurrently with the subscriptions changes
+     */
     public Collection<SubscriptionSocket> getSubscriptionSockets(Address address, String eventSignature) {
-        var m = registeredSockets.get(address);
-        if (m == null) {
+        var s = subscriptions.get(new SubscriptionKey(address, eventSignature));
+        if (s == null) {
             return Collections.emptyList();
         } else {
-            return m.values().stream().map(socketMap -> socketMap.get(eventSignature)).collect(Collectors.toList());
+            return Collections.unmodifiableSet(s);
         }
     }
 
     public boolean addSubscription(Address address, SmcEventSocket socket, Subscription subscription) {
-        var e = getEntry(address, socket);
-        if (e.containsKey(subscription.getSignature())) {
+        var m = registeredSockets.get(address);
+        if (m == null) {
+            log.debug("Socket is not registered, socket={}.", socket);
+            return false;
+        }
+        var added = new AtomicBoolean();
+        var registered = m.computeIfPresent(socket, (key, e) -> {
+            var subscriptionSocket = new SubscriptionSocket(socket, subscription);
+            if (e.putIfAbsent(subscription.getSignature(), subscriptionSocket) == null) {
+                index(address, subscription.getSignature(), subscriptionSocket);
+                added.set(true);
+            }
+            return e;
+        }) != null;
+        if (!registered) {
+            log.debug("Socket is not registered, socket={}.", socket);
+            return false;
+        } else if (!added.get()) {
             log.debug("Subscription already registered, subscription={}.", subscription);
             return false;
         } else {
-            e.put(subscription.getSignature(), new SubscriptionSocket(socket, subscription));
             log.debug("Register new subscription, subscription={}.", subscription);
             return true;
         }
     }
 
     public boolean removeSubscription(Address address, SmcEventSocket socket, String eventSignature) {
-        var e = getEntry(address, socket);
-        if (e.containsKey(eventSignature)) {
-            e.remove(eventSignature);
+        var m = registeredSockets.get(address);
+        var removed = new AtomicBoolean();
+        if (m != null) {
+            m.computeIfPresent(socket, (key, e) -> {
+                var subscriptionSocket = e.remove(eventSignature);
+                if (subscriptionSocket != null) {
+                    unindex(address, eventSignature, subscriptionSocket);
+                    removed.set(true);
+                }
+                return e;
+            });
+        }
+        if (removed.get()) {
             log.debug("Remove subscription on signature, signature={}.", eventSignature);
             return true;
         } else {
@@ -118,4 +177,19 @@ public class RegisteredSocketContainer {
             return false;
         }
     }
+
+    private void index(Address address, String eventSignature, SubscriptionSocket subscriptionSocket) {
+        subscriptions.compute(new SubscriptionKey(address, eventSignature), (key, s) -> {
+            var set = s != null ? s : ConcurrentHashMap.<SubscriptionSocket>newKeySet();
+            set.add(subscriptionSocket);
+            return set;
+        });
+    }
+
+    private void unindex(Address address, String eventSignature, SubscriptionSocket subscriptionSocket) {
+        subscriptions.computeIfPresent(new SubscriptionKey(address, eventSignature), (key, s) -> {
+            s.remove(subscriptionSocket);
+            return s.isEmpty() ? null : s;
+        });
+    }
 }
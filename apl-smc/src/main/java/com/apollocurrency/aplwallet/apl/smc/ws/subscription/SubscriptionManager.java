@@ -22,7 +22,7 @@ import static com.apollocurrency.smc.util.HexUtils.toHex;
  */
 @Slf4j
 public class SubscriptionManager {
-    static final int MAX_SIZE = 200;
+    static final int MAX_SIZE = 50_000;
     private final RegisteredSocketContainer registeredSockets;
 
     private final Converter<SmcEventSubscriptionRequest, Subscription> converter;
@@ -98,6 +98,8 @@ public class SubscriptionManager {
 
     /**
      * Broadcast given event to all subscribers.
+     * The event is serialized once and queued to the subscribed sockets without waiting for the sending,
+     * a failure of one socket doesn't prevent the sending to the other ones.
      *
      * @param contractEvent the fired contract event
      */
@@ -109,17 +111,23 @@ public class SubscriptionManager {
         var sockets = registeredSockets.getSubscriptionSockets(contractEvent.getContract(), signature);
         if (!sockets.isEmpty()) {
             log.debug("found {} subscriptions", sockets.size());
-            var response = toMessage(contractEvent);
-            sockets.forEach(socket -> {
+            String message = null;
+            for (var socket : sockets) {
                 var subscription = socket.getSubscription();
-                log.debug("Check subscription={}", subscription);
                 if (checkSubscription(subscription, contractEvent, params)) {
-                    log.debug("is matched, send response to remote={}", socket.getSocket().getRemote());
-                    response.setSubscriptionId(subscription.getSubscriptionId());
-                    response.setParsedParams(params.getMap());
-                    socket.getSocket().sendWebSocket(response);
+                    if (message == null) {
+                        var response = toMessage(contractEvent);
+                        response.setParsedParams(params.getMap());
+                        message = SmcEventSocket.serializeMessage(response);
+                    }
+                    log.trace("Subscription={} is matched, send event", subscription);
+                    try {
+                        socket.getSocket().sendEvent(subscription.getSubscriptionId(), message);
+                    } catch (RuntimeException e) {
+                        log.warn("Unable to send event, subscription={}, socket={}: {}", subscription, socket.getSocket(), e.getMessage());
+                    }
                 }
-            });
+            }
         }
     }
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.smc.ws;
+
+import com.apollocurrency.aplwallet.apl.smc.model.AplAddress;
+import com.apollocurrency.aplwallet.apl.util.Convert2;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WebSocketException;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmcEventSocketTest {
+
+    static {
+        Convert2.init("APL", 1739068987193023818L);
+    }
+
+    static final String EVENT = "{\"name\":\"Transfer\"}";
+
+    Session session = mock(Session.class);
+    RemoteEndpoint remote = mock(RemoteEndpoint.class);
+    SmcEventSocket socket;
+
+    @BeforeEach
+    void setUp() {
+        when(session.isOpen()).thenReturn(true);
+        when(session.getRemote()).thenReturn(remote);
+        socket = new SmcEventSocket(new AplAddress(-1234567890L).getHex(), mock(SmcEventSocketListener.class));
+        socket.onWebSocketConnect(session);
+    }
+
+    @Test
+    void dropEventsWhenTooManyPending() {
+        //GIVEN
+        for (int i = 0; i < SmcEventSocket.MAX_PENDING_EVENTS; i++) {
+            assertTrue(socket.sendEvent("0x01", EVENT));
+        }
+        //WHEN
+        var rc = socket.sendEvent("0x01", EVENT);
+        //THEN
+        assertFalse(rc);
+        var callback = ArgumentCaptor.forClass(WriteCallback.class);
+        verify(remote, times(SmcEventSocket.MAX_PENDING_EVENTS)).sendString(anyString(), callback.capture());
+
+        //WHEN one pending event is sent
+        callback.getValue().writeSuccess();
+        //THEN
+        assertTrue(socket.sendEvent("0x01", EVENT));
+        verify(session, never()).close(anyInt(), anyString());
+    }
+
+    @Test
+    void closeSlowConsumer() {
+        //GIVEN
+        for (int i = 0; i < SmcEventSocket.MAX_PENDING_EVENTS; i++) {
+            socket.sendEvent("0x01", EVENT);
+        }
+        for (int i = 1; i < SmcEventSocket.MAX_DROPPED_EVENTS; i++) {
+            assertFalse(socket.sendEvent("0x01", EVENT));
+        }
+        verify(session, never()).close(anyInt(), anyString());
+        //WHEN
+        socket.sendEvent("0x01", EVENT);
+        //THEN
+        verify(session).close(StatusCode.POLICY_VIOLATION, "Slow consumer.");
+    }
+
+    @Test
+    void sendEventToConcurrentlyClosedSocket() {
+        //GIVEN
+        doThrow(new WebSocketException("Session closed")).when(remote).sendString(anyString(), any(WriteCallback.class));
+        //WHEN
+        for (int i = 0; i < SmcEventSocket.MAX_PENDING_EVENTS; i++) {
+            assertFalse(socket.sendEvent("0x01", EVENT));
+        }
+        //THEN failed events are not counted as pending
+        socket.sendEvent("0x01", EVENT);
+        verify(remote, times(SmcEventSocket.MAX_PENDING_EVENTS + 1)).sendString(anyString(), any(WriteCallback.class));
+    }
+}
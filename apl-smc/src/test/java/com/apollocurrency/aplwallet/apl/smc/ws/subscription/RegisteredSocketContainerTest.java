@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -142,15 +144,12 @@ class RegisteredSocketContainerTest {
         //GIVEN
         var subscription = mock(Subscription.class);
         when(subscription.getSignature()).thenReturn(signature);
-        var ssocket = new RegisteredSocketContainer.SubscriptionSocket(socket, subscription);
-        var m = registeredSockets.computeIfAbsent(address, key -> new HashMap<>());
-        Map<String, RegisteredSocketContainer.SubscriptionSocket> sm = new HashMap<>();
-        sm.put(signature, ssocket);
-        m.put(socket, sm);
+        container.register(address, socket);
+        container.addSubscription(address, socket, subscription);
         //WHEN
         rc = container.getSubscriptionSockets(address, signature);
         //THEN
-        assertTrue(rc.contains(ssocket));
+        assertEquals(1, rc.size());
         var ss = rc.iterator().next();
         assertEquals(subscription, ss.getSubscription());
         assertEquals(socket, ss.getSocket());
@@ -161,6 +160,7 @@ class RegisteredSocketContainerTest {
         //GIVEN
         var subscription = mock(Subscription.class);
         when(subscription.getSignature()).thenReturn(signature);
+        container.register(address, socket);
         //WHEN
         var rc = container.addSubscription(address, socket, subscription);
         //THEN
@@ -168,6 +168,68 @@ class RegisteredSocketContainerTest {
         var m = registeredSockets.get(address);
         var ss = m.get(socket).get(subscription.getSignature());
         assertEquals(subscription, ss.getSubscription());
+        //check already registered
+        //WHEN
+        rc = container.addSubscription(address, socket, subscription);
+        //THEN
+        assertFalse(rc);
+    }
+
+    @Test
+    void addSubscriptionToNotRegisteredSocket() {
+        //GIVEN empty container
+        var subscription = mock(Subscription.class);
+        when(subscription.getSignature()).thenReturn(signature);
+        //WHEN
+        var rc = container.addSubscription(address, socket, subscription);
+        //THEN
+        assertFalse(rc);
+        assertFalse(container.isRegistered(address, socket));
+        assertTrue(container.getSubscriptionSockets(address, signature).isEmpty());
+
+        //GIVEN removed socket
+        container.register(address, socket);
+        container.remove(address, socket);
+        //WHEN
+        rc = container.addSubscription(address, socket, subscription);
+        //THEN
+        assertFalse(rc);
+        assertFalse(container.isRegistered(address, socket));
+        assertEquals(0, container.size());
+    }
+
+    @Test
+    void removeSocketConcurrentlyWithAddSubscription() throws Exception {
+        //GIVEN
+        var concurrentContainer = new RegisteredSocketContainer();
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                var s = mock(SmcEventSocket.class);
+                var subscription = mock(Subscription.class);
+                when(subscription.getSignature()).thenReturn(signature);
+                concurrentContainer.register(address, s);
+                var start = new CountDownLatch(1);
+                //WHEN
+                var add = executor.submit(() -> {
+                    start.await();
+                    return concurrentContainer.addSubscription(address, s, subscription);
+                });
+                var remove = executor.submit(() -> {
+                    start.await();
+                    return concurrentContainer.remove(address, s);
+                });
+                start.countDown();
+                add.get();
+                assertTrue(remove.get());
+                //THEN the subscription of the removed socket is not left in the index
+                assertFalse(concurrentContainer.isRegistered(address, s));
+                assertTrue(concurrentContainer.getSubscriptionSockets(address, signature).isEmpty());
+            }
+            assertEquals(0, concurrentContainer.size());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     @Test
@@ -194,4 +256,28 @@ class RegisteredSocketContainerTest {
         rc = m.get(socket).containsKey(subscription.getSignature());
         assertFalse(rc);
     }
-}
\ No newline at end of file
+
+    @Test
+    void removeSocketWithSubscriptions() {
+        //GIVEN
+        var subscription = mock(Subscription.class);
+        when(subscription.getSignature()).thenReturn(signature);
+        var socket2 = mock(SmcEventSocket.class);
+        container.register(address, socket);
+        container.register(address, socket2);
+        container.addSubscription(address, socket, subscription);
+        container.addSubscription(address, socket2, subscription);
+        assertEquals(2, container.getSubscriptionSockets(address, signature).size());
+        //WHEN
+        var rc = container.remove(address, socket);
+        //THEN
+        assertTrue(rc);
+        var sockets = container.getSubscriptionSockets(address, signature);
+        assertEquals(1, sockets.size());
+        assertEquals(socket2, sockets.iterator().next().getSocket());
+        //WHEN
+        container.removeSubscription(address, socket2, signature);
+        //THEN
+        assertTrue(container.getSubscriptionSockets(address, signature).isEmpty());
+    }
+}
@@ -18,6 +18,7 @@ import com.apollocurrency.smc.util.HexUtils;
 import org.eclipse.jetty.websocket.api.WebSocketException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.HashMap;
 import java.util.List;
@@ -27,7 +28,9 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -178,7 +181,46 @@ class SubscriptionManagerTest {
         manager.fire(event, params);
         //THEN
         verify(container).getSubscriptionSockets(address, signature);
-        verify(socket).sendWebSocket(any());
+        var message = ArgumentCaptor.forClass(String.class);
+        verify(socket).sendEvent(eq(subscription.getSubscriptionId()), message.capture());
+        assertTrue(message.getValue().contains("\"signature\":\"" + signature + "\""));
+        assertFalse(message.getValue().contains("subscriptionId"));
         verifyNoInteractions(socket2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void fireToOtherSocketsWhenSendingFailed() {
+        //GIVEN
+        var socket2 = mock(SmcEventSocket.class);
+        var subscription2 = Subscription.builder()
+            .subscriptionId("0x02")
+            .signature(signature)
+            .filter(new TrueTerm())
+            .fromBlock(0)
+            .build();
+        when(container.getSubscriptionSockets(address, signature))
+            .thenReturn(List.of(
+                new RegisteredSocketContainer.SubscriptionSocket(socket, subscription)
+                , new RegisteredSocketContainer.SubscriptionSocket(socket2, subscription2)));
+        //the first socket is closed concurrently
+        doThrow(new WebSocketException("Session closed")).when(socket).sendEvent(eq(subscription.getSubscriptionId()), anyString());
+        var params = mock(EventArguments.class);
+        when(params.getMap()).thenReturn(new HashMap<>());
+        var event = SmcContractEvent.builder()
+            .eventType(ContractEventType.builder()
+                .spec("Transfer:from,to,amount")
+                .indexedFieldsCount(2)
+                .anonymous(false)
+                .build())
+            .signature(HexUtils.parseHex(signature))
+            .transaction(address)
+            .contract(address)
+            .txIdx(0)
+            .build();
+        //WHEN
+        manager.fire(event, params);
+        //THEN
+        verify(socket).sendEvent(eq(subscription.getSubscriptionId()), anyString());
+        verify(socket2).sendEvent(eq(subscription2.getSubscriptionId()), anyString());
+    }
+}
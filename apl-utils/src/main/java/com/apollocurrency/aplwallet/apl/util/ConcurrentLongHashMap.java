@@ -0,0 +1,321 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Concurrent hash map with primitive long keys. Entries are kept in open-addressing (linear probing) tables split
+ * into independently locked segments, so neither keys nor entries are boxed. Lookups do not block: they are done
+ * under an optimistic {@link StampedLock} read and retried under the read lock only when a concurrent write to the
+ * same segment was detected. Null values are not supported.
+ * @param <V> type of the mapped values
+ */
+public class ConcurrentLongHashMap<V> {
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongHashMap() {
+        this(DEFAULT_SEGMENTS * MIN_SEGMENT_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongHashMap(int expectedSize) {
+        this.segments = new Segment[DEFAULT_SEGMENTS];
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(DEFAULT_SEGMENTS);
+        int segmentCapacity = tableSizeFor((int) (Math.max(expectedSize, 0) / DEFAULT_SEGMENTS / LOAD_FACTOR));
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    public V get(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return previous value mapped to the key or null, when there was no mapping
+     */
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value is null");
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * @return existing value mapped to the key or null, when the given value was put
+     */
+    public V putIfAbsent(long key, V value) {
+        Objects.requireNonNull(value, "value is null");
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * @return removed value or null, when there was no mapping for the key
+     */
+    public V remove(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * @return number of mappings, computed in O(number of segments) without locking
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Iterate over a snapshot of each segment, the given action is called outside of the segment locks
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            segment.values().forEach(action);
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        forEachValue(values::add);
+        return values;
+    }
+
+    public List<Long> keys() {
+        List<Long> keys = new ArrayList<>(size());
+        for (Segment<V> segment : segments) {
+            segment.collectKeys(keys);
+        }
+        return keys;
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments[hash >>> segmentShift];
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = MIN_SEGMENT_CAPACITY;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    private static final class Segment<V> extends StampedLock {
+        private final int initialCapacity;
+        private Table table;
+        private volatile int size;
+
+        private Segment(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            this.table = new Table(initialCapacity);
+        }
+
+        private V get(long key, int hash) {
+            long stamp = tryOptimisticRead();
+            V value = find(table, key, hash);
+            if (!validate(stamp)) {
+                stamp = readLock();
+                try {
+                    value = find(table, key, hash);
+                } finally {
+                    unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        private V put(long key, int hash, V value, boolean onlyIfAbsent) {
+            long stamp = writeLock();
+            try {
+                Table t = table;
+                int mask = t.keys.length - 1;
+                int i = hash & mask;
+                while (t.values[i] != null) {
+                    if (t.keys[i] == key) {
+                        V previous = cast(t.values[i]);
+                        if (!onlyIfAbsent) {
+                            t.values[i] = value;
+                        }
+                        return previous;
+                    }
+                    i = (i + 1) & mask;
+                }
+                t.keys[i] = key;
+                t.values[i] = value;
+                size++;
+                if (size > t.keys.length * LOAD_FACTOR) {
+                    rehash(t);
+                }
+                return null;
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        private V remove(long key, int hash) {
+            long stamp = writeLock();
+            try {
+                Table t = table;
+                int mask = t.keys.length - 1;
+                int i = hash & mask;
+                while (t.values[i] != null) {
+                    if (t.keys[i] == key) {
+                        V removed = cast(t.values[i]);
+                        shiftBack(t, i);
+                        size--;
+                        return removed;
+                    }
+                    i = (i + 1) & mask;
+                }
+                return null;
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = writeLock();
+            try {
+                table = new Table(initialCapacity);
+                size = 0;
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        private List<V> values() {
+            long stamp = readLock();
+            try {
+                List<V> values = new ArrayList<>(size);
+                for (Object value : table.values) {
+                    if (value != null) {
+                        values.add(cast(value));
+                    }
+                }
+                return values;
+            } finally {
+                unlockRead(stamp);
+            }
+        }
+
+        private void collectKeys(List<Long> keys) {
+            long stamp = readLock();
+            try {
+                Table t = table;
+                for (int i = 0; i < t.keys.length; i++) {
+                    if (t.values[i] != null) {
+                        keys.add(t.keys[i]);
+                    }
+                }
+            } finally {
+                unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Backward shift deletion: move the following entries of the probe sequence into the freed slot, so that
+         * lookups never have to skip over tombstones
+         */
+        private void shiftBack(Table t, int freeSlot) {
+            int mask = t.keys.length - 1;
+            int free = freeSlot;
+            int i = free;
+            while (true) {
+                i = (i + 1) & mask;
+                if (t.values[i] == null) {
+                    break;
+                }
+                int home = hash(t.keys[i]) & mask;
+                boolean canMove = free <= i ? (home <= free || home > i) : (home <= free && home > i);
+                if (canMove) {
+                    t.keys[free] = t.keys[i];
+                    t.values[free] = t.values[i];
+                    free = i;
+                }
+            }
+            t.values[free] = null;
+        }
+
+        private void rehash(Table old) {
+            Table t = new Table(old.keys.length << 1);
+            int mask = t.keys.length - 1;
+            for (int j = 0; j < old.keys.length; j++) {
+                if (old.values[j] != null) {
+                    int i = hash(old.keys[j]) & mask;
+                    while (t.values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    t.keys[i] = old.keys[j];
+                    t.values[i] = old.values[j];
+                }
+            }
+            table = t;
+        }
+
+        private static <V> V find(Table t, long key, int hash) {
+            int mask = t.keys.length - 1;
+            int i = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = t.values[i];
+                if (value == null) {
+                    return null;
+                }
+                if (t.keys[i] == key) {
+                    return cast(value);
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+}
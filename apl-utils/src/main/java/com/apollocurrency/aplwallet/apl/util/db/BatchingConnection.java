@@ -0,0 +1,116 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns the single-row updates into JDBC batches. Statements prepared through the {@link #getConnection()} are
+ * cached by sql, their {@code executeUpdate()} only adds the current parameters to the batch and {@code close()}
+ * does nothing. Collected batches are executed by {@link #executeBatches()} in the order the statements were
+ * first prepared.
+ * <p>Should be used only with the code, which executes updates and does not depend on their results
+ * (update count, generated keys), e.g. the single MERGE statement of the derived table save.</p>
+ */
+public class BatchingConnection {
+    private final Connection con;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+    private final Connection proxy;
+
+    public BatchingConnection(Connection con) {
+        this.con = con;
+        this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, this::invokeConnection);
+    }
+
+    public Connection getConnection() {
+        return proxy;
+    }
+
+    /**
+     * Execute and close all the collected batches
+     * @return total number of the batched updates
+     * @throws SQLException if any db error occurred
+     */
+    public int executeBatches() throws SQLException {
+        int count = 0;
+        try {
+            for (PreparedStatement pstmt : statements.values()) {
+                count += pstmt.executeBatch().length;
+            }
+        } finally {
+            for (PreparedStatement pstmt : statements.values()) {
+                DbUtils.close(pstmt);
+            }
+            statements.clear();
+        }
+        return count;
+    }
+
+    private Object invokeConnection(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                if (args.length == 1) {
+                    String sql = (String) args[0];
+                    PreparedStatement pstmt = statements.get(sql);
+                    if (pstmt == null) {
+                        pstmt = con.prepareStatement(sql);
+                        statements.put(sql, pstmt);
+                    }
+                    return batchingStatement(pstmt);
+                }
+                throw new UnsupportedOperationException("Only plain prepared statements may be batched");
+            case "close":
+                return null;
+            default:
+                return invoke(con, method, args);
+        }
+    }
+
+    private PreparedStatement batchingStatement(PreparedStatement pstmt) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                boolean noArgs = args == null || args.length == 0;
+                switch (method.getName()) {
+                    case "executeUpdate":
+                        if (noArgs) {
+                            pstmt.addBatch();
+                            return 1;
+                        }
+                        break;
+                    case "execute":
+                        if (noArgs) {
+                            pstmt.addBatch();
+                            return false;
+                        }
+                        break;
+                    case "close":
+                        return null;
+                    case "executeQuery":
+                    case "getGeneratedKeys":
+                        throw new UnsupportedOperationException(method.getName() + " is not supported for batched statement");
+                    default:
+                        return invoke(pstmt, method, args);
+                }
+                throw new UnsupportedOperationException("Only prepared statement parameters may be batched");
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
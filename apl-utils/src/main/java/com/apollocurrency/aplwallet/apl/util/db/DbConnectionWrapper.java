@@ -1,7 +1,13 @@
 package com.apollocurrency.aplwallet.apl.util.db;
 
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -12,12 +18,87 @@ public class DbConnectionWrapper extends FilteredConnection {
     long txStart = 0;
     private ThreadLocal<DbConnectionWrapper> localConnection;
     private ThreadLocal<Set<TransactionCallback>> transactionCallback;
+    private ThreadLocal<Set<PendingWrites>> pendingWrites;
 
     public DbConnectionWrapper(Connection con, FilteredFactoryImpl factory, ThreadLocal<DbConnectionWrapper> localConnection,
-                               ThreadLocal<Set<TransactionCallback>> transactionCallback) {
+                               ThreadLocal<Set<TransactionCallback>> transactionCallback,
+                               ThreadLocal<Set<PendingWrites>> pendingWrites) {
         super(con, factory);
         this.localConnection = localConnection;
         this.transactionCallback = transactionCallback;
+        this.pendingWrites = pendingWrites;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        flushPendingWrites();
+        return super.createStatement();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        flushPendingWrites();
+        return super.createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        flushPendingWrites();
+        return super.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareCall(sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareCall(sql, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        flushPendingWrites(sql);
+        return super.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Override
@@ -38,6 +119,7 @@ public class DbConnectionWrapper extends FilteredConnection {
                 throw new IllegalStateException("Not in transaction");
             }
             try {
+                con.flushPendingWrites();
                 con.doCommit();
                 Set<TransactionCallback> callbacks = this.transactionCallback.get();
                 if (callbacks != null) {
@@ -71,6 +153,7 @@ public class DbConnectionWrapper extends FilteredConnection {
             } catch (SQLException e) {
                 throw new RuntimeException(e.toString(), e);
             } finally {
+                con.discardPendingWrites();
                 Set<TransactionCallback> callbacks = this.transactionCallback.get();
                 if (callbacks != null) {
                     callbacks.forEach(TransactionCallback::rollback);
@@ -84,6 +167,68 @@ public class DbConnectionWrapper extends FilteredConnection {
         super.rollback();
     }
 
+    /**
+     * Execute all the writes buffered during the transaction, used before the commit and before the statement,
+     * which sql is not known in advance.
+     * All the buffered writes are discarded, when any of them failed.
+     *
+     * @throws SQLException if any db error occurred
+     */
+    public void flushPendingWrites() throws SQLException {
+        Set<PendingWrites> writes = this.pendingWrites.get();
+        if (writes == null || writes.isEmpty()) {
+            return;
+        }
+        flush(writes, new ArrayList<>(writes));
+    }
+
+    /**
+     * Execute the writes buffered for the tables mentioned by the statement, so that the statement will see them.
+     * Writes of the other tables stay buffered.
+     * All the buffered writes are discarded, when any of them failed.
+     *
+     * @param sql statement to prepare
+     * @throws SQLException if any db error occurred
+     */
+    private void flushPendingWrites(String sql) throws SQLException {
+        Set<PendingWrites> writes = this.pendingWrites.get();
+        if (writes == null || writes.isEmpty()) {
+            return;
+        }
+        String lowerCaseSql = sql.toLowerCase(Locale.ROOT);
+        List<PendingWrites> affected = new ArrayList<>(writes.size());
+        for (PendingWrites write : writes) {
+            if (write.isAffectedBy(lowerCaseSql)) {
+                affected.add(write);
+            }
+        }
+        if (!affected.isEmpty()) {
+            flush(writes, affected);
+        }
+    }
+
+    private void flush(Set<PendingWrites> writes, List<PendingWrites> flushed) throws SQLException {
+        // flushed writes are deregistered first, so statements prepared by the flush do not flush them again
+        writes.removeAll(flushed);
+        try {
+            for (PendingWrites write : flushed) {
+                write.flush(this);
+            }
+        } catch (SQLException | RuntimeException e) {
+            flushed.forEach(PendingWrites::discard);
+            discardPendingWrites();
+            throw e;
+        }
+    }
+
+    public void discardPendingWrites() {
+        Set<PendingWrites> writes = this.pendingWrites.get();
+        if (writes != null) {
+            writes.forEach(PendingWrites::discard);
+            this.pendingWrites.set(null);
+        }
+    }
+
     @Override
     public void close() throws SQLException {
         if (this.localConnection.get() == null) {
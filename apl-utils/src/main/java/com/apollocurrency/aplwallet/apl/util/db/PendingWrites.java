@@ -0,0 +1,68 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Writes buffered in memory during the database transaction for the single table. They are flushed into
+ * the transaction connection before the statement, which touches the table, is prepared on it and before the commit,
+ * and are discarded on rollback.
+ * Used by write-behind derived tables, see {@link TransactionalDataSource#registerPendingWrites(PendingWrites)}
+ */
+public interface PendingWrites {
+
+    /**
+     * @return name of the table, which writes are buffered, or null, when the table is not known, so the writes are
+     * flushed before every statement
+     */
+    default String getTable() {
+        return null;
+    }
+
+    /**
+     * Whether the buffered writes should be flushed before the given statement is prepared
+     * @param sql lower case sql of the statement
+     * @return true, when the statement mentions the table or the table is not known
+     */
+    default boolean isAffectedBy(String sql) {
+        String table = getTable();
+        return table == null || mentionsTable(sql, table);
+    }
+
+    /**
+     * Execute all the buffered writes
+     * @param con transaction connection
+     * @throws SQLException if any db error occurred
+     */
+    void flush(Connection con) throws SQLException;
+
+    /**
+     * Forget all the buffered writes without executing them
+     */
+    void discard();
+
+    /**
+     * @param sql lower case sql
+     * @param table table name
+     * @return true, when the sql contains the table name as a whole identifier
+     */
+    static boolean mentionsTable(String sql, String table) {
+        String name = table.toLowerCase(Locale.ROOT);
+        for (int i = sql.indexOf(name); i >= 0; i = sql.indexOf(name, i + 1)) {
+            int end = i + name.length();
+            if ((i == 0 || !isIdentifierPart(sql.charAt(i - 1))) && (end == sql.length() || !isIdentifierPart(sql.charAt(end)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -28,6 +29,7 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
     private static final Logger log = getLogger(TransactionalDataSource.class);
     private final ThreadLocal<DbConnectionWrapper> localConnection = new ThreadLocal<>();
     private final ThreadLocal<Set<TransactionCallback>> transactionCallback = new ThreadLocal<>();
+    private final ThreadLocal<Set<PendingWrites>> pendingWrites = new ThreadLocal<>();
     private final FilteredFactoryImpl factory;
     private final long txThreshold;
     private final long txInterval;
@@ -94,7 +96,7 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
             return enableSqlLogs ? new ConnectionSpy(con) : con;
         }
         DbConnectionWrapper realConnection = new DbConnectionWrapper(super.getConnection(), factory,
-            localConnection, transactionCallback);
+            localConnection, transactionCallback, pendingWrites);
         return enableSqlLogs ? new ConnectionSpy(realConnection) : realConnection;
     }
 
@@ -131,7 +133,7 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
         try {
             Connection con = getPooledConnection();
             con.setAutoCommit(false);
-            DbConnectionWrapper wcon = new DbConnectionWrapper(con, this.factory, this.localConnection, this.transactionCallback);
+            DbConnectionWrapper wcon = new DbConnectionWrapper(con, this.factory, this.localConnection, this.transactionCallback, this.pendingWrites);
             wcon.setTxStart(System.currentTimeMillis());
             localConnection.set(wcon);
             return wcon;
@@ -158,6 +160,7 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
             throw new IllegalStateException("Not in transaction");
         }
         try {
+            con.flushPendingWrites();
             con.doCommit();
             cleanupTransactionCallback(TransactionCallback::commit);
         } catch (SQLException e) {
@@ -193,6 +196,7 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
             log.error("Rollback data error with close = '{}'", closeConnection, e);
             throw new RuntimeException(e.toString(), e);
         } finally {
+            con.discardPendingWrites();
             cleanupTransactionCallback(TransactionCallback::rollback);
             if (closeConnection) {
                 endTransaction();
@@ -256,6 +260,25 @@ public class TransactionalDataSource extends DataSourceWrapper implements Transa
         callbacks.add(callback);
     }
 
+    /**
+     * Buffer writes till the next statement, which touches their table, is prepared in the current transaction
+     * or till the commit, whichever comes first. Pending writes are discarded on rollback.
+     *
+     * @param writes buffered writes to flush later
+     * @throws IllegalStateException when not in transaction
+     */
+    public void registerPendingWrites(PendingWrites writes) {
+        if (localConnection.get() == null) {
+            throw new IllegalStateException("Not in transaction");
+        }
+        Set<PendingWrites> registered = pendingWrites.get();
+        if (registered == null) {
+            registered = new LinkedHashSet<>();
+            pendingWrites.set(registered);
+        }
+        registered.add(writes);
+    }
+
     /**
      * Return db identity value related to database type - main db, shard db.
      * main db examples : Optional.EMPTY
@@ -0,0 +1,105 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentLongHashMapTest {
+
+    @Test
+    void putGetRemove() {
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<>();
+
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-1L, "minus one"));
+        assertEquals("zero", map.put(0L, "new zero"));
+        assertEquals("new zero", map.putIfAbsent(0L, "ignored"));
+
+        assertEquals(2, map.size());
+        assertEquals("new zero", map.get(0L));
+        assertEquals("minus one", map.get(-1L));
+        assertTrue(map.containsKey(-1L));
+        assertFalse(map.containsKey(1L));
+
+        assertEquals("minus one", map.remove(-1L));
+        assertNull(map.remove(-1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void putNullValue() {
+        ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<>();
+
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000) * 31L - 70_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.keySet(), new HashSet<>(map.keys()));
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+        expected.forEach((k, v) -> assertEquals(v, map.get(k)));
+    }
+
+    @Test
+    void concurrentReadsDuringWrites() throws InterruptedException {
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>();
+        for (long i = 0; i < 1_000; i++) {
+            map.put(i, i);
+        }
+        Set<String> errors = new HashSet<>();
+        Thread writer = new Thread(() -> {
+            for (long i = 1_000; i < 50_000; i++) {
+                map.put(i, i);
+                if (i >= 1_500) {
+                    map.remove(i - 500);
+                }
+            }
+        });
+        Thread reader = new Thread(() -> {
+            for (int n = 0; n < 50; n++) {
+                for (long i = 0; i < 1_000; i++) {
+                    Long value = map.get(i);
+                    if (value == null || value != i) {
+                        synchronized (errors) {
+                            errors.add("Wrong value " + value + " for the key " + i);
+                        }
+                    }
+                }
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals(1_500, map.size());
+    }
+}
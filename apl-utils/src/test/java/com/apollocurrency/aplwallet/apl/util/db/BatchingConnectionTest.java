@@ -0,0 +1,75 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingConnectionTest {
+    @Mock
+    Connection con;
+    @Mock
+    PreparedStatement insertStatement;
+    @Mock
+    PreparedStatement updateStatement;
+
+    @Test
+    void executeUpdatesInBatches() throws SQLException {
+        when(con.prepareStatement("INSERT")).thenReturn(insertStatement);
+        when(con.prepareStatement("UPDATE")).thenReturn(updateStatement);
+        when(insertStatement.executeBatch()).thenReturn(new int[]{1, 1});
+        when(updateStatement.executeBatch()).thenReturn(new int[]{1});
+        BatchingConnection batchingConnection = new BatchingConnection(con);
+
+        save(batchingConnection.getConnection(), "INSERT", 1);
+        save(batchingConnection.getConnection(), "UPDATE", 2);
+        save(batchingConnection.getConnection(), "INSERT", 3);
+        int updated = batchingConnection.executeBatches();
+
+        assertEquals(3, updated);
+        verify(con).prepareStatement("INSERT");
+        verify(insertStatement, times(2)).addBatch();
+        verify(insertStatement, never()).executeUpdate();
+        InOrder order = inOrder(insertStatement, updateStatement);
+        order.verify(insertStatement).executeBatch();
+        order.verify(updateStatement).executeBatch();
+        verify(insertStatement).close();
+        verify(updateStatement).close();
+        verify(con, never()).close();
+    }
+
+    @Test
+    void rejectGeneratedKeys() {
+        BatchingConnection batchingConnection = new BatchingConnection(con);
+
+        assertThrows(UnsupportedOperationException.class,
+            () -> batchingConnection.getConnection().prepareStatement("INSERT", Statement.RETURN_GENERATED_KEYS));
+    }
+
+    private void save(Connection con, String sql, long value) throws SQLException {
+        try (Connection connection = con;
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, value);
+            assertEquals(1, pstmt.executeUpdate());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *  Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DbConnectionWrapperTest {
+    @Mock
+    Connection con;
+
+    private final ThreadLocal<DbConnectionWrapper> localConnection = new ThreadLocal<>();
+    private final ThreadLocal<Set<TransactionCallback>> transactionCallback = new ThreadLocal<>();
+    private final ThreadLocal<Set<PendingWrites>> pendingWrites = new ThreadLocal<>();
+    private DbConnectionWrapper wrapper;
+    private RecordingWrites accountWrites;
+    private RecordingWrites assetWrites;
+
+    @BeforeEach
+    void setUp() {
+        wrapper = new DbConnectionWrapper(con, new FilteredFactoryImpl(1000), localConnection, transactionCallback, pendingWrites);
+        localConnection.set(wrapper);
+        accountWrites = new RecordingWrites("account");
+        assetWrites = new RecordingWrites("account_asset");
+        pendingWrites.set(new LinkedHashSet<>(List.of(accountWrites, assetWrites)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        localConnection.remove();
+        pendingWrites.remove();
+    }
+
+    @Test
+    void flushOnlyWritesOfTouchedTable() throws SQLException {
+        wrapper.prepareStatement("SELECT * FROM account_asset WHERE account_id = ? AND latest = TRUE");
+
+        assertEquals(List.of(), accountWrites.events);
+        assertEquals(List.of("flush"), assetWrites.events);
+
+        wrapper.prepareStatement("SELECT * FROM account_asset WHERE account_id = ? AND latest = TRUE");
+        assertEquals(List.of("flush"), assetWrites.events);
+    }
+
+    @Test
+    void flushWritesOfUnknownTableBeforeEveryStatement() throws SQLException {
+        RecordingWrites unknownTableWrites = new RecordingWrites(null);
+        pendingWrites.get().add(unknownTableWrites);
+
+        wrapper.prepareStatement("SELECT * FROM account_asset WHERE account_id = ? AND latest = TRUE");
+
+        assertEquals(List.of("flush"), unknownTableWrites.events);
+        assertEquals(List.of(), accountWrites.events);
+    }
+
+    @Test
+    void flushAllOnCommit() throws SQLException {
+        wrapper.prepareStatement("SELECT * FROM `account` WHERE id = ?");
+        assertEquals(List.of("flush"), accountWrites.events);
+
+        wrapper.commit();
+
+        assertEquals(List.of("flush"), accountWrites.events);
+        assertEquals(List.of("flush"), assetWrites.events);
+        verify(con).commit();
+    }
+
+    @Test
+    void flushAllBeforeStatementWithUnknownSql() throws SQLException {
+        wrapper.createStatement();
+
+        assertEquals(List.of("flush"), accountWrites.events);
+        assertEquals(List.of("flush"), assetWrites.events);
+    }
+
+    @Test
+    void discardOnRollback() throws SQLException {
+        wrapper.rollback();
+
+        assertEquals(List.of("discard"), accountWrites.events);
+        assertEquals(List.of("discard"), assetWrites.events);
+        verify(con).rollback();
+    }
+
+    @Test
+    void discardAllWhenFlushFailed() {
+        assetWrites.fail = true;
+
+        assertThrows(SQLException.class, () -> wrapper.prepareStatement("DELETE FROM account_asset WHERE height > ?"));
+
+        assertEquals(List.of("discard"), accountWrites.events);
+        assertEquals(List.of("flush", "discard"), assetWrites.events);
+    }
+
+    @Test
+    void mentionsTable() {
+        assertTrue(PendingWrites.mentionsTable("select * from account where id = ?", "account"));
+        assertTrue(PendingWrites.mentionsTable("select * from account", "account"));
+        assertTrue(PendingWrites.mentionsTable("select a.* from asset a inner join account b on a.id = b.id", "account"));
+        assertFalse(PendingWrites.mentionsTable("select * from account_asset where account_id = ?", "account"));
+        assertFalse(PendingWrites.mentionsTable("select * from currency_account", "account"));
+    }
+
+    private static class RecordingWrites implements PendingWrites {
+        private final String table;
+        private final List<String> events = new ArrayList<>();
+        private boolean fail;
+
+        RecordingWrites(String table) {
+            this.table = table;
+        }
+
+        @Override
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public void flush(Connection con) throws SQLException {
+            events.add("flush");
+            if (fail) {
+                throw new SQLException("Test flush failure");
+            }
+        }
+
+        @Override
+        public void discard() {
+            events.add("discard");
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.vault;
+
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.vault.util.FbWalletUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the keystore files by the account, which replaces the keystore directory scan on every lookup.
+ * <p>
+ * The directory is listed once, file names are parsed in parallel. Files saved or deleted by the
+ * {@link VaultKeyStoreServiceImpl} are indexed immediately, files changed by other processes are indexed by the
+ * directory watcher thread. The whole directory is reindexed, when the watcher loses events.
+ * Modifications of the index are serialized to not lose the files added or removed during the reindex,
+ * lookups are lock-free.
+ */
+@Slf4j
+class KeyStoreIndex implements AutoCloseable {
+    private static final Comparator<KeyStoreFile> LATEST_VERSION_FIRST = Comparator.comparingInt(KeyStoreFile::getVersion).reversed();
+
+    private final Path keystoreDirPath;
+    /**
+     * Keystore files keyed by the upper case RS account, sorted by version descending; lists are not modified
+     */
+    private final Map<String, List<KeyStoreFile>> accountFiles = new ConcurrentHashMap<>();
+    private final Object modificationLock = new Object();
+    private WatchService watchService;
+
+    KeyStoreIndex(Path keystoreDirPath) {
+        this.keystoreDirPath = keystoreDirPath;
+        startWatching();
+        reindex();
+    }
+
+    /**
+     * @param rsAccount RS account in upper case
+     * @return keystore files of the account sorted by version descending, empty list when there are no such files
+     */
+    List<Path> getPaths(String rsAccount) {
+        return accountFiles.getOrDefault(rsAccount, Collections.emptyList()).stream()
+            .map(KeyStoreFile::getPath)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @param rsAccount RS account in upper case
+     * @return keystore file with the latest version or null, when there are no account files
+     */
+    Path getLatestPath(String rsAccount) {
+        List<KeyStoreFile> files = accountFiles.get(rsAccount);
+        return files == null || files.isEmpty() ? null : files.get(0).getPath();
+    }
+
+    void add(Path path) {
+        KeyStoreFile file = KeyStoreFile.parse(path);
+        if (file == null) {
+            return;
+        }
+        synchronized (modificationLock) {
+            accountFiles.compute(file.getAccount(), (account, files) -> {
+                List<KeyStoreFile> newFiles = files == null ? new ArrayList<>(1) : new ArrayList<>(files);
+                if (!newFiles.contains(file)) {
+                    newFiles.add(file);
+                    newFiles.sort(LATEST_VERSION_FIRST);
+                }
+                return Collections.unmodifiableList(newFiles);
+            });
+        }
+    }
+
+    void remove(Path path) {
+        KeyStoreFile file = KeyStoreFile.parse(path);
+        if (file == null) {
+            return;
+        }
+        synchronized (modificationLock) {
+            accountFiles.computeIfPresent(file.getAccount(), (account, files) -> {
+                List<KeyStoreFile> newFiles = new ArrayList<>(files);
+                newFiles.remove(file);
+                return newFiles.isEmpty() ? null : Collections.unmodifiableList(newFiles);
+            });
+        }
+    }
+
+    int size() {
+        return accountFiles.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Replace the index by the current directory content. Files are added and removed by the
+     * {@link VaultKeyStoreServiceImpl} after they are saved or deleted, so the concurrent modifications wait for the
+     * directory listing and are applied after it.
+     */
+    final void reindex() {
+        long startTime = System.currentTimeMillis();
+        synchronized (modificationLock) {
+            List<Path> paths;
+            try (Stream<Path> files = Files.list(keystoreDirPath)) {
+                paths = files.collect(Collectors.toList());
+            } catch (IOException e) {
+                log.error("Unable to index keystore directory " + keystoreDirPath, e);
+                return;
+            }
+            Map<String, List<KeyStoreFile>> newAccountFiles = paths.parallelStream()
+                .map(KeyStoreFile::parse)
+                .filter(file -> file != null)
+                .collect(Collectors.groupingByConcurrent(KeyStoreFile::getAccount, Collectors.collectingAndThen(Collectors.toList(), files -> {
+                    files.sort(LATEST_VERSION_FIRST);
+                    return Collections.unmodifiableList(files);
+                })));
+            accountFiles.keySet().retainAll(newAccountFiles.keySet());
+            accountFiles.putAll(newAccountFiles);
+            log.info("Indexed {} keystore files of {} accounts in {} ms", paths.size(), newAccountFiles.size(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = keystoreDirPath.getFileSystem().newWatchService();
+            keystoreDirPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Unable to watch keystore directory {}, files added by other processes will not be found: {}", keystoreDirPath, e.toString());
+            watchService = null;
+            return;
+        }
+        new NamedThreadFactory("KeyStoreDirWatcher", true).newThread(this::watch).start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        reindex();
+                    } else {
+                        Path path = keystoreDirPath.resolve((Path) event.context());
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                            add(path);
+                        } else {
+                            remove(path);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Keystore directory {} is no longer watched", keystoreDirPath);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Keystore directory watcher closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Unable to close keystore directory watcher", e);
+            }
+        }
+    }
+
+    private static class KeyStoreFile {
+        private final Path path;
+        private final String account;
+        private final int version;
+
+        private KeyStoreFile(Path path, String account, int version) {
+            this.path = path;
+            this.account = account;
+            this.version = version;
+        }
+
+        /**
+         * @return keystore file or null, when the file name does not contain the account
+         */
+        static KeyStoreFile parse(Path path) {
+            String account = FbWalletUtil.getAccount(path.getFileName().toString().toUpperCase());
+            if (account == null) {
+                return null;
+            }
+            Integer version = FbWalletUtil.getWalletFileVersion(path);
+            return new KeyStoreFile(path, account, version == null ? -1 : version);
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        String getAccount() {
+            return account;
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof KeyStoreFile && path.equals(((KeyStoreFile) o).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+}
@@ -22,6 +22,7 @@
  import io.firstbridge.cryptolib.container.FbWallet;
  import org.slf4j.Logger;
 
+ import javax.annotation.PreDestroy;
  import javax.inject.Inject;
  import javax.inject.Named;
  import javax.inject.Singleton;
@@ -33,12 +34,8 @@
  import java.time.OffsetDateTime;
  import java.time.ZoneOffset;
  import java.time.format.DateTimeFormatter;
- import java.util.ArrayList;
- import java.util.Comparator;
  import java.util.List;
  import java.util.Objects;
- import java.util.stream.Collectors;
- import java.util.stream.Stream;
 
  import static org.slf4j.LoggerFactory.getLogger;
 
@@ -50,6 +47,7 @@
      private static final String FORMAT = "v%d_%s---%s";
      private Path keystoreDirPath;
      private Integer version;
+     private final KeyStoreIndex keyStoreIndex;
 
      @Inject
      public VaultKeyStoreServiceImpl(@Named("keystoreDirPath") Path keystoreDir) {
@@ -69,6 +67,15 @@
                  throw new RuntimeException(e.toString(), e);
              }
          }
+         this.keyStoreIndex = new KeyStoreIndex(keystoreDirPath);
+     }
+
+     /**
+      * Stop watching the keystore directory
+      */
+     @PreDestroy
+     public void shutdown() {
+         keyStoreIndex.close();
      }
 
      private boolean isAvailable() {
@@ -113,42 +120,11 @@
 
 
      public Path findKeyStorePathWithLatestVersion(long accountId) {
-         try (Stream<Path> files = Files.list(keystoreDirPath)) {
-             Path path = files
-                 //Find files for this account.
-                 .filter(p -> Objects.equals(
-                     FbWalletUtil.getAccount(p.toString().toUpperCase()),
-                     Convert2.defaultRsAccount(accountId).toUpperCase())
-                 )
-                 //Sorted by versions.
-                 .sorted(
-                     Comparator.comparingInt(o -> FbWalletUtil.getWalletFileVersion(o.toString()))
-                         .reversed()
-                 )
-                 .findFirst()
-                 .orElse(null);
-
-             return path;
-         } catch (IOException e) {
-             LOG.debug("VaultKeyStore IO error while searching path to secret key of account " + accountId, e.getMessage());
-             return null;
-         }
+         return keyStoreIndex.getLatestPath(Convert2.defaultRsAccount(accountId).toUpperCase());
      }
 
      public List<Path> findKeyStorePaths(long accountId) {
-         try (Stream<Path> files = Files.list(keystoreDirPath)) {
-             List<Path> paths = files
-                 //Find files for this account.
-                 .filter(path -> Objects.equals(
-                     FbWalletUtil.getAccount(path.toString().toUpperCase()),
-                     Convert2.defaultRsAccount(accountId).toUpperCase())
-                 )
-                 .collect(Collectors.toList());
-             return paths;
-         } catch (IOException e) {
-             LOG.debug("VaultKeyStore IO error while searching path to secret key of account " + accountId, e.getMessage());
-             return new ArrayList<>();
-         }
+         return keyStoreIndex.getPaths(Convert2.defaultRsAccount(accountId).toUpperCase());
      }
 
      @Override
@@ -201,6 +177,7 @@
              }
 
              fbWallet.saveFile(path.toString(), key, salt);
+             keyStoreIndex.add(path);
          } catch (IOException e) {
              LOG.error(e.getMessage(), e);
              return KMSResponseStatus.WRITE_ERROR;
@@ -300,6 +277,7 @@
 
      public void deleteFile(Path path) throws IOException {
          Files.delete(path);
+         keyStoreIndex.remove(path);
      }
 
      private Path makeTargetPathForNewAccount(long accountId) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2018-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.vault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyStoreIndexTest {
+    private static final String ACCOUNT1 = "APL-299N-Y6F7-TZ8A-GYAB8";
+    private static final String ACCOUNT2 = "APL-Z6D2-YTAB-L6BV-AAEAY";
+
+    private Path tempDirectory;
+    private KeyStoreIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDirectory = Files.createTempDirectory("keystore-index-test");
+        Files.createFile(tempDirectory.resolve("---" + ACCOUNT1));
+        Files.createFile(tempDirectory.resolve("v1_2020-01-01_00-00-00---" + ACCOUNT1));
+        Files.createFile(tempDirectory.resolve(".local"));
+        index = new KeyStoreIndex(tempDirectory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+        try (Stream<Path> paths = Files.list(tempDirectory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(tempDirectory);
+    }
+
+    @Test
+    void indexExistingFiles() {
+        assertEquals(2, index.size());
+        assertEquals(tempDirectory.resolve("v1_2020-01-01_00-00-00---" + ACCOUNT1), index.getLatestPath(ACCOUNT1));
+        assertEquals(List.of(tempDirectory.resolve("v1_2020-01-01_00-00-00---" + ACCOUNT1), tempDirectory.resolve("---" + ACCOUNT1)),
+            index.getPaths(ACCOUNT1));
+        assertNull(index.getLatestPath(ACCOUNT2));
+        assertEquals(List.of(), index.getPaths(ACCOUNT2));
+    }
+
+    @Test
+    void addAndRemove() {
+        Path path = tempDirectory.resolve("v1_2021-01-01_00-00-00---" + ACCOUNT2.toLowerCase());
+
+        index.add(path);
+        index.add(path);
+        assertEquals(List.of(path), index.getPaths(ACCOUNT2));
+
+        index.remove(path);
+        index.remove(tempDirectory.resolve("---" + ACCOUNT1));
+        assertNull(index.getLatestPath(ACCOUNT2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void reindexAfterExternalChanges() throws IOException {
+        Path path = tempDirectory.resolve("v1_2021-01-01_00-00-00---" + ACCOUNT2);
+        Files.createFile(path);
+        Files.delete(tempDirectory.resolve("---" + ACCOUNT1));
+
+        index.reindex();
+
+        assertEquals(path, index.getLatestPath(ACCOUNT2));
+        assertEquals(1, index.getPaths(ACCOUNT1).size());
+    }
+
+    @Test
+    void keepFilesAddedDuringReindex() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Path path = tempDirectory.resolve("v1_2021-01-01_00-00-" + String.format("%02d", i) + "---" + ACCOUNT2);
+                Files.createFile(path);
+                Future<?> reindex = executor.submit(index::reindex);
+                index.add(path);
+                reindex.get();
+
+                assertTrue(index.getPaths(ACCOUNT2).contains(path));
+            }
+            assertEquals(50, index.getPaths(ACCOUNT2).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void watchExternalChanges() throws Exception {
+        Path path = tempDirectory.resolve("v1_2021-01-01_00-00-00---" + ACCOUNT2);
+        Files.createFile(path);
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (index.getLatestPath(ACCOUNT2) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(path, index.getLatestPath(ACCOUNT2));
+    }
+}
@@ -48,13 +48,14 @@ class VaultKeyStoreServiceImplTest {
     @BeforeEach
     void setUp() throws Exception {
         tempDirectory = Files.createTempDirectory("keystore-test");
-        keyStore = new VaultKeyStoreServiceImpl(tempDirectory);
         Files.write(tempDirectory.resolve("---" + ACCOUNT1), encryptedKeyJSON.getBytes());
+        keyStore = new VaultKeyStoreServiceImpl(tempDirectory);
         Convert2.init("APL", 1739068987193023818L);
     }
 
     @AfterEach
     void tearDown() throws Exception {
+        keyStore.shutdown();
         try (Stream<Path> pathStream = Files.list(tempDirectory)) {
             pathStream.forEach(tempFilePath -> {
                 try {